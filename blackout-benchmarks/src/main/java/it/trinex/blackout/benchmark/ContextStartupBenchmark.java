@@ -0,0 +1,96 @@
+package it.trinex.blackout.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of a servlet application with {@code blackout-core} alone against one that also
+ * has {@code blackout-jpa} on an in-memory H2 database.
+ *
+ * <p>Every measurement runs in a fresh JVM, so class loading is part of the result. Both variants
+ * share the benchmark classpath; the core variant excludes the JPA auto-configurations, which is
+ * what an application without {@code blackout-jpa} (and without Spring Data JPA) would run.
+ * {@code blackout-totp} is left out because its time provider needs an NTP server.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ContextStartupBenchmark {
+
+    private static final Map<String, Object> PROPERTIES = Map.of(
+            "server.port", "0",
+            "spring.main.banner-mode", "off",
+            "logging.level.root", "warn",
+            "spring.datasource.url", "jdbc:h2:mem:blackout",
+            "blackout.datasource.jpa-properties[hibernate.hbm2ddl.auto]", "create-drop",
+            // The auth-account table name needs quoting
+            "blackout.datasource.jpa-properties[hibernate.globally_quoted_identifiers]", "true",
+            "blackout.jwt.secret", "myverylongsecretthatshouldabsolutelybearandomgeneratedstring");
+
+    @Param({"core", "jpa"})
+    public String modules;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext startup() {
+        SpringApplication application = new SpringApplication("core".equals(modules) ? CoreApplication.class : JpaApplication.class);
+        application.setDefaultProperties(PROPERTIES);
+        context = application.run();
+        return context;
+    }
+
+    @TearDown(Level.Invocation)
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(excludeName = {
+            "it.trinex.blackout.autoconfig.BlackoutJpaAutoconfig",
+            "it.trinex.blackout.autoconfig.BlackoutDataSourceConfig",
+            "it.trinex.blackout.autoconfig.BlackoutLibraryDatasourceConfig",
+            "it.trinex.blackout.autoconfig.ParentApplicationDatasourceConfig",
+            "org.springframework.boot.jdbc.autoconfigure.DataSourceAutoConfiguration",
+            "org.springframework.boot.hibernate.autoconfigure.HibernateJpaAutoConfiguration",
+            "org.springframework.boot.data.jpa.autoconfigure.DataJpaRepositoriesAutoConfiguration"
+    })
+    public static class CoreApplication {
+
+        // blackout-core has no UserDetailsService of its own
+        @Bean
+        public UserDetailsService userDetailsService() {
+            return new InMemoryUserDetailsManager();
+        }
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    public static class JpaApplication {
+    }
+}
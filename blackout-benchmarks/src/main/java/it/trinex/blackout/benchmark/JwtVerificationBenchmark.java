@@ -0,0 +1,133 @@
+package it.trinex.blackout.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import it.trinex.blackout.service.CwtTokenCodec;
+import it.trinex.blackout.service.HmacJwtVerifier;
+import it.trinex.blackout.service.PasetoTokenCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token verification: {@link HmacJwtVerifier} against the jjwt parser it sits in front of,
+ * and the other issued formats ({@code v4.local}, {@code v4.public} and CWT), on tokens with the
+ * claims Blackout issues for a regular user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private HmacJwtVerifier verifier;
+    private JwtParser parser;
+    private String token;
+    private PasetoTokenCodec pasetoCodec;
+    private String pasetoLocalToken;
+    private String pasetoPublicToken;
+    private CwtTokenCodec cwtCodec;
+    private String cwtToken;
+
+    @Setup
+    public void setUp() throws GeneralSecurityException {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET);
+        verifier = new HmacJwtVerifier(SECRET);
+        parser = Jwts.parser().verifyWith(key).build();
+        token = Jwts.builder()
+                .subject("ada.lovelace@example.com")
+                .id(UUID.randomUUID().toString())
+                .claim("token_type", "ACCESS")
+                .claim("auth_id", 42L)
+                .claim("user_id", 1042L)
+                .claim("first_name", "Ada")
+                .claim("last_name", "Lovelace")
+                .claim("passkey_enabled", false)
+                .claim("passwordless_enabled", false)
+                .claim("roles", List.of("USER"))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(key)
+                .compact();
+
+        if (!verifier.verify(token).getSubject().equals(jjwt().getSubject())) {
+            throw new IllegalStateException("Fast path and jjwt disagree on the token");
+        }
+
+        // The same claims, as JwtService passes them to the other codecs
+        List<Object> claims = List.of(
+                "sub", "ada.lovelace@example.com",
+                "token_type", "ACCESS",
+                "auth_id", 42L,
+                "user_id", 1042L,
+                "roles", List.of("USER"),
+                "first_name", "Ada",
+                "last_name", "Lovelace",
+                "passkey_enabled", false,
+                "passwordless_enabled", false);
+        String jti = UUID.randomUUID().toString();
+        long issuedAt = System.currentTimeMillis() / 1000;
+        long expiration = issuedAt + TimeUnit.DAYS.toSeconds(1);
+
+        KeyPair ed25519 = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        pasetoCodec = new PasetoTokenCodec(PasetoTokenCodec.deriveLocalKey(SECRET), ed25519.getPrivate(), ed25519.getPublic());
+        pasetoLocalToken = pasetoCodec.encryptLocal(claims, jti, issuedAt, expiration);
+        pasetoPublicToken = pasetoCodec.signPublic(claims, jti, issuedAt, expiration);
+        cwtCodec = new CwtTokenCodec(SECRET);
+        cwtToken = cwtCodec.sign(claims, jti, issuedAt, expiration);
+
+        for (Claims verified : List.of(pasetoLocal(), pasetoPublic(), cwt())) {
+            if (!verified.getSubject().equals(jjwt().getSubject())) {
+                throw new IllegalStateException("A token format disagrees with jjwt on the token");
+            }
+        }
+    }
+
+    @Benchmark
+    public Claims fastPath() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public Claims jjwt() {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    @Benchmark
+    public Claims pasetoLocal() {
+        return pasetoCodec.verify(pasetoLocalToken);
+    }
+
+    @Benchmark
+    public Claims pasetoPublic() {
+        return pasetoCodec.verify(pasetoPublicToken);
+    }
+
+    @Benchmark
+    public Claims cwt() {
+        return cwtCodec.verify(cwtToken);
+    }
+}
@@ -0,0 +1,122 @@
+package it.trinex.blackout.benchmark;
+
+import it.trinex.blackout.properties.BlackoutProperties;
+import it.trinex.blackout.properties.FilterChainProperties;
+import it.trinex.blackout.properties.SignupProperties;
+import it.trinex.blackout.security.PathAuthorizationManager;
+import it.trinex.blackout.security.PathAuthorizationManager.Decision;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request authorization lookup: {@link PathAuthorizationManager}'s trie against the chain of
+ * per-pattern request matchers it replaced, evaluated in order until the first match.
+ *
+ * <p>{@code rules} is the number of configured blackout.filterchain patterns on top of the
+ * built-in public routes. {@code path} picks a request matching an early rule, a late rule,
+ * or none (the default, which walks the whole chain).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathMatchingBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int rules;
+
+    @Param({"early", "late", "none"})
+    public String path;
+
+    private PathAuthorizationManager trie;
+    private List<RequestMatcher> linearMatchers;
+    private List<Decision> linearDecisions;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        BlackoutProperties blackoutProperties = new BlackoutProperties();
+        SignupProperties signupProperties = new SignupProperties();
+        FilterChainProperties filterChainProperties = new FilterChainProperties();
+
+        List<String> denied = new ArrayList<>();
+        List<String> allowed = new ArrayList<>();
+        List<String> authenticated = new ArrayList<>();
+        for (int i = 0; i < rules; i++) {
+            switch (i % 3) {
+                case 0 -> denied.add("/internal/module" + i + "/**");
+                case 1 -> allowed.add("/public/module" + i + "/*.css");
+                default -> authenticated.add("/api/module" + i + "/items/{id}");
+            }
+        }
+        filterChainProperties.setDenied(denied);
+        filterChainProperties.setAllowed(allowed);
+        filterChainProperties.setAuthenticated(authenticated);
+
+        trie = new PathAuthorizationManager(blackoutProperties, filterChainProperties, signupProperties);
+
+        linearMatchers = new ArrayList<>();
+        linearDecisions = new ArrayList<>();
+        PathAuthorizationManager.publicPatterns(blackoutProperties, signupProperties).forEach(pattern -> addLinear(pattern, Decision.PERMIT));
+        denied.forEach(pattern -> addLinear(pattern, Decision.DENY));
+        allowed.forEach(pattern -> addLinear(pattern, Decision.PERMIT));
+        authenticated.forEach(pattern -> addLinear(pattern, Decision.AUTHENTICATE));
+
+        String uri = switch (path) {
+            case "early" -> "/auth/login";
+            case "late" -> "/api/module" + lastAuthenticated() + "/items/42";
+            default -> "/api/orders/42/lines";
+        };
+        request = new MockHttpServletRequest("GET", uri);
+
+        if (trie.decide(request) != linear()) {
+            throw new IllegalStateException("Trie and linear chain disagree on " + uri);
+        }
+    }
+
+    @Benchmark
+    public Decision trie() {
+        return trie.decide(request);
+    }
+
+    @Benchmark
+    public Decision linear() {
+        for (int i = 0; i < linearMatchers.size(); i++) {
+            if (linearMatchers.get(i).matches(request)) {
+                return linearDecisions.get(i);
+            }
+        }
+        return Decision.AUTHENTICATE;
+    }
+
+    private void addLinear(String pattern, Decision decision) {
+        linearMatchers.add(PathPatternRequestMatcher.withDefaults().matcher(pattern));
+        linearDecisions.add(decision);
+    }
+
+    private int lastAuthenticated() {
+        int last = rules - 1;
+        while (last % 3 != 2) {
+            last--;
+        }
+        return last;
+    }
+}
@@ -0,0 +1,52 @@
+package it.trinex.blackout.autoconfig;
+
+import it.trinex.blackout.properties.ThrottleProperties;
+import it.trinex.blackout.service.otp.InMemoryResetOtpStore;
+import it.trinex.blackout.service.otp.ResetOtpStore;
+import it.trinex.blackout.service.redis.BitchAssRedisService;
+import it.trinex.blackout.service.redis.RedisService;
+import it.trinex.blackout.service.refresh.InMemoryRefreshTokenStore;
+import it.trinex.blackout.service.refresh.RefreshTokenStore;
+import it.trinex.blackout.service.throttle.InMemoryThrottleStore;
+import it.trinex.blackout.service.throttle.ThrottleStore;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Fallback configuration that provides a no-op RedisService and in-memory
+ * ResetOtpStore, RefreshTokenStore and ThrottleStore when Redis is disabled.
+ * This bean is only created when blackout.redis.enabled=false or when the property is not set.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "blackout.redis", name = "enabled", havingValue = "false", matchIfMissing = true)
+@EnableConfigurationProperties(ThrottleProperties.class)
+public class BitchAssRedisConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(RedisService.class)
+    public RedisService redisService() {
+        return new BitchAssRedisService();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ResetOtpStore.class)
+    public ResetOtpStore resetOtpStore() {
+        return new InMemoryResetOtpStore();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(RefreshTokenStore.class)
+    public RefreshTokenStore refreshTokenStore() {
+        return new InMemoryRefreshTokenStore();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(ThrottleStore.class)
+    public ThrottleStore throttleStore(ThrottleProperties throttleProperties) {
+        return new InMemoryThrottleStore(throttleProperties.getStripes());
+    }
+
+}
@@ -0,0 +1,92 @@
+package it.trinex.blackout.autoconfig;
+
+import it.trinex.blackout.controller.*;
+import it.trinex.blackout.exception.BlackoutExceptionHandler;
+import it.trinex.blackout.properties.*;
+import it.trinex.blackout.security.BlackoutPrincipalFactory;
+import it.trinex.blackout.security.JwtAuthenticationFilter;
+import it.trinex.blackout.security.PublicPathMatcher;
+import it.trinex.blackout.security.RefreshCoalescer;
+import it.trinex.blackout.service.*;
+import it.trinex.blackout.service.redis.RedisService;
+import it.trinex.blackout.service.refresh.RefreshTokenStore;
+import it.trinex.blackout.service.throttle.LoginThrottle;
+import it.trinex.blackout.service.throttle.ThrottleStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Token issuing and the JWT filter. Accounts, login endpoints and the optional features are
+ * configured by their own modules (blackout-jpa, blackout-redis, blackout-mail, blackout-totp,
+ * blackout-passkey, blackout-openapi).
+ */
+@AutoConfiguration
+@EnableConfigurationProperties({CookieProperties.class, ThrottleProperties.class, BlackoutProperties.class, FilterChainProperties.class, SignupProperties.class, IntrospectionProperties.class})
+public class BlackoutAutoconfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.cookie", name = "enabled", havingValue = "true")
+    public CookieService cookieService(JwtProperties jwtProperties){
+        return new CookieService(jwtProperties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.introspection", name = "enabled", havingValue = "true")
+    public IntrospectionController introspectionController(JwtService jwtService, IntrospectionProperties introspectionProperties) {
+        return new IntrospectionController(jwtService, introspectionProperties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.jwt", name = "paseto-public-key")
+    public KeySetController keySetController(JwtProperties jwtProperties) {
+        return new KeySetController(jwtProperties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(LoginThrottle.class)
+    public LoginThrottle loginThrottle(ThrottleStore throttleStore, ThrottleProperties throttleProperties) {
+        return new LoginThrottle(throttleStore, throttleProperties);
+    }
+
+    @Bean
+    public BlackoutExceptionHandler blackoutExceptionHandler() {
+        return new BlackoutExceptionHandler();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(JwtAuthenticationFilter.class)
+    public JwtAuthenticationFilter jwtAuthFilter(
+            JwtService jwtService,
+            RefreshService refreshService,
+            ObjectProvider<CookieService> cookieService,
+            CookieProperties cookieProperties,
+            BlackoutProperties blackoutProperties,
+            FilterChainProperties filterChainProperties,
+            SignupProperties signupProperties) {
+        return new JwtAuthenticationFilter(
+                jwtService,
+                refreshService,
+                cookieService.getIfAvailable(),
+                cookieProperties.isAutoRefresh(),
+                new RefreshCoalescer(cookieProperties.getRefreshGracePeriod()),
+                cookieProperties.getReissueFraction(),
+                new PublicPathMatcher(blackoutProperties, filterChainProperties, signupProperties));
+    }
+
+    @Bean
+    public JwtService jwtService(JwtProperties jwtProperties, BlackoutPrincipalFactory blackoutPrincipalFactory, RedisService redisService, RefreshTokenStore refreshTokenStore, UserDetailsService userDetailsService) {
+        return new JwtService(jwtProperties, blackoutPrincipalFactory, redisService, refreshTokenStore, userDetailsService);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(RefreshService.class)
+    public RefreshService refreshService(JwtService jwtService, UserDetailsService userDetailsService, RedisService redisService) {
+        return new RefreshService(jwtService, userDetailsService, redisService);
+    }
+
+}
@@ -0,0 +1,26 @@
+package it.trinex.blackout.autoconfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.trinex.blackout.service.hashing.MicrometerPasswordHashingMetrics;
+import it.trinex.blackout.service.hashing.PasswordHashingMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Publishes password hashing metrics when Micrometer is on the classpath.
+ * Without a {@link MeterRegistry} bean the timings are discarded.
+ */
+@AutoConfiguration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class PasswordHashingMetricsConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(PasswordHashingMetrics.class)
+    public PasswordHashingMetrics passwordHashingMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry != null ? new MicrometerPasswordHashingMetrics(registry) : PasswordHashingMetrics.NOOP;
+    }
+}
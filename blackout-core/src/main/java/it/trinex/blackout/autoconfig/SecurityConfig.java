@@ -3,7 +3,11 @@ package it.trinex.blackout.autoconfig;
 import it.trinex.blackout.properties.*;
 import it.trinex.blackout.security.BlackoutMethodSecurityExpressionHandler;
 import it.trinex.blackout.security.JwtAuthenticationFilter;
+import it.trinex.blackout.security.PathAuthorizationManager;
 import it.trinex.blackout.service.JwtService;
+import it.trinex.blackout.service.hashing.BoundedPasswordEncoder;
+import it.trinex.blackout.service.hashing.PasswordHashingMetrics;
+import it.trinex.blackout.service.hashing.UpgradingPasswordEncoder;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.ObjectProvider;
@@ -25,8 +29,8 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.annotation.web.configurers.AuthorizeHttpRequestsConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HttpBasicConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -38,7 +42,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @EnableWebSecurity
 @EnableMethodSecurity
 @RequiredArgsConstructor
-@EnableConfigurationProperties({CorsProperties.class, JwtProperties.class, FilterChainProperties.class, SignupProperties.class, BlackoutProperties.class})
+@EnableConfigurationProperties({CorsProperties.class, JwtProperties.class, FilterChainProperties.class, SignupProperties.class, BlackoutProperties.class, PasswordHashingProperties.class})
 @ConditionalOnBean({JwtAuthenticationFilter.class, UserDetailsService.class})
 public class SecurityConfig {
 
@@ -51,13 +55,18 @@ public class SecurityConfig {
     private final ObjectProvider<Customizer<AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry>> authorizeHttpRequestsCustomizer;
     private final SignupProperties signupProperties;
     private final JwtService jwtService;
+    private final PasswordHashingProperties passwordHashingProperties;
+    private final ObjectProvider<PasswordHashingMetrics> passwordHashingMetrics;
+    private final ObjectProvider<UserDetailsPasswordService> userDetailsPasswordService;
 
     /**
      * Configures the security filter chain with JWT authentication.
+     * The provider and CORS source are injected: {@code @AutoConfiguration} does not proxy bean
+     * methods, so calling them would build unmanaged copies and ignore user-defined beans.
      */
     @Bean
     @ConditionalOnMissingBean(SecurityFilterChain.class)
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, AuthenticationProvider authenticationProvider, CorsConfigurationSource corsConfigurationSource) throws Exception {
         http
                 // Disable CSRF (not needed for JWT stateless authentication)
                 .csrf(AbstractHttpConfigurer::disable)
@@ -71,51 +80,22 @@ public class SecurityConfig {
                         )
                 )
 
-                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                .cors(cors -> cors.configurationSource(corsConfigurationSource))
 
                 // Configure authorization rules
                 .authorizeHttpRequests(auth -> {
                     authorizeHttpRequestsCustomizer.ifAvailable(c -> c.customize(auth));
-                    // Error page - must be accessible to all
-                    auth.requestMatchers("/error").permitAll();
-                    // Authentication endpoints - no authentication required
-                    auth.requestMatchers(blackoutProperties.getBaseUrl() + "/auth/**").permitAll();
-                    // Password reset endpoint - no authentication required
-                    auth.requestMatchers(blackoutProperties.getBaseUrl() + "/password-otp/**").permitAll();
-                    // Passkey authentication endpoint - no authentication required
-                    auth.requestMatchers(blackoutProperties.getBaseUrl() + "/passkey/**").permitAll();
-                    // Swagger/OpenAPI endpoints - no authentication required (dev only)
-                    auth.requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll();
-                    //2FA Recovery
-                    auth.requestMatchers(blackoutProperties.getBaseUrl() + "/2fa/disable-recovery").permitAll();
-
-                    if(signupProperties.isEnabled()){
-                        auth.requestMatchers(blackoutProperties.getBaseUrl() + "/signup").permitAll();
-                    }
-
-                    // Custom allowed endpoints from properties
-                    if (filterChainProperties.getAllowed() != null) {
-                        filterChainProperties.getAllowed().forEach(
-                            pattern -> auth.requestMatchers( pattern).permitAll()
-                        );
-                    }
-
-                    // All other API endpoints require authentication
-                    auth.requestMatchers( "/**").authenticated();
-
-                    // Custom authenticated endpoints from properties
-                    if (filterChainProperties.getAuthenticated() != null) {
-                        filterChainProperties.getAuthenticated().forEach(
-                            pattern -> auth.requestMatchers(pattern).authenticated()
-                        );
-                    }
+                    // Blackout endpoints (error page, auth, password reset, passkey, Swagger, 2FA recovery, signup)
+                    // and the blackout.filterchain rules, compiled into one path trie.
+                    // All other endpoints require authentication
+                    auth.anyRequest().access(new PathAuthorizationManager(blackoutProperties, filterChainProperties, signupProperties));
                 })
 
                 // Stateless session management (no server-side sessions)
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
                 // Set authentication provider
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
 
                 // Add JWT filter before Spring Security's authentication filter
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -125,25 +105,36 @@ public class SecurityConfig {
 
     /**
      * Authentication provider using DaoAuthenticationProvider.
-     * Loads users via CustomUserDetailsService and validates passwords with BCrypt.
+     * Loads users via CustomUserDetailsService and validates passwords with the configured encoder.
+     * Outdated hashes are re-encoded after a successful login when blackout.password-hashing.upgrade-on-login is true.
      */
     @Bean
     @ConditionalOnMissingBean(AuthenticationProvider.class)
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         // todo: fix deprecation
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        if (passwordHashingProperties.isUpgradeOnLogin()) {
+            userDetailsPasswordService.ifAvailable(authProvider::setUserDetailsPasswordService);
+        }
         return authProvider;
     }
 
     /**
-     * BCrypt password encoder for secure password hashing.
-     * Uses default strength (12 rounds).
+     * Delegating password encoder hashing with the algorithm and cost from blackout.password-hashing
+     * (BCrypt strength 10 by default), see {@link UpgradingPasswordEncoder}.
+     * Unless blackout.password-hashing.enabled is false, hashing runs on a bounded executor
+     * (see {@link BoundedPasswordEncoder}).
      */
     @Bean
     @ConditionalOnMissingBean(PasswordEncoder.class)
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        PasswordEncoder encoder = new UpgradingPasswordEncoder(passwordHashingProperties);
+        if (!passwordHashingProperties.isEnabled()) {
+            return encoder;
+        }
+        return new BoundedPasswordEncoder(encoder, passwordHashingProperties,
+                passwordHashingMetrics.getIfAvailable(() -> PasswordHashingMetrics.NOOP));
     }
 
     /**
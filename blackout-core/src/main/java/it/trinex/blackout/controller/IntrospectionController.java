@@ -0,0 +1,85 @@
+package it.trinex.blackout.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import it.trinex.blackout.dto.request.IntrospectionBatchRequest;
+import it.trinex.blackout.dto.response.IntrospectionBatchResponse;
+import it.trinex.blackout.exception.BlackoutException;
+import it.trinex.blackout.exception.UnauthorizedException;
+import it.trinex.blackout.properties.IntrospectionProperties;
+import it.trinex.blackout.service.JwtService;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping(value = "/auth/introspect", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Introspection", description = "Token introspection for downstream services")
+public class IntrospectionController {
+
+    private final JwtService jwtService;
+    private final IntrospectionProperties introspectionProperties;
+
+    @PostConstruct
+    public void init() {
+        if (introspectionProperties.getApiKeys().isEmpty()) {
+            log.warn("Token introspection is enabled but no blackout.introspection.api-keys are configured, every request will be rejected");
+        }
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Introspect tokens", description = """
+        Verifies up to blackout.introspection.max-tokens tokens in one call and returns one result per token,
+        in request order. Revocation is checked for all tokens in a single round trip.
+        Inactive tokens (invalid, expired or revoked) are returned as {"active": false}.
+        """)
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tokens introspected",
+            content = @Content(schema = @Schema(implementation = IntrospectionBatchResponse.class))),
+        @ApiResponse(responseCode = "400", description = "No tokens or too many tokens"),
+        @ApiResponse(responseCode = "401", description = "Missing or invalid X-Introspection-Key")
+    })
+    public ResponseEntity<IntrospectionBatchResponse> introspectBatch(
+            @RequestHeader(value = "X-Introspection-Key", required = false) String apiKey,
+            @Valid @RequestBody IntrospectionBatchRequest request) {
+        if (!isKnownKey(apiKey)) {
+            throw new UnauthorizedException("Invalid introspection key");
+        }
+        if (request.getTokens().size() > introspectionProperties.getMaxTokens()) {
+            throw new BlackoutException(HttpStatus.BAD_REQUEST, "TOO_MANY_TOKENS",
+                    "At most " + introspectionProperties.getMaxTokens() + " tokens can be introspected per request");
+        }
+
+        return ResponseEntity.ok(new IntrospectionBatchResponse(jwtService.introspect(request.getTokens())));
+    }
+
+    private boolean isKnownKey(String apiKey) {
+        if (apiKey == null) {
+            return false;
+        }
+        byte[] presented = apiKey.getBytes(StandardCharsets.UTF_8);
+        boolean known = false;
+        for (String key : introspectionProperties.getApiKeys()) {
+            known |= MessageDigest.isEqual(presented, key.getBytes(StandardCharsets.UTF_8));
+        }
+        return known;
+    }
+}
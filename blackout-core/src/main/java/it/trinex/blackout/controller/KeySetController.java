@@ -0,0 +1,68 @@
+package it.trinex.blackout.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import it.trinex.blackout.properties.JwtProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping(value = "/auth/keys", produces = MediaType.APPLICATION_JSON_VALUE)
+@Tag(name = "Keys", description = "Public keys for resource servers")
+public class KeySetController {
+
+    private final Map<String, Object> keySet;
+
+    public KeySetController(JwtProperties jwtProperties) {
+        byte[] x509 = Base64.getDecoder().decode(jwtProperties.getPasetoPublicKey());
+        // The raw Ed25519 key is the last 32 bytes of the SubjectPublicKeyInfo
+        String x = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOfRange(x509, x509.length - 32, x509.length));
+
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "OKP");
+        jwk.put("crv", "Ed25519");
+        jwk.put("x", x);
+        jwk.put("use", "sig");
+        jwk.put("alg", "EdDSA");
+        jwk.put("kid", thumbprint(x));
+        this.keySet = Map.of("keys", List.of(jwk));
+    }
+
+    @GetMapping
+    @Operation(summary = "Key set", description = """
+        Returns the Ed25519 key verifying PASETO v4.public tokens as a JSON Web Key Set,
+        for resource servers configured with blackout.resource-server.jwks-uri.
+        """)
+    public ResponseEntity<Map<String, Object>> keys() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(keySet);
+    }
+
+    /**
+     * RFC 7638 thumbprint of an Ed25519 JWK.
+     */
+    private static String thumbprint(String x) {
+        String canonical = "{\"crv\":\"Ed25519\",\"kty\":\"OKP\",\"x\":\"" + x + "\"}";
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package it.trinex.blackout.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class IntrospectionBatchRequest {
+    @Schema(description = "Tokens to introspect", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "At least one token is required")
+    private List<String> tokens;
+}
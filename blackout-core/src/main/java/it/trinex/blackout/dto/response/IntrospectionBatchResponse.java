@@ -0,0 +1,9 @@
+package it.trinex.blackout.dto.response;
+
+import java.util.List;
+
+/**
+ * Results of a batch introspection, in the order of the requested tokens.
+ */
+public record IntrospectionBatchResponse(List<TokenIntrospectionDTO> results) {
+}
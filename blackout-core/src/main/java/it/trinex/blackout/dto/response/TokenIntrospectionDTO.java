@@ -0,0 +1,32 @@
+package it.trinex.blackout.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Introspection result of a single token. Inactive tokens only carry {@code active: false}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospectionDTO {
+
+    private boolean active;
+    private String sub;
+    private String tokenType;
+    private Long authId;
+    private List<String> roles;
+    private String jti;
+    private Long exp;
+
+    public static TokenIntrospectionDTO inactive() {
+        return TokenIntrospectionDTO.builder().active(false).build();
+    }
+}
@@ -2,6 +2,7 @@ package it.trinex.blackout.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
@@ -101,6 +102,28 @@ public class BlackoutExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
 
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        logBlackoutException(ex);
+
+        ExceptionResponseDTO response = new ExceptionResponseDTO(ex);
+
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter()))
+                .body(response);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ExceptionResponseDTO> handleTooManyRequestsException(TooManyRequestsException ex) {
+        logBlackoutException(ex);
+
+        ExceptionResponseDTO response = new ExceptionResponseDTO(ex);
+
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter()))
+                .body(response);
+    }
+
     @ExceptionHandler(BlackoutException.class)
     public ResponseEntity<ExceptionResponseDTO> handleBlackoutException(BlackoutException ex) {
         logBlackoutException(ex);
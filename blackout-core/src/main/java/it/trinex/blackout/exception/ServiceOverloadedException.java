@@ -0,0 +1,18 @@
+package it.trinex.blackout.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class ServiceOverloadedException extends BlackoutException {
+
+    /**
+     * Seconds the client should wait before retrying, sent as the Retry-After header.
+     */
+    private final long retryAfter;
+
+    public ServiceOverloadedException(String description, long retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", description);
+        this.retryAfter = retryAfter;
+    }
+}
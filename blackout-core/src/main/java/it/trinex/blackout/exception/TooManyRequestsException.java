@@ -0,0 +1,18 @@
+package it.trinex.blackout.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class TooManyRequestsException extends BlackoutException {
+
+    /**
+     * Seconds the client should wait before retrying, sent as the Retry-After header.
+     */
+    private final long retryAfter;
+
+    public TooManyRequestsException(String description, long retryAfter) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_REQUESTS", description);
+        this.retryAfter = retryAfter;
+    }
+}
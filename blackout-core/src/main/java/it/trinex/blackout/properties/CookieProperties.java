@@ -0,0 +1,45 @@
+package it.trinex.blackout.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for cookie-based authentication.
+ * Allows customization of cookie behavior through application.yml or application.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "blackout.cookie")
+public class CookieProperties {
+
+    /**
+     * Whether cookie-based authentication is enabled.
+     * When enabled, JWT tokens are stored in cookies instead of requiring Bearer headers.
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether to automatically refresh access tokens using the refresh token cookie.
+     * When enabled, the system will attempt to refresh expired access tokens automatically.
+     * Default: true
+     */
+    private boolean autoRefresh = true;
+
+    /**
+     * Time in milliseconds during which requests still carrying a just-rotated refresh token
+     * receive the cookies issued by that rotation instead of being rejected. Only requests from the
+     * same client (address and user agent) as the one that triggered the rotation are served.
+     * Concurrent auto-refreshes for the same refresh token are always coalesced into one rotation.
+     * Default: 0 (disabled, only in-flight rotations are shared)
+     */
+    private Long refreshGracePeriod = 0L;
+
+    /**
+     * Fraction of its lifetime after which a still valid access token cookie is re-issued.
+     * The new access token is built from the current token's claims, without database access,
+     * and the refresh token cookie is left untouched. The new token never expires after the refresh
+     * token presented with it. For example 0.5 re-issues at half-life.
+     * Default: 0 (disabled, access tokens are only replaced once expired)
+     */
+    private Double reissueFraction = 0.0;
+}
@@ -8,7 +8,9 @@ import java.util.List;
 
 /**
  * Configuration properties for security filter chain endpoint rules.
- * Allows configuring permitAll and authenticated endpoints via application properties.
+ * Allows configuring permitAll, authenticated and denyAll endpoints via application properties.
+ * All patterns are compiled into a single path trie, so the number of rules does not affect
+ * the per-request cost.
  */
 @Data
 @ConfigurationProperties(prefix = "blackout.filterchain")
@@ -25,4 +27,18 @@ public class FilterChainProperties {
      * Supports Ant-style patterns (e.g., /api/admin/**, /api/secure/**).
      */
     private List<String> authenticated = new ArrayList<>();
+
+    /**
+     * List of endpoint patterns that are rejected for everybody (denyAll).
+     * Takes precedence over allowed and authenticated patterns.
+     */
+    private List<String> denied = new ArrayList<>();
+
+    /**
+     * Whether the JWT filter skips token parsing and verification on the allowed endpoints.
+     * When enabled, the current user is not available on those endpoints even if a token is sent,
+     * so only enable it when none of them reads the current user.
+     * Default: false
+     */
+    private boolean skipAuthenticationOnAllowed = false;
 }
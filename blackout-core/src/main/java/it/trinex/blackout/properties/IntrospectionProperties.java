@@ -0,0 +1,33 @@
+package it.trinex.blackout.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for the batch token introspection endpoint used by downstream services.
+ */
+@Data
+@ConfigurationProperties(prefix = "blackout.introspection")
+public class IntrospectionProperties {
+
+    /**
+     * Whether POST /auth/introspect/batch is exposed.
+     * Default: false
+     */
+    private boolean enabled = false;
+
+    /**
+     * Keys accepted in the X-Introspection-Key header. Requests without a matching key are
+     * rejected, so the endpoint stays closed until at least one key is configured.
+     */
+    private List<String> apiKeys = new ArrayList<>();
+
+    /**
+     * Maximum number of tokens accepted in a single request.
+     * Default: 100
+     */
+    private int maxTokens = 100;
+}
@@ -0,0 +1,113 @@
+package it.trinex.blackout.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "blackout.jwt")
+public class JwtProperties {
+
+    /**
+     * Secret key for JWT token signing and verification.
+     * Should be a base64-encoded string.
+     */
+    private String secret;
+
+    /**
+     * Access token expiration time in milliseconds.
+     * Default: 15 minutes (900000 ms)
+     */
+    private Long accessTokenExp = 900000L;
+
+    /**
+     * Fraction of the access token lifetime randomly taken off each token's expiration,
+     * so that tokens issued together do not all expire at the same moment.
+     * For example 0.1 makes a 15 minute token expire between 13.5 and 15 minutes.
+     * Default: 0 (no jitter)
+     */
+    private Double accessTokenExpJitter = 0.0;
+
+    /**
+     * Refresh token expiration time in milliseconds.
+     * Default: 30 days (2592000000 ms)
+     */
+    private Long refreshTokenExp = 2592000000L;
+
+    private Long refreshTokenExpNoRemember = 3600000L;
+
+    /**
+     * Encoding of issued access and refresh tokens.
+     * Tokens of every format are accepted regardless of this setting.
+     * Default: JWT
+     */
+    private TokenFormat format = TokenFormat.JWT;
+
+    /**
+     * Ed25519 private key (Base64 PKCS#8 DER) signing PASETO v4.public tokens.
+     * Required to issue tokens with format PASETO_V4_PUBLIC.
+     */
+    private String pasetoPrivateKey;
+
+    /**
+     * Ed25519 public key (Base64 X.509 DER) verifying PASETO v4.public tokens.
+     */
+    private String pasetoPublicKey;
+
+    /**
+     * Verify HS256 tokens in Blackout's own format with a dedicated verifier that skips jjwt's
+     * generic header and claims parsing. Other tokens are still parsed by jjwt.
+     * Default: true
+     */
+    private Boolean fastVerification = true;
+
+    /**
+     * Sign tokens from a cached, pre-serialized template of the claims that do not change
+     * between tokens of the same principal, instead of building them with jjwt every time.
+     * Default: true
+     */
+    private Boolean fastSigning = true;
+
+    /**
+     * Issue refresh tokens as opaque 256-bit random handles stored server-side (in Redis when
+     * enabled, in memory otherwise) instead of JWTs. Each refresh atomically replaces the handle;
+     * presenting an already used handle revokes every token of that login.
+     * Default: false
+     */
+    private Boolean opaqueRefreshTokens = false;
+
+    /**
+     * Issue thin access tokens carrying only the subject, auth id, token id, timestamps and a
+     * profile version. The rest of the principal is loaded through the UserDetailsService into a
+     * local cache keyed by auth id and profile version.
+     * Default: false
+     */
+    private Boolean thinAccessTokens = false;
+
+    /**
+     * Maximum number of principals kept in the thin access token profile cache.
+     * Entries are reloaded once they are older than the access token lifetime.
+     * Default: 10000
+     */
+    private Integer profileCacheSize = 10000;
+
+    public enum TokenFormat {
+        /**
+         * HS256 JSON Web Tokens.
+         */
+        JWT,
+        /**
+         * CBOR Web Tokens in a COSE_Mac0 structure (HMAC 256/256) with integer claim keys,
+         * prefixed with "cwt.". Roughly 40% smaller than the equivalent JWT.
+         */
+        CWT,
+        /**
+         * PASETO v4.public tokens signed with Ed25519. Requires paseto-private-key and paseto-public-key.
+         */
+        PASETO_V4_PUBLIC,
+        /**
+         * PASETO v4.local tokens, encrypted with XChaCha20 and authenticated with BLAKE2b,
+         * under a key derived from the secret.
+         */
+        PASETO_V4_LOCAL
+    }
+}
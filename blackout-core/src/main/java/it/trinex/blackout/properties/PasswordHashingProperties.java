@@ -0,0 +1,108 @@
+package it.trinex.blackout.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for password hashing.
+ * Selects the hashing algorithm and cost, and configures the dedicated thread pool with a bounded
+ * queue on which hashing and verification run, so bursts of logins cannot exhaust the servlet threads.
+ */
+@Data
+@ConfigurationProperties(prefix = "blackout.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * Whether hashing runs on the dedicated executor. When disabled it runs on the request thread.
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of hashing threads. 0 uses the number of available processors.
+     * Default: 0
+     */
+    private Integer threads = 0;
+
+    /**
+     * Number of hashing tasks allowed to wait for a free thread. Requests beyond this are rejected
+     * with 503 Service Unavailable.
+     * Default: 64
+     */
+    private Integer queueCapacity = 64;
+
+    /**
+     * Value in seconds of the Retry-After header sent when a request is rejected.
+     * Default: 1
+     */
+    private Long retryAfter = 1L;
+
+    /**
+     * Algorithm used for new hashes. Existing hashes of other algorithms keep working.
+     * Default: BCRYPT
+     */
+    private Algorithm algorithm = Algorithm.BCRYPT;
+
+    /**
+     * Whether a stored hash that does not match the configured algorithm and cost is replaced
+     * with a new hash after a successful login.
+     * Default: true
+     */
+    private boolean upgradeOnLogin = true;
+
+    private Bcrypt bcrypt = new Bcrypt();
+
+    private Argon2 argon2 = new Argon2();
+
+    public enum Algorithm {
+        BCRYPT,
+        /**
+         * Requires BouncyCastle (org.bouncycastle:bcprov-jdk18on) on the classpath.
+         */
+        ARGON2ID
+    }
+
+    @Data
+    public static class Bcrypt {
+
+        /**
+         * Log2 of the number of BCrypt rounds.
+         * Default: 10
+         */
+        private Integer strength = 10;
+    }
+
+    @Data
+    public static class Argon2 {
+
+        /**
+         * Memory cost in KiB.
+         * Default: 19456 (19 MiB)
+         */
+        private Integer memory = 19456;
+
+        /**
+         * Number of iterations.
+         * Default: 2
+         */
+        private Integer iterations = 2;
+
+        /**
+         * Degree of parallelism.
+         * Default: 1
+         */
+        private Integer parallelism = 1;
+
+        /**
+         * Salt length in bytes.
+         * Default: 16
+         */
+        private Integer saltLength = 16;
+
+        /**
+         * Hash length in bytes.
+         * Default: 32
+         */
+        private Integer hashLength = 32;
+    }
+}
@@ -0,0 +1,83 @@
+package it.trinex.blackout.properties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for login throttling.
+ * Password and recovery code checks are limited per subject and per client IP with token buckets,
+ * stored in Redis when enabled and in memory otherwise.
+ */
+@Data
+@ConfigurationProperties(prefix = "blackout.throttle")
+public class ThrottleProperties {
+
+    /**
+     * Whether login throttling is enabled.
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Bucket for attempts against a single account (/auth/login and /2fa/disable-recovery).
+     * It is refunded when the attempt succeeds, so only failed attempts count. Anyone who knows
+     * a username can still keep its bucket empty and lock the owner out for as long as they keep
+     * guessing; disable this bucket if that matters more than slowing down distributed guessing.
+     * Default: 5 attempts, refilled at 5 per minute
+     */
+    private Bucket subject = new Bucket(true, 5, 5.0);
+
+    /**
+     * Bucket for attempts from a single client IP (/auth/login, /2fa/disable-recovery and
+     * /passkey/authenticate/start).
+     * Default: 30 attempts, refilled at 60 per minute
+     */
+    private Bucket client = new Bucket(true, 30, 60.0);
+
+    /**
+     * Addresses (or CIDR ranges) of the reverse proxies in front of the application. For requests
+     * coming from one of them the client IP is taken from the {@link #forwardedHeader}, skipping
+     * trusted hops from the right. Not needed when the servlet container already resolves the
+     * client address, e.g. with server.forward-headers-strategy.
+     * Default: none, the remote address of the connection is used
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * Header carrying the chain of client addresses added by the trusted proxies.
+     * Default: X-Forwarded-For
+     */
+    private String forwardedHeader = "X-Forwarded-For";
+
+    /**
+     * Number of stripes of the in-memory bucket table, rounded up to a power of two.
+     * Default: 16
+     */
+    private Integer stripes = 16;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Bucket {
+
+        /**
+         * Whether this bucket is checked.
+         */
+        private boolean enabled;
+
+        /**
+         * Maximum burst of attempts.
+         */
+        private Integer capacity;
+
+        /**
+         * Attempts regained per minute.
+         */
+        private Double refillPerMinute;
+    }
+}
@@ -53,7 +53,7 @@ import java.util.function.Supplier;
 public class BlackoutMethodSecurityExpressionHandler implements MethodSecurityExpressionHandler {
 
     private final DefaultMethodSecurityExpressionHandler delegate;
-    private final AuthenticationTrustResolver trustResolver;
+    private AuthenticationTrustResolver trustResolver;
     private final JwtService jwtService;
 
     /**
@@ -94,6 +94,7 @@ public class BlackoutMethodSecurityExpressionHandler implements MethodSecurityEx
         // Create our custom root object
         Authentication auth = authentication.get();
         BlackoutSecurityExpressionRoot root = createSecurityExpressionRoot(auth);
+        root.setTrustResolver(trustResolver);
 
         // Set the root object directly (not as a variable)
         // This allows expressions like "passkeyRequired()" without prefix
@@ -156,6 +157,7 @@ public class BlackoutMethodSecurityExpressionHandler implements MethodSecurityEx
      * @param trustResolver the trust resolver
      */
     public void setTrustResolver(AuthenticationTrustResolver trustResolver) {
+        this.trustResolver = trustResolver;
         this.delegate.setTrustResolver(trustResolver);
     }
 }
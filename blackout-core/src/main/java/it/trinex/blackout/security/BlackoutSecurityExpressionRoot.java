@@ -0,0 +1,323 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.exception.PasskeyRequiredException;
+import it.trinex.blackout.service.JwtService;
+import it.trinex.blackout.service.enums.TokenType;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.DenyAllPermissionEvaluator;
+import org.springframework.security.access.expression.SecurityExpressionRoot;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionOperations;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom security expression root for Blackout-specific method security expressions.
+ * Adds custom methods like {@link #passkeyRequired()} that can be used in @PreAuthorize annotations.
+ *
+ * <p>Usage in controllers:</p>
+ * <pre>
+ * {@code
+ * @PreAuthorize("passkeyRequired()")
+ * public String secureMethod() { ... }
+ * }
+ * </pre>
+ *
+ * <p>Role and authority checks run as bit tests when the authentication carries an
+ * {@link AuthoritySet}, as principals built from tokens do. Other authentications, or a configured
+ * {@link RoleHierarchy}, use the standard {@link SecurityExpressionRoot} evaluation, which every
+ * other expression is delegated to as well.</p>
+ */
+public class BlackoutSecurityExpressionRoot implements MethodSecurityExpressionOperations {
+    private static final String REAUTH_COOKIE_NAME = "reauth_token";
+    private static final String REAUTH_HEADER_NAME = "X-Reauth-Token";
+    /**
+     * Request attribute holding the outcome of the reauth token verification, so the token is
+     * verified at most once per request however many guarded methods are called.
+     */
+    static final String PASSKEY_VERIFIED_ATTRIBUTE = BlackoutSecurityExpressionRoot.class.getName() + ".PASSKEY_VERIFIED";
+
+    public final boolean permitAll = true;
+    public final boolean denyAll = false;
+    public final String read = "read";
+    public final String write = "write";
+    public final String create = "create";
+    public final String delete = "delete";
+    public final String admin = "administration";
+
+    private Object filterObject;
+    private Object returnObject;
+    private Object target;
+    private final JwtService jwtService;
+    private final SecurityExpressionRoot delegate;
+    private boolean roleHierarchySet;
+    private boolean authoritySetResolved;
+    private AuthoritySet resolvedAuthoritySet;
+    /**
+     * Creates a new BlackoutSecurityExpressionRoot.
+     *
+     * @param authentication the current authentication object
+     * @param jwtService the JWT service for token validation
+     */
+    public BlackoutSecurityExpressionRoot(Authentication authentication, JwtService jwtService) {
+        this.jwtService = jwtService;
+        this.delegate = new SecurityExpressionRoot(authentication) {
+        };
+        this.delegate.setTrustResolver(new AuthenticationTrustResolverImpl());
+        this.delegate.setPermissionEvaluator(new DenyAllPermissionEvaluator());
+    }
+
+    @Override
+    public Authentication getAuthentication() {
+        return delegate.getAuthentication();
+    }
+
+    public Object getPrincipal() {
+        return delegate.getPrincipal();
+    }
+
+    @Override
+    public boolean hasAuthority(String authority) {
+        AuthoritySet authorities = authoritySet();
+        return authorities != null ? authorities.containsAuthority(authority) : delegate.hasAuthority(authority);
+    }
+
+    @Override
+    public boolean hasAnyAuthority(String... authorities) {
+        AuthoritySet set = authoritySet();
+        if (set == null) {
+            return delegate.hasAnyAuthority(authorities);
+        }
+        for (String authority : authorities) {
+            if (set.containsAuthority(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasAllAuthorities(String... authorities) {
+        for (String authority : authorities) {
+            if (!hasAuthority(authority)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasRole(String role) {
+        AuthoritySet authorities = authoritySet();
+        return authorities != null ? authorities.containsRole(role) : delegate.hasRole(role);
+    }
+
+    @Override
+    public boolean hasAnyRole(String... roles) {
+        AuthoritySet set = authoritySet();
+        if (set == null) {
+            return delegate.hasAnyRole(roles);
+        }
+        for (String role : roles) {
+            if (set.containsRole(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasAllRoles(String... roles) {
+        for (String role : roles) {
+            if (!hasRole(role)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean permitAll() {
+        return true;
+    }
+
+    @Override
+    public boolean denyAll() {
+        return false;
+    }
+
+    @Override
+    public boolean isAnonymous() {
+        return delegate.isAnonymous();
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return delegate.isAuthenticated();
+    }
+
+    @Override
+    public boolean isRememberMe() {
+        return delegate.isRememberMe();
+    }
+
+    @Override
+    public boolean isFullyAuthenticated() {
+        return delegate.isFullyAuthenticated();
+    }
+
+    @Override
+    public boolean hasPermission(Object target, Object permission) {
+        return delegate.hasPermission(target, permission);
+    }
+
+    @Override
+    public boolean hasPermission(Object targetId, String targetType, Object permission) {
+        return delegate.hasPermission(targetId, targetType, permission);
+    }
+
+    public void setTrustResolver(AuthenticationTrustResolver trustResolver) {
+        delegate.setTrustResolver(trustResolver);
+    }
+
+    public void setPermissionEvaluator(PermissionEvaluator permissionEvaluator) {
+        delegate.setPermissionEvaluator(permissionEvaluator);
+    }
+
+    /**
+     * Sets a role hierarchy. Role checks then go through the standard evaluation, since the
+     * reachable authorities are not part of the token's {@link AuthoritySet}.
+     */
+    public void setRoleHierarchy(RoleHierarchy roleHierarchy) {
+        delegate.setRoleHierarchy(roleHierarchy);
+        this.roleHierarchySet = roleHierarchy != null;
+    }
+
+    private AuthoritySet authoritySet() {
+        if (roleHierarchySet) {
+            return null;
+        }
+        if (!authoritySetResolved) {
+            resolvedAuthoritySet = resolveAuthoritySet();
+            authoritySetResolved = true;
+        }
+        return resolvedAuthoritySet;
+    }
+
+    private AuthoritySet resolveAuthoritySet() {
+        Authentication authentication = getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        Collection<? extends GrantedAuthority> granted = authentication.getAuthorities();
+        if (granted instanceof AuthoritySet authorities) {
+            return authorities;
+        }
+        if (!(authentication.getPrincipal() instanceof UserDetails user
+                && user.getAuthorities() instanceof AuthoritySet principalAuthorities)) {
+            return null;
+        }
+        // Authentication tokens copy the principal's authorities into a list, the set is only
+        // reused if the token kept exactly those authorities
+        if (principalAuthorities.size() == granted.size() && principalAuthorities.containsAll(granted)) {
+            return principalAuthorities;
+        }
+        // The authentication's own authorities decide, whatever the principal carries
+        List<String> names = new ArrayList<>(granted.size());
+        for (GrantedAuthority authority : granted) {
+            if (authority.getAuthority() != null) {
+                names.add(authority.getAuthority());
+            }
+        }
+        return AuthorityRegistry.of(names);
+    }
+
+    /**
+     * Checks if passkey authentication is required for the current request.
+     * The reauth token is resolved and verified once per request; later evaluations,
+     * including nested method security calls, reuse the cached outcome.
+     */
+    public boolean passkeyRequired() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return false;
+        }
+
+        HttpServletRequest request = attributes.getRequest();
+        Boolean verified = (Boolean) request.getAttribute(PASSKEY_VERIFIED_ATTRIBUTE);
+        if (verified == null) {
+            verified = verifyPasskeyToken(request);
+            request.setAttribute(PASSKEY_VERIFIED_ATTRIBUTE, verified);
+        }
+
+        if (verified) {
+            return true;
+        }
+
+        throw new PasskeyRequiredException("Passkey authentication is required for this operation.");
+    }
+
+    private boolean verifyPasskeyToken(HttpServletRequest request) {
+        String passkeyToken = null;
+
+        // Try reading from reauth_token cookie
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (REAUTH_COOKIE_NAME.equals(cookie.getName())) {
+                    passkeyToken = cookie.getValue();
+                    break;
+                }
+            }
+        }
+
+        // Fallback: Try reading from X-Reauth-Token header
+        if (passkeyToken == null || passkeyToken.isBlank()) {
+            passkeyToken = request.getHeader(REAUTH_HEADER_NAME);
+        }
+
+        return passkeyToken != null && !passkeyToken.isBlank() && jwtService.isTokenValid(passkeyToken, TokenType.PASSKEY.name());
+    }
+
+    @Override
+    public void setFilterObject(Object filterObject) {
+        this.filterObject = filterObject;
+    }
+
+    @Override
+    public Object getFilterObject() {
+        return filterObject;
+    }
+
+    @Override
+    public void setReturnObject(Object returnObject) {
+        this.returnObject = returnObject;
+    }
+
+    @Override
+    public Object getReturnObject() {
+        return returnObject;
+    }
+
+    /**
+     * Sets the target object for the expression evaluation.
+     * This is called by the expression handler.
+     */
+    public void setTargetObject(Object target) {
+        this.target = target;
+    }
+
+    @Override
+    public Object getThis() {
+        return target;
+    }
+}
@@ -0,0 +1,172 @@
+package it.trinex.blackout.security;
+
+import io.jsonwebtoken.Claims;
+import it.trinex.blackout.dto.response.AuthResponseDTO;
+import it.trinex.blackout.service.CookieService;
+import it.trinex.blackout.service.JwtService;
+import it.trinex.blackout.service.RefreshService;
+import it.trinex.blackout.service.enums.TokenType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * JWT authentication filter that supports both Authorization header and Cookies.
+ * If configured, it can automatically refresh the access token using a refresh token from cookies.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String REISSUE_KEY_PREFIX = "reissue:";
+
+    private final JwtService jwtService;
+    private final RefreshService refreshService;
+    private final CookieService cookieService;
+    private final boolean autoRefresh;
+    private final RefreshCoalescer refreshCoalescer;
+    private final double reissueFraction;
+    private final PublicPathMatcher publicPathMatcher;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String accessToken = null;
+        String refreshToken = null;
+        boolean fromCookie = false;
+
+        // 1. Try to extract token from Authorization header
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            accessToken = authHeader.substring(7);
+        }
+
+        // 2. If not found in header, try to extract from cookies
+        if (accessToken == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (CookieService.ACCESS_COOKIE_NAME.equals(cookie.getName())) {
+                    accessToken = cookie.getValue();
+                    fromCookie = true;
+                } else if (CookieService.REFRESH_COOKIE_NAME.equals(cookie.getName())) {
+                    refreshToken = cookie.getValue();
+                    fromCookie = true;
+                }
+            }
+        }
+
+        if (accessToken == null && refreshToken == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // The access token is parsed and verified once, its claims are reused below
+        Claims accessClaims = null;
+        if (accessToken != null) {
+            try {
+                accessClaims = jwtService.extractValidClaims(accessToken, TokenType.ACCESS.name());
+            } catch (Exception e) {
+                log.error("Cannot validate access token: {}", e.getMessage());
+            }
+        }
+
+        // 3. Handle Auto-Refresh (only if from cookie and configured)
+        if (fromCookie && autoRefresh && refreshService != null && cookieService != null) {
+            if (accessClaims == null) {
+                if (refreshToken != null) {
+                    try {
+                        log.debug("Access token invalid, attempting refresh for: {}", request.getRequestURI());
+                        // Concurrent requests carrying the same refresh token share a single rotation,
+                        // an invalid refresh token makes refreshToken throw
+                        AuthResponseDTO authResponse = refreshCoalescer.refresh(refreshToken, clientFingerprint(request),
+                                refreshService::refreshToken);
+                        if (authResponse != null) {
+                            String newAccessToken = authResponse.access_token();
+                            String newRefreshToken = authResponse.refresh_token();
+                            accessToken = newAccessToken;
+                            accessClaims = jwtService.extractValidClaims(newAccessToken, TokenType.ACCESS.name());
+
+                            // The cookie lives as long as the (jittered) token actually issued
+                            ResponseCookie accessCookie = accessClaims != null
+                                    ? cookieService.generateAccessCookie(newAccessToken, secondsUntil(accessClaims.getExpiration()))
+                                    : cookieService.generateAccessCookie(newAccessToken);
+                            ResponseCookie refreshCookie = cookieService.generateRefreshCookie(newRefreshToken);
+                            response.addHeader(HttpHeaders.SET_COOKIE, accessCookie.toString());
+                            response.addHeader(HttpHeaders.SET_COOKIE, refreshCookie.toString());
+                            refreshToken = newRefreshToken;
+                        }
+                    } catch (Exception e) {
+                        log.debug("Token refresh failed: {}", e.getMessage());
+                    }
+                }
+            }
+        }
+
+        // 4. Set Authentication: the principal is only built if something reads it
+        if (accessClaims != null) {
+            try {
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    SecurityContextHolder.getContext().setAuthentication(
+                            new JwtClaimsAuthentication(accessClaims, jwtService, request));
+
+                    log.debug("User '{}' authenticated successfully for: {}",
+                            accessClaims.getSubject(),
+                            request.getRequestURI());
+                }
+
+                // 5. Sliding re-issue: replace the access cookie once the token passed the configured fraction of its lifetime.
+                // The new token is capped at the refresh token's expiry, and concurrent requests share one re-issue,
+                // so only the request doing it builds the principal.
+                String sessionToken = refreshToken;
+                Claims sessionClaims = accessClaims;
+                if (fromCookie && reissueFraction > 0 && cookieService != null && refreshService != null && sessionToken != null
+                        && jwtService.isPastLifetimeFraction(accessClaims, reissueFraction)) {
+                    AuthResponseDTO reissued = refreshCoalescer.refresh(REISSUE_KEY_PREFIX + accessClaims.getId(), clientFingerprint(request),
+                            key -> jwtService.extractUserPrincipal(sessionClaims) instanceof BlackoutUserPrincipal blackoutPrincipal
+                                    ? refreshService.reissueAccessToken(blackoutPrincipal, sessionToken)
+                                    : null);
+                    if (reissued != null) {
+                        response.addHeader(HttpHeaders.SET_COOKIE, cookieService.generateAccessCookie(
+                                reissued.access_token(), reissued.access_token_expiration() / 1000).toString());
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Cannot set user authentication: {}", e.getMessage());
+            }
+        } else if (accessToken != null) {
+            log.debug("Invalid or expired token for request to: {}", request.getRequestURI());
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static long secondsUntil(Date expiration) {
+        return (expiration.getTime() - System.currentTimeMillis()) / 1000;
+    }
+
+    private static String clientFingerprint(HttpServletRequest request) {
+        return request.getRemoteAddr() + '|' + request.getHeader(HttpHeaders.USER_AGENT);
+    }
+
+    /**
+     * Public routes carry no token work: no parsing, signature check or revocation lookup.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return publicPathMatcher != null && publicPathMatcher.matches(request);
+    }
+}
@@ -0,0 +1,88 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.properties.BlackoutProperties;
+import it.trinex.blackout.properties.FilterChainProperties;
+import it.trinex.blackout.properties.SignupProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Authorizes requests against the Blackout endpoint rules and the blackout.filterchain properties
+ * with a single {@link PathPatternTrie} lookup, instead of one request matcher per pattern.
+ *
+ * <p>Rules are evaluated in this order, the first matching one wins: built-in public endpoints,
+ * {@code denied}, {@code allowed}, {@code authenticated}. Any other path requires authentication.
+ * Paths are resolved with {@link RequestPaths}.</p>
+ */
+public class PathAuthorizationManager implements AuthorizationManager<RequestAuthorizationContext> {
+
+    public enum Decision {
+        PERMIT,
+        AUTHENTICATE,
+        DENY
+    }
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final PathPatternTrie<Decision> trie = new PathPatternTrie<>();
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    public PathAuthorizationManager(BlackoutProperties blackoutProperties, FilterChainProperties filterChainProperties, SignupProperties signupProperties) {
+        publicPatterns(blackoutProperties, signupProperties).forEach(pattern -> trie.add(pattern, Decision.PERMIT));
+        add(filterChainProperties.getDenied(), Decision.DENY);
+        add(filterChainProperties.getAllowed(), Decision.PERMIT);
+        add(filterChainProperties.getAuthenticated(), Decision.AUTHENTICATE);
+    }
+
+    /**
+     * Endpoints Blackout exposes without authentication.
+     */
+    public static List<String> publicPatterns(BlackoutProperties blackoutProperties, SignupProperties signupProperties) {
+        String baseUrl = blackoutProperties.getBaseUrl() == null ? "" : blackoutProperties.getBaseUrl();
+        List<String> patterns = new ArrayList<>(List.of(
+                "/error",
+                baseUrl + "/auth/**",
+                baseUrl + "/password-otp/**",
+                baseUrl + "/passkey/**",
+                "/swagger-ui/**",
+                "/v3/api-docs/**",
+                "/swagger-ui.html",
+                baseUrl + "/2fa/disable-recovery"));
+        if (signupProperties.isEnabled()) {
+            patterns.add(baseUrl + "/signup");
+        }
+        return patterns;
+    }
+
+    public Decision decide(HttpServletRequest request) {
+        // Matched on the decoded, normalized path: /%61dmin must not slip past a rule for /admin
+        Decision decision = trie.match(RequestPaths.pathWithinApplication(request));
+        return decision != null ? decision : Decision.AUTHENTICATE;
+    }
+
+    @Override
+    public AuthorizationResult authorize(Supplier<? extends Authentication> authentication, RequestAuthorizationContext context) {
+        return switch (decide(context.getRequest())) {
+            case PERMIT -> GRANTED;
+            case DENY -> DENIED;
+            case AUTHENTICATE -> trustResolver.isAuthenticated(authentication.get()) ? GRANTED : DENIED;
+        };
+    }
+
+    private void add(List<String> patterns, Decision decision) {
+        if (patterns != null) {
+            patterns.forEach(pattern -> trie.add(pattern, decision));
+        }
+    }
+}
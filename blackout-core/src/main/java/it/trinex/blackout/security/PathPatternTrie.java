@@ -0,0 +1,185 @@
+package it.trinex.blackout.security;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Path patterns compiled into a trie of path segments.
+ *
+ * <p>Supported segments: literals, {@code *} and {@code {var}} (exactly one segment),
+ * {@code **} and {@code {*var}} (any number of segments, including none), and segments mixing
+ * literals with {@code *}, {@code ?} or {@code {var}} such as {@code *.css}. Empty segments are
+ * ignored, so {@code /a//b/} is matched as {@code /a/b}.</p>
+ *
+ * <p>When several patterns match a path, the value of the pattern added first wins, the same
+ * as a chain of matchers evaluated in order. Lookup cost grows with the path length, not with
+ * the number of patterns.</p>
+ *
+ * <p>Not thread-safe while patterns are added; safe for concurrent lookups afterwards.</p>
+ */
+public final class PathPatternTrie<T> {
+
+    private final Node<T> root = new Node<>();
+    private int size;
+
+    private static final class Node<T> {
+        private final Map<String, Node<T>> literals = new HashMap<>();
+        private final List<GlobChild<T>> globs = new ArrayList<>();
+        private Node<T> wildcard;
+        private Node<T> doubleWildcard;
+        private T value;
+        private int order = Integer.MAX_VALUE;
+        // Lowest order of any pattern in this subtree, used to prune the search
+        private int minOrder = Integer.MAX_VALUE;
+    }
+
+    private record GlobChild<T>(Pattern pattern, Node<T> node) {
+    }
+
+    private static final class Best<T> {
+        private T value;
+        private int order = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Adds a pattern. A pattern that was already added keeps its first value.
+     */
+    public void add(String pattern, T value) {
+        int order = size++;
+        Node<T> node = root;
+        node.minOrder = Math.min(node.minOrder, order);
+        for (String segment : split(pattern)) {
+            node = child(node, segment);
+            node.minOrder = Math.min(node.minOrder, order);
+        }
+        if (order < node.order) {
+            node.order = order;
+            node.value = value;
+        }
+    }
+
+    /**
+     * Returns the value of the first added pattern matching {@code path}, or null.
+     */
+    public T match(String path) {
+        Best<T> best = new Best<>();
+        match(root, split(path), 0, best);
+        return best.value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void match(Node<T> node, String[] segments, int index, Best<T> best) {
+        if (node.minOrder >= best.order) {
+            return;
+        }
+
+        if (index == segments.length && node.order < best.order) {
+            best.order = node.order;
+            best.value = node.value;
+        }
+
+        if (node.doubleWildcard != null) {
+            for (int i = index; i <= segments.length; i++) {
+                match(node.doubleWildcard, segments, i, best);
+            }
+        }
+
+        if (index == segments.length) {
+            return;
+        }
+
+        String segment = segments[index];
+        Node<T> literal = node.literals.get(segment);
+        if (literal != null) {
+            match(literal, segments, index + 1, best);
+        }
+        if (node.wildcard != null) {
+            match(node.wildcard, segments, index + 1, best);
+        }
+        for (GlobChild<T> glob : node.globs) {
+            if (glob.pattern().matcher(segment).matches()) {
+                match(glob.node(), segments, index + 1, best);
+            }
+        }
+    }
+
+    private Node<T> child(Node<T> node, String segment) {
+        if (segment.equals("**") || (segment.startsWith("{*") && segment.endsWith("}"))) {
+            if (node.doubleWildcard == null) {
+                node.doubleWildcard = new Node<>();
+            }
+            return node.doubleWildcard;
+        }
+        if (segment.equals("*") || isVariable(segment)) {
+            if (node.wildcard == null) {
+                node.wildcard = new Node<>();
+            }
+            return node.wildcard;
+        }
+        if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0) {
+            String regex = toRegex(segment);
+            for (GlobChild<T> glob : node.globs) {
+                if (glob.pattern().pattern().equals(regex)) {
+                    return glob.node();
+                }
+            }
+            GlobChild<T> glob = new GlobChild<>(Pattern.compile(regex), new Node<>());
+            node.globs.add(glob);
+            return glob.node();
+        }
+        return node.literals.computeIfAbsent(segment, key -> new Node<>());
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.startsWith("{") && segment.endsWith("}") && segment.indexOf('{', 1) < 0;
+    }
+
+    private static String toRegex(String segment) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                if (!literal.isEmpty()) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    int end = segment.indexOf('}', i);
+                    regex.append(".+");
+                    i = end < 0 ? segment.length() : end;
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    private static String[] split(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+}
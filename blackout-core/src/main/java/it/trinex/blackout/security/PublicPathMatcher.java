@@ -0,0 +1,36 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.properties.BlackoutProperties;
+import it.trinex.blackout.properties.FilterChainProperties;
+import it.trinex.blackout.properties.SignupProperties;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Matches the public (permitAll) routes on which {@link JwtAuthenticationFilter} does no token work.
+ *
+ * <p>Built once at startup from the same rules as the security filter chain. Public endpoints
+ * that still read the current user ({@code /auth/status}, passkey registration and
+ * reauthentication) are excluded so they keep being authenticated.</p>
+ */
+public class PublicPathMatcher {
+
+    private final PathPatternTrie<Boolean> trie = new PathPatternTrie<>();
+
+    public PublicPathMatcher(BlackoutProperties blackoutProperties, FilterChainProperties filterChainProperties, SignupProperties signupProperties) {
+        String baseUrl = blackoutProperties.getBaseUrl() == null ? "" : blackoutProperties.getBaseUrl();
+
+        // Public endpoints that need the principal when a token is present, added first so they win
+        trie.add(baseUrl + "/auth/status", false);
+        trie.add(baseUrl + "/passkey/register/**", false);
+        trie.add(baseUrl + "/passkey/reauthenticate/**", false);
+
+        PathAuthorizationManager.publicPatterns(blackoutProperties, signupProperties).forEach(pattern -> trie.add(pattern, true));
+        if (filterChainProperties.isSkipAuthenticationOnAllowed() && filterChainProperties.getAllowed() != null) {
+            filterChainProperties.getAllowed().forEach(pattern -> trie.add(pattern, true));
+        }
+    }
+
+    public boolean matches(HttpServletRequest request) {
+        return Boolean.TRUE.equals(trie.match(RequestPaths.pathWithinApplication(request)));
+    }
+}
@@ -0,0 +1,118 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.dto.response.AuthResponseDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Single-flight coalescing of cookie auto-refreshes, keyed by refresh token.
+ *
+ * <p>Browsers often fire many requests at once right after the access token expires. The first
+ * request for a refresh token performs the rotation; concurrent requests with the same token wait
+ * for it and reuse its result.</p>
+ *
+ * <p>With a grace period the result is also kept for requests that arrive shortly after the rotation
+ * has revoked the old refresh token. It is bound to the caller that triggered the rotation: only
+ * requests with the same refresh token and the same client fingerprint receive it, so a leaked
+ * refresh token replayed from elsewhere within the grace period gets nothing. The cache holds
+ * SHA-256 keys, never the tokens themselves.</p>
+ *
+ * <p>Coalescing is local to the instance.</p>
+ */
+public class RefreshCoalescer {
+
+    private static final int PURGE_INTERVAL = 64;
+
+    private final long gracePeriodMs;
+    private final Map<String, CompletableFuture<AuthResponseDTO>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Completed> recent = new ConcurrentHashMap<>();
+    private final AtomicInteger completions = new AtomicInteger();
+
+    private record Completed(AuthResponseDTO response, long expiresAt) {
+    }
+
+    /**
+     * @param gracePeriodMs how long a completed rotation is replayed to its caller, 0 to only coalesce in-flight rotations
+     */
+    public RefreshCoalescer(long gracePeriodMs) {
+        this.gracePeriodMs = gracePeriodMs;
+    }
+
+    /**
+     * Returns the rotation result for {@code refreshToken}, running {@code refresher} only if no
+     * rotation for the same token is in flight or recently completed for the same caller.
+     *
+     * @param caller client fingerprint the completed result is bound to, e.g. address and user agent
+     * @param refresher performs the rotation, may return null when the token is not valid
+     */
+    public AuthResponseDTO refresh(String refreshToken, String caller, Function<String, AuthResponseDTO> refresher) {
+        String recentKey = null;
+        if (gracePeriodMs > 0) {
+            recentKey = recentKey(refreshToken, caller);
+            Completed completed = recent.get(recentKey);
+            if (completed != null && completed.expiresAt() > System.currentTimeMillis()) {
+                return completed.response();
+            }
+        }
+
+        CompletableFuture<AuthResponseDTO> flight = new CompletableFuture<>();
+        CompletableFuture<AuthResponseDTO> existing = inFlight.putIfAbsent(refreshToken, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            AuthResponseDTO response = refresher.apply(refreshToken);
+            if (response != null && recentKey != null) {
+                remember(recentKey, response);
+            }
+            flight.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(refreshToken, flight);
+        }
+    }
+
+    private void remember(String recentKey, AuthResponseDTO response) {
+        long now = System.currentTimeMillis();
+        if (completions.incrementAndGet() % PURGE_INTERVAL == 0) {
+            recent.values().removeIf(completed -> completed.expiresAt() <= now);
+        }
+        recent.put(recentKey, new Completed(response, now + gracePeriodMs));
+    }
+
+    private static String recentKey(String refreshToken, String caller) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(refreshToken.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(String.valueOf(caller).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static AuthResponseDTO await(CompletableFuture<AuthResponseDTO> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package it.trinex.blackout.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.UrlPathHelper;
+
+/**
+ * Resolves the path that request rules are matched against.
+ *
+ * <p>{@link HttpServletRequest#getRequestURI()} is raw: {@code /%61dmin} or {@code /admin;x=1}
+ * reach the {@code /admin} handler but would not match an {@code /admin/**} rule. Rules are
+ * therefore matched on the decoded path within the application, without path parameters and
+ * with {@code .} and {@code ..} segments resolved, the same path the request is dispatched on.</p>
+ */
+public final class RequestPaths {
+
+    private RequestPaths() {
+    }
+
+    public static String pathWithinApplication(HttpServletRequest request) {
+        return StringUtils.cleanPath(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+    }
+}
@@ -24,6 +24,13 @@ public class CookieService {
                 .build();
     }
 
+    /**
+     * Access cookie that expires together with its token, e.g. when the token lifetime was jittered or capped.
+     */
+    public ResponseCookie generateAccessCookie(String token, long maxAgeSeconds) {
+        return generateGenericCookie(ACCESS_COOKIE_NAME, token, Math.max(0L, maxAgeSeconds));
+    }
+
     public ResponseCookie generateRefreshCookie(String token) {
         return ResponseCookie.from(REFRESH_COOKIE_NAME, token)
                 .httpOnly(true)
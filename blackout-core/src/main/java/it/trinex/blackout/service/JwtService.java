@@ -0,0 +1,859 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.*;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import it.trinex.blackout.security.AuthorityRegistry;
+import it.trinex.blackout.security.BlackoutPrincipalFactory;
+import it.trinex.blackout.security.BlackoutUserPrincipal;
+import it.trinex.blackout.security.ClaimsPrincipalResolver;
+import it.trinex.blackout.security.PrincipalClaimsMapper;
+import it.trinex.blackout.dto.response.TokenIntrospectionDTO;
+import it.trinex.blackout.properties.JwtProperties;
+import it.trinex.blackout.properties.JwtProperties.TokenFormat;
+import it.trinex.blackout.service.enums.TokenType;
+import it.trinex.blackout.service.redis.RedisService;
+import it.trinex.blackout.service.refresh.RefreshSession;
+import it.trinex.blackout.service.refresh.RefreshTokenStore;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JwtService implements ClaimsPrincipalResolver {
+
+    public static final String TOKEN_TYPE_CLAIM = "token_type";
+    private static final String AUTH_ID = "auth_id";
+    private static final String CLAIM_USERID = "user_id";
+    private static final String CLAIM_ROLE = "roles";
+    private static final String CLAIM_FIRSTNAME = "first_name";
+    private static final String CLAIM_LASTNAME = "last_name";
+    private static final String CLAIM_PASSKEY_ENABLED = "passkey_enabled";
+    private static final String CLAIM_PASSWORD_LESS_ENABLED = "passwordless_enabled";
+    private static final String CLAIM_PROFILE_VERSION = "pv";
+    private static final int OPAQUE_HANDLE_LENGTH = 43;
+    private static final int PARALLEL_INTROSPECTION_THRESHOLD = 8;
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+
+    private final JwtProperties jwtProperties;
+    private final BlackoutPrincipalFactory<? extends UserDetails> blackoutPrincipalFactory;
+    private final RedisService redisService;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserDetailsService userDetailsService;
+
+    private volatile HmacJwtVerifier hmacVerifier;
+    private volatile HmacJwtSigner hmacSigner;
+    private volatile PrincipalProfileCache profileCache;
+    private volatile CwtTokenCodec cwtCodec;
+    private volatile PasetoTokenCodec pasetoCodec;
+
+
+    /**
+     * Builds the PASETO codec at startup when PASETO tokens are issued or PASETO keys are configured,
+     * so an unusable key configuration fails the context instead of the first login.
+     */
+    @PostConstruct
+    public void validatePasetoKeys() {
+        TokenFormat format = jwtProperties.getFormat();
+        if (format != TokenFormat.PASETO_V4_PUBLIC && format != TokenFormat.PASETO_V4_LOCAL
+                && jwtProperties.getPasetoPrivateKey() == null && jwtProperties.getPasetoPublicKey() == null) {
+            return;
+        }
+        PasetoTokenCodec codec = getPasetoCodec();
+        if (format != TokenFormat.PASETO_V4_PUBLIC) {
+            return;
+        }
+        if (jwtProperties.getPasetoPrivateKey() == null || jwtProperties.getPasetoPublicKey() == null) {
+            throw new IllegalStateException("blackout.jwt.format PASETO_V4_PUBLIC requires "
+                    + "blackout.jwt.paseto-private-key and blackout.jwt.paseto-public-key");
+        }
+        long now = Instant.now().getEpochSecond();
+        try {
+            codec.verify(codec.signPublic(List.of(), "key-check", now, now + 60));
+        } catch (SignatureException e) {
+            throw new IllegalStateException("blackout.jwt.paseto-public-key does not match blackout.jwt.paseto-private-key", e);
+        }
+    }
+
+    // ========================================
+    // TOKEN GENERATION
+    // ========================================
+
+    /**
+     * Generates an access token for the given user principal.
+     * Token expiration is determined by the user's role (AuthAccountType).
+     * The token is automatically tracked for the user in Redis for revocation
+     * support.
+     *
+     * @param userPrincipal the authenticated user
+     * @return JWT access token string
+     */
+    public String generateAccessToken(BlackoutUserPrincipal userPrincipal) {
+        return issueAccessToken(userPrincipal).token();
+    }
+
+    /**
+     * Same as {@link #generateAccessToken(BlackoutUserPrincipal)}, but also returns the (jittered)
+     * expiration written into the token, so responses and cookies can match it.
+     */
+    public IssuedAccessToken issueAccessToken(BlackoutUserPrincipal userPrincipal) {
+        long expirationMs = jitter(jwtProperties.getAccessTokenExp());
+        IssuedToken token = buildToken(userPrincipal, expirationMs, TokenType.ACCESS.name());
+        // redis tracking
+        redisService.trackUserToken(userPrincipal.getAuthId(), token.jti(), token.expiration(), "access");
+        return new IssuedAccessToken(token.token(), token.expiration());
+    }
+
+    /**
+     * An access token together with the expiration actually written into it.
+     */
+    public record IssuedAccessToken(String token, Date expiration) {
+    }
+
+    /**
+     * Generates an access token that expires no later than {@code notAfter}, so it cannot outlive
+     * the session it is issued for.
+     *
+     * @param notAfter epoch millis the token expiration is capped at
+     * @return the token, or null if less than a second is left before {@code notAfter}
+     */
+    public IssuedAccessToken generateAccessToken(BlackoutUserPrincipal userPrincipal, long notAfter) {
+        long expirationMs = Math.min(jitter(jwtProperties.getAccessTokenExp()), notAfter - System.currentTimeMillis());
+        if (expirationMs < 1000) {
+            return null;
+        }
+        IssuedToken token = buildToken(userPrincipal, expirationMs, TokenType.ACCESS.name());
+        redisService.trackUserToken(userPrincipal.getAuthId(), token.jti(), token.expiration(), "access");
+        return new IssuedAccessToken(token.token(), token.expiration());
+    }
+
+    public String generatePasskeyToken(BlackoutUserPrincipal userPrincipal) {
+        long expirationMs = jwtProperties.getAccessTokenExp();
+        return buildToken(userPrincipal, expirationMs, TokenType.PASSKEY.name()).token();
+    }
+
+    /**
+     * Generates a refresh token for the given user principal.
+     * Refresh tokens have longer expiration times than access tokens.
+     * The token is automatically tracked for the user in Redis for revocation
+     * support.
+     *
+     * @param userPrincipal the authenticated user
+     * @return JWT refresh token string
+     */
+    public String generateRefreshToken(BlackoutUserPrincipal userPrincipal) {
+        if (Boolean.TRUE.equals(jwtProperties.getOpaqueRefreshTokens())) {
+            return generateOpaqueRefreshToken(userPrincipal);
+        }
+        long expirationMs = jwtProperties.getRefreshTokenExp();
+        IssuedToken token = buildToken(userPrincipal, expirationMs, TokenType.REFRESH.name());
+        // redis tracking
+        redisService.trackUserToken(userPrincipal.getAuthId(), token.jti(), token.expiration(), "refresh");
+        return token.token();
+    }
+
+    /**
+     * Result of rotating an opaque refresh token.
+     *
+     * @param subject the user the token belongs to
+     * @param refreshToken the handle replacing the presented one
+     */
+    public record RotatedRefreshToken(String subject, String refreshToken) {
+    }
+
+    /**
+     * Whether the token is an opaque refresh handle rather than a JWT.
+     */
+    public boolean isOpaqueRefreshToken(String token) {
+        return Boolean.TRUE.equals(jwtProperties.getOpaqueRefreshTokens())
+                && token != null && token.length() == OPAQUE_HANDLE_LENGTH && token.indexOf('.') < 0;
+    }
+
+    /**
+     * Consumes an opaque refresh handle and issues its successor in the same family.
+     * Presenting an already rotated handle revokes the family.
+     *
+     * @return the rotated token, or null if the handle is unknown, expired, reused or revoked
+     */
+    public RotatedRefreshToken rotateRefreshToken(String refreshToken) {
+        String newRefreshToken = randomToken(32);
+        long ttlSeconds = jwtProperties.getRefreshTokenExp() / 1000;
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(
+                handleId(refreshToken), handleId(newRefreshToken), ttlSeconds);
+
+        RefreshSession session = rotation.session();
+        if (session == null) {
+            return null;
+        }
+        // Families are tracked like JWT ids, so revoking all user tokens also revokes them
+        if (redisService.isRefreshTokenRevoked(session.family())) {
+            log.debug("Refresh token family {} is revoked", session.family());
+            refreshTokenStore.revokeFamily(session.family());
+            return null;
+        }
+        redisService.trackUserToken(session.authId(), session.family(),
+                new Date(System.currentTimeMillis() + ttlSeconds * 1000), "refresh");
+        return new RotatedRefreshToken(session.subject(), newRefreshToken);
+    }
+
+    /**
+     * Issues a 256-bit random handle starting a new token family.
+     */
+    private String generateOpaqueRefreshToken(BlackoutUserPrincipal userPrincipal) {
+        String refreshToken = randomToken(32);
+        long ttlSeconds = jwtProperties.getRefreshTokenExp() / 1000;
+        RefreshSession session = new RefreshSession(randomToken(16), userPrincipal.getAuthId(), userPrincipal.getUsername());
+        refreshTokenStore.store(handleId(refreshToken), session, ttlSeconds);
+        redisService.trackUserToken(userPrincipal.getAuthId(), session.family(),
+                new Date(System.currentTimeMillis() + ttlSeconds * 1000), "refresh");
+        return refreshToken;
+    }
+
+    private static String randomToken(int bytes) {
+        byte[] random = new byte[bytes];
+        SECURE_RANDOM.nextBytes(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+
+    /**
+     * Handles are stored by their SHA-256, so the store never holds a usable token.
+     */
+    private static String handleId(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A signed token with the values needed to track it, so it does not have to be parsed back.
+     */
+    private record IssuedToken(String token, String jti, Date expiration) {
+    }
+
+    /**
+     * Builds a JWT token with all user principal information as claims.
+     * Includes a unique JTI (JWT ID) for token revocation support.
+     */
+    private IssuedToken buildToken(BlackoutUserPrincipal userPrincipal, long expirationMs, String tokenType) {
+        Instant now = Instant.now();
+        String jti = UUID.randomUUID().toString();
+        long issuedAt = now.getEpochSecond();
+        long expiration = now.plusMillis(expirationMs).getEpochSecond();
+
+        List<Object> claims = staticClaims(userPrincipal, tokenType);
+        if (TokenType.ACCESS.name().equals(tokenType) && Boolean.TRUE.equals(jwtProperties.getThinAccessTokens())) {
+            claims = thinClaims(userPrincipal, tokenType, claims);
+        }
+
+        String compact = switch (jwtProperties.getFormat()) {
+            case CWT -> getCwtCodec().sign(claims, jti, issuedAt, expiration);
+            case PASETO_V4_PUBLIC -> getPasetoCodec().signPublic(claims, jti, issuedAt, expiration);
+            case PASETO_V4_LOCAL -> getPasetoCodec().encryptLocal(claims, jti, issuedAt, expiration);
+            case JWT -> null;
+        };
+        if (compact != null) {
+            return new IssuedToken(compact, jti, new Date(expiration * 1000));
+        }
+
+        // Static claims come from a cached, already serialized template
+        HmacJwtSigner signer = getHmacSigner();
+        if (signer != null) {
+            String token = signer.sign(claims, jti, issuedAt, expiration);
+            if (token != null) {
+                return new IssuedToken(token, jti, new Date(expiration * 1000));
+            }
+        }
+
+        var builder = Jwts.builder()
+                .id(jti)
+                .issuedAt(new Date(issuedAt * 1000))
+                .expiration(new Date(expiration * 1000))
+                .signWith(getSigningKey(), SignatureAlgorithm.HS256);
+        for (int i = 0; i < claims.size(); i += 2) {
+            builder.claim((String) claims.get(i), claims.get(i + 1));
+        }
+
+        return new IssuedToken(builder.compact(), jti, new Date(expiration * 1000));
+    }
+
+    /**
+     * The claims that do not change between tokens of the same principal, as alternating names and values.
+     * Null values are left out, as jjwt does.
+     */
+    private List<Object> staticClaims(BlackoutUserPrincipal userPrincipal, String tokenType) {
+        List<Object> claims = new ArrayList<>(24);
+        BiConsumer<String, Object> add = (name, value) -> {
+            if (value != null) {
+                claims.add(name);
+                claims.add(value);
+            }
+        };
+        add.accept(Claims.SUBJECT, userPrincipal.getUsername());
+        add.accept(TOKEN_TYPE_CLAIM, tokenType);
+        add.accept(AUTH_ID, userPrincipal.getAuthId());
+        add.accept(CLAIM_USERID, userPrincipal.getUserId());
+        add.accept(CLAIM_ROLE, extractRoleFromAuthorities(userPrincipal.getAuthorities()));
+        add.accept(CLAIM_FIRSTNAME, userPrincipal.getFirstName());
+        add.accept(CLAIM_LASTNAME, userPrincipal.getLastName());
+        add.accept(CLAIM_PASSKEY_ENABLED, userPrincipal.isPasskeyEnabled());
+        add.accept(CLAIM_PASSWORD_LESS_ENABLED, userPrincipal.isPasswordlessEnabled());
+        writeExtraClaims(userPrincipal, add);
+        return claims;
+    }
+
+    /**
+     * Claims of a thin access token: the identity plus a version of the full claims, which keys
+     * the server-side profile cache.
+     */
+    private List<Object> thinClaims(BlackoutUserPrincipal userPrincipal, String tokenType, List<Object> fullClaims) {
+        List<Object> claims = new ArrayList<>(8);
+        claims.add(Claims.SUBJECT);
+        claims.add(userPrincipal.getUsername());
+        claims.add(TOKEN_TYPE_CLAIM);
+        claims.add(tokenType);
+        if (userPrincipal.getAuthId() != null) {
+            claims.add(AUTH_ID);
+            claims.add(userPrincipal.getAuthId());
+        }
+        claims.add(CLAIM_PROFILE_VERSION);
+        claims.add(profileVersion(fullClaims));
+        return claims;
+    }
+
+    /**
+     * First 96 bits of the SHA-256 of the serialized claims, so a profile change always yields a new
+     * cache key. Claims the JSON writer does not handle are hashed through their string form.
+     */
+    private static String profileVersion(List<Object> fullClaims) {
+        byte[] serialized = HmacJwtSigner.serialize(fullClaims);
+        if (serialized.length == 0) {
+            serialized = fullClaims.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(serialized);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void writeExtraClaims(BlackoutUserPrincipal userPrincipal, BiConsumer<String, Object> claims) {
+        if (blackoutPrincipalFactory instanceof PrincipalClaimsMapper<?> mapper && mapper.principalType().isInstance(userPrincipal)) {
+            writeMappedClaims(mapper, userPrincipal, claims);
+        } else {
+            userPrincipal.getExtraClaims().forEach(claims);
+        }
+    }
+
+    // ========================================
+    // TOKEN VALIDATION
+    // ========================================
+
+    /**
+     * Validates if the token is a valid access token (not expired, valid
+     * signature).
+     *
+     * @param token the JWT token to validate
+     * @return true if token is valid, false otherwise
+     */
+    public boolean isTokenValid(String token, String requiredTokenType) {
+        return extractValidClaims(token, requiredTokenType) != null;
+    }
+
+    /**
+     * Parses the token once and returns its claims if it is a valid, unrevoked token of the
+     * required type, or null otherwise.
+     *
+     * @param token the JWT token to validate
+     * @return the verified claims, or null if the token is invalid
+     */
+    public Claims extractValidClaims(String token, String requiredTokenType) {
+        try {
+            Claims claims = extractAllClaims(token);
+            String tokenType = claims.get(TOKEN_TYPE_CLAIM, String.class);
+            if(redisService.isAccessTokenRevoked(claims.getId())) {
+                log.debug("Access token {} is revoked", claims.getId());
+                return null;
+            }
+            return requiredTokenType.equals(tokenType) && !isTokenExpired(claims) ? claims : null;
+        } catch (ExpiredJwtException e) {
+            log.debug("Token expired: {}", e.getMessage());
+            return null;
+        } catch (SignatureException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
+            log.warn("Invalid token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Introspects many tokens at once, for downstream services. Signatures are verified in
+     * parallel on the common fork-join pool once the batch is large enough, then the revocation
+     * lists are checked for every verified token in a single {@link RedisService} call.
+     *
+     * @return one result per token, in the same order
+     */
+    public List<TokenIntrospectionDTO> introspect(List<String> tokens) {
+        Stream<String> stream = tokens.size() >= PARALLEL_INTROSPECTION_THRESHOLD ? tokens.parallelStream() : tokens.stream();
+        List<Claims> verified = stream.map(this::extractClaimsOrNull).toList();
+
+        List<String> accessJtis = new ArrayList<>();
+        List<String> refreshJtis = new ArrayList<>();
+        for (Claims claims : verified) {
+            if (claims != null && claims.getId() != null) {
+                (TokenType.REFRESH.name().equals(claims.get(TOKEN_TYPE_CLAIM)) ? refreshJtis : accessJtis).add(claims.getId());
+            }
+        }
+        Set<String> revoked = redisService.findRevokedTokens(accessJtis, refreshJtis);
+
+        List<TokenIntrospectionDTO> results = new ArrayList<>(tokens.size());
+        for (Claims claims : verified) {
+            if (claims == null || revoked.contains(claims.getId())) {
+                results.add(TokenIntrospectionDTO.inactive());
+                continue;
+            }
+            results.add(TokenIntrospectionDTO.builder()
+                    .active(true)
+                    .sub(claims.getSubject())
+                    .tokenType(claims.get(TOKEN_TYPE_CLAIM, String.class))
+                    .authId(claims.get(AUTH_ID, Long.class))
+                    .roles(introspectedRoles(claims))
+                    .jti(claims.getId())
+                    .exp(claims.getExpiration() != null ? claims.getExpiration().getTime() / 1000 : null)
+                    .build());
+        }
+        return results;
+    }
+
+    /**
+     * Claims of one introspected token, or null if it does not verify. A codec that cannot handle
+     * the token (e.g. no PASETO key configured) only makes that token inactive.
+     */
+    private Claims extractClaimsOrNull(String token) {
+        try {
+            return token == null ? null : extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Roles of an introspected token. Thin access tokens do not carry them, so they come from the
+     * cached profile, and are left out if the profile cannot be loaded.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> introspectedRoles(Claims claims) {
+        if (claims.get(CLAIM_PROFILE_VERSION) == null) {
+            return claims.get(CLAIM_ROLE, List.class);
+        }
+        try {
+            return (List<String>) profileClaims(claims).get(CLAIM_ROLE);
+        } catch (UsernameNotFoundException | IllegalArgumentException e) {
+            log.debug("No profile for introspected token {}: {}", claims.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Validates if the token is a valid refresh token (not expired, valid
+     * signature). Opaque handles are looked up in the refresh token store and
+     * must be neither rotated, expired nor revoked.
+     *
+     * @param token the JWT token or opaque handle to validate
+     * @return true if refresh token is valid, false otherwise
+     */
+    public boolean isRefreshTokenValid(String token) {
+        if (isOpaqueRefreshToken(token)) {
+            RefreshTokenStore.Handle handle = refreshTokenStore.find(handleId(token));
+            return handle != null && !redisService.isRefreshTokenRevoked(handle.session().family());
+        }
+        return extractValidRefreshClaims(token) != null;
+    }
+
+    /**
+     * Parses a JWT refresh token once and returns its claims if it is a valid, unrevoked refresh
+     * token, or null otherwise. Opaque handles are not tokens and always return null.
+     *
+     * @param token the JWT refresh token to validate
+     * @return the verified claims, or null if the token is invalid
+     */
+    public Claims extractValidRefreshClaims(String token) {
+        try {
+            Claims claims = extractAllClaims(token);
+            String tokenType = claims.get(TOKEN_TYPE_CLAIM, String.class);
+            if(redisService.isRefreshTokenRevoked(claims.getId())) {
+                log.debug("Refresh token {} is revoked", claims.getId());
+                return null;
+            }
+            return TokenType.REFRESH.name().equals(tokenType) && !isTokenExpired(claims) ? claims : null;
+        } catch (ExpiredJwtException e) {
+            log.debug("Refresh token expired: {}", e.getMessage());
+            return null;
+        } catch (SignatureException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
+            log.warn("Invalid refresh token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Time at which the session behind {@code refreshToken} ends, if it belongs to {@code subject}.
+     *
+     * @return epoch millis, or 0 if the refresh token is not usable or belongs to someone else
+     */
+    public long extractRefreshSessionEnd(String refreshToken, String subject) {
+        if (refreshToken == null || subject == null) {
+            return 0;
+        }
+        if (isOpaqueRefreshToken(refreshToken)) {
+            RefreshTokenStore.Handle handle = refreshTokenStore.find(handleId(refreshToken));
+            return handle != null && subject.equals(handle.session().subject())
+                    && !redisService.isRefreshTokenRevoked(handle.session().family()) ? handle.expiresAt() : 0;
+        }
+        Claims claims = extractValidRefreshClaims(refreshToken);
+        return claims != null && subject.equals(claims.getSubject()) ? claims.getExpiration().getTime() : 0;
+    }
+
+    /**
+     * Checks whether a token has lived past the given fraction of its lifetime.
+     *
+     * @param fraction value between 0 and 1, e.g. 0.5 for half-life
+     */
+    public boolean isPastLifetimeFraction(String token, double fraction) {
+        return isPastLifetimeFraction(extractAllClaims(token), fraction);
+    }
+
+    /**
+     * Same as {@link #isPastLifetimeFraction(String, double)} for already verified claims.
+     */
+    public boolean isPastLifetimeFraction(Claims claims, double fraction) {
+        long issuedAt = claims.getIssuedAt().getTime();
+        long expiration = claims.getExpiration().getTime();
+        return System.currentTimeMillis() - issuedAt >= (expiration - issuedAt) * fraction;
+    }
+
+    /**
+     * Checks if a token is expired based on its claims.
+     */
+    private boolean isTokenExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration.before(new Date());
+    }
+
+    // ========================================
+    // EXTRACT USER PRINCIPAL
+    // ========================================
+
+    /**
+     * Extracts the full JWTUserPrincipal from a JWT token.
+     * This reconstructs the user principal from all claims in the token.
+     * Use this method to get user information from a token on the client side
+     * or when you need to validate a token and get the user information.
+     *
+     * @param token the JWT token
+     * @return JWTUserPrincipal containing all user information
+     * @throws RuntimeException if token is invalid or expired
+     */
+    public UserDetails extractUserPrincipal(String token) {
+        return extractUserPrincipal(extractAllClaims(token));
+    }
+
+    /**
+     * Builds the user principal from already verified claims.
+     */
+    @Override
+    public UserDetails extractUserPrincipal(Claims claims) {
+        if (claims.get(CLAIM_PROFILE_VERSION) != null) {
+            return loadProfile(claims);
+        }
+        return blackoutPrincipalFactory.fromClaims(claims, extractAuthorities(claims));
+    }
+
+    /**
+     * Returns the authorities granted by the roles claim: each role as is and with the ROLE_ prefix.
+     * The instances are shared, interned authorities.
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> extractAuthorities(Claims claims) {
+        if (claims.get(CLAIM_PROFILE_VERSION) != null) {
+            return loadProfile(claims).getAuthorities();
+        }
+        List<String> roles = claims.get(CLAIM_ROLE, List.class);
+        return AuthorityRegistry.forRoles(roles);
+    }
+
+    /**
+     * Returns the principal of a thin access token from the profile cache, loading it through the
+     * {@link UserDetailsService} on a miss. A loaded {@link BlackoutUserPrincipal} is rebuilt from
+     * its full claims by the principal factory, like a principal from a full token: it gets the same
+     * interned authorities and no password, and the instance returned by the service is left untouched.
+     */
+    private UserDetails loadProfile(Claims claims) {
+        String key = claims.get(AUTH_ID) + ":" + claims.get(CLAIM_PROFILE_VERSION);
+        return getProfileCache().get(key, () -> {
+            UserDetails user = userDetailsService.loadUserByUsername(claims.getSubject());
+            if (!(user instanceof BlackoutUserPrincipal principal)) {
+                return user;
+            }
+            List<Object> fullClaims = staticClaims(principal, TokenType.ACCESS.name());
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < fullClaims.size(); i += 2) {
+                values.put((String) fullClaims.get(i), fullClaims.get(i + 1));
+            }
+            Claims profile = Jwts.claims().add(values).build();
+            return blackoutPrincipalFactory.fromClaims(profile, extractAuthorities(profile));
+        });
+    }
+
+    /**
+     * Extracts the user's role (AuthAccountType) from a token.
+     */
+    public List<String> extractRole(String token) {
+        return extractAllClaims(token).get(CLAIM_ROLE, List.class);
+    }
+
+    /**
+     * Extracts the expiration date from a token.
+     */
+    public Date extractExpiration(String token) {
+        return extractAllClaims(token).getExpiration();
+    }
+
+    public String extractSubject(String token) {
+        return extractAllClaims(token).getSubject();
+    }
+
+    /**
+     * Extracts the JTI (JWT ID) from a token for revocation purposes.
+     */
+    public String extractJti(String token) {
+        return extractAllClaims(token).getId();
+    }
+
+    // ========================================
+    // HELPER METHODS
+    // ========================================
+
+    /**
+     * Returns the claims describing the user of an access token. For thin access tokens the
+     * claims left out of the token are filled in from the cached profile.
+     */
+    public Map<String, Object> extractProfileClaims(String token) {
+        return profileClaims(extractAllClaims(token));
+    }
+
+    private Map<String, Object> profileClaims(Claims claims) {
+        if (claims.get(CLAIM_PROFILE_VERSION) == null || !(loadProfile(claims) instanceof BlackoutUserPrincipal principal)) {
+            return claims;
+        }
+        Map<String, Object> profile = new LinkedHashMap<>(claims);
+        List<Object> fullClaims = staticClaims(principal, TokenType.ACCESS.name());
+        for (int i = 0; i < fullClaims.size(); i += 2) {
+            profile.putIfAbsent((String) fullClaims.get(i), fullClaims.get(i + 1));
+        }
+        return profile;
+    }
+
+    /**
+     * Extracts all claims from a JWT token.
+     */
+    public Claims extractAllClaims(String token) {
+        // CWT and PASETO tokens are recognised by their prefix, whatever format is currently issued
+        if (token != null && token.startsWith(CwtTokenCodec.PREFIX)) {
+            return getCwtCodec().verify(token);
+        }
+        if (token != null && PasetoTokenCodec.isPaseto(token)) {
+            return getPasetoCodec().verify(token);
+        }
+
+        // Tokens in Blackout's own format skip the generic parser, anything else goes through jjwt
+        HmacJwtVerifier verifier = getHmacVerifier();
+        if (verifier != null && token != null) {
+            Claims claims = verifier.verify(token);
+            if (claims != null) {
+                return claims;
+            }
+        }
+        return Jwts.parser()
+                .verifyWith((SecretKey) getSigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    /**
+     * Writes the custom claims through the configured mapper instead of {@link BlackoutUserPrincipal#getExtraClaims()}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T extends BlackoutUserPrincipal> void writeMappedClaims(PrincipalClaimsMapper<T> mapper,
+                                                                          BlackoutUserPrincipal userPrincipal,
+                                                                          BiConsumer<String, Object> claims) {
+        mapper.writeClaims((T) userPrincipal, claims);
+    }
+
+    /**
+     * Extracts AuthAccountType from Spring Security authorities.
+     * Authorities are expected to contain a ROLE_ prefixed authority (e.g.
+     * "ROLE_ADMIN").
+     */
+    private List<String> extractRoleFromAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        List<String> stringAuthorities = authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(auth -> auth.startsWith("ROLE_"))
+                .toList()
+                .stream()
+                .map(s -> s.substring(5))
+                .toList();
+
+        if (stringAuthorities.isEmpty()) {
+            throw new IllegalArgumentException("No valid role found in authorities");
+        }
+
+        return stringAuthorities;
+    }
+
+    private PrincipalProfileCache getProfileCache() {
+        PrincipalProfileCache cache = profileCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = profileCache;
+                if (cache == null) {
+                    cache = new PrincipalProfileCache(jwtProperties.getProfileCacheSize(), jwtProperties.getAccessTokenExp());
+                    profileCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private CwtTokenCodec getCwtCodec() {
+        CwtTokenCodec codec = cwtCodec;
+        if (codec == null) {
+            codec = new CwtTokenCodec(Decoders.BASE64.decode(jwtProperties.getSecret()));
+            cwtCodec = codec;
+        }
+        return codec;
+    }
+
+    private PasetoTokenCodec getPasetoCodec() {
+        PasetoTokenCodec codec = pasetoCodec;
+        if (codec == null) {
+            try {
+                // v4.local uses its own key, derived from the shared secret
+                byte[] localKey = PasetoTokenCodec.deriveLocalKey(Decoders.BASE64.decode(jwtProperties.getSecret()));
+
+                KeyFactory keyFactory = KeyFactory.getInstance("Ed25519");
+                PrivateKey privateKey = jwtProperties.getPasetoPrivateKey() == null ? null
+                        : keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(jwtProperties.getPasetoPrivateKey())));
+                PublicKey publicKey = jwtProperties.getPasetoPublicKey() == null ? null
+                        : keyFactory.generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(jwtProperties.getPasetoPublicKey())));
+                codec = new PasetoTokenCodec(localKey, privateKey, publicKey);
+            } catch (GeneralSecurityException | DecodingException e) {
+                throw new IllegalStateException("Invalid PASETO key configuration", e);
+            }
+            pasetoCodec = codec;
+        }
+        return codec;
+    }
+
+    /**
+     * Gets the signing key for JWT token signing and verification.
+     */
+    private Key getSigningKey() {
+        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    /**
+     * Gets the verifier for Blackout-issued HS256 tokens, or null when blackout.jwt.fast-verification is off.
+     */
+    private HmacJwtVerifier getHmacVerifier() {
+        if (!Boolean.TRUE.equals(jwtProperties.getFastVerification())) {
+            return null;
+        }
+        HmacJwtVerifier verifier = hmacVerifier;
+        if (verifier == null) {
+            verifier = new HmacJwtVerifier(Decoders.BASE64.decode(jwtProperties.getSecret()));
+            hmacVerifier = verifier;
+        }
+        return verifier;
+    }
+
+    /**
+     * Gets the template signer for Blackout's own HS256 tokens, or null when blackout.jwt.fast-signing is off.
+     */
+    private HmacJwtSigner getHmacSigner() {
+        if (!Boolean.TRUE.equals(jwtProperties.getFastSigning())) {
+            return null;
+        }
+        HmacJwtSigner signer = hmacSigner;
+        if (signer == null) {
+            signer = new HmacJwtSigner(Decoders.BASE64.decode(jwtProperties.getSecret()));
+            hmacSigner = signer;
+        }
+        return signer;
+    }
+
+    /**
+     * Randomly shortens a lifetime by up to blackout.jwt.access-token-exp-jitter of its length.
+     */
+    private long jitter(long expirationMs) {
+        double jitter = jwtProperties.getAccessTokenExpJitter() == null ? 0 : jwtProperties.getAccessTokenExpJitter();
+        long maxJitter = (long) (expirationMs * Math.min(Math.max(jitter, 0), 1));
+        return maxJitter > 0 ? expirationMs - ThreadLocalRandom.current().nextLong(maxJitter + 1) : expirationMs;
+    }
+
+    /**
+     * Calculates the expiration instant for an access token based on role.
+     */
+    public Instant calculateAccessTokenExpiration() {
+        long expirationMs = jwtProperties.getAccessTokenExp();
+        return Instant.now().plusMillis(expirationMs);
+    }
+
+    /**
+     * Calculates the expiration instant for a refresh token based on role.
+     */
+    public Instant calculateRefreshTokenExpiration() {
+        long expirationMs = jwtProperties.getRefreshTokenExp();
+        return Instant.now().plusMillis(expirationMs);
+    }
+}
@@ -0,0 +1,53 @@
+package it.trinex.blackout.service;
+
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Local, size-bounded cache of user principals for thin access tokens, keyed by
+ * {@code authId:profileVersion}.
+ *
+ * <p>A new profile version is issued whenever the principal's claims change, so a cached entry
+ * never needs invalidation; entries are still dropped after {@code maxAge} so removed roles or
+ * disabled accounts are eventually reloaded. When full, an arbitrary entry is evicted.</p>
+ */
+public class PrincipalProfileCache {
+
+    private final int maxSize;
+    private final long maxAge;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(UserDetails principal, long loadedAt) {
+    }
+
+    public PrincipalProfileCache(int maxSize, long maxAge) {
+        this.maxSize = maxSize;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Returns the cached principal, loading it when missing or too old.
+     */
+    public UserDetails get(String key, Supplier<UserDetails> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt() < maxAge) {
+            return entry.principal();
+        }
+
+        UserDetails principal = loader.get();
+        if (entry == null && entries.size() >= maxSize) {
+            Iterator<String> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        entries.put(key, new Entry(principal, now));
+        return principal;
+    }
+}
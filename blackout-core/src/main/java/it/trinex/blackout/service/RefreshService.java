@@ -0,0 +1,112 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import it.trinex.blackout.dto.response.AuthResponseDTO;
+import it.trinex.blackout.exception.InvalidTokenException;
+import it.trinex.blackout.security.BlackoutUserPrincipal;
+import it.trinex.blackout.service.redis.RedisService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+
+/**
+ * Exchanges refresh tokens for new token pairs. Only needs the {@link UserDetailsService}, so
+ * cookie auto-refresh works without the JPA module.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RefreshService {
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final RedisService redisService;
+
+    public AuthResponseDTO refreshToken(String refreshToken) {
+        if (jwtService.isOpaqueRefreshToken(refreshToken)) {
+            return refreshOpaqueToken(refreshToken);
+        }
+
+        // Validate refresh token, its claims are reused below
+        Claims refreshClaims = jwtService.extractValidRefreshClaims(refreshToken);
+        if (refreshClaims == null) {
+            log.warn("Invalid or expired refresh token");
+            throw new InvalidTokenException("Refresh token is invalid or expired");
+        }
+
+        // Extract user from refresh token (no database call needed!)
+        String subject = refreshClaims.getSubject();
+
+        BlackoutUserPrincipal userPrincipal = (BlackoutUserPrincipal) userDetailsService.loadUserByUsername(subject);
+
+        // Generate new access token
+        JwtService.IssuedAccessToken newAccessToken = jwtService.issueAccessToken(userPrincipal);
+        String newRefreshToken = jwtService.generateRefreshToken(userPrincipal);
+
+        // Calculate expiration time for client, the access token's own expiry includes the jitter
+        long accessTokenExpirationMs = newAccessToken.expiration().getTime() - System.currentTimeMillis();
+        long refreshTokenExpirationMs = jwtService.calculateRefreshTokenExpiration().toEpochMilli()
+                - System.currentTimeMillis();
+
+        redisService.revokeRefreshToken(refreshClaims.getId(), refreshClaims.getExpiration());
+
+        log.info("Token refreshed successfully for user: {}", userPrincipal.getUsername());
+
+        return AuthResponseDTO.builder()
+                .access_token(newAccessToken.token())
+                .refresh_token(newRefreshToken)
+                .access_token_expiration(accessTokenExpirationMs)
+                .refresh_token_expiration(refreshTokenExpirationMs)
+                .build();
+    }
+
+    /**
+     * Re-issues the access token of a still valid session without rotating the refresh token.
+     * The new token never outlives the refresh token, so sliding re-issue cannot extend the session
+     * past the refresh token's expiry, and a revoked or rotated refresh token stops it.
+     *
+     * @return the new access token and its remaining lifetime, or null if the refresh token is not
+     * usable for this user or is about to expire
+     */
+    public AuthResponseDTO reissueAccessToken(BlackoutUserPrincipal userPrincipal, String refreshToken) {
+        long sessionEnd = jwtService.extractRefreshSessionEnd(refreshToken, userPrincipal.getUsername());
+        JwtService.IssuedAccessToken token = sessionEnd > 0 ? jwtService.generateAccessToken(userPrincipal, sessionEnd) : null;
+        if (token == null) {
+            return null;
+        }
+
+        log.debug("Re-issued access token for user '{}'", userPrincipal.getUsername());
+        return AuthResponseDTO.builder()
+                .access_token(token.token())
+                .access_token_expiration(token.expiration().getTime() - System.currentTimeMillis())
+                .build();
+    }
+
+    /**
+     * Rotates an opaque refresh handle: the presented handle is consumed and replaced in one
+     * atomic store operation, so no revocation entry has to be written.
+     */
+    private AuthResponseDTO refreshOpaqueToken(String refreshToken) {
+        JwtService.RotatedRefreshToken rotated = jwtService.rotateRefreshToken(refreshToken);
+        if (rotated == null) {
+            log.warn("Invalid, expired or reused refresh token");
+            throw new InvalidTokenException("Refresh token is invalid or expired");
+        }
+
+        BlackoutUserPrincipal userPrincipal = (BlackoutUserPrincipal) userDetailsService.loadUserByUsername(rotated.subject());
+        JwtService.IssuedAccessToken newAccessToken = jwtService.issueAccessToken(userPrincipal);
+
+        long accessTokenExpirationMs = newAccessToken.expiration().getTime() - System.currentTimeMillis();
+        long refreshTokenExpirationMs = jwtService.calculateRefreshTokenExpiration().toEpochMilli()
+                - System.currentTimeMillis();
+
+        log.info("Token refreshed successfully for user: {}", userPrincipal.getUsername());
+
+        return AuthResponseDTO.builder()
+                .access_token(newAccessToken.token())
+                .refresh_token(rotated.refreshToken())
+                .access_token_expiration(accessTokenExpirationMs)
+                .refresh_token_expiration(refreshTokenExpirationMs)
+                .build();
+    }
+}
@@ -0,0 +1,71 @@
+package it.trinex.blackout.service.hashing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes password hashing timings to Micrometer:
+ * <ul>
+ *     <li>{@code blackout.password.hashing.queue.wait} - time spent waiting for a hashing thread</li>
+ *     <li>{@code blackout.password.hashing.duration} - hashing time, tagged by operation</li>
+ *     <li>{@code blackout.password.hashing.rejected} - tasks rejected because the queue was full</li>
+ *     <li>{@code blackout.password.hashing.queue.size} and {@code blackout.password.hashing.active} gauges</li>
+ * </ul>
+ */
+public class MicrometerPasswordHashingMetrics implements PasswordHashingMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer queueWait;
+    private final Timer encode;
+    private final Timer matches;
+    private final Counter rejected;
+
+    public MicrometerPasswordHashingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.queueWait = Timer.builder("blackout.password.hashing.queue.wait")
+                .description("Time password hashing tasks wait for a free thread")
+                .register(registry);
+        this.encode = hashTimer("encode");
+        this.matches = hashTimer("matches");
+        this.rejected = Counter.builder("blackout.password.hashing.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(registry);
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("blackout.password.hashing.duration")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    @Override
+    public void bind(ThreadPoolExecutor executor) {
+        Gauge.builder("blackout.password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(registry);
+        Gauge.builder("blackout.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing threads currently busy")
+                .register(registry);
+    }
+
+    @Override
+    public void recordQueueWait(long nanos) {
+        queueWait.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordHash(String operation, long nanos) {
+        ("encode".equals(operation) ? encode : matches).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRejected() {
+        rejected.increment();
+    }
+}
@@ -0,0 +1,38 @@
+package it.trinex.blackout.service.hashing;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Receives timings from {@link BoundedPasswordEncoder}.
+ */
+public interface PasswordHashingMetrics {
+
+    PasswordHashingMetrics NOOP = new PasswordHashingMetrics() {
+    };
+
+    /**
+     * Called once with the executor, to expose queue size and active threads.
+     */
+    default void bind(ThreadPoolExecutor executor) {
+    }
+
+    /**
+     * Time a task waited in the queue before a hashing thread picked it up.
+     */
+    default void recordQueueWait(long nanos) {
+    }
+
+    /**
+     * Time spent hashing or verifying a password.
+     *
+     * @param operation {@code encode} or {@code matches}
+     */
+    default void recordHash(String operation, long nanos) {
+    }
+
+    /**
+     * A task was rejected because the queue was full.
+     */
+    default void recordRejected() {
+    }
+}
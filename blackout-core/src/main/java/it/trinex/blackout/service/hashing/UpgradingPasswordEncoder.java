@@ -0,0 +1,88 @@
+package it.trinex.blackout.service.hashing;
+
+import it.trinex.blackout.properties.PasswordHashingProperties;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link DelegatingPasswordEncoder} that encodes with the algorithm and cost configured under
+ * {@code blackout.password-hashing} and flags every other hash for upgrade.
+ *
+ * <p>Hashes without an <code>{id}</code> prefix are legacy BCrypt hashes. Unlike the upgrade check
+ * of the individual encoders, a hash is upgraded whenever its parameters differ from the target,
+ * so the cost can be lowered as well as raised.</p>
+ */
+public class UpgradingPasswordEncoder implements PasswordEncoder {
+
+    private static final String BCRYPT = "bcrypt";
+    private static final String ARGON2 = "argon2";
+
+    private static final Pattern BCRYPT_PARAMETERS = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+    private static final Pattern ARGON2_PARAMETERS = Pattern.compile("^\\$argon2id\\$v=\\d+\\$m=(\\d+),t=(\\d+),p=(\\d+)\\$");
+
+    private final PasswordHashingProperties properties;
+    private final String targetId;
+    private final DelegatingPasswordEncoder delegate;
+
+    public UpgradingPasswordEncoder(PasswordHashingProperties properties) {
+        this.properties = properties;
+        this.targetId = properties.getAlgorithm() == PasswordHashingProperties.Algorithm.ARGON2ID ? ARGON2 : BCRYPT;
+
+        PasswordHashingProperties.Argon2 argon2 = properties.getArgon2();
+        BCryptPasswordEncoder bcryptEncoder = new BCryptPasswordEncoder(properties.getBcrypt().getStrength());
+        Map<String, PasswordEncoder> encoders = Map.of(
+                BCRYPT, bcryptEncoder,
+                ARGON2, new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(),
+                        argon2.getParallelism(), argon2.getMemory(), argon2.getIterations()));
+
+        this.delegate = new DelegatingPasswordEncoder(targetId, encoders);
+        this.delegate.setDefaultPasswordEncoderForMatches(bcryptEncoder);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+
+        String id = BCRYPT;
+        String hash = encodedPassword;
+        int end = encodedPassword.indexOf('}');
+        if (encodedPassword.startsWith("{") && end > 0) {
+            id = encodedPassword.substring(1, end);
+            hash = encodedPassword.substring(end + 1);
+        }
+
+        if (!id.equals(targetId)) {
+            return true;
+        }
+
+        if (BCRYPT.equals(id)) {
+            Matcher matcher = BCRYPT_PARAMETERS.matcher(hash);
+            return !matcher.find() || Integer.parseInt(matcher.group(1)) != properties.getBcrypt().getStrength();
+        }
+
+        PasswordHashingProperties.Argon2 argon2 = properties.getArgon2();
+        Matcher matcher = ARGON2_PARAMETERS.matcher(hash);
+        return !matcher.find()
+                || Integer.parseInt(matcher.group(1)) != argon2.getMemory()
+                || Integer.parseInt(matcher.group(2)) != argon2.getIterations()
+                || Integer.parseInt(matcher.group(3)) != argon2.getParallelism();
+    }
+}
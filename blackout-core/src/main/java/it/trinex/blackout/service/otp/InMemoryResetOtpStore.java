@@ -0,0 +1,79 @@
+package it.trinex.blackout.service.otp;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory {@link ResetOtpStore} used when Redis is disabled.
+ * Operations are atomic per subject through {@link ConcurrentHashMap#compute}.
+ * OTPs are local to the node, so this store is only suitable for single-instance deployments.
+ */
+@Slf4j
+public class InMemoryResetOtpStore implements ResetOtpStore {
+
+    private static final int PURGE_INTERVAL = 256;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger issueCount = new AtomicInteger();
+
+    private record Entry(String otp, long issuedAt, long expiresAt, int attempts) {
+        boolean expired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Redis configuration not found. Reset OTPs are stored in memory");
+    }
+
+    @Override
+    public IssuedOtp issue(String subject, String otp, long ttlSeconds, long cooldownSeconds) {
+        if (issueCount.incrementAndGet() % PURGE_INTERVAL == 0) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> entry.expired(now));
+        }
+
+        IssuedOtp[] result = new IssuedOtp[1];
+        entries.compute(subject, (key, current) -> {
+            long now = System.currentTimeMillis();
+            if (current != null && !current.expired(now) && now - current.issuedAt() < cooldownSeconds * 1000) {
+                result[0] = new IssuedOtp(current.otp(), false);
+                return current;
+            }
+            result[0] = new IssuedOtp(otp, true);
+            return new Entry(otp, now, now + ttlSeconds * 1000, 0);
+        });
+        return result[0];
+    }
+
+    @Override
+    public boolean verify(String subject, String otp, int maxAttempts) {
+        boolean[] valid = new boolean[1];
+        entries.computeIfPresent(subject, (key, current) -> {
+            if (current.expired(System.currentTimeMillis())) {
+                return null;
+            }
+            if (current.otp() == null) {
+                return current;
+            }
+            if (current.otp().equals(otp)) {
+                valid[0] = true;
+                return current;
+            }
+            int attempts = current.attempts() + 1;
+            // Keep the entry without OTP so the request cooldown still applies
+            return new Entry(attempts >= maxAttempts ? null : current.otp(), current.issuedAt(), current.expiresAt(), attempts);
+        });
+        return valid[0];
+    }
+
+    @Override
+    public void remove(String subject) {
+        entries.remove(subject);
+    }
+}
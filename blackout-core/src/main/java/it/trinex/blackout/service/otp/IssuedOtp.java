@@ -0,0 +1,10 @@
+package it.trinex.blackout.service.otp;
+
+/**
+ * Result of an OTP issue request.
+ *
+ * @param value the pending OTP, or null if the previous one was invalidated and the cooldown is still running
+ * @param fresh true if the OTP has just been generated and must be delivered
+ */
+public record IssuedOtp(String value, boolean fresh) {
+}
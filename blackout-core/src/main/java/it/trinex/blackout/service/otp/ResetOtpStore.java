@@ -0,0 +1,33 @@
+package it.trinex.blackout.service.otp;
+
+/**
+ * Storage for password reset OTPs.
+ * Every operation is atomic, so concurrent requests for the same subject cannot
+ * issue two OTPs or exceed the attempt limit.
+ */
+public interface ResetOtpStore {
+
+    /**
+     * Stores a new OTP for the subject, unless one was issued less than {@code cooldownSeconds} ago.
+     *
+     * @param subject username or email the OTP belongs to
+     * @param otp the candidate OTP
+     * @param ttlSeconds OTP validity
+     * @param cooldownSeconds time after issuance during which the pending OTP is reused
+     * @return the stored OTP and whether it is the candidate
+     */
+    IssuedOtp issue(String subject, String otp, long ttlSeconds, long cooldownSeconds);
+
+    /**
+     * Checks an OTP and counts failed attempts.
+     * The OTP is invalidated once {@code maxAttempts} wrong codes have been submitted.
+     *
+     * @return true if the OTP matches the pending one
+     */
+    boolean verify(String subject, String otp, int maxAttempts);
+
+    /**
+     * Removes the pending OTP for the subject.
+     */
+    void remove(String subject);
+}
@@ -1,6 +1,8 @@
 package it.trinex.blackout.service.redis;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Set;
 
 public interface RedisService {
@@ -38,6 +40,21 @@ public interface RedisService {
      */
     boolean isAccessTokenRevoked(String jti);
 
+    /**
+     * Checks many tokens at once.
+     * Implementations backed by a remote store should answer in a single round trip.
+     *
+     * @param accessJtis IDs of access tokens
+     * @param refreshJtis IDs of refresh tokens
+     * @return the IDs that are revoked
+     */
+    default Set<String> findRevokedTokens(Collection<String> accessJtis, Collection<String> refreshJtis) {
+        Set<String> revoked = new HashSet<>();
+        accessJtis.stream().filter(this::isAccessTokenRevoked).forEach(revoked::add);
+        refreshJtis.stream().filter(this::isRefreshTokenRevoked).forEach(revoked::add);
+        return revoked;
+    }
+
     /**
      * Tracks a token for a user in Redis Set.
      * This allows bulk revocation of all user tokens (e.g., on password change).
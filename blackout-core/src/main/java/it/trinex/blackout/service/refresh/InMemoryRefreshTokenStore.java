@@ -0,0 +1,90 @@
+package it.trinex.blackout.service.refresh;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory {@link RefreshTokenStore} used when Redis is disabled.
+ * A rotation touches the handle, its successor and the family, so operations are serialized
+ * on the store. Handles are local to the node, so this store is only suitable for
+ * single-instance deployments.
+ */
+@Slf4j
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private static final int PURGE_INTERVAL = 256;
+
+    private final Map<String, Entry> handles = new HashMap<>();
+    private final Map<String, String> families = new HashMap<>();
+    private int operations;
+
+    /**
+     * A live handle has a session; a rotated one only keeps its family to detect reuse.
+     */
+    private record Entry(String family, RefreshSession session, long expiresAt) {
+        boolean expired(long now) {
+            return now >= expiresAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Redis configuration not found. Refresh tokens are stored in memory");
+    }
+
+    @Override
+    public synchronized void store(String id, RefreshSession session, long ttlSeconds) {
+        purge();
+        handles.put(id, new Entry(session.family(), session, System.currentTimeMillis() + ttlSeconds * 1000));
+        families.put(session.family(), id);
+    }
+
+    @Override
+    public synchronized Rotation rotate(String id, String newId, long ttlSeconds) {
+        purge();
+        long now = System.currentTimeMillis();
+        Entry entry = handles.remove(id);
+        if (entry == null || entry.expired(now)) {
+            return new Rotation(null, false);
+        }
+        if (entry.session() == null) {
+            log.warn("Reuse of a rotated refresh token detected, revoked token family {}", entry.family());
+            revokeFamily(entry.family());
+            return new Rotation(null, true);
+        }
+
+        long expiresAt = now + ttlSeconds * 1000;
+        handles.put(id, new Entry(entry.family(), null, expiresAt));
+        handles.put(newId, new Entry(entry.family(), entry.session(), expiresAt));
+        families.put(entry.family(), newId);
+        return new Rotation(entry.session(), false);
+    }
+
+    @Override
+    public synchronized Handle find(String id) {
+        Entry entry = handles.get(id);
+        if (entry == null || entry.session() == null || entry.expired(System.currentTimeMillis())) {
+            return null;
+        }
+        return new Handle(entry.session(), entry.expiresAt());
+    }
+
+    @Override
+    public synchronized void revokeFamily(String family) {
+        String current = families.remove(family);
+        if (current != null) {
+            handles.remove(current);
+        }
+    }
+
+    private void purge() {
+        if (++operations % PURGE_INTERVAL == 0) {
+            long now = System.currentTimeMillis();
+            handles.values().removeIf(entry -> entry.expired(now));
+            families.values().removeIf(id -> !handles.containsKey(id));
+        }
+    }
+}
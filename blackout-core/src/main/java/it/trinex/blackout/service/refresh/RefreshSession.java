@@ -0,0 +1,11 @@
+package it.trinex.blackout.service.refresh;
+
+/**
+ * Server-side state of an opaque refresh token.
+ *
+ * @param family id shared by all the handles produced by rotating the same login
+ * @param authId the AuthAccount the token belongs to
+ * @param subject username or email the tokens are issued for
+ */
+public record RefreshSession(String family, long authId, String subject) {
+}
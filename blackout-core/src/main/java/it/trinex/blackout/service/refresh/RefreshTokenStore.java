@@ -0,0 +1,54 @@
+package it.trinex.blackout.service.refresh;
+
+/**
+ * Storage for opaque refresh token handles.
+ *
+ * <p>Handles are stored by id (a hash of the handle, never the handle itself). Rotation is atomic:
+ * the presented id is consumed and the new one stored in a single step, and the consumed id is
+ * remembered until it would have expired. Presenting it again means the token was stolen or
+ * replayed, so the whole family is revoked.</p>
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Outcome of a rotation.
+     *
+     * @param session the session the new id now belongs to, or null if the id was not usable
+     * @param reused whether the id had already been rotated, in which case its family was revoked
+     */
+    record Rotation(RefreshSession session, boolean reused) {
+    }
+
+    /**
+     * A live handle.
+     *
+     * @param session the session the handle belongs to
+     * @param expiresAt epoch millis at which the handle expires
+     */
+    record Handle(RefreshSession session, long expiresAt) {
+    }
+
+    /**
+     * Stores the first handle of a new family.
+     */
+    void store(String id, RefreshSession session, long ttlSeconds);
+
+    /**
+     * Consumes {@code id} and stores {@code newId} for the same session.
+     *
+     * @return the rotation outcome; never null
+     */
+    Rotation rotate(String id, String newId, long ttlSeconds);
+
+    /**
+     * Looks up a live handle without consuming it.
+     *
+     * @return the handle, or null if {@code id} is unknown, expired or already rotated
+     */
+    Handle find(String id);
+
+    /**
+     * Removes the current handle of the family, if any.
+     */
+    void revokeFamily(String family);
+}
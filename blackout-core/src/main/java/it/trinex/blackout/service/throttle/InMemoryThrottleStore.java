@@ -0,0 +1,147 @@
+package it.trinex.blackout.service.throttle;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory {@link ThrottleStore} used when Redis is disabled.
+ *
+ * <p>Buckets are spread over independent stripes by key hash. Each bucket is an immutable state
+ * swapped with compare-and-set, so checks never block each other. Every stripe periodically drops
+ * the buckets that have refilled completely, which keeps memory bounded under spraying attacks: a
+ * bucket is first marked dead with a compare-and-set, so a concurrent update either lands before
+ * the sweep (and the bucket is kept) or sees the mark and retries on a new bucket.
+ * Buckets are local to the node, so limits apply per instance.</p>
+ */
+@Slf4j
+public class InMemoryThrottleStore implements ThrottleStore {
+
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    private static final class Stripe {
+        private final ConcurrentHashMap<String, AtomicReference<State>> buckets = new ConcurrentHashMap<>();
+        private final AtomicInteger accesses = new AtomicInteger();
+    }
+
+    /**
+     * @param fullAt time at which the bucket is back to capacity and can be dropped
+     */
+    private record State(double tokens, long updatedAt, long fullAt) {
+    }
+
+    // Marks a swept bucket; compared by identity
+    private static final State DEAD = new State(0, 0, 0);
+
+    public InMemoryThrottleStore(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("Redis configuration not found. Login throttling buckets are stored in memory");
+    }
+
+    @Override
+    public long tryConsume(List<ThrottleBucket> buckets) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < buckets.size(); i++) {
+            long wait = consume(buckets.get(i), now);
+            if (wait > 0) {
+                // All or nothing: give back the tokens already taken
+                for (int j = 0; j < i; j++) {
+                    refund(buckets.get(j), now);
+                }
+                return wait;
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public void refund(List<ThrottleBucket> buckets) {
+        long now = System.currentTimeMillis();
+        for (ThrottleBucket bucket : buckets) {
+            refund(bucket, now);
+        }
+    }
+
+    private long consume(ThrottleBucket bucket, long now) {
+        Stripe stripe = stripe(bucket.key());
+        if ((stripe.accesses.incrementAndGet() & (SWEEP_INTERVAL - 1)) == 0) {
+            sweep(stripe, now);
+        }
+
+        while (true) {
+            AtomicReference<State> ref = stripe.buckets.computeIfAbsent(bucket.key(),
+                    key -> new AtomicReference<>(new State(bucket.capacity(), now, now)));
+            State current = ref.get();
+            if (current == DEAD) {
+                stripe.buckets.remove(bucket.key(), ref);
+                continue;
+            }
+            double tokens = refill(current, bucket, now);
+            if (tokens < 1) {
+                return (long) Math.ceil((1 - tokens) / bucket.refillPerSecond() * 1000);
+            }
+            if (ref.compareAndSet(current, state(tokens - 1, bucket, now))) {
+                return 0;
+            }
+        }
+    }
+
+    private void refund(ThrottleBucket bucket, long now) {
+        Stripe stripe = stripe(bucket.key());
+        while (true) {
+            AtomicReference<State> ref = stripe.buckets.get(bucket.key());
+            if (ref == null) {
+                return;
+            }
+            State current = ref.get();
+            if (current == DEAD) {
+                stripe.buckets.remove(bucket.key(), ref);
+                continue;
+            }
+            double tokens = Math.min(bucket.capacity(), refill(current, bucket, now) + 1);
+            if (ref.compareAndSet(current, state(tokens, bucket, now))) {
+                return;
+            }
+        }
+    }
+
+    private static void sweep(Stripe stripe, long now) {
+        stripe.buckets.forEach((key, ref) -> {
+            State current = ref.get();
+            if (current != DEAD && current.fullAt() <= now && ref.compareAndSet(current, DEAD)) {
+                stripe.buckets.remove(key, ref);
+            }
+        });
+    }
+
+    private static double refill(State state, ThrottleBucket bucket, long now) {
+        double elapsed = Math.max(0, now - state.updatedAt()) / 1000.0;
+        return Math.min(bucket.capacity(), state.tokens() + elapsed * bucket.refillPerSecond());
+    }
+
+    private static State state(double tokens, ThrottleBucket bucket, long now) {
+        long fullAt = now + (long) Math.ceil((bucket.capacity() - tokens) / bucket.refillPerSecond() * 1000);
+        return new State(tokens, now, fullAt);
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & mask];
+    }
+}
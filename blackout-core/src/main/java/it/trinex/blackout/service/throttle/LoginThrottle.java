@@ -0,0 +1,159 @@
+package it.trinex.blackout.service.throttle;
+
+import it.trinex.blackout.exception.TooManyRequestsException;
+import it.trinex.blackout.properties.ThrottleProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Rate limits credential checks with token buckets per subject and per client IP.
+ * Controllers call it before any password hashing or database access, so rejected
+ * attempts cost a single bucket check.
+ *
+ * <p>Successful attempts give their subject token back, so the subject bucket only counts failures.
+ * The client token is kept: refunding it would let an attacker reset the client bucket by logging
+ * into an account of their own between guesses.</p>
+ */
+@Slf4j
+public class LoginThrottle {
+
+    private static final Pattern IPV4 = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}");
+    private static final Pattern IPV6 = Pattern.compile("\\[?[0-9a-fA-F]*:[0-9a-fA-F:.]*]?");
+
+    private final ThrottleStore throttleStore;
+    private final ThrottleProperties throttleProperties;
+    private final List<IpAddressMatcher> trustedProxies;
+
+    public LoginThrottle(ThrottleStore throttleStore, ThrottleProperties throttleProperties) {
+        this.throttleStore = throttleStore;
+        this.throttleProperties = throttleProperties;
+        this.trustedProxies = throttleProperties.getTrustedProxies().stream()
+                .map(IpAddressMatcher::new)
+                .toList();
+    }
+
+    /**
+     * Checks an attempt to authenticate as {@code subject}.
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void checkSubject(String subject, HttpServletRequest request) {
+        if (!throttleProperties.isEnabled()) {
+            return;
+        }
+        List<ThrottleBucket> buckets = new ArrayList<>(2);
+        if (throttleProperties.getSubject().isEnabled()) {
+            buckets.add(subjectBucket(subject));
+        }
+        if (throttleProperties.getClient().isEnabled()) {
+            buckets.add(bucket("ip:" + clientAddress(request), throttleProperties.getClient()));
+        }
+        check(buckets);
+    }
+
+    /**
+     * Checks an unauthenticated attempt that carries no subject.
+     *
+     * @throws TooManyRequestsException if the client bucket is empty
+     */
+    public void checkClient(HttpServletRequest request) {
+        if (!throttleProperties.isEnabled() || !throttleProperties.getClient().isEnabled()) {
+            return;
+        }
+        check(List.of(bucket("ip:" + clientAddress(request), throttleProperties.getClient())));
+    }
+
+    /**
+     * Gives back the subject token taken by {@link #checkSubject} once the attempt has succeeded.
+     */
+    public void recordSuccess(String subject) {
+        if (!throttleProperties.isEnabled() || !throttleProperties.getSubject().isEnabled()) {
+            return;
+        }
+        try {
+            throttleStore.refund(List.of(subjectBucket(subject)));
+        } catch (RuntimeException e) {
+            log.warn("Login throttle refund failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resolves the client IP of {@code request}. The forwarded header is only read when the connection
+     * comes from a trusted proxy; its entries are walked from the right and the first address that is
+     * not a trusted proxy is the client.
+     */
+    public String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (trustedProxies.isEmpty() || !isTrustedProxy(address)) {
+            return address;
+        }
+
+        String forwarded = request.getHeader(throttleProperties.getForwardedHeader());
+        if (forwarded == null || forwarded.isBlank()) {
+            return address;
+        }
+        String[] hops = forwarded.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                continue;
+            }
+            address = hop;
+            if (!isTrustedProxy(hop)) {
+                break;
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        // Anything but an IP literal (e.g. a forged header entry) would be resolved through DNS by the matcher
+        if (!IPV4.matcher(address).matches() && !IPV6.matcher(address).matches()) {
+            return false;
+        }
+        try {
+            for (IpAddressMatcher proxy : trustedProxies) {
+                if (proxy.matches(address)) {
+                    return true;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return false;
+    }
+
+    private void check(List<ThrottleBucket> buckets) {
+        if (buckets.isEmpty()) {
+            return;
+        }
+        long wait;
+        try {
+            wait = throttleStore.tryConsume(buckets);
+        } catch (RuntimeException e) {
+            // Throttling is a safeguard, an unavailable store must not lock everybody out
+            log.warn("Login throttle check failed, allowing request: {}", e.getMessage());
+            return;
+        }
+
+        if (wait > 0) {
+            log.debug("Throttled authentication attempt ({})", buckets.getLast().key());
+            throw new TooManyRequestsException("Too many attempts, retry later", Math.max(1, (wait + 999) / 1000));
+        }
+    }
+
+    private ThrottleBucket subjectBucket(String subject) {
+        String normalized = subject == null ? "" : subject.trim().toLowerCase(Locale.ROOT);
+        return bucket("s:" + normalized, throttleProperties.getSubject());
+    }
+
+    private static ThrottleBucket bucket(String key, ThrottleProperties.Bucket bucket) {
+        return new ThrottleBucket(key, bucket.getCapacity(), bucket.getRefillPerMinute() / 60.0);
+    }
+}
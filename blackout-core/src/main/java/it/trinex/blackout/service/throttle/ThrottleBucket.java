@@ -0,0 +1,11 @@
+package it.trinex.blackout.service.throttle;
+
+/**
+ * Token bucket checked by a {@link ThrottleStore}.
+ *
+ * @param key unique bucket key
+ * @param capacity maximum number of tokens, i.e. the allowed burst
+ * @param refillPerSecond tokens added per second
+ */
+public record ThrottleBucket(String key, int capacity, double refillPerSecond) {
+}
@@ -0,0 +1,22 @@
+package it.trinex.blackout.service.throttle;
+
+import java.util.List;
+
+/**
+ * Storage for login throttling token buckets.
+ */
+public interface ThrottleStore {
+
+    /**
+     * Takes one token from every bucket, or from none of them if any bucket is empty.
+     *
+     * @return 0 when the tokens were taken, otherwise the milliseconds until all buckets
+     * have a token again
+     */
+    long tryConsume(List<ThrottleBucket> buckets);
+
+    /**
+     * Gives one token back to every bucket, up to its capacity. Buckets that do not exist are left alone.
+     */
+    void refund(List<ThrottleBucket> buckets);
+}
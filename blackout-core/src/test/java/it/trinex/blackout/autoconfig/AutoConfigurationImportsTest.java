@@ -0,0 +1,30 @@
+package it.trinex.blackout.autoconfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.annotation.ImportCandidates;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoConfigurationImportsTest {
+
+    @Test
+    void everyEntryNamesAnAutoConfigurationClass() throws Exception {
+        ClassLoader classLoader = getClass().getClassLoader();
+        List<String> entries = new ArrayList<>();
+        ImportCandidates.load(AutoConfiguration.class, classLoader).forEach(entries::add);
+
+        assertTrue(entries.contains(BlackoutAutoconfig.class.getName()));
+        assertTrue(entries.contains(PasswordHashingMetricsConfiguration.class.getName()));
+        for (String entry : entries) {
+            if (!entry.startsWith("it.trinex.blackout.")) {
+                continue;
+            }
+            Class<?> type = Class.forName(entry, false, classLoader);
+            assertTrue(type.isAnnotationPresent(AutoConfiguration.class), entry);
+        }
+    }
+}
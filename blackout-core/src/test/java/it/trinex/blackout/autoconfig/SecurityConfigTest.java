@@ -0,0 +1,46 @@
+package it.trinex.blackout.autoconfig;
+
+import it.trinex.blackout.properties.*;
+import it.trinex.blackout.security.JwtAuthenticationFilter;
+import it.trinex.blackout.service.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SecurityConfigTest {
+
+    private SecurityConfig securityConfig;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("ada"))
+                .thenReturn(User.withUsername("ada").password("{custom}hash").roles("USER").build());
+        PasswordHashingProperties passwordHashingProperties = new PasswordHashingProperties();
+        passwordHashingProperties.setUpgradeOnLogin(false);
+
+        securityConfig = new SecurityConfig(mock(JwtAuthenticationFilter.class), userDetailsService, new CorsProperties(),
+                new FilterChainProperties(), new BlackoutProperties(), mock(ObjectProvider.class), new SignupProperties(),
+                mock(JwtService.class), passwordHashingProperties, mock(ObjectProvider.class), mock(ObjectProvider.class));
+    }
+
+    @Test
+    void authenticationProviderUsesTheInjectedEncoder() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.matches("secret", "{custom}hash")).thenReturn(true);
+
+        AuthenticationProvider provider = securityConfig.authenticationProvider(encoder);
+
+        assertTrue(provider.authenticate(new UsernamePasswordAuthenticationToken("ada", "secret")).isAuthenticated());
+        verify(encoder).matches("secret", "{custom}hash");
+    }
+}
@@ -0,0 +1,150 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.exception.PasskeyRequiredException;
+import it.trinex.blackout.service.JwtService;
+import it.trinex.blackout.service.enums.TokenType;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BlackoutSecurityExpressionRootTest {
+
+    private JwtService jwtService;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        request = new MockHttpServletRequest("POST", "/account/delete");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void reauthTokenIsVerifiedOncePerRequest() {
+        request.setCookies(new Cookie("reauth_token", "passkey-token"));
+        when(jwtService.isTokenValid("passkey-token", TokenType.PASSKEY.name())).thenReturn(true);
+
+        // Nested guarded calls build a new root each time, they share the request
+        assertTrue(root().passkeyRequired());
+        assertTrue(root().passkeyRequired());
+        assertTrue(root().passkeyRequired());
+
+        verify(jwtService, times(1)).isTokenValid(anyString(), anyString());
+    }
+
+    @Test
+    void headerIsUsedWithoutCookie() {
+        request.addHeader("X-Reauth-Token", "passkey-token");
+        when(jwtService.isTokenValid("passkey-token", TokenType.PASSKEY.name())).thenReturn(true);
+
+        assertTrue(root().passkeyRequired());
+    }
+
+    @Test
+    void invalidTokensAreRejectedOnEveryCallButVerifiedOnce() {
+        request.addHeader("X-Reauth-Token", "forged");
+        when(jwtService.isTokenValid("forged", TokenType.PASSKEY.name())).thenReturn(false);
+
+        assertThrows(PasskeyRequiredException.class, () -> root().passkeyRequired());
+        assertThrows(PasskeyRequiredException.class, () -> root().passkeyRequired());
+
+        verify(jwtService, times(1)).isTokenValid(anyString(), anyString());
+    }
+
+    @Test
+    void missingTokenIsRejectedWithoutVerification() {
+        assertThrows(PasskeyRequiredException.class, () -> root().passkeyRequired());
+
+        verify(jwtService, never()).isTokenValid(anyString(), anyString());
+    }
+
+    @Test
+    void outsideARequestNothingIsRequired() {
+        RequestContextHolder.resetRequestAttributes();
+
+        assertFalse(root().passkeyRequired());
+    }
+
+    @Test
+    void tokenAuthoritiesAreCheckedAgainstTheAuthoritySet() {
+        BlackoutUserPrincipal principal = BlackoutUserPrincipal.builder()
+                .username("ada")
+                .authorities(AuthorityRegistry.forRoles(List.of("ROOT_TEST_ADMIN")))
+                .build();
+        BlackoutSecurityExpressionRoot root = new BlackoutSecurityExpressionRoot(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()), jwtService);
+
+        assertTrue(root.hasRole("ROOT_TEST_ADMIN"));
+        assertTrue(root.hasRole("ROLE_ROOT_TEST_ADMIN"));
+        assertTrue(root.hasAuthority("ROLE_ROOT_TEST_ADMIN"));
+        assertTrue(root.hasAnyRole("ROOT_TEST_USER", "ROOT_TEST_ADMIN"));
+        assertTrue(root.hasAllRoles("ROOT_TEST_ADMIN"));
+        assertFalse(root.hasRole("ROOT_TEST_USER"));
+        assertFalse(root.hasAllAuthorities("ROLE_ROOT_TEST_ADMIN", "ROLE_ROOT_TEST_USER"));
+    }
+
+    @Test
+    void authoritiesOfTheAuthenticationWinOverThePrincipal() {
+        BlackoutUserPrincipal principal = BlackoutUserPrincipal.builder()
+                .username("ada")
+                .authorities(AuthorityRegistry.forRoles(List.of("ROOT_TEST_OWNER")))
+                .build();
+        // Same size as the principal's set, different contents, e.g. a narrowed down authentication
+        BlackoutSecurityExpressionRoot root = new BlackoutSecurityExpressionRoot(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null,
+                        AuthorityUtils.createAuthorityList("ROLE_ROOT_TEST_GUEST", "ROOT_TEST_GUEST")), jwtService);
+
+        assertTrue(root.hasRole("ROOT_TEST_GUEST"));
+        assertTrue(root.hasAuthority("ROOT_TEST_GUEST"));
+        assertFalse(root.hasRole("ROOT_TEST_OWNER"));
+        assertFalse(root.hasAnyAuthority("ROLE_ROOT_TEST_OWNER", "ROOT_TEST_OWNER"));
+    }
+
+    @Test
+    void roleHierarchyUsesTheStandardEvaluation() {
+        BlackoutUserPrincipal principal = BlackoutUserPrincipal.builder()
+                .username("ada")
+                .authorities(AuthorityRegistry.forRoles(List.of("ROOT_TEST_BOSS")))
+                .build();
+        BlackoutSecurityExpressionRoot root = new BlackoutSecurityExpressionRoot(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()), jwtService);
+        root.setRoleHierarchy(RoleHierarchyImpl.fromHierarchy("ROLE_ROOT_TEST_BOSS > ROLE_ROOT_TEST_STAFF"));
+
+        assertTrue(root.hasRole("ROOT_TEST_STAFF"));
+        assertTrue(root.hasRole("ROOT_TEST_BOSS"));
+    }
+
+    @Test
+    void otherAuthenticationsUseTheStandardEvaluation() {
+        BlackoutSecurityExpressionRoot root = new BlackoutSecurityExpressionRoot(
+                UsernamePasswordAuthenticationToken.authenticated("ada", null,
+                        AuthorityUtils.createAuthorityList("ROLE_ROOT_TEST_PLAIN", "export")), jwtService);
+
+        assertTrue(root.hasRole("ROOT_TEST_PLAIN"));
+        assertTrue(root.hasAuthority("export"));
+        assertFalse(root.hasAnyAuthority("import"));
+    }
+
+    private BlackoutSecurityExpressionRoot root() {
+        return new BlackoutSecurityExpressionRoot(
+                UsernamePasswordAuthenticationToken.authenticated("ada", null, AuthorityUtils.NO_AUTHORITIES), jwtService);
+    }
+}
@@ -0,0 +1,143 @@
+package it.trinex.blackout.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import it.trinex.blackout.dto.response.AuthResponseDTO;
+import it.trinex.blackout.properties.JwtProperties;
+import it.trinex.blackout.service.CookieService;
+import it.trinex.blackout.service.JwtService;
+import it.trinex.blackout.service.RefreshService;
+import it.trinex.blackout.service.enums.TokenType;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    private JwtService jwtService;
+    private RefreshService refreshService;
+    private JwtAuthenticationFilter filter;
+    private BlackoutUserPrincipal principal;
+    private Claims claims;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        refreshService = mock(RefreshService.class);
+        filter = new JwtAuthenticationFilter(jwtService, refreshService, new CookieService(new JwtProperties()),
+                true, new RefreshCoalescer(0), 0.5, null);
+
+        principal = BlackoutUserPrincipal.builder().authId(7L).username("ada").build();
+        long now = System.currentTimeMillis();
+        claims = Jwts.claims()
+                .subject("ada")
+                .id("jti-1")
+                .issuedAt(new Date(now - 600_000))
+                .expiration(new Date(now + 300_000))
+                .build();
+        when(jwtService.extractValidClaims("access", TokenType.ACCESS.name())).thenReturn(claims);
+        when(jwtService.isPastLifetimeFraction(claims, 0.5)).thenReturn(true);
+        when(jwtService.extractUserPrincipal(claims)).thenReturn(principal);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void reissuedCookieExpiresWithTheReissuedToken() throws Exception {
+        when(refreshService.reissueAccessToken(principal, "refresh"))
+                .thenReturn(AuthResponseDTO.builder().access_token("reissued").access_token_expiration(120_000L).build());
+
+        MockHttpServletResponse response = run(request(new Cookie(CookieService.ACCESS_COOKIE_NAME, "access"),
+                new Cookie(CookieService.REFRESH_COOKIE_NAME, "refresh")));
+
+        List<String> cookies = response.getHeaders(HttpHeaders.SET_COOKIE);
+        assertEquals(1, cookies.size());
+        assertTrue(cookies.getFirst().startsWith("access_token=reissued"), cookies.getFirst());
+        assertTrue(cookies.getFirst().contains("Max-Age=120"), cookies.getFirst());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void noReissueWithoutARefreshToken() throws Exception {
+        MockHttpServletResponse response = run(request(new Cookie(CookieService.ACCESS_COOKIE_NAME, "access")));
+
+        assertTrue(response.getHeaders(HttpHeaders.SET_COOKIE).isEmpty());
+        verify(refreshService, never()).reissueAccessToken(any(), anyString());
+        verify(jwtService, never()).extractUserPrincipal(any(Claims.class));
+    }
+
+    @Test
+    void principalIsNotBuiltBeforeTheReissueFraction() throws Exception {
+        when(jwtService.isPastLifetimeFraction(claims, 0.5)).thenReturn(false);
+
+        MockHttpServletResponse response = run(request(new Cookie(CookieService.ACCESS_COOKIE_NAME, "access"),
+                new Cookie(CookieService.REFRESH_COOKIE_NAME, "refresh")));
+
+        assertTrue(response.getHeaders(HttpHeaders.SET_COOKIE).isEmpty());
+        verify(jwtService, never()).extractUserPrincipal(any(Claims.class));
+    }
+
+    @Test
+    void noCookieWhenTheSessionCannotBeExtended() throws Exception {
+        when(refreshService.reissueAccessToken(principal, "refresh")).thenReturn(null);
+
+        MockHttpServletResponse response = run(request(new Cookie(CookieService.ACCESS_COOKIE_NAME, "access"),
+                new Cookie(CookieService.REFRESH_COOKIE_NAME, "refresh")));
+
+        assertTrue(response.getHeaders(HttpHeaders.SET_COOKIE).isEmpty());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    void refreshedCookieExpiresWithTheIssuedToken() throws Exception {
+        Claims refreshed = Jwts.claims()
+                .subject("ada")
+                .id("jti-2")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 200_000))
+                .build();
+        when(jwtService.extractValidClaims("expired", TokenType.ACCESS.name())).thenReturn(null);
+        when(jwtService.extractValidClaims("new-access", TokenType.ACCESS.name())).thenReturn(refreshed);
+        when(refreshService.refreshToken("refresh")).thenReturn(AuthResponseDTO.builder()
+                .access_token("new-access")
+                .refresh_token("new-refresh")
+                .build());
+
+        MockHttpServletResponse response = run(request(new Cookie(CookieService.ACCESS_COOKIE_NAME, "expired"),
+                new Cookie(CookieService.REFRESH_COOKIE_NAME, "refresh")));
+
+        List<String> cookies = response.getHeaders(HttpHeaders.SET_COOKIE);
+        assertEquals(2, cookies.size());
+        assertTrue(cookies.get(0).matches("access_token=new-access;.* Max-Age=(199|200);.*"), cookies.get(0));
+        assertTrue(cookies.get(1).startsWith("refresh_token=new-refresh"), cookies.get(1));
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(Cookie... cookies) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/things");
+        request.setCookies(cookies);
+        return request;
+    }
+}
@@ -0,0 +1,80 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.properties.BlackoutProperties;
+import it.trinex.blackout.properties.FilterChainProperties;
+import it.trinex.blackout.properties.SignupProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+
+import java.util.List;
+
+import static it.trinex.blackout.security.PathAuthorizationManager.Decision.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathAuthorizationManagerTest {
+
+    private PathAuthorizationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        FilterChainProperties filterChainProperties = new FilterChainProperties();
+        filterChainProperties.setDenied(List.of("/admin/**"));
+        filterChainProperties.setAllowed(List.of("/admin/health", "/public/**"));
+        filterChainProperties.setAuthenticated(List.of("/public/private/**"));
+        manager = new PathAuthorizationManager(new BlackoutProperties(), filterChainProperties, new SignupProperties());
+    }
+
+    @Test
+    void rulesAreEvaluatedInOrder() {
+        assertEquals(PERMIT, manager.decide(request("/auth/login")));
+        assertEquals(DENY, manager.decide(request("/admin/users")));
+        // denied comes before allowed
+        assertEquals(DENY, manager.decide(request("/admin/health")));
+        assertEquals(PERMIT, manager.decide(request("/public/page")));
+        // allowed comes before authenticated
+        assertEquals(PERMIT, manager.decide(request("/public/private/page")));
+        assertEquals(AUTHENTICATE, manager.decide(request("/api/things")));
+    }
+
+    @Test
+    void encodedPathsCannotBypassDeniedRules() {
+        assertEquals(DENY, manager.decide(request("/%61dmin/x")));
+        assertEquals(DENY, manager.decide(request("/admin;a=b/x")));
+        assertEquals(DENY, manager.decide(request("/public/../admin/x")));
+        assertEquals(DENY, manager.decide(request("//admin//x")));
+    }
+
+    @Test
+    void contextPathIsStripped() {
+        MockHttpServletRequest request = request("/app/admin/x");
+        request.setContextPath("/app");
+
+        assertEquals(DENY, manager.decide(request));
+    }
+
+    @Test
+    void authenticateRequiresANonAnonymousUser() {
+        Authentication user = UsernamePasswordAuthenticationToken.authenticated("ada", null, AuthorityUtils.NO_AUTHORITIES);
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymous",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        assertTrue(manager.authorize(() -> user, context("/api/things")).isGranted());
+        assertFalse(manager.authorize(() -> anonymous, context("/api/things")).isGranted());
+        assertTrue(manager.authorize(() -> anonymous, context("/auth/login")).isGranted());
+        assertFalse(manager.authorize(() -> user, context("/admin/x")).isGranted());
+    }
+
+    private static RequestAuthorizationContext context(String uri) {
+        return new RequestAuthorizationContext(request(uri));
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+}
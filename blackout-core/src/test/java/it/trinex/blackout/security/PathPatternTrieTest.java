@@ -0,0 +1,83 @@
+package it.trinex.blackout.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathPatternTrieTest {
+
+    @Test
+    void literalsAndSingleSegmentWildcards() {
+        PathPatternTrie<String> trie = new PathPatternTrie<>();
+        trie.add("/users/me", "me");
+        trie.add("/users/*", "any");
+        trie.add("/orders/{id}/items", "items");
+
+        assertEquals("me", trie.match("/users/me"));
+        assertEquals("any", trie.match("/users/42"));
+        assertNull(trie.match("/users"));
+        assertNull(trie.match("/users/42/extra"));
+        assertEquals("items", trie.match("/orders/7/items"));
+    }
+
+    @Test
+    void doubleWildcardsMatchAnyDepthIncludingNone() {
+        PathPatternTrie<String> trie = new PathPatternTrie<>();
+        trie.add("/auth/**", "auth");
+        trie.add("/files/{*rest}", "files");
+
+        assertEquals("auth", trie.match("/auth"));
+        assertEquals("auth", trie.match("/auth/login"));
+        assertEquals("auth", trie.match("/auth/a/b/c"));
+        assertEquals("files", trie.match("/files/a/b.txt"));
+        assertNull(trie.match("/authx"));
+    }
+
+    @Test
+    void globSegments() {
+        PathPatternTrie<String> trie = new PathPatternTrie<>();
+        trie.add("/static/*.css", "css");
+        trie.add("/v?/status", "versioned");
+        trie.add("/img/{name}.png", "png");
+
+        assertEquals("css", trie.match("/static/site.css"));
+        assertNull(trie.match("/static/site.js"));
+        assertEquals("versioned", trie.match("/v2/status"));
+        assertNull(trie.match("/v10/status"));
+        assertEquals("png", trie.match("/img/logo.png"));
+        assertNull(trie.match("/img/.png"));
+    }
+
+    @Test
+    void firstAddedPatternWins() {
+        PathPatternTrie<String> trie = new PathPatternTrie<>();
+        trie.add("/admin/public", "permit");
+        trie.add("/admin/**", "deny");
+        trie.add("/admin/secret", "permit-too-late");
+        trie.add("/admin/**", "duplicate");
+
+        assertEquals("permit", trie.match("/admin/public"));
+        assertEquals("deny", trie.match("/admin/secret"));
+        assertEquals("deny", trie.match("/admin"));
+    }
+
+    @Test
+    void emptySegmentsAreIgnored() {
+        PathPatternTrie<String> trie = new PathPatternTrie<>();
+        trie.add("/a/b", "ab");
+
+        assertEquals("ab", trie.match("//a///b/"));
+        assertTrue(new PathPatternTrie<String>().isEmpty());
+        assertFalse(trie.isEmpty());
+    }
+
+    @Test
+    void segmentsAreMatchedVerbatim() {
+        PathPatternTrie<String> trie = new PathPatternTrie<>();
+        trie.add("/admin/**", "deny");
+
+        // Decoding is the caller's job, see RequestPaths
+        assertNull(trie.match("/%61dmin/x"));
+        assertNull(trie.match("/Admin/x"));
+    }
+}
@@ -0,0 +1,86 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.properties.BlackoutProperties;
+import it.trinex.blackout.properties.FilterChainProperties;
+import it.trinex.blackout.properties.SignupProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicPathMatcherTest {
+
+    private BlackoutProperties blackoutProperties;
+    private FilterChainProperties filterChainProperties;
+
+    @BeforeEach
+    void setUp() {
+        blackoutProperties = new BlackoutProperties();
+        filterChainProperties = new FilterChainProperties();
+        filterChainProperties.setAllowed(List.of("/public/**"));
+    }
+
+    @Test
+    void builtInPublicRoutesAreSkipped() {
+        PublicPathMatcher matcher = matcher();
+
+        assertTrue(matcher.matches(request("", "/auth/login")));
+        assertTrue(matcher.matches(request("", "/password-otp/verify")));
+        assertTrue(matcher.matches(request("", "/swagger-ui/index.html")));
+        assertFalse(matcher.matches(request("", "/api/things")));
+    }
+
+    @Test
+    void routesThatReadTheCurrentUserAreNotSkipped() {
+        PublicPathMatcher matcher = matcher();
+
+        assertFalse(matcher.matches(request("", "/auth/status")));
+        assertFalse(matcher.matches(request("", "/passkey/register/start")));
+        assertFalse(matcher.matches(request("", "/passkey/reauthenticate/finish")));
+        assertTrue(matcher.matches(request("", "/passkey/authenticate/start")));
+    }
+
+    @Test
+    void allowedRoutesAreOnlySkippedWhenEnabled() {
+        assertFalse(filterChainProperties.isSkipAuthenticationOnAllowed());
+        assertFalse(matcher().matches(request("", "/public/page")));
+
+        filterChainProperties.setSkipAuthenticationOnAllowed(true);
+        assertTrue(matcher().matches(request("", "/public/page")));
+    }
+
+    @Test
+    void encodedAndNonNormalizedPathsAreMatchedDecoded() {
+        PublicPathMatcher matcher = matcher();
+
+        // Reaches /auth/status, so it must keep being authenticated
+        assertFalse(matcher.matches(request("", "/auth/%73tatus")));
+        assertFalse(matcher.matches(request("", "/auth/status;jsessionid=1")));
+        assertFalse(matcher.matches(request("", "/auth/login/../status")));
+        assertTrue(matcher.matches(request("", "/%61uth/login")));
+        assertTrue(matcher.matches(request("", "//auth//login")));
+    }
+
+    @Test
+    void pathsAreMatchedWithinTheApplication() {
+        blackoutProperties.setBaseUrl("/api");
+        PublicPathMatcher matcher = matcher();
+
+        assertTrue(matcher.matches(request("/app", "/app/api/auth/login")));
+        assertFalse(matcher.matches(request("/app", "/app/api/auth/status")));
+        assertFalse(matcher.matches(request("/app", "/app/auth/login")));
+    }
+
+    private PublicPathMatcher matcher() {
+        return new PublicPathMatcher(blackoutProperties, filterChainProperties, new SignupProperties());
+    }
+
+    private static MockHttpServletRequest request(String contextPath, String requestUri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUri);
+        request.setContextPath(contextPath);
+        return request;
+    }
+}
@@ -0,0 +1,111 @@
+package it.trinex.blackout.security;
+
+import it.trinex.blackout.dto.response.AuthResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshCoalescerTest {
+
+    private static final String CALLER = "10.0.0.1|Firefox";
+
+    @Test
+    void concurrentRefreshesShareOneRotation() throws Exception {
+        RefreshCoalescer coalescer = new RefreshCoalescer(0);
+        AtomicInteger rotations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AuthResponseDTO>> results = new ArrayList<>();
+            results.add(executor.submit(() -> coalescer.refresh("rt", CALLER, token -> {
+                started.countDown();
+                await(release);
+                return response("access-" + rotations.incrementAndGet());
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> coalescer.refresh("rt", "other|client", token ->
+                        response("access-" + rotations.incrementAndGet()))));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            for (Future<AuthResponseDTO> result : results) {
+                assertEquals("access-1", result.get(5, TimeUnit.SECONDS).access_token());
+            }
+            assertEquals(1, rotations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void completedRotationsAreNotReplayedWithoutGracePeriod() {
+        RefreshCoalescer coalescer = new RefreshCoalescer(0);
+        AtomicInteger rotations = new AtomicInteger();
+
+        coalescer.refresh("rt", CALLER, token -> response("access-" + rotations.incrementAndGet()));
+        AuthResponseDTO second = coalescer.refresh("rt", CALLER, token -> null);
+
+        assertNull(second);
+        assertEquals(1, rotations.get());
+    }
+
+    @Test
+    void graceReplayIsBoundToTheCaller() {
+        RefreshCoalescer coalescer = new RefreshCoalescer(10_000);
+
+        coalescer.refresh("rt", CALLER, token -> response("access-1"));
+
+        assertEquals("access-1", coalescer.refresh("rt", CALLER, token -> null).access_token());
+        assertNull(coalescer.refresh("rt", "203.0.113.7|curl", token -> null));
+        assertNull(coalescer.refresh("other", CALLER, token -> null));
+    }
+
+    @Test
+    void graceReplayExpires() throws InterruptedException {
+        RefreshCoalescer coalescer = new RefreshCoalescer(20);
+
+        coalescer.refresh("rt", CALLER, token -> response("access-1"));
+        Thread.sleep(40);
+
+        assertNull(coalescer.refresh("rt", CALLER, token -> null));
+    }
+
+    @Test
+    void failedRotationsAreNotRemembered() {
+        RefreshCoalescer coalescer = new RefreshCoalescer(10_000);
+
+        assertThrows(IllegalStateException.class, () -> coalescer.refresh("rt", CALLER, token -> {
+            throw new IllegalStateException("store down");
+        }));
+
+        assertEquals("access-2", coalescer.refresh("rt", CALLER, token -> response("access-2")).access_token());
+    }
+
+    private static AuthResponseDTO response(String accessToken) {
+        return AuthResponseDTO.builder()
+                .access_token(accessToken)
+                .refresh_token("new-" + accessToken)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
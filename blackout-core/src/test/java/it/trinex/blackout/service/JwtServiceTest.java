@@ -0,0 +1,300 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import it.trinex.blackout.properties.JwtProperties;
+import it.trinex.blackout.properties.JwtProperties.TokenFormat;
+import it.trinex.blackout.security.AbstractBlackoutPrincipalFactory;
+import it.trinex.blackout.security.BlackoutPrincipalFactory;
+import it.trinex.blackout.dto.response.TokenIntrospectionDTO;
+import it.trinex.blackout.security.BlackoutUserPrincipal;
+import it.trinex.blackout.service.redis.RedisService;
+import it.trinex.blackout.service.refresh.InMemoryRefreshTokenStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtServiceTest {
+
+    private JwtProperties jwtProperties;
+    private RedisService redisService;
+    private UserDetailsService userDetailsService;
+    private JwtService jwtService;
+    private BlackoutUserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtProperties = new JwtProperties();
+        jwtProperties.setSecret(Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes()));
+        redisService = mock(RedisService.class);
+        userDetailsService = mock(UserDetailsService.class);
+        BlackoutPrincipalFactory<BlackoutUserPrincipal> principalFactory = new AbstractBlackoutPrincipalFactory<>() {
+            @Override
+            protected BlackoutUserPrincipal.BlackoutUserPrincipalBuilder<?, ?> getBuilder() {
+                return BlackoutUserPrincipal.builder();
+            }
+        };
+        jwtService = new JwtService(jwtProperties, principalFactory, redisService,
+                new InMemoryRefreshTokenStore(), userDetailsService);
+
+        principal = BlackoutUserPrincipal.builder()
+                .authId(7L)
+                .userId(70L)
+                .username("ada")
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .authorities(List.of(new SimpleGrantedAuthority("ROLE_USER")))
+                .build();
+    }
+
+    @Test
+    void cappedAccessTokensDoNotOutliveTheSession() {
+        long sessionEnd = System.currentTimeMillis() + 120_000;
+
+        JwtService.IssuedAccessToken token = jwtService.generateAccessToken(principal, sessionEnd);
+
+        assertNotNull(token);
+        Claims claims = jwtService.extractAllClaims(token.token());
+        assertEquals(token.expiration(), claims.getExpiration());
+        assertTrue(claims.getExpiration().getTime() <= sessionEnd);
+    }
+
+    @Test
+    void issuedAccessTokensReportTheirOwnExpiration() {
+        JwtService.IssuedAccessToken token = jwtService.issueAccessToken(principal);
+
+        assertEquals(token.expiration(), jwtService.extractAllClaims(token.token()).getExpiration());
+    }
+
+    @Test
+    void accessTokensAreNotIssuedForAnEndingSession() {
+        assertNull(jwtService.generateAccessToken(principal, System.currentTimeMillis() + 500));
+    }
+
+    @Test
+    void uncappedLifetimeStillAppliesWhenTheSessionIsLonger() {
+        JwtService.IssuedAccessToken token = jwtService.generateAccessToken(principal, System.currentTimeMillis() + 86_400_000);
+
+        long lifetime = token.expiration().getTime() - System.currentTimeMillis();
+        assertTrue(lifetime <= jwtProperties.getAccessTokenExp() && lifetime > jwtProperties.getAccessTokenExp() - 5_000);
+    }
+
+    @Test
+    void opaqueRefreshSessionsEndWithTheirHandle() {
+        jwtProperties.setOpaqueRefreshTokens(true);
+        String refreshToken = jwtService.generateRefreshToken(principal);
+
+        long sessionEnd = jwtService.extractRefreshSessionEnd(refreshToken, "ada");
+
+        long expected = System.currentTimeMillis() + jwtProperties.getRefreshTokenExp();
+        assertTrue(Math.abs(expected - sessionEnd) < 5_000);
+        assertEquals(0, jwtService.extractRefreshSessionEnd(refreshToken, "mallory"));
+        assertEquals(0, jwtService.extractRefreshSessionEnd("A".repeat(43), "ada"));
+    }
+
+    @Test
+    void rotatedOpaqueRefreshTokensEndTheSession() {
+        jwtProperties.setOpaqueRefreshTokens(true);
+        String refreshToken = jwtService.generateRefreshToken(principal);
+
+        assertNotNull(jwtService.rotateRefreshToken(refreshToken));
+
+        assertEquals(0, jwtService.extractRefreshSessionEnd(refreshToken, "ada"));
+    }
+
+    @Test
+    void opaqueRefreshTokensAreCheckedAgainstTheStore() {
+        jwtProperties.setOpaqueRefreshTokens(true);
+        String refreshToken = jwtService.generateRefreshToken(principal);
+
+        assertTrue(jwtService.isRefreshTokenValid(refreshToken));
+        // Anything shaped like a handle but never issued is rejected
+        assertFalse(jwtService.isRefreshTokenValid("A".repeat(43)));
+
+        assertNotNull(jwtService.rotateRefreshToken(refreshToken));
+        assertFalse(jwtService.isRefreshTokenValid(refreshToken));
+    }
+
+    @Test
+    void revokedOpaqueRefreshFamiliesAreInvalid() {
+        jwtProperties.setOpaqueRefreshTokens(true);
+        String refreshToken = jwtService.generateRefreshToken(principal);
+        when(redisService.isRefreshTokenRevoked(anyString())).thenReturn(true);
+
+        assertFalse(jwtService.isRefreshTokenValid(refreshToken));
+        assertEquals(0, jwtService.extractRefreshSessionEnd(refreshToken, "ada"));
+    }
+
+    @Test
+    void jwtRefreshTokensAreValidAndAccessTokensAreNot() {
+        String refreshToken = jwtService.generateRefreshToken(principal);
+        String accessToken = jwtService.generateAccessToken(principal);
+
+        assertTrue(jwtService.isRefreshTokenValid(refreshToken));
+        assertFalse(jwtService.isRefreshTokenValid(accessToken));
+        assertFalse(jwtService.isRefreshTokenValid("A".repeat(43)));
+
+        long sessionEnd = jwtService.extractRefreshSessionEnd(refreshToken, "ada");
+        assertEquals(jwtService.extractExpiration(refreshToken).getTime(), sessionEnd);
+        assertEquals(0, jwtService.extractRefreshSessionEnd(refreshToken, "mallory"));
+    }
+
+    @Test
+    void revokedJwtRefreshTokensAreInvalid() {
+        String refreshToken = jwtService.generateRefreshToken(principal);
+        when(redisService.isRefreshTokenRevoked(jwtService.extractJti(refreshToken))).thenReturn(true);
+
+        assertFalse(jwtService.isRefreshTokenValid(refreshToken));
+    }
+
+    @Test
+    void thinProfilesAreCopiesOfTheLoadedPrincipal() {
+        jwtProperties.setThinAccessTokens(true);
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+        BlackoutUserPrincipal loaded = BlackoutUserPrincipal.builder()
+                .authId(7L)
+                .userId(70L)
+                .username("ada")
+                .password("{bcrypt}hash")
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .authorities(authorities)
+                .build();
+        when(userDetailsService.loadUserByUsername("ada")).thenReturn(loaded);
+
+        String token = jwtService.generateAccessToken(principal);
+        UserDetails profile = jwtService.extractUserPrincipal(token);
+
+        assertNotSame(loaded, profile);
+        assertEquals("{bcrypt}hash", loaded.getPassword());
+        assertSame(authorities, loaded.getAuthorities());
+        assertNull(profile.getPassword());
+        assertEquals("ada", profile.getUsername());
+        assertEquals("Ada", ((BlackoutUserPrincipal) profile).getFirstName());
+        assertEquals(70L, ((BlackoutUserPrincipal) profile).getUserId());
+        Collection<? extends GrantedAuthority> granted = jwtService.extractAuthorities(jwtService.extractAllClaims(token));
+        assertTrue(granted.stream().anyMatch(authority -> authority.getAuthority().equals("ROLE_USER")));
+    }
+
+    @Test
+    void profileVersionIsAHashOfTheFullClaims() {
+        jwtProperties.setThinAccessTokens(true);
+
+        String pv = (String) jwtService.extractAllClaims(jwtService.generateAccessToken(principal)).get("pv");
+        String same = (String) jwtService.extractAllClaims(jwtService.generateAccessToken(principal)).get("pv");
+        principal.setFirstName("Augusta");
+        String changed = (String) jwtService.extractAllClaims(jwtService.generateAccessToken(principal)).get("pv");
+
+        assertEquals(16, pv.length());
+        assertEquals(pv, same);
+        assertNotEquals(pv, changed);
+    }
+
+    @Test
+    void profileClaimsFillInThinTokens() {
+        jwtProperties.setThinAccessTokens(true);
+        when(userDetailsService.loadUserByUsername("ada")).thenReturn(principal);
+
+        String token = jwtService.generateAccessToken(principal);
+        Map<String, Object> claims = jwtService.extractProfileClaims(token);
+
+        assertNull(jwtService.extractAllClaims(token).get("first_name"));
+        assertEquals("Ada", claims.get("first_name"));
+        assertEquals("Lovelace", claims.get("last_name"));
+        assertEquals(List.of("USER"), claims.get("roles"));
+        assertEquals("ada", claims.get("sub"));
+    }
+
+    @Test
+    void pasetoKeysAreValidatedAtStartup() throws NoSuchAlgorithmException {
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        KeyPair other = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        Base64.Encoder base64 = Base64.getEncoder();
+
+        jwtProperties.setFormat(TokenFormat.PASETO_V4_PUBLIC);
+        assertThrows(IllegalStateException.class, jwtService::validatePasetoKeys);
+
+        jwtProperties.setPasetoPrivateKey(base64.encodeToString(keys.getPrivate().getEncoded()));
+        jwtProperties.setPasetoPublicKey(base64.encodeToString(other.getPublic().getEncoded()));
+        assertThrows(IllegalStateException.class, jwtService::validatePasetoKeys);
+    }
+
+    @Test
+    void unreadablePasetoKeysFailEvenWhenNotIssuing() {
+        jwtProperties.setPasetoPublicKey("not a key");
+
+        assertThrows(IllegalStateException.class, jwtService::validatePasetoKeys);
+    }
+
+    @Test
+    void matchingPasetoKeysPassValidation() throws NoSuchAlgorithmException {
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        jwtProperties.setFormat(TokenFormat.PASETO_V4_PUBLIC);
+        jwtProperties.setPasetoPrivateKey(Base64.getEncoder().encodeToString(keys.getPrivate().getEncoded()));
+        jwtProperties.setPasetoPublicKey(Base64.getEncoder().encodeToString(keys.getPublic().getEncoded()));
+
+        assertDoesNotThrow(jwtService::validatePasetoKeys);
+        assertTrue(jwtService.generateAccessToken(principal).startsWith("v4.public."));
+    }
+
+    @Test
+    void localPasetoAndJwtNeedNoKeys() {
+        assertDoesNotThrow(jwtService::validatePasetoKeys);
+        jwtProperties.setFormat(TokenFormat.PASETO_V4_LOCAL);
+        assertDoesNotThrow(jwtService::validatePasetoKeys);
+    }
+
+    @Test
+    void introspectionReportsEachTokenOnItsOwn() {
+        String accessToken = jwtService.generateAccessToken(principal);
+        // An unreadable PASETO key makes the codec fail with IllegalStateException
+        jwtProperties.setPasetoPublicKey("not a key");
+
+        List<TokenIntrospectionDTO> results = jwtService.introspect(List.of(accessToken, "garbage", "v4.public.AAAA"));
+
+        assertTrue(results.get(0).isActive());
+        assertEquals("ada", results.get(0).getSub());
+        assertEquals(List.of("USER"), results.get(0).getRoles());
+        assertFalse(results.get(1).isActive());
+        assertFalse(results.get(2).isActive());
+    }
+
+    @Test
+    void introspectionFillsThinTokenRolesFromTheProfile() {
+        jwtProperties.setThinAccessTokens(true);
+        when(userDetailsService.loadUserByUsername("ada")).thenReturn(principal);
+
+        TokenIntrospectionDTO result = jwtService.introspect(List.of(jwtService.generateAccessToken(principal))).get(0);
+
+        assertTrue(result.isActive());
+        assertEquals(List.of("USER"), result.getRoles());
+    }
+
+    @Test
+    void introspectionLeavesRolesOutWithoutAProfile() {
+        jwtProperties.setThinAccessTokens(true);
+        when(userDetailsService.loadUserByUsername("ada")).thenThrow(new UsernameNotFoundException("ada"));
+
+        TokenIntrospectionDTO result = jwtService.introspect(List.of(jwtService.generateAccessToken(principal))).get(0);
+
+        assertTrue(result.isActive());
+        assertEquals("ada", result.getSub());
+        assertNull(result.getRoles());
+    }
+}
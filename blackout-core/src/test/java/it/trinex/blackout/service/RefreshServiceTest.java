@@ -0,0 +1,95 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import it.trinex.blackout.dto.response.AuthResponseDTO;
+import it.trinex.blackout.exception.InvalidTokenException;
+import it.trinex.blackout.security.BlackoutUserPrincipal;
+import it.trinex.blackout.service.redis.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RefreshServiceTest {
+
+    private JwtService jwtService;
+    private UserDetailsService userDetailsService;
+    private RedisService redisService;
+    private RefreshService refreshService;
+    private BlackoutUserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = mock(JwtService.class);
+        userDetailsService = mock(UserDetailsService.class);
+        redisService = mock(RedisService.class);
+        refreshService = new RefreshService(jwtService, userDetailsService, redisService);
+        principal = BlackoutUserPrincipal.builder().authId(7L).username("ada").build();
+    }
+
+    @Test
+    void reissueIsCappedAtTheRefreshTokenExpiry() {
+        long sessionEnd = System.currentTimeMillis() + 60_000;
+        when(jwtService.extractRefreshSessionEnd("rt", "ada")).thenReturn(sessionEnd);
+        when(jwtService.generateAccessToken(principal, sessionEnd))
+                .thenReturn(new JwtService.IssuedAccessToken("access", new Date(sessionEnd)));
+
+        AuthResponseDTO response = refreshService.reissueAccessToken(principal, "rt");
+
+        assertEquals("access", response.access_token());
+        assertNull(response.refresh_token());
+        assertTrue(response.access_token_expiration() <= 60_000 && response.access_token_expiration() > 55_000);
+    }
+
+    @Test
+    void unusableRefreshTokensStopTheReissue() {
+        when(jwtService.extractRefreshSessionEnd("rt", "ada")).thenReturn(0L);
+
+        assertNull(refreshService.reissueAccessToken(principal, "rt"));
+        verify(jwtService, never()).generateAccessToken(any(), anyLong());
+    }
+
+    @Test
+    void endingSessionsAreNotReissued() {
+        when(jwtService.extractRefreshSessionEnd("rt", "ada")).thenReturn(System.currentTimeMillis() + 500);
+
+        assertNull(refreshService.reissueAccessToken(principal, "rt"));
+    }
+
+    @Test
+    void refreshRevokesTheRefreshTokenItParsed() {
+        Date expiration = new Date(System.currentTimeMillis() + 600_000);
+        Claims refreshClaims = Jwts.claims().subject("ada").id("jti-1").expiration(expiration).build();
+        when(jwtService.extractValidRefreshClaims("rt")).thenReturn(refreshClaims);
+        when(userDetailsService.loadUserByUsername("ada")).thenReturn(principal);
+        // A jittered token expires before the configured lifetime, the response has to follow the token
+        when(jwtService.issueAccessToken(principal))
+                .thenReturn(new JwtService.IssuedAccessToken("access", new Date(System.currentTimeMillis() + 45_000)));
+        when(jwtService.generateRefreshToken(principal)).thenReturn("refresh");
+        when(jwtService.calculateAccessTokenExpiration()).thenReturn(Instant.now().plusSeconds(60));
+        when(jwtService.calculateRefreshTokenExpiration()).thenReturn(expiration.toInstant());
+
+        AuthResponseDTO response = refreshService.refreshToken("rt");
+
+        assertEquals("access", response.access_token());
+        assertEquals("refresh", response.refresh_token());
+        assertTrue(response.access_token_expiration() <= 45_000 && response.access_token_expiration() > 40_000);
+        verify(redisService).revokeRefreshToken("jti-1", expiration);
+        verify(jwtService, never()).extractAllClaims(anyString());
+    }
+
+    @Test
+    void invalidRefreshTokensAreRejected() {
+        assertThrows(InvalidTokenException.class, () -> refreshService.refreshToken("rt"));
+        verify(redisService, never()).revokeRefreshToken(anyString(), any());
+    }
+}
@@ -0,0 +1,175 @@
+package it.trinex.blackout.service.hashing;
+
+import it.trinex.blackout.exception.ServiceOverloadedException;
+import it.trinex.blackout.properties.PasswordHashingProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void delegatesOnAHashingThread() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(threads, null, null), properties(2, 4), PasswordHashingMetrics.NOOP);
+
+        assertEquals("{hash}secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "{hash}secret"));
+        assertFalse(encoder.matches("other", "{hash}secret"));
+
+        assertEquals(3, threads.size());
+        for (String thread : threads) {
+            assertTrue(thread.startsWith("blackout-password-hashing-"), thread);
+        }
+    }
+
+    @Test
+    void shedsLoadWhenTheQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicReference<ThreadPoolExecutor> pool = new AtomicReference<>();
+        PasswordHashingMetrics metrics = new PasswordHashingMetrics() {
+            @Override
+            public void bind(ThreadPoolExecutor executor) {
+                pool.set(executor);
+            }
+
+            @Override
+            public void recordRejected() {
+                rejected.incrementAndGet();
+            }
+        };
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(new CopyOnWriteArrayList<>(), started, release), properties(1, 1), metrics);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> running = callers.submit(() -> encoder.encode("a"));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> queued = callers.submit(() -> encoder.encode("b"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (pool.get().getQueue().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+
+            ServiceOverloadedException overloaded = assertThrows(ServiceOverloadedException.class, () -> encoder.encode("c"));
+            assertEquals(7L, overloaded.getRetryAfter());
+            assertEquals(1, rejected.get());
+
+            release.countDown();
+            assertEquals("{hash}a", running.get(5, TimeUnit.SECONDS));
+            assertEquals("{hash}b", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void delegateExceptionsReachTheCaller() {
+        PasswordEncoder failing = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new IllegalArgumentException("Encoded password does not look like BCrypt");
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                throw new IllegalArgumentException("Encoded password does not look like BCrypt");
+            }
+        };
+        encoder = new BoundedPasswordEncoder(failing, properties(1, 1), PasswordHashingMetrics.NOOP);
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.matches("secret", "garbage"));
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode("secret"));
+    }
+
+    @Test
+    void recordsQueueWaitAndHashTime() {
+        List<String> recorded = new CopyOnWriteArrayList<>();
+        PasswordHashingMetrics metrics = new PasswordHashingMetrics() {
+            @Override
+            public void recordQueueWait(long nanos) {
+                recorded.add("wait");
+            }
+
+            @Override
+            public void recordHash(String operation, long nanos) {
+                recorded.add(operation);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(new PrefixEncoder(new CopyOnWriteArrayList<>(), null, null), properties(1, 1), metrics);
+
+        encoder.encode("secret");
+        encoder.matches("secret", "{hash}secret");
+
+        assertEquals(List.of("wait", "encode", "wait", "matches"), recorded);
+    }
+
+    private static PasswordHashingProperties properties(int threads, int queueCapacity) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setThreads(threads);
+        properties.setQueueCapacity(queueCapacity);
+        properties.setRetryAfter(7L);
+        return properties;
+    }
+
+    /**
+     * Prefixes passwords with {@code {hash}}, records the calling thread and optionally blocks
+     * the first call until released.
+     */
+    private static final class PrefixEncoder implements PasswordEncoder {
+
+        private final List<String> threads;
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        private PrefixEncoder(List<String> threads, CountDownLatch started, CountDownLatch release) {
+            this.threads = threads;
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            threads.add(Thread.currentThread().getName());
+            if (started != null) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "{hash}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            threads.add(Thread.currentThread().getName());
+            return ("{hash}" + rawPassword).equals(encodedPassword);
+        }
+    }
+}
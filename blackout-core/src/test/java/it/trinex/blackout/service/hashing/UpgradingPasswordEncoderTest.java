@@ -0,0 +1,116 @@
+package it.trinex.blackout.service.hashing;
+
+import it.trinex.blackout.properties.PasswordHashingProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpgradingPasswordEncoderTest {
+
+    @Test
+    void encodesWithTheConfiguredBcryptStrength() {
+        UpgradingPasswordEncoder encoder = new UpgradingPasswordEncoder(bcrypt(5));
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(hash.startsWith("{bcrypt}$2a$05$"), hash);
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void legacyUnprefixedHashesStillMatch() {
+        UpgradingPasswordEncoder encoder = new UpgradingPasswordEncoder(bcrypt(5));
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertFalse(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void bcryptCostChangesAreUpgradedInBothDirections() {
+        UpgradingPasswordEncoder encoder = new UpgradingPasswordEncoder(bcrypt(5));
+
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    void otherAlgorithmsAreUpgradedToTheTarget() {
+        PasswordHashingProperties properties = bcrypt(5);
+        UpgradingPasswordEncoder encoder = new UpgradingPasswordEncoder(properties);
+        String argon2 = "{argon2}" + argon2(properties).encode("secret");
+
+        assertTrue(encoder.matches("secret", argon2));
+        assertTrue(encoder.upgradeEncoding(argon2));
+        assertTrue(encoder.upgradeEncoding("{noop}secret"));
+    }
+
+    @Test
+    void argon2TargetUpgradesOnParameterChanges() {
+        PasswordHashingProperties properties = argon2Target();
+        UpgradingPasswordEncoder encoder = new UpgradingPasswordEncoder(properties);
+
+        String hash = encoder.encode("secret");
+        assertTrue(hash.startsWith("{argon2}$argon2id$"), hash);
+        assertFalse(encoder.upgradeEncoding(hash));
+        assertTrue(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("secret")));
+
+        PasswordHashingProperties stronger = argon2Target();
+        stronger.getArgon2().setIterations(properties.getArgon2().getIterations() + 1);
+        assertTrue(new UpgradingPasswordEncoder(stronger).upgradeEncoding(hash));
+    }
+
+    @Test
+    void emptyHashesAreNotUpgraded() {
+        UpgradingPasswordEncoder encoder = new UpgradingPasswordEncoder(bcrypt(5));
+
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding(""));
+    }
+
+    @Test
+    void successfulLoginStoresTheUpgradedHash() {
+        UpgradingPasswordEncoder encoder = new UpgradingPasswordEncoder(bcrypt(5));
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager(User.withUsername("ada")
+                .password(new BCryptPasswordEncoder(4).encode("secret"))
+                .roles("USER")
+                .build());
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(users);
+        provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(users);
+
+        provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("ada", "secret"));
+
+        String stored = users.loadUserByUsername("ada").getPassword();
+        assertTrue(stored.startsWith("{bcrypt}$2a$05$"), stored);
+        assertTrue(encoder.matches("secret", stored));
+    }
+
+    private static PasswordHashingProperties bcrypt(int strength) {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.getBcrypt().setStrength(strength);
+        return properties;
+    }
+
+    private static PasswordHashingProperties argon2Target() {
+        PasswordHashingProperties properties = new PasswordHashingProperties();
+        properties.setAlgorithm(PasswordHashingProperties.Algorithm.ARGON2ID);
+        properties.getArgon2().setMemory(1024);
+        properties.getArgon2().setIterations(1);
+        return properties;
+    }
+
+    private static Argon2PasswordEncoder argon2(PasswordHashingProperties properties) {
+        PasswordHashingProperties.Argon2 argon2 = properties.getArgon2();
+        return new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(),
+                argon2.getParallelism(), argon2.getMemory(), argon2.getIterations());
+    }
+}
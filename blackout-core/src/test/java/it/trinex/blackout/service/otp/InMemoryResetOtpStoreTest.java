@@ -0,0 +1,157 @@
+package it.trinex.blackout.service.otp;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryResetOtpStoreTest {
+
+    private InMemoryResetOtpStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryResetOtpStore();
+    }
+
+    @Test
+    void firstRequestIssuesTheCandidate() {
+        IssuedOtp issued = store.issue("user", "111111", 300, 60);
+
+        assertEquals("111111", issued.value());
+        assertTrue(issued.fresh());
+    }
+
+    @Test
+    void requestsWithinTheCooldownReuseThePendingOtp() {
+        store.issue("user", "111111", 300, 60);
+
+        IssuedOtp again = store.issue("user", "222222", 300, 60);
+
+        assertEquals("111111", again.value());
+        assertFalse(again.fresh());
+    }
+
+    @Test
+    void requestsAfterTheCooldownIssueANewOtp() {
+        store.issue("user", "111111", 300, 0);
+
+        IssuedOtp again = store.issue("user", "222222", 300, 0);
+
+        assertEquals("222222", again.value());
+        assertTrue(again.fresh());
+    }
+
+    @Test
+    void expiredOtpIsReplacedEvenWithinTheCooldown() {
+        store.issue("user", "111111", 0, 60);
+
+        IssuedOtp again = store.issue("user", "222222", 300, 60);
+
+        assertEquals("222222", again.value());
+        assertTrue(again.fresh());
+    }
+
+    @Test
+    void subjectsAreIndependent() {
+        store.issue("alice", "111111", 300, 60);
+
+        IssuedOtp bob = store.issue("bob", "222222", 300, 60);
+
+        assertEquals("222222", bob.value());
+        assertTrue(bob.fresh());
+    }
+
+    @Test
+    void removeEndsTheCooldown() {
+        store.issue("user", "111111", 300, 60);
+        store.remove("user");
+
+        assertTrue(store.issue("user", "222222", 300, 60).fresh());
+    }
+
+    @Test
+    void correctOtpVerifies() {
+        store.issue("user", "111111", 300, 60);
+
+        assertTrue(store.verify("user", "111111", 5));
+        assertTrue(store.verify("user", "111111", 5));
+    }
+
+    @Test
+    void wrongOtpDoesNotVerify() {
+        store.issue("user", "111111", 300, 60);
+
+        assertFalse(store.verify("user", "999999", 5));
+        assertFalse(store.verify("other", "111111", 5));
+    }
+
+    @Test
+    void otpIsInvalidatedAfterMaxAttempts() {
+        store.issue("user", "111111", 300, 60);
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(store.verify("user", "000000", 3));
+        }
+
+        assertFalse(store.verify("user", "111111", 3));
+    }
+
+    @Test
+    void correctOtpBeforeTheLimitStillVerifies() {
+        store.issue("user", "111111", 300, 60);
+
+        assertFalse(store.verify("user", "000000", 3));
+        assertFalse(store.verify("user", "000001", 3));
+
+        assertTrue(store.verify("user", "111111", 3));
+    }
+
+    @Test
+    void cooldownOutlivesTheInvalidatedOtp() {
+        store.issue("user", "111111", 300, 60);
+        store.verify("user", "000000", 1);
+
+        IssuedOtp again = store.issue("user", "222222", 300, 60);
+
+        assertNull(again.value());
+        assertFalse(again.fresh());
+        assertFalse(store.verify("user", "222222", 1));
+    }
+
+    @Test
+    void expiredOtpDoesNotVerify() {
+        store.issue("user", "111111", 0, 60);
+
+        assertFalse(store.verify("user", "111111", 5));
+    }
+
+    @Test
+    void concurrentWrongGuessesInvalidateTheOtp() throws Exception {
+        int maxAttempts = 5;
+        store.issue("user", "111111", 300, 60);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger guess = new AtomicInteger(200000);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 400; i++) {
+                results.add(executor.submit(() -> store.verify("user", String.valueOf(guess.getAndIncrement()), maxAttempts)));
+            }
+            for (Future<Boolean> result : results) {
+                assertFalse(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertFalse(store.verify("user", "111111", maxAttempts));
+    }
+}
@@ -0,0 +1,56 @@
+package it.trinex.blackout.service.refresh;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRefreshTokenStoreTest {
+
+    private final InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore();
+    private final RefreshSession session = new RefreshSession("family", 7L, "ada");
+
+    @Test
+    void rotationMovesTheSessionToTheNewHandle() {
+        store.store("h1", session, 60);
+
+        RefreshTokenStore.Rotation rotation = store.rotate("h1", "h2", 60);
+
+        assertEquals(session, rotation.session());
+        assertFalse(rotation.reused());
+        assertNull(store.find("h1"));
+        assertEquals(session, store.find("h2").session());
+    }
+
+    @Test
+    void reusingARotatedHandleRevokesTheFamily() {
+        store.store("h1", session, 60);
+        store.rotate("h1", "h2", 60);
+
+        RefreshTokenStore.Rotation reuse = store.rotate("h1", "h3", 60);
+
+        assertNull(reuse.session());
+        assertTrue(reuse.reused());
+        assertNull(store.find("h2"));
+        assertNull(store.rotate("h2", "h4", 60).session());
+    }
+
+    @Test
+    void findReportsTheExpiry() {
+        long before = System.currentTimeMillis();
+        store.store("h1", session, 60);
+
+        RefreshTokenStore.Handle handle = store.find("h1");
+
+        assertNotNull(handle);
+        assertTrue(handle.expiresAt() >= before + 60_000 && handle.expiresAt() <= System.currentTimeMillis() + 60_000);
+        assertNull(store.find("unknown"));
+    }
+
+    @Test
+    void expiredHandlesAreNotFound() {
+        store.store("h1", session, 0);
+
+        assertNull(store.find("h1"));
+        assertNull(store.rotate("h1", "h2", 60).session());
+    }
+}
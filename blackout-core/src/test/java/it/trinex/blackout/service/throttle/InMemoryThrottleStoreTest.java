@@ -0,0 +1,111 @@
+package it.trinex.blackout.service.throttle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryThrottleStoreTest {
+
+    private final InMemoryThrottleStore store = new InMemoryThrottleStore(4);
+
+    @Test
+    void burstIsLimitedToTheCapacity() {
+        List<ThrottleBucket> buckets = List.of(new ThrottleBucket("s:ada", 3, 1 / 60.0));
+
+        assertEquals(0, store.tryConsume(buckets));
+        assertEquals(0, store.tryConsume(buckets));
+        assertEquals(0, store.tryConsume(buckets));
+
+        long wait = store.tryConsume(buckets);
+        assertTrue(wait > 55_000 && wait <= 60_000, "wait " + wait);
+    }
+
+    @Test
+    void emptyBucketConsumesNothingFromTheOthers() {
+        ThrottleBucket subject = new ThrottleBucket("s:ada", 1, 1 / 60.0);
+        ThrottleBucket client = new ThrottleBucket("ip:10.0.0.1", 2, 1 / 60.0);
+
+        assertEquals(0, store.tryConsume(List.of(subject, client)));
+        assertTrue(store.tryConsume(List.of(subject, client)) > 0);
+
+        // The client token taken before the subject bucket was found empty was given back
+        assertEquals(0, store.tryConsume(List.of(client)));
+        assertTrue(store.tryConsume(List.of(client)) > 0);
+    }
+
+    @Test
+    void refundGivesATokenBackUpToTheCapacity() {
+        ThrottleBucket bucket = new ThrottleBucket("s:ada", 1, 1 / 60.0);
+
+        assertEquals(0, store.tryConsume(List.of(bucket)));
+        store.refund(List.of(bucket));
+        store.refund(List.of(bucket));
+
+        assertEquals(0, store.tryConsume(List.of(bucket)));
+        assertTrue(store.tryConsume(List.of(bucket)) > 0);
+    }
+
+    @Test
+    void refundOfAnUnknownBucketIsIgnored() {
+        ThrottleBucket bucket = new ThrottleBucket("s:nobody", 1, 1 / 60.0);
+
+        store.refund(List.of(bucket));
+
+        assertEquals(0, store.tryConsume(List.of(bucket)));
+        assertTrue(store.tryConsume(List.of(bucket)) > 0);
+    }
+
+    @Test
+    void sweepsDropFullBucketsOnly() {
+        InMemoryThrottleStore singleStripe = new InMemoryThrottleStore(1);
+        ThrottleBucket used = new ThrottleBucket("s:ada", 1, 1 / 60.0);
+        assertEquals(0, singleStripe.tryConsume(List.of(used)));
+
+        // Buckets refilling instantly are full again at every sweep
+        for (int i = 0; i < 4096; i++) {
+            assertEquals(0, singleStripe.tryConsume(List.of(new ThrottleBucket("ip:" + i, 1, 1_000_000))));
+        }
+
+        assertTrue(singleStripe.tryConsume(List.of(used)) > 0);
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedTheCapacity() throws Exception {
+        InMemoryThrottleStore singleStripe = new InMemoryThrottleStore(1);
+        ThrottleBucket shared = new ThrottleBucket("s:ada", 2000, 1e-9);
+        AtomicInteger granted = new AtomicInteger();
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (singleStripe.tryConsume(List.of(shared)) == 0) {
+                        granted.incrementAndGet();
+                    }
+                    // Full buckets on the same stripe keep the sweeps running
+                    singleStripe.tryConsume(List.of(new ThrottleBucket("ip:" + thread + ":" + i, 1, 1_000_000)));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(2000, granted.get());
+    }
+}
@@ -0,0 +1,146 @@
+package it.trinex.blackout.service.throttle;
+
+import it.trinex.blackout.exception.TooManyRequestsException;
+import it.trinex.blackout.properties.ThrottleProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    private ThrottleProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ThrottleProperties();
+        properties.setSubject(new ThrottleProperties.Bucket(true, 2, 1.0));
+        properties.setClient(new ThrottleProperties.Bucket(true, 5, 1.0));
+    }
+
+    @Test
+    void failedAttemptsOnTheSameSubjectAreThrottled() {
+        LoginThrottle throttle = throttle();
+
+        throttle.checkSubject("Ada", request("10.0.0.1"));
+        throttle.checkSubject(" ada ", request("10.0.0.2"));
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> throttle.checkSubject("ADA", request("10.0.0.3")));
+        assertTrue(e.getRetryAfter() > 0);
+    }
+
+    @Test
+    void successfulAttemptsDoNotCountAgainstTheSubject() {
+        LoginThrottle throttle = throttle();
+
+        for (int i = 0; i < 5; i++) {
+            throttle.checkSubject("ada", request("10.0.0." + i));
+            throttle.recordSuccess("ada");
+        }
+    }
+
+    @Test
+    void successDoesNotRefundTheClientBucket() {
+        LoginThrottle throttle = throttle();
+
+        for (int i = 0; i < 5; i++) {
+            throttle.checkSubject("user" + i, request("10.0.0.1"));
+            throttle.recordSuccess("user" + i);
+        }
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkSubject("other", request("10.0.0.1")));
+    }
+
+    @Test
+    void subjectBucketCanBeDisabled() {
+        properties.getSubject().setEnabled(false);
+        LoginThrottle throttle = throttle();
+
+        for (int i = 0; i < 5; i++) {
+            throttle.checkSubject("ada", request("10.0.0." + i));
+        }
+    }
+
+    @Test
+    void forwardedHeaderIsIgnoredWithoutTrustedProxies() {
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+
+        assertEquals("10.0.0.1", throttle().clientAddress(request));
+    }
+
+    @Test
+    void forwardedHeaderIsIgnoredForUntrustedPeers() {
+        properties.setTrustedProxies(List.of("10.0.0.0/8"));
+        MockHttpServletRequest request = request("198.51.100.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.7");
+
+        assertEquals("198.51.100.1", throttle().clientAddress(request));
+    }
+
+    @Test
+    void clientIsTheFirstUntrustedHopFromTheRight() {
+        properties.setTrustedProxies(List.of("10.0.0.0/8", "192.0.2.10"));
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "1.2.3.4, 203.0.113.7, 192.0.2.10, 10.1.1.1");
+
+        assertEquals("203.0.113.7", throttle().clientAddress(request));
+    }
+
+    @Test
+    void forgedEntriesAreNotTrusted() {
+        properties.setTrustedProxies(List.of("10.0.0.0/8"));
+        MockHttpServletRequest request = request("10.0.0.1");
+        request.addHeader("X-Forwarded-For", "203.0.113.7, not-an-ip");
+
+        assertEquals("not-an-ip", throttle().clientAddress(request));
+    }
+
+    @Test
+    void forwardedClientsGetTheirOwnBuckets() {
+        properties.setTrustedProxies(List.of("10.0.0.1"));
+        properties.getClient().setCapacity(1);
+        LoginThrottle throttle = throttle();
+
+        MockHttpServletRequest first = request("10.0.0.1");
+        first.addHeader("X-Forwarded-For", "203.0.113.7");
+        MockHttpServletRequest second = request("10.0.0.1");
+        second.addHeader("X-Forwarded-For", "203.0.113.8");
+
+        throttle.checkClient(first);
+        throttle.checkClient(second);
+        assertThrows(TooManyRequestsException.class, () -> throttle.checkClient(first));
+    }
+
+    @Test
+    void storeFailuresDoNotBlockLogins() {
+        ThrottleStore failing = new ThrottleStore() {
+            @Override
+            public long tryConsume(List<ThrottleBucket> buckets) {
+                throw new IllegalStateException("down");
+            }
+
+            @Override
+            public void refund(List<ThrottleBucket> buckets) {
+                throw new IllegalStateException("down");
+            }
+        };
+        LoginThrottle throttle = new LoginThrottle(failing, properties);
+
+        throttle.checkSubject("ada", request("10.0.0.1"));
+        throttle.recordSuccess("ada");
+    }
+
+    private LoginThrottle throttle() {
+        return new LoginThrottle(new InMemoryThrottleStore(4), properties);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
@@ -0,0 +1,102 @@
+package it.trinex.blackout.autoconfig;
+
+import it.trinex.blackout.controller.*;
+import it.trinex.blackout.properties.*;
+import it.trinex.blackout.repository.AuthAccountRepo;
+import it.trinex.blackout.security.BlackoutUserPrincipal;
+import it.trinex.blackout.service.*;
+import it.trinex.blackout.service.mail.BlackoutMailer;
+import it.trinex.blackout.service.otp.ResetOtpStore;
+import it.trinex.blackout.service.redis.RedisService;
+import it.trinex.blackout.service.throttle.LoginThrottle;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Auth accounts stored in the blackout datasource, and the login, password and signup endpoints
+ * built on them. Runs before {@link SecurityConfig}, which needs the {@link UserDetailsService}.
+ */
+@AutoConfiguration(before = SecurityConfig.class)
+@EnableConfigurationProperties(PasswordResetProperties.class)
+public class BlackoutJpaAutoconfig {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "authController")
+    @ConditionalOnProperty(prefix = "blackout.cookie", name = "enabled", havingValue = "false",  matchIfMissing = true)
+    public BodyAuthController bodyAuthController(AuthService authService, LoginThrottle loginThrottle) {
+        return new BodyAuthController(authService, loginThrottle);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "authController")
+    @ConditionalOnProperty(prefix = "blackout.cookie", name = "enabled", havingValue = "true")
+    public CookieAuthController cookieAuthController(AuthService authService, JwtService jwtService, CookieService cookieService, LoginThrottle loginThrottle) {
+        return new CookieAuthController(authService, jwtService, cookieService, loginThrottle);
+    }
+
+    @Bean
+    public PasswordController passwordController(PasswordService passwordService) {
+        return new PasswordController(passwordService);
+    }
+
+    @Bean
+    public PasswordService passwordService(AuthAccountRepo authAccountRepo, PasswordEncoder passwordEncoder, ResetOtpStore resetOtpStore, CurrentUserService currentUserService, RedisService redisService, ObjectProvider<BlackoutMailer> mailer, PasswordResetProperties passwordResetProperties) {
+        return new PasswordService(authAccountRepo, passwordEncoder, resetOtpStore, currentUserService, redisService, mailer.getIfAvailable(), passwordResetProperties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(CurrentUserService.class)
+    public CurrentUserService<BlackoutUserPrincipal> currentUserService(AuthAccountRepo authAccountRepo) {
+        return new CurrentUserService<>(authAccountRepo);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(UserDetailsService.class)
+    public BlackoutUserDetailService blackoutUserDetailService(AuthAccountRepo authAccountRepo) {
+        return new BlackoutUserDetailService(authAccountRepo);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(UserDetailsPasswordService.class)
+    public BlackoutUserDetailsPasswordService blackoutUserDetailsPasswordService(AuthAccountRepo authAccountRepo) {
+        return new BlackoutUserDetailsPasswordService(authAccountRepo);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "blackout.signup.enabled", havingValue = "true", matchIfMissing = false)
+    public SignupController signupController(AuthService authService, PasswordEncoder passwordEncoder) {
+        return new SignupController(passwordEncoder, authService);
+    }
+
+    @Bean
+    public AuthService authService(@Lazy AuthenticationManager authenticationManager, JwtService jWTService, AuthAccountRepo authAccountRepo, JwtProperties jwtProperties, UserDetailsService userDetailsService, ObjectProvider<SecondFactorVerifier> secondFactorVerifier, CurrentUserService currentUserService, RedisService redisService, RefreshService refreshService) {
+        return new AuthService(authenticationManager, jWTService, authAccountRepo, jwtProperties, userDetailsService, secondFactorVerifier, currentUserService, redisService, refreshService);
+    }
+
+    /**
+     * Fails startup when accounts have TOTP enabled but no {@link SecondFactorVerifier} is
+     * available, e.g. after dropping blackout-totp: those accounts could no longer log in.
+     * Runs once every singleton exists, so schema migrations have been applied.
+     */
+    @Bean
+    public SmartInitializingSingleton secondFactorVerifierCheck(ObjectProvider<SecondFactorVerifier> secondFactorVerifier, AuthAccountRepo authAccountRepo) {
+        return () -> {
+            if (secondFactorVerifier.getIfAvailable() == null && authAccountRepo.existsByTotpSecretNotNull()) {
+                throw new IllegalStateException("Some accounts have TOTP enabled, but no SecondFactorVerifier bean is available. "
+                        + "Add the blackout-totp module, provide a SecondFactorVerifier bean, "
+                        + "or clear totp_secret on those accounts to disable their second factor.");
+            }
+        };
+    }
+
+}
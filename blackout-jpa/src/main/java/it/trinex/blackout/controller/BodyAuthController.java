@@ -12,7 +12,9 @@ import it.trinex.blackout.dto.response.AuthResponseDTO;
 import it.trinex.blackout.dto.response.AuthStatusResponseDTO;
 import it.trinex.blackout.exception.InvalidTokenException;
 import it.trinex.blackout.service.AuthService;
+import it.trinex.blackout.service.throttle.LoginThrottle;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +35,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class BodyAuthController {
 
     private final AuthService authService;
+    private final LoginThrottle loginThrottle;
 
     @PostConstruct
     public void init() {
@@ -46,9 +49,12 @@ public class BodyAuthController {
             content = @Content(schema = @Schema(implementation = AuthResponseDTO.class))),
         @ApiResponse(responseCode = "202", description = "Login successful, TOTP code required",
             content = @Content(schema = @Schema(implementation = AuthResponseDTO.class))),
-        @ApiResponse(responseCode = "401", description = "Invalid credentials")
+        @ApiResponse(responseCode = "401", description = "Invalid credentials"),
+        @ApiResponse(responseCode = "429", description = "Too many login attempts, see Retry-After")
     })
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO request) {
+    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO request, HttpServletRequest httpRequest) {
+        loginThrottle.checkSubject(request.getSubject(), httpRequest);
+
         AuthResponseDTO response = authService.login(
             request.getSubject(),
             request.getPassword(),
@@ -59,6 +65,8 @@ public class BodyAuthController {
         if (response.needOTP()) {
             return ResponseEntity.accepted().body(response);
         }
+        // Only a complete login gives the token back, otherwise TOTP guesses would be free
+        loginThrottle.recordSuccess(request.getSubject());
 
         return ResponseEntity.ok(response);
     }
@@ -19,7 +19,9 @@ import it.trinex.blackout.exception.UnauthorizedException;
 import it.trinex.blackout.service.AuthService;
 import it.trinex.blackout.service.CookieService;
 import it.trinex.blackout.service.JwtService;
+import it.trinex.blackout.service.throttle.LoginThrottle;
 import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +44,7 @@ public class CookieAuthController {
     private final AuthService authService;
     private final JwtService jwtService;
     private final CookieService cookieService;
+    private final LoginThrottle loginThrottle;
 
     @PostConstruct
     public void init() {
@@ -56,8 +59,11 @@ public class CookieAuthController {
         @ApiResponse(responseCode = "202", description = "Login successful, TOTP code required",
             content = @Content(schema = @Schema(implementation = AuthResponseDTO.class))),
         @ApiResponse(responseCode = "401", description = "Invalid credentials", content =  @Content(schema = @Schema(implementation = ExceptionResponseDTO.class))),
+        @ApiResponse(responseCode = "429", description = "Too many login attempts, see Retry-After", content =  @Content(schema = @Schema(implementation = ExceptionResponseDTO.class))),
     })
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO request) {
+    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO request, HttpServletRequest httpRequest) {
+        loginThrottle.checkSubject(request.getSubject(), httpRequest);
+
         AuthResponseDTO response = authService.login(
             request.getSubject(),
             request.getPassword(),
@@ -68,8 +74,10 @@ public class CookieAuthController {
         if (response.needOTP()) {
             return ResponseEntity.accepted().body(response);
         }
+        // Only a complete login gives the token back, otherwise TOTP guesses would be free
+        loginThrottle.recordSuccess(request.getSubject());
 
-        ResponseCookie accessCookie = cookieService.generateAccessCookie(response.access_token());
+        ResponseCookie accessCookie = cookieService.generateAccessCookie(response.access_token(), response.access_token_expiration() / 1000);
         ResponseCookie refreshCookie = cookieService.generateRefreshCookie(response.refresh_token());
 
         return ResponseEntity.ok()
@@ -107,7 +115,7 @@ public class CookieAuthController {
 
         AuthResponseDTO response = authService.refreshToken(refreshToken);
 
-        ResponseCookie accessCookie = cookieService.generateAccessCookie(response.access_token());
+        ResponseCookie accessCookie = cookieService.generateAccessCookie(response.access_token(), response.access_token_expiration() / 1000);
         ResponseCookie refreshCookie = cookieService.generateRefreshCookie(response.refresh_token());
 
         return ResponseEntity.ok()
@@ -157,7 +165,7 @@ public class CookieAuthController {
     @GetMapping("/status")
     public ResponseEntity<String> getAuthStatus(@Parameter(hidden = true) @CookieValue(name = "access_token") String token) {
 
-        String claims = jwtService.extractAllClaims(token).toString();
+        String claims = jwtService.extractProfileClaims(token).toString();
 
         return ResponseEntity.ok(claims);
     }
@@ -0,0 +1,32 @@
+package it.trinex.blackout.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for OTP-based password reset.
+ * Allows customization of OTP lifetime and request throttling through application.yml or application.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "blackout.password-reset")
+public class PasswordResetProperties {
+
+    /**
+     * Validity of a reset OTP in seconds.
+     * Default: 300 (5 minutes)
+     */
+    private Long otpTtl = 300L;
+
+    /**
+     * Time in seconds after an OTP is issued during which new reset requests for the same
+     * account reuse it and do not send another email.
+     * Default: 60 (1 minute)
+     */
+    private Long requestCooldown = 60L;
+
+    /**
+     * Number of wrong codes accepted before the pending OTP is invalidated.
+     * Default: 5
+     */
+    private Integer maxAttempts = 5;
+}
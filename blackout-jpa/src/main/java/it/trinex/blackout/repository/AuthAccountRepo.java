@@ -9,4 +9,6 @@ public interface AuthAccountRepo extends JpaRepository<AuthAccount, Long> {
     public Optional<AuthAccount> findByUsername(String username);
 
     public Optional<AuthAccount> findByEmail(String email);
+
+    public boolean existsByTotpSecretNotNull();
 }
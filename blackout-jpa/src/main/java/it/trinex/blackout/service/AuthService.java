@@ -10,6 +10,7 @@ import it.trinex.blackout.properties.JwtProperties;
 import it.trinex.blackout.service.redis.RedisService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -23,7 +24,6 @@ import org.springframework.stereotype.Service;
 import tools.jackson.databind.ObjectMapper;
 
 import java.time.Duration;
-import java.util.Date;
 
 @Service
 @Slf4j
@@ -35,9 +35,10 @@ public class AuthService {
     private final AuthAccountRepo authAccountRepo;
     private final JwtProperties jwtProperties;
     private final UserDetailsService userDetailsService;
-    private final TOTPService totpService;
+    private final ObjectProvider<SecondFactorVerifier> secondFactorVerifier;
     private final CurrentUserService currentUserService;
     private final RedisService redisService;
+    private final RefreshService refreshService;
 
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -55,6 +56,9 @@ public class AuthService {
             if(e.getCause() instanceof AccountNotActiveException) {
                 throw (AccountNotActiveException) e.getCause();
             }
+            if(e.getCause() instanceof ServiceOverloadedException) {
+                throw (ServiceOverloadedException) e.getCause();
+            }
             throw new UnauthorizedException("Invalid username or password");
         }
 
@@ -68,7 +72,9 @@ public class AuthService {
 
         if(authAccount.getTotpSecret() != null && !authAccount.getTotpSecret().isEmpty()) {
             if(totpCode != null && !totpCode.isEmpty()) {
-                if(!totpService.verifyCode(totpCode, authAccount.getTotpSecret())) {
+                // Without a verifier (blackout-totp not installed) no code can be accepted
+                SecondFactorVerifier verifier = secondFactorVerifier.getIfAvailable();
+                if(verifier == null || !verifier.verifyCode(totpCode, authAccount.getTotpSecret())) {
                     throw new InvalidTOTPCodeException("Invalid TOTP code");
                 }
             } else {
@@ -80,12 +86,12 @@ public class AuthService {
         BlackoutUserPrincipal userPrincipal = (BlackoutUserPrincipal) authentication.getPrincipal();
 
         // Generate tokens
-        String accessToken = jwtService.generateAccessToken(userPrincipal);
+        JwtService.IssuedAccessToken issuedAccessToken = jwtService.issueAccessToken(userPrincipal);
+        String accessToken = issuedAccessToken.token();
         String refreshToken = jwtService.generateRefreshToken(userPrincipal);
 
         // Calculate expiration time for client
-        long accessTokenExpirationMs = jwtService.calculateAccessTokenExpiration().toEpochMilli()
-                - System.currentTimeMillis();
+        long accessTokenExpirationMs = issuedAccessToken.expiration().getTime() - System.currentTimeMillis();
         long refreshTokenExpirationMs = jwtService.calculateRefreshTokenExpiration().toEpochMilli()
                 - System.currentTimeMillis();
 
@@ -94,7 +100,7 @@ public class AuthService {
         // Determine if we should set the refresh token
         long refreshTokenMaxAge = rememberMe ? Duration.ofMillis(refreshTokenExpirationMs).toSeconds() : jwtProperties.getRefreshTokenExpNoRemember();
 
-        String userJson = objectMapper.writeValueAsString(jwtService.extractAllClaims(accessToken));
+        String userJson = objectMapper.writeValueAsString(jwtService.extractProfileClaims(accessToken));
 
         return AuthResponseDTO.builder()
             .needOTP(false)
@@ -139,40 +145,7 @@ public class AuthService {
     }
 
     public AuthResponseDTO refreshToken(String refreshToken) {
-        // Validate refresh token
-        if (!jwtService.isRefreshTokenValid(refreshToken)) {
-            log.warn("Invalid or expired refresh token");
-            throw new InvalidTokenException("Refresh token is invalid or expired");
-        }
-
-        // Extract user from refresh token (no database call needed!)
-        String subject = jwtService.extractSubject(refreshToken);
-
-        BlackoutUserPrincipal userPrincipal = (BlackoutUserPrincipal) userDetailsService.loadUserByUsername(subject);
-
-        // Generate new access token
-        String newAccessToken = jwtService.generateAccessToken(userPrincipal);
-        String newRefreshToken = jwtService.generateRefreshToken(userPrincipal);
-
-        // Calculate expiration time for client
-        long accessTokenExpirationMs = jwtService.calculateAccessTokenExpiration().toEpochMilli()
-                - System.currentTimeMillis();
-        long refreshTokenExpirationMs = jwtService.calculateRefreshTokenExpiration().toEpochMilli()
-                - System.currentTimeMillis();
-
-        String oldRefreshJti = jwtService.extractJti(refreshToken);
-        Date oldRefreshExp = jwtService.extractExpiration(refreshToken);
-
-        redisService.revokeRefreshToken(oldRefreshJti, oldRefreshExp);
-
-        log.info("Token refreshed successfully for user: {}", userPrincipal.getUsername());
-
-        return AuthResponseDTO.builder()
-                .access_token(newAccessToken)
-                .refresh_token(newRefreshToken)
-                .access_token_expiration(accessTokenExpirationMs)
-                .refresh_token_expiration(refreshTokenExpirationMs)
-                .build();
+        return refreshService.refreshToken(refreshToken);
     }
 
     public AuthStatusResponseDTO getStatus() {
@@ -0,0 +1,39 @@
+package it.trinex.blackout.service;
+
+import it.trinex.blackout.model.AuthAccount;
+import it.trinex.blackout.repository.AuthAccountRepo;
+import it.trinex.blackout.security.BlackoutUserPrincipal;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Stores the new hash when a password is re-encoded after a successful login.
+ * Called by the authentication provider whenever the {@code PasswordEncoder} reports that the
+ * stored hash needs an upgrade.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BlackoutUserDetailsPasswordService implements UserDetailsPasswordService {
+
+    protected final AuthAccountRepo authAccountRepo;
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        AuthAccount authAccount = (user instanceof BlackoutUserPrincipal principal && principal.getAuthId() != null
+                ? authAccountRepo.findById(principal.getAuthId())
+                : authAccountRepo.findByUsername(user.getUsername()).or(() -> authAccountRepo.findByEmail(user.getUsername())))
+                .orElseThrow(() -> new UsernameNotFoundException(user.getUsername()));
+
+        authAccount.setPasswordHash(newPassword);
+        authAccountRepo.save(authAccount);
+        log.debug("Upgraded password hash for AuthAccount with ID: {}", authAccount.getId());
+
+        if (user instanceof BlackoutUserPrincipal principal) {
+            principal.setPassword(newPassword);
+        }
+        return user;
+    }
+}
@@ -7,22 +7,25 @@ import it.trinex.blackout.exception.PasskeyRequiredException;
 import it.trinex.blackout.exception.PasswordMismatchException;
 import it.trinex.blackout.model.AuthAccount;
 import it.trinex.blackout.model.Passkey;
+import it.trinex.blackout.properties.PasswordResetProperties;
 import it.trinex.blackout.repository.AuthAccountRepo;
 import it.trinex.blackout.security.BlackoutUserPrincipal;
+import it.trinex.blackout.service.mail.BlackoutMailer;
+import it.trinex.blackout.service.otp.IssuedOtp;
+import it.trinex.blackout.service.otp.ResetOtpStore;
 import it.trinex.blackout.service.redis.RedisService;
-import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.thymeleaf.context.Context;
 
-import java.io.UnsupportedEncodingException;
-import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -33,16 +36,17 @@ public class PasswordService {
 
     private final AuthAccountRepo authAccountRepo;
     private final PasswordEncoder passwordEncoder;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final ResetOtpStore resetOtpStore;
 
-    private static final String PASSWORD_OTP_KEY_PREFIX = "resetotp:";
     private final CurrentUserService<BlackoutUserPrincipal> currentUserService;
     private final RedisService redisService;
-    private final MailService mailService;
+    private final BlackoutMailer mailer;
+    private final PasswordResetProperties passwordResetProperties;
 
 
-    public void sendResetPasswordEmail(String subject) throws MessagingException, UnsupportedEncodingException {
-        if (mailService == null) {
+    @Transactional("blackoutTransactionManager")
+    public void sendResetPasswordEmail(String subject) {
+        if (mailer == null) {
             throw new IllegalStateException("Email service is not enabled. Please set blackout.mail.enabled=true to use this feature.");
         }
 
@@ -54,11 +58,19 @@ public class PasswordService {
         }
 
         AuthAccount authAccount = optionalAccount.get();
-        String otp = generateResetOTP(subject);
-        Context context = new Context();
-        context.setVariable("otp", otp);
-        context.setVariable("firstName", authAccount.getFirstName());
-        mailService.sendMail(authAccount.getEmail(), context, "Password reset");
+        IssuedOtp otp = generateResetOTP(subject);
+
+        // Within the cooldown the pending OTP has already been mailed
+        if (otp == null || !otp.fresh()) {
+            return;
+        }
+
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("otp", otp.value());
+        variables.put("firstName", authAccount.getFirstName());
+        Locale locale = LocaleContextHolder.getLocale();
+
+        mailer.send(authAccount.getEmail(), BlackoutMailer.RESET_PASSWORD_TEMPLATE, locale, variables);
     }
 
     @Transactional
@@ -82,47 +94,46 @@ public class PasswordService {
         authAccountRepo.save(authAccount);
     }
 
-    private String generateResetOTP(String subject) {
-
-        String lastOTP = redisTemplate.opsForValue().get(PASSWORD_OTP_KEY_PREFIX + subject);
-
-        // invalido otp attivo se presente
-        if (lastOTP != null && !lastOTP.isBlank()) {
-            redisTemplate.delete(PASSWORD_OTP_KEY_PREFIX + subject);
-        }
-
+    /**
+     * Issues a reset OTP for the subject, or returns the pending one if it was issued less than
+     * {@code requestCooldown} seconds ago. Runs as a single atomic store operation.
+     *
+     * @return the OTP and whether it was newly issued, or null if the store is unavailable
+     */
+    private IssuedOtp generateResetOTP(String subject) {
         try {
-            String completeKey = PASSWORD_OTP_KEY_PREFIX + subject;
-            int ttlSeconds = 300;
+            long ttlSeconds = passwordResetProperties.getOtpTtl();
             // OTP GENERATION
             String resetOTP = String.format("%06d", java.util.concurrent.ThreadLocalRandom.current().nextInt(1_000_000));
 
-            redisTemplate.opsForValue().set(completeKey, resetOTP, Duration.ofSeconds(ttlSeconds));
-            log.debug("Generated reset OTP for {} (TTL: {}s)", subject, ttlSeconds);
-
-            return resetOTP;
+            IssuedOtp issued = resetOtpStore.issue(subject, resetOTP, ttlSeconds, passwordResetProperties.getRequestCooldown());
+            if (issued.fresh()) {
+                log.debug("Generated reset OTP for {} (TTL: {}s)", subject, ttlSeconds);
+            } else {
+                log.debug("Reset OTP for {} still in cooldown, reusing pending OTP", subject);
+            }
+            return issued;
         } catch (Exception e) {
-            log.warn("Failed to set reset OTP in Redis (graceful degradation): {}", e.getMessage());
+            log.warn("Failed to store reset OTP (graceful degradation): {}", e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Checks a reset OTP. Every wrong code counts as an attempt, and the OTP is
+     * invalidated after {@code maxAttempts} failures.
+     */
     public boolean checkResetOTP(String resetKey, String userOTP) {
         try {
-            String key = PASSWORD_OTP_KEY_PREFIX + resetKey;
-            String realOTP = redisTemplate.opsForValue().get(key);
-            if (realOTP != null && realOTP.equals(userOTP)) {
-                return true;
-            }
-            return false;
+            return resetOtpStore.verify(resetKey, userOTP, passwordResetProperties.getMaxAttempts());
         } catch (Exception e) {
-            log.warn("Failed to get reset OTP in Redis (graceful degradation): {}", e.getMessage());
+            log.warn("Failed to verify reset OTP (graceful degradation): {}", e.getMessage());
             throw e;
         }
     }
 
     private void removeResetOTP(String resetKey) {
-        redisTemplate.delete(PASSWORD_OTP_KEY_PREFIX + resetKey);
+        resetOtpStore.remove(resetKey);
     }
 
     public void resetPasswordWithOTP(ResetPasswordOTPRequest request, String subject) {
@@ -133,12 +144,13 @@ public class PasswordService {
                 )
         );
 
-        String hashedPassword = passwordEncoder.encode(request.getNewPassword());
-
+        // Check the OTP first, so wrong guesses do not pay for a password hash
         if(!checkResetOTP(subject, request.getOtp())) {
             throw new InvalidResetOTPException("Invalid Reset OTP");
         }
 
+        String hashedPassword = passwordEncoder.encode(request.getNewPassword());
+
         authAccount.setPasswordHash(hashedPassword);
         authAccount.setPasswordless(false);
         authAccountRepo.save(authAccount);
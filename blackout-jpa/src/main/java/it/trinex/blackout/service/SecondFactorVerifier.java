@@ -0,0 +1,10 @@
+package it.trinex.blackout.service;
+
+/**
+ * Checks the second factor of accounts that have one configured.
+ * Provided by the blackout-totp module.
+ */
+public interface SecondFactorVerifier {
+
+    boolean verifyCode(String code, String secret);
+}
@@ -0,0 +1,19 @@
+package it.trinex.blackout.service.mail;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sends Blackout's templated emails. Provided by the blackout-mail module, directly or through
+ * the outbox depending on its configuration.
+ */
+public interface BlackoutMailer {
+
+    String RESET_PASSWORD_TEMPLATE = "reset-password";
+
+    /**
+     * Renders the template registered for the purpose and sends it, or enqueues it in the
+     * caller's transaction when the outbox is enabled.
+     */
+    void send(String to, String purpose, Locale locale, Map<String, ?> variables);
+}
@@ -0,0 +1,51 @@
+package it.trinex.blackout.autoconfig;
+
+import it.trinex.blackout.repository.AuthAccountRepo;
+import it.trinex.blackout.service.SecondFactorVerifier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BlackoutJpaAutoconfigTest {
+
+    private AuthAccountRepo authAccountRepo;
+    private ObjectProvider<SecondFactorVerifier> secondFactorVerifier;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        authAccountRepo = mock(AuthAccountRepo.class);
+        secondFactorVerifier = mock(ObjectProvider.class);
+    }
+
+    @Test
+    void failsWhenTotpAccountsExistWithoutVerifier() {
+        when(authAccountRepo.existsByTotpSecretNotNull()).thenReturn(true);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> check().afterSingletonsInstantiated());
+        assertTrue(e.getMessage().contains("blackout-totp"));
+    }
+
+    @Test
+    void passesWithoutTotpAccounts() {
+        when(authAccountRepo.existsByTotpSecretNotNull()).thenReturn(false);
+
+        assertDoesNotThrow(() -> check().afterSingletonsInstantiated());
+    }
+
+    @Test
+    void passesWithVerifierWithoutQueryingAccounts() {
+        when(secondFactorVerifier.getIfAvailable()).thenReturn((code, secret) -> false);
+
+        assertDoesNotThrow(() -> check().afterSingletonsInstantiated());
+        verify(authAccountRepo, never()).existsByTotpSecretNotNull();
+    }
+
+    private SmartInitializingSingleton check() {
+        return new BlackoutJpaAutoconfig().secondFactorVerifierCheck(secondFactorVerifier, authAccountRepo);
+    }
+}
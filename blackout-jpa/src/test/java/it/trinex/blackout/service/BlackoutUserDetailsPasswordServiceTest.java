@@ -0,0 +1,80 @@
+package it.trinex.blackout.service;
+
+import it.trinex.blackout.model.AuthAccount;
+import it.trinex.blackout.repository.AuthAccountRepo;
+import it.trinex.blackout.security.BlackoutUserPrincipal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class BlackoutUserDetailsPasswordServiceTest {
+
+    private AuthAccountRepo authAccountRepo;
+    private BlackoutUserDetailsPasswordService passwordService;
+    private AuthAccount account;
+
+    @BeforeEach
+    void setUp() {
+        authAccountRepo = mock(AuthAccountRepo.class);
+        passwordService = new BlackoutUserDetailsPasswordService(authAccountRepo);
+
+        account = AuthAccount.builder()
+                .id(7L)
+                .username("ada")
+                .email("ada@example.com")
+                .passwordHash("$2a$04$legacy")
+                .isActive(true)
+                .build();
+        when(authAccountRepo.findById(7L)).thenReturn(Optional.of(account));
+        when(authAccountRepo.findByUsername(anyString())).thenReturn(Optional.empty());
+        when(authAccountRepo.findByEmail(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void principalsAreResolvedByAuthId() {
+        BlackoutUserPrincipal principal = BlackoutUserPrincipal.builder()
+                .authId(7L)
+                .username("ada")
+                .password("$2a$04$legacy")
+                .authorities(List.of())
+                .build();
+
+        UserDetails updated = passwordService.updatePassword(principal, "{bcrypt}$2a$10$upgraded");
+
+        assertSame(principal, updated);
+        assertEquals("{bcrypt}$2a$10$upgraded", principal.getPassword());
+        assertEquals("{bcrypt}$2a$10$upgraded", account.getPasswordHash());
+        verify(authAccountRepo).save(account);
+        verify(authAccountRepo, never()).findByUsername(anyString());
+    }
+
+    @Test
+    void otherUserDetailsAreResolvedByUsernameOrEmail() {
+        when(authAccountRepo.findByEmail("ada@example.com")).thenReturn(Optional.of(account));
+        UserDetails user = User.withUsername("ada@example.com").password("$2a$04$legacy").build();
+
+        passwordService.updatePassword(user, "{bcrypt}$2a$10$upgraded");
+
+        assertEquals("{bcrypt}$2a$10$upgraded", account.getPasswordHash());
+        verify(authAccountRepo).save(account);
+    }
+
+    @Test
+    void unknownAccountsAreRejected() {
+        UserDetails user = User.withUsername("nobody").password("x").build();
+
+        assertThrows(UsernameNotFoundException.class,
+                () -> passwordService.updatePassword(user, "{bcrypt}$2a$10$upgraded"));
+        verify(authAccountRepo, never()).save(any());
+    }
+}
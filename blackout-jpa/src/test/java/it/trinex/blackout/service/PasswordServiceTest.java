@@ -0,0 +1,157 @@
+package it.trinex.blackout.service;
+
+import it.trinex.blackout.dto.request.ResetPasswordOTPRequest;
+import it.trinex.blackout.exception.InvalidResetOTPException;
+import it.trinex.blackout.model.AuthAccount;
+import it.trinex.blackout.properties.PasswordResetProperties;
+import it.trinex.blackout.repository.AuthAccountRepo;
+import it.trinex.blackout.service.mail.BlackoutMailer;
+import it.trinex.blackout.service.otp.InMemoryResetOtpStore;
+import it.trinex.blackout.service.otp.ResetOtpStore;
+import it.trinex.blackout.service.redis.RedisService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PasswordServiceTest {
+
+    private AuthAccountRepo authAccountRepo;
+    private PasswordEncoder passwordEncoder;
+    private ResetOtpStore resetOtpStore;
+    private RedisService redisService;
+    private BlackoutMailer mailer;
+    private PasswordResetProperties properties;
+    private PasswordService passwordService;
+    private AuthAccount account;
+
+    @BeforeEach
+    void setUp() {
+        authAccountRepo = mock(AuthAccountRepo.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        resetOtpStore = new InMemoryResetOtpStore();
+        redisService = mock(RedisService.class);
+        mailer = mock(BlackoutMailer.class);
+        properties = new PasswordResetProperties();
+        passwordService = new PasswordService(authAccountRepo, passwordEncoder, resetOtpStore,
+                mock(CurrentUserService.class), redisService, mailer, properties);
+
+        account = AuthAccount.builder()
+                .id(7L)
+                .firstName("Ada")
+                .lastName("Lovelace")
+                .username("ada")
+                .email("ada@example.com")
+                .passwordHash("hash")
+                .isActive(true)
+                .build();
+        when(authAccountRepo.findByUsername("ada")).thenReturn(Optional.of(account));
+        when(authAccountRepo.findByUsername("nobody")).thenReturn(Optional.empty());
+        when(authAccountRepo.findByEmail(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void resetEmailCarriesTheOtp() {
+        passwordService.sendResetPasswordEmail("ada");
+
+        Map<String, ?> variables = captureVariables(1);
+        assertEquals("Ada", variables.get("firstName"));
+        assertTrue(variables.get("otp").toString().matches("\\d{6}"));
+    }
+
+    @Test
+    void requestsWithinTheCooldownSendOneEmail() {
+        passwordService.sendResetPasswordEmail("ada");
+        passwordService.sendResetPasswordEmail("ada");
+        passwordService.sendResetPasswordEmail("ada");
+
+        captureVariables(1);
+    }
+
+    @Test
+    void requestsAfterTheCooldownSendANewOtp() {
+        properties.setRequestCooldown(0L);
+
+        passwordService.sendResetPasswordEmail("ada");
+        passwordService.sendResetPasswordEmail("ada");
+
+        captureVariables(2);
+    }
+
+    @Test
+    void unknownSubjectsGetNoEmail() {
+        passwordService.sendResetPasswordEmail("nobody");
+
+        verifyNoInteractions(mailer);
+    }
+
+    @Test
+    void missingMailerIsReported() {
+        PasswordService withoutMail = new PasswordService(authAccountRepo, passwordEncoder, resetOtpStore,
+                mock(CurrentUserService.class), redisService, null, properties);
+
+        assertThrows(IllegalStateException.class, () -> withoutMail.sendResetPasswordEmail("ada"));
+    }
+
+    @Test
+    void wrongOtpIsRejectedBeforeHashing() {
+        resetOtpStore.issue("ada@example.com", "111111", 300, 60);
+        when(authAccountRepo.findByEmail("ada@example.com")).thenReturn(Optional.of(account));
+
+        assertThrows(InvalidResetOTPException.class,
+                () -> passwordService.resetPasswordWithOTP(resetRequest("000000"), "ada@example.com"));
+
+        verify(passwordEncoder, never()).encode(any());
+        verify(authAccountRepo, never()).save(any());
+    }
+
+    @Test
+    void correctOtpResetsThePasswordOnce() {
+        resetOtpStore.issue("ada@example.com", "111111", 300, 60);
+        when(authAccountRepo.findByEmail("ada@example.com")).thenReturn(Optional.of(account));
+        when(passwordEncoder.encode("new-password")).thenReturn("new-hash");
+
+        passwordService.resetPasswordWithOTP(resetRequest("111111"), "ada@example.com");
+
+        assertEquals("new-hash", account.getPasswordHash());
+        verify(authAccountRepo).save(account);
+        verify(redisService).revokeAllUserTokens(7L);
+        assertThrows(InvalidResetOTPException.class,
+                () -> passwordService.resetPasswordWithOTP(resetRequest("111111"), "ada@example.com"));
+    }
+
+    @Test
+    void otpStopsWorkingAfterMaxAttempts() {
+        properties.setMaxAttempts(2);
+        resetOtpStore.issue("ada@example.com", "111111", 300, 60);
+
+        assertFalse(passwordService.checkResetOTP("ada@example.com", "000000"));
+        assertFalse(passwordService.checkResetOTP("ada@example.com", "000001"));
+
+        assertFalse(passwordService.checkResetOTP("ada@example.com", "111111"));
+    }
+
+    private static ResetPasswordOTPRequest resetRequest(String otp) {
+        ResetPasswordOTPRequest request = new ResetPasswordOTPRequest();
+        ReflectionTestUtils.setField(request, "otp", otp);
+        ReflectionTestUtils.setField(request, "newPassword", "new-password");
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, ?> captureVariables(int times) {
+        ArgumentCaptor<Map<String, ?>> variables = ArgumentCaptor.forClass(Map.class);
+        verify(mailer, times(times)).send(eq("ada@example.com"), eq(BlackoutMailer.RESET_PASSWORD_TEMPLATE), any(), variables.capture());
+        return variables.getValue();
+    }
+}
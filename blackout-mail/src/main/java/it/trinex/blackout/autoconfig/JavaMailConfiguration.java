@@ -0,0 +1,98 @@
+package it.trinex.blackout.autoconfig;
+
+import it.trinex.blackout.controller.PasswordOtpController;
+import it.trinex.blackout.properties.MailProperties;
+import it.trinex.blackout.properties.PasswordResetProperties;
+import it.trinex.blackout.repository.MailOutboxRepository;
+import it.trinex.blackout.service.CookieService;
+import it.trinex.blackout.service.MailOutboxService;
+import it.trinex.blackout.service.MailService;
+import it.trinex.blackout.service.PasswordService;
+import it.trinex.blackout.service.mail.BlackoutMailer;
+import it.trinex.blackout.service.mail.MailTemplateRegistry;
+import it.trinex.blackout.service.mail.PooledJavaMailSender;
+import it.trinex.blackout.service.mail.TemplateMailer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.time.Duration;
+import java.util.Properties;
+
+@AutoConfiguration
+@EnableConfigurationProperties(MailProperties.class)
+public class JavaMailConfiguration {
+
+    private final MailProperties mailProperties;
+
+    public JavaMailConfiguration(MailProperties mailProperties) {
+        this.mailProperties = mailProperties;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.mail", name = "enabled", havingValue = "true")
+    public JavaMailSender javaMailSender() {
+        JavaMailSenderImpl mailSender = mailProperties.getPool().getEnabled()
+                ? new PooledJavaMailSender(mailProperties.getPool())
+                : new JavaMailSenderImpl();
+
+        // Impostazioni base SMTP da MailProperties
+        mailSender.setHost(mailProperties.getHost());
+        mailSender.setPort(mailProperties.getPort());
+        mailSender.setUsername(mailProperties.getUsername());
+        mailSender.setPassword(mailProperties.getPassword());
+
+        // Proprietà aggiuntive Jakarta Mail
+        Properties props = mailSender.getJavaMailProperties();
+        props.put("mail.transport.protocol", mailProperties.getProtocol());
+        props.put("mail.smtp.auth", mailProperties.getAuth().toString());
+        props.put("mail.smtp.starttls.enable", mailProperties.getStarttls().toString());
+        props.put("mail.debug", mailProperties.getDebug().toString());
+
+        return mailSender;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.mail", name = "enabled", havingValue = "true")
+    public MailTemplateRegistry mailTemplateRegistry(SpringTemplateEngine templateEngine) {
+        return new MailTemplateRegistry(templateEngine, mailProperties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.mail", name = "enabled", havingValue = "true")
+    public MailService mailService(JavaMailSender javaMailSender, MailTemplateRegistry mailTemplateRegistry) {
+        return new MailService(javaMailSender, mailTemplateRegistry, mailProperties);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.mail.outbox", name = "enabled", havingValue = "true")
+    public MailOutboxService mailOutboxService(MailOutboxRepository mailOutboxRepository, ObjectProvider<MailService> mailService, PasswordResetProperties passwordResetProperties, @Qualifier("blackoutTransactionManager") PlatformTransactionManager transactionManager) {
+        MailService service = mailService.getIfAvailable();
+        if (service == null) {
+            throw new IllegalStateException("blackout.mail.outbox.enabled requires blackout.mail.enabled=true");
+        }
+        Long maxAge = mailProperties.getOutbox().getMaxAge();
+        return new MailOutboxService(mailOutboxRepository, service, mailProperties, new TransactionTemplate(transactionManager),
+                maxAge != null ? Duration.ofMillis(maxAge) : Duration.ofSeconds(passwordResetProperties.getOtpTtl()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.mail", name = "enabled", havingValue = "true")
+    public BlackoutMailer templateMailer(MailService mailService, ObjectProvider<MailOutboxService> mailOutboxService) {
+        return new TemplateMailer(mailService, mailOutboxService.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "blackout.mail", name = "enabled", havingValue = "true")
+    public PasswordOtpController passwordOtpController(PasswordService passwordService, CookieService cookieService, PasswordResetProperties passwordResetProperties) {
+        return new PasswordOtpController(passwordService, cookieService, passwordResetProperties);
+    }
+}
@@ -12,9 +12,9 @@ import it.trinex.blackout.dto.request.ResetPasswordOTPRequest;
 import it.trinex.blackout.dto.request.ValidateOTPRequest;
 import it.trinex.blackout.exception.ExceptionResponseDTO;
 import it.trinex.blackout.exception.InvalidResetOTPException;
+import it.trinex.blackout.properties.PasswordResetProperties;
 import it.trinex.blackout.service.CookieService;
 import it.trinex.blackout.service.PasswordService;
-import jakarta.mail.MessagingException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
@@ -25,8 +25,6 @@ import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.UnsupportedEncodingException;
-
 @RestController
 @RequiredArgsConstructor
 @RequestMapping(value = "/password-otp", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -36,6 +34,7 @@ public class PasswordOtpController {
 
     private final PasswordService passwordService;
     private final CookieService cookieService;
+    private final PasswordResetProperties passwordResetProperties;
 
     private static final String RESET_COOKIE_NAME = "reset_key";
 
@@ -49,6 +48,10 @@ public class PasswordOtpController {
 
         The OTP is stored in Redis with a 5-minute (300 seconds) expiration time.
 
+        Repeated requests for the same account within the request cooldown
+        (blackout.password-reset.request-cooldown, 60 seconds by default) reuse the
+        pending OTP and do not send another email.
+
         Flow:
         1. User calls this endpoint with username or email
         2. System generates a 6-digit OTP
@@ -62,9 +65,9 @@ public class PasswordOtpController {
             content = @Content(schema = @Schema(implementation = ExceptionResponseDTO.class)))
     })
     public ResponseEntity<Void> requestResetPasswordWithOTP(
-            @PathVariable @NotBlank(message = "Subject is required.") String subject) throws MessagingException, UnsupportedEncodingException {
+            @PathVariable @NotBlank(message = "Subject is required.") String subject) {
         passwordService.sendResetPasswordEmail(subject);
-        ResponseCookie resetCookie= cookieService.generateGenericCookie(RESET_COOKIE_NAME, subject, 300L);
+        ResponseCookie resetCookie= cookieService.generateGenericCookie(RESET_COOKIE_NAME, subject, passwordResetProperties.getOtpTtl());
         return ResponseEntity.ok()
                 .headers(headers -> {
                     headers.add(HttpHeaders.SET_COOKIE, resetCookie.toString());
@@ -80,8 +83,12 @@ public class PasswordOtpController {
         for the given user. The OTP must have been previously generated via
         /password/request-reset/{subject}.
 
-        This endpoint does not consume the OTP - it only validates it.
+        This endpoint does not consume a valid OTP - it only validates it.
         Use /password/reset-with-otp to actually reset the password.
+
+        Every wrong code counts as a failed attempt: after
+        blackout.password-reset.max-attempts failures (5 by default) the OTP is
+        invalidated and a new one must be requested.
         """)
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "OTP is valid"),
@@ -114,6 +121,7 @@ public class PasswordOtpController {
         Security considerations:
         - The OTP must match the one stored in Redis
         - OTP expires after 5 minutes
+        - OTP is invalidated after too many wrong codes
         - The new password must meet the application's password requirements
         - All existing JWT tokens for the user are revoked after successful reset
         """)
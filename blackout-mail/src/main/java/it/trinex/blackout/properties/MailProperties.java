@@ -0,0 +1,234 @@
+package it.trinex.blackout.properties;
+
+import it.trinex.blackout.service.mail.BlackoutMailer;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration properties for email sending.
+ * Allows customization of SMTP settings through application.yml or application.properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "blackout.mail")
+public class MailProperties {
+
+    /**
+     * Template purpose used for password reset emails.
+     */
+    public static final String RESET_PASSWORD_TEMPLATE = BlackoutMailer.RESET_PASSWORD_TEMPLATE;
+
+    /**
+     * Whether email sending is enabled.
+     * When disabled, no JavaMailSender bean will be created.
+     * Default: false
+     */
+    private Boolean enabled = false;
+
+    /**
+     * SMTP server host.
+     * Default: localhost
+     */
+    private String host = "localhost";
+
+    /**
+     * SMTP server port.
+     * Default: 587 (submission port for STARTTLS)
+     */
+    private Integer port = 587;
+
+    /**
+     * Username for SMTP authentication.
+     * Default: null (no authentication)
+     */
+    private String username;
+
+    /**
+     * Password for SMTP authentication.
+     * Default: null
+     */
+    private String password;
+
+    /**
+     * Protocol to use for email sending.
+     * Default: smtp
+     */
+    private String protocol = "smtp";
+
+    /**
+     * Default sender email address.
+     * Default: noreply@localhost
+     */
+    private String from = "noreply@localhost";
+
+    /**
+     * Default sender name.
+     * Default: Blackout
+     */
+    private String fromName = "Blackout";
+
+    /**
+     * Whether SMTP authentication is enabled.
+     * Default: true
+     */
+    private Boolean auth = true;
+
+    /**
+     * Whether STARTTLS is enabled.
+     * Default: true
+     */
+    private Boolean starttls = true;
+
+    /**
+     * Whether to enable debug mode for email sending.
+     * When enabled, logs detailed SMTP communication.
+     * Default: false
+     */
+    private Boolean debug = false;
+
+    /**
+     * Email templates by purpose (e.g. reset-password).
+     * Templates are compiled once at startup, only the configured slots are substituted per message.
+     */
+    private Map<String, Template> templates = new HashMap<>();
+
+    /**
+     * Durable outbox settings.
+     * When enabled, emails are stored in the blackout datasource and delivered by a background poller.
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * SMTP connection pool settings.
+     * When enabled, SMTP connections are kept open and reused across sends.
+     */
+    private Pool pool = new Pool();
+
+    public MailProperties() {
+        // Default template for password reset - users can override via YAML
+        Template resetPassword = new Template();
+        resetPassword.setTemplate("reset-password-email");
+        resetPassword.setSubject("Password reset");
+        resetPassword.setSlots(new ArrayList<>(List.of("otp", "firstName")));
+        templates.put(RESET_PASSWORD_TEMPLATE, resetPassword);
+    }
+
+    @Data
+    public static class Template {
+
+        /**
+         * Thymeleaf template name used when no locale-specific template matches.
+         */
+        private String template;
+
+        /**
+         * Email subject.
+         */
+        private String subject;
+
+        /**
+         * Locale-specific Thymeleaf template names, keyed by language tag (e.g. it, en-US).
+         */
+        private Map<String, String> locales = new HashMap<>();
+
+        /**
+         * Template variables that change per message. They must only be printed
+         * (th:text, th:value...), not used in conditions or iterations.
+         */
+        private List<String> slots = new ArrayList<>();
+
+        /**
+         * Whether the template is compiled once at startup.
+         * Disable for templates whose output depends on slot values beyond printing them.
+         * Default: true
+         */
+        private Boolean precompile = true;
+    }
+
+    @Data
+    public static class Outbox {
+
+        /**
+         * Whether emails are written to the outbox table instead of being sent inline.
+         * Default: false
+         */
+        private Boolean enabled = false;
+
+        /**
+         * Maximum number of emails claimed and sent over one SMTP connection per poll.
+         * Default: 50
+         */
+        private Integer batchSize = 50;
+
+        /**
+         * Delay between two polls of the outbox table, in milliseconds.
+         * Default: 5000 (5 seconds)
+         */
+        private Long pollInterval = 5000L;
+
+        /**
+         * Number of delivery attempts before an email is left in the table as failed.
+         * Default: 5
+         */
+        private Integer maxAttempts = 5;
+
+        /**
+         * Base delay before retrying a failed email, in milliseconds. Doubled on each attempt.
+         * Default: 30000 (30 seconds)
+         */
+        private Long retryBackoff = 30000L;
+
+        /**
+         * Age in milliseconds after which an email is no longer sent and its row is deleted,
+         * sent or not. Bodies can hold reset codes, so it defaults to the reset OTP lifetime.
+         * Default: blackout.password-reset.otp-ttl
+         */
+        private Long maxAge;
+    }
+
+    @Data
+    public static class Pool {
+
+        /**
+         * Whether SMTP connections are pooled and reused.
+         * When disabled, every send opens and closes its own connection.
+         * Default: false
+         */
+        private Boolean enabled = false;
+
+        /**
+         * Maximum number of SMTP connections open at the same time.
+         * Default: 4
+         */
+        private Integer maxSize = 4;
+
+        /**
+         * Maximum time to wait for a free connection when the pool is exhausted, in milliseconds.
+         * Default: 30000 (30 seconds)
+         */
+        private Long maxWait = 30000L;
+
+        /**
+         * Time after which an unused connection is closed, in milliseconds.
+         * Should be lower than the SMTP server's own idle timeout.
+         * Default: 60000 (1 minute)
+         */
+        private Long maxIdleTime = 60000L;
+
+        /**
+         * Idle time after which a connection is checked with NOOP before being reused, in milliseconds.
+         * Default: 5000 (5 seconds)
+         */
+        private Long validateAfterIdle = 5000L;
+
+        /**
+         * Number of messages sent over a connection before it is closed and replaced.
+         * Default: 100
+         */
+        private Integer maxMessagesPerConnection = 100;
+    }
+}
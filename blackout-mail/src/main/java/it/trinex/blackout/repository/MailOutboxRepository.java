@@ -0,0 +1,38 @@
+package it.trinex.blackout.repository;
+
+import it.trinex.blackout.model.MailOutboxEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutboxEntry, Long> {
+
+    /**
+     * Claims a batch of due entries with {@code SELECT ... FOR UPDATE SKIP LOCKED}.
+     * A lock timeout of -2 is translated by Hibernate into the dialect's SKIP LOCKED clause,
+     * so concurrent pollers on other nodes never pick the same rows.
+     * Must be called inside a transaction: the locks are held until it commits.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select m from MailOutboxEntry m where m.nextAttemptAt <= :now and m.attempts < :maxAttempts and m.createdAt > :expiredBefore order by m.id")
+    List<MailOutboxEntry> claimBatch(@Param("now") Instant now, @Param("maxAttempts") int maxAttempts, @Param("expiredBefore") Instant expiredBefore, Pageable pageable);
+
+    /**
+     * Deletes the entries created before the given instant, sent or not.
+     *
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("delete from MailOutboxEntry m where m.createdAt <= :expiredBefore")
+    int deleteExpired(@Param("expiredBefore") Instant expiredBefore);
+}
@@ -0,0 +1,171 @@
+package it.trinex.blackout.service;
+
+import it.trinex.blackout.model.MailOutboxEntry;
+import it.trinex.blackout.properties.MailProperties;
+import it.trinex.blackout.repository.MailOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional outbox for emails.
+ *
+ * <p>{@link #enqueue} stores the rendered email in the blackout datasource, joining the caller's
+ * transaction. A single background thread per node claims due rows in batches with
+ * {@code FOR UPDATE SKIP LOCKED}, sends them over one SMTP connection and deletes them in the same
+ * transaction. A crash before commit releases the rows, so delivery is at-least-once and several
+ * nodes can drain the same table without sending duplicates.</p>
+ *
+ * <p>Bodies can hold one-time codes, so rows never outlive {@code maxAge}: older rows are no
+ * longer sent and are deleted on each poll, and the body of a row that runs out of attempts is
+ * blanked right away.</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MailOutboxService {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailService mailService;
+    private final MailProperties mailProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration maxAge;
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        long interval = mailProperties.getOutbox().getPollInterval();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "blackout-mail-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Mail outbox enabled (poll interval: {}ms, batch size: {})", interval, mailProperties.getOutbox().getBatchSize());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Renders the email and stores it in the outbox.
+     * Nothing is sent until the surrounding transaction commits.
+     */
+    @Transactional("blackoutTransactionManager")
+    public void enqueue(String to, String purpose, Locale locale, Map<String, ?> variables) {
+        mailOutboxRepository.save(MailOutboxEntry.builder()
+                .recipient(to)
+                .subject(mailService.getSubject(purpose))
+                .body(new String(mailService.render(purpose, locale, variables), StandardCharsets.UTF_8))
+                .build());
+    }
+
+    /**
+     * Sends batches until the outbox has no more due entries, then deletes the expired ones.
+     */
+    public void drain() {
+        try {
+            Integer claimed;
+            do {
+                claimed = transactionTemplate.execute(status -> processBatch());
+            } while (claimed != null && claimed >= mailProperties.getOutbox().getBatchSize());
+            Integer expired = transactionTemplate.execute(status -> mailOutboxRepository.deleteExpired(Instant.now().minus(maxAge)));
+            if (expired != null && expired > 0) {
+                log.info("Deleted {} expired outbox emails", expired);
+            }
+        } catch (Exception e) {
+            log.warn("Mail outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    private int processBatch() {
+        MailProperties.Outbox outbox = mailProperties.getOutbox();
+        Instant now = Instant.now();
+        List<MailOutboxEntry> batch = mailOutboxRepository.claimBatch(
+                now, outbox.getMaxAttempts(), now.minus(maxAge), PageRequest.of(0, outbox.getBatchSize()));
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<MimeMessage, MailOutboxEntry> messages = new IdentityHashMap<>();
+        for (MailOutboxEntry entry : batch) {
+            try {
+                messages.put(mailService.createMessage(entry.getRecipient(), entry.getSubject(), entry.getBody()), entry);
+            } catch (Exception e) {
+                markFailed(entry, e);
+            }
+        }
+
+        Map<Object, Exception> failed = Map.of();
+        Exception connectionFailure = null;
+        if (!messages.isEmpty()) {
+            try {
+                mailService.sendBatch(messages.keySet());
+            } catch (MailSendException e) {
+                failed = e.getFailedMessages();
+                connectionFailure = failed.isEmpty() ? e : null;
+            } catch (MailException e) {
+                connectionFailure = e;
+            }
+        }
+
+        int sent = 0;
+        for (Map.Entry<MimeMessage, MailOutboxEntry> message : messages.entrySet()) {
+            Exception error = connectionFailure != null ? connectionFailure : failed.get(message.getKey());
+            if (error != null) {
+                markFailed(message.getValue(), error);
+            } else {
+                mailOutboxRepository.delete(message.getValue());
+                sent++;
+            }
+        }
+
+        log.debug("Mail outbox batch processed: {} claimed, {} sent", batch.size(), sent);
+        return batch.size();
+    }
+
+    private void markFailed(MailOutboxEntry entry, Exception e) {
+        MailProperties.Outbox outbox = mailProperties.getOutbox();
+        int attempts = entry.getAttempts() + 1;
+        long backoff = outbox.getRetryBackoff() << Math.min(attempts - 1, 16);
+
+        entry.setAttempts(attempts);
+        entry.setNextAttemptAt(Instant.now().plusMillis(backoff));
+        String message = String.valueOf(e.getMessage());
+        entry.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (attempts >= outbox.getMaxAttempts()) {
+            // Kept for inspection until it expires, without its content
+            entry.setBody("");
+        }
+        mailOutboxRepository.save(entry);
+
+        if (attempts >= outbox.getMaxAttempts()) {
+            log.error("Giving up on outbox email {} to {} after {} attempts: {}", entry.getId(), entry.getRecipient(), attempts, message);
+        } else {
+            log.warn("Outbox email {} failed (attempt {}), retrying in {}ms: {}", entry.getId(), attempts, backoff, message);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package it.trinex.blackout.service;
+
+import it.trinex.blackout.properties.MailProperties;
+import it.trinex.blackout.service.mail.MailTemplateRegistry;
+import jakarta.activation.DataHandler;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.util.ByteArrayDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class MailService {
+    private final JavaMailSender mailSender;
+    private final MailTemplateRegistry templateRegistry;
+    private final MailProperties mailProperties;
+
+    /**
+     * Renders the template registered for {@code purpose} and sends it.
+     *
+     * @param purpose template purpose as configured in blackout.mail.templates
+     * @param variables values for the template slots
+     */
+    public void sendMail(String to, String purpose, Locale locale, Map<String, ?> variables) throws MessagingException, UnsupportedEncodingException {
+        mailSender.send(createMessage(to, getSubject(purpose), render(purpose, locale, variables)));
+    }
+
+    public byte[] render(String purpose, Locale locale, Map<String, ?> variables) {
+        return templateRegistry.render(purpose, locale, variables);
+    }
+
+    public String getSubject(String purpose) {
+        return templateRegistry.getSubject(purpose);
+    }
+
+    public MimeMessage createMessage(String to, String subject, byte[] html) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, false, StandardCharsets.UTF_8.name());
+
+        helper.setFrom("noreply@trinex.it", mailProperties.getFromName());
+        helper.setTo(to);
+        helper.setSubject(subject);
+
+        // Body is already UTF-8 encoded, hand the bytes over without another String round trip
+        mimeMessage.setDataHandler(new DataHandler(new ByteArrayDataSource(html, "text/html; charset=UTF-8")));
+
+        return mimeMessage;
+    }
+
+    public MimeMessage createMessage(String to, String subject, String html) throws MessagingException, UnsupportedEncodingException {
+        return createMessage(to, subject, html.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends all messages over a single SMTP connection.
+     * Failures are reported through {@link org.springframework.mail.MailSendException#getFailedMessages()}.
+     */
+    public void sendBatch(Collection<MimeMessage> messages) {
+        mailSender.send(messages.toArray(new MimeMessage[0]));
+    }
+}
@@ -0,0 +1,92 @@
+package it.trinex.blackout.service.mail;
+
+import org.unbescape.html.HtmlEscape;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rendered template split into static UTF-8 segments around its dynamic slots.
+ *
+ * <p>Rendering only escapes the slot values and copies bytes, no template processing
+ * happens per message.</p>
+ */
+public final class CompiledMailTemplate {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final byte[][] segments;
+    private final int[] slotOrder;
+    private final String[] slotNames;
+
+    private CompiledMailTemplate(byte[][] segments, int[] slotOrder, String[] slotNames) {
+        this.segments = segments;
+        this.slotOrder = slotOrder;
+        this.slotNames = slotNames;
+    }
+
+    /**
+     * Splits the output of a template rendered with {@code markers[i]} in place of {@code slotNames[i]}.
+     */
+    public static CompiledMailTemplate compile(String rendered, List<String> slotNames, List<String> markers) {
+        List<byte[]> segments = new ArrayList<>();
+        List<Integer> order = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int next = -1;
+            int slot = -1;
+            for (int i = 0; i < markers.size(); i++) {
+                int index = rendered.indexOf(markers.get(i), position);
+                if (index >= 0 && (next < 0 || index < next)) {
+                    next = index;
+                    slot = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            segments.add(rendered.substring(position, next).getBytes(StandardCharsets.UTF_8));
+            order.add(slot);
+            position = next + markers.get(slot).length();
+        }
+        segments.add(rendered.substring(position).getBytes(StandardCharsets.UTF_8));
+
+        return new CompiledMailTemplate(
+                segments.toArray(new byte[0][]),
+                order.stream().mapToInt(Integer::intValue).toArray(),
+                slotNames.toArray(new String[0]));
+    }
+
+    public byte[] render(Map<String, ?> variables) {
+        byte[][] values = new byte[slotNames.length][];
+        for (int i = 0; i < slotNames.length; i++) {
+            Object value = variables.get(slotNames[i]);
+            values[i] = value == null ? EMPTY : HtmlEscape.escapeHtml4Xml(value.toString()).getBytes(StandardCharsets.UTF_8);
+        }
+
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        for (int slot : slotOrder) {
+            length += values[slot].length;
+        }
+
+        byte[] html = new byte[length];
+        int offset = 0;
+        for (int i = 0; i < slotOrder.length; i++) {
+            System.arraycopy(segments[i], 0, html, offset, segments[i].length);
+            offset += segments[i].length;
+            byte[] value = values[slotOrder[i]];
+            System.arraycopy(value, 0, html, offset, value.length);
+            offset += value.length;
+        }
+        byte[] last = segments[segments.length - 1];
+        System.arraycopy(last, 0, html, offset, last.length);
+
+        return html;
+    }
+}
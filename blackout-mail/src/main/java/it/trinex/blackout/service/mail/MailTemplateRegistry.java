@@ -0,0 +1,146 @@
+package it.trinex.blackout.service.mail;
+
+import it.trinex.blackout.properties.MailProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Holds the email templates configured under {@code blackout.mail.templates}.
+ *
+ * <p>Each template is rendered once per locale by Thymeleaf with unique markers in place of its
+ * slots, and the output is kept as a {@link CompiledMailTemplate}. Every template (and every
+ * locale variant) is compiled at startup for its own locale, other locales on first use. Templates
+ * that cannot be compiled, whose output lacks a slot marker (a slot used in a condition or
+ * dropped by an attribute), or have {@code precompile: false}, are rendered by Thymeleaf on every
+ * send.</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MailTemplateRegistry {
+
+    private static final String DEFAULT_LOCALE = "";
+    // Bounds the cache against arbitrary request locales; past it, new locales are rendered per message
+    private static final int MAX_COMPILED = 256;
+
+    private final TemplateEngine templateEngine;
+    private final MailProperties mailProperties;
+
+    // Empty when the template cannot be precompiled for that locale
+    private final Map<String, Optional<CompiledMailTemplate>> compiled = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        mailProperties.getTemplates().forEach((purpose, template) -> {
+            if (!template.getPrecompile()) {
+                return;
+            }
+            compiled(purpose, template, DEFAULT_LOCALE, Locale.getDefault());
+            template.getLocales().keySet().forEach(tag ->
+                    compiled(purpose, template, tag, Locale.forLanguageTag(tag)));
+        });
+        log.info("Compiled {} email templates", compiled.values().stream().filter(Optional::isPresent).count());
+    }
+
+    /**
+     * Renders the template registered for the given purpose as UTF-8 HTML.
+     * The locale picks the most specific registered variant (language tag, then language).
+     */
+    public byte[] render(String purpose, Locale locale, Map<String, ?> variables) {
+        MailProperties.Template template = getTemplate(purpose);
+        String tag = resolveLocale(template, locale);
+        Locale renderLocale = locale != null ? locale : Locale.getDefault();
+
+        if (template.getPrecompile()) {
+            Optional<CompiledMailTemplate> compiledTemplate = compiled(purpose, template, tag, renderLocale);
+            if (compiledTemplate.isPresent()) {
+                return compiledTemplate.get().render(variables);
+            }
+        }
+
+        Context context = new Context(renderLocale, new HashMap<String, Object>(variables));
+        return templateEngine.process(name(template, tag), context).getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String getSubject(String purpose) {
+        return getTemplate(purpose).getSubject();
+    }
+
+    private Optional<CompiledMailTemplate> compiled(String purpose, MailProperties.Template template, String tag, Locale locale) {
+        String key = purpose + "|" + tag + "|" + locale.toLanguageTag();
+        Optional<CompiledMailTemplate> existing = compiled.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        if (compiled.size() >= MAX_COMPILED) {
+            return Optional.empty();
+        }
+        return compiled.computeIfAbsent(key, k -> compile(purpose, name(template, tag), locale, template.getSlots()));
+    }
+
+    private Optional<CompiledMailTemplate> compile(String purpose, String name, Locale locale, List<String> slots) {
+        try {
+            String nonce = UUID.randomUUID().toString().replace("-", "");
+            List<String> markers = IntStream.range(0, slots.size())
+                    .mapToObj(i -> "blackoutslot" + nonce + "n" + i + "x")
+                    .toList();
+
+            Context context = new Context(locale);
+            for (int i = 0; i < slots.size(); i++) {
+                context.setVariable(slots.get(i), markers.get(i));
+            }
+
+            String rendered = templateEngine.process(name, context);
+            for (int i = 0; i < slots.size(); i++) {
+                if (!rendered.contains(markers.get(i))) {
+                    log.warn("Slot '{}' is not printed by email template '{}' ({}), it will be rendered per message",
+                            slots.get(i), name, purpose);
+                    return Optional.empty();
+                }
+            }
+            return Optional.of(CompiledMailTemplate.compile(rendered, slots, markers));
+        } catch (Exception e) {
+            log.warn("Could not precompile email template '{}' ({}), it will be rendered per message: {}",
+                    name, purpose, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static String name(MailProperties.Template template, String tag) {
+        return tag.equals(DEFAULT_LOCALE) ? template.getTemplate() : template.getLocales().get(tag);
+    }
+
+    private MailProperties.Template getTemplate(String purpose) {
+        MailProperties.Template template = mailProperties.getTemplates().get(purpose);
+        if (template == null) {
+            throw new IllegalArgumentException("No email template registered for purpose: " + purpose);
+        }
+        return template;
+    }
+
+    private String resolveLocale(MailProperties.Template template, Locale locale) {
+        if (locale == null || template.getLocales().isEmpty()) {
+            return DEFAULT_LOCALE;
+        }
+        String tag = locale.toLanguageTag();
+        if (template.getLocales().containsKey(tag)) {
+            return tag;
+        }
+        if (template.getLocales().containsKey(locale.getLanguage())) {
+            return locale.getLanguage();
+        }
+        return DEFAULT_LOCALE;
+    }
+}
@@ -0,0 +1,230 @@
+package it.trinex.blackout.service.mail;
+
+import it.trinex.blackout.properties.MailProperties;
+import jakarta.mail.Address;
+import jakarta.mail.AuthenticationFailedException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JavaMailSenderImpl} that keeps SMTP connections open and reuses them across sends.
+ *
+ * <p>The stock implementation connects, negotiates TLS, authenticates and quits for every
+ * {@code send} call. Here connected transports are returned to a bounded pool after use and
+ * handed to the next caller, so the handshake cost is paid once per connection instead of once
+ * per email.</p>
+ *
+ * <p>A transport is retired after {@code maxMessagesPerConnection} messages, and idle transports
+ * are closed by a background evictor after {@code maxIdleTime}. Transports that have been idle
+ * for more than {@code validateAfterIdle} are checked with an SMTP {@code NOOP} before reuse.</p>
+ */
+@Slf4j
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+
+    private final MailProperties.Pool pool;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final ScheduledExecutorService evictor;
+
+    public PooledJavaMailSender(MailProperties.Pool pool) {
+        this.pool = pool;
+        this.permits = new Semaphore(pool.getMaxSize(), true);
+        this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "blackout-smtp-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000L, pool.getMaxIdleTime() / 2);
+        this.evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) throws MailException {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport transport = null;
+        boolean healthy = true;
+
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+
+                // Replace the transport when it has been retired or a previous send left it broken
+                if (transport != null && !healthy) {
+                    healthy = transport.validate();
+                }
+                if (transport != null && (!healthy || transport.exhausted())) {
+                    discard(transport);
+                    transport = null;
+                }
+
+                if (transport == null) {
+                    try {
+                        transport = borrow();
+                        healthy = true;
+                    } catch (AuthenticationFailedException ex) {
+                        throw new MailAuthenticationException(ex);
+                    } catch (Exception ex) {
+                        // Effectively, all remaining messages failed...
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            Object original = (originalMessages != null ? originalMessages[j] : mimeMessages[j]);
+                            failedMessages.put(original, ex);
+                        }
+                        throw new MailSendException("Mail server connection failed", ex, failedMessages);
+                    }
+                }
+
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null) {
+                        mimeMessage.setSentDate(new Date());
+                    }
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null) {
+                        // Preserve explicitly specified message id...
+                        mimeMessage.setHeader("Message-ID", messageId);
+                    }
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    transport.send(mimeMessage, (addresses != null ? addresses : new Address[0]));
+                } catch (Exception ex) {
+                    Object original = (originalMessages != null ? originalMessages[i] : mimeMessage);
+                    failedMessages.put(original, ex);
+                    healthy = false;
+                }
+            }
+        } finally {
+            if (transport != null) {
+                release(transport, healthy);
+            }
+        }
+
+        if (!failedMessages.isEmpty()) {
+            throw new MailSendException(failedMessages);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(pool.getMaxWait(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("Timed out waiting for a pooled SMTP connection");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for a pooled SMTP connection", ex);
+        }
+
+        try {
+            PooledTransport candidate;
+            while ((candidate = idle.pollFirst()) != null) {
+                if (candidate.idleFor() < pool.getValidateAfterIdle() || candidate.validate()) {
+                    return candidate;
+                }
+                candidate.close();
+            }
+            return new PooledTransport(connectTransport());
+        } catch (MessagingException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void release(PooledTransport transport, boolean healthy) {
+        if (!healthy || transport.exhausted()) {
+            discard(transport);
+            return;
+        }
+        transport.touch();
+        idle.offerFirst(transport);
+        permits.release();
+    }
+
+    private void discard(PooledTransport transport) {
+        try {
+            transport.close();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evictIdle() {
+        Iterator<PooledTransport> it = idle.descendingIterator();
+        while (it.hasNext()) {
+            PooledTransport transport = it.next();
+            if (transport.idleFor() >= pool.getMaxIdleTime() && idle.removeLastOccurrence(transport)) {
+                log.debug("Closing idle SMTP connection after {}ms", transport.idleFor());
+                transport.close();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        evictor.shutdownNow();
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            transport.close();
+        }
+    }
+
+    private final class PooledTransport {
+        private final Transport transport;
+        private int sent;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        void send(MimeMessage message, Address[] addresses) throws MessagingException {
+            sent++;
+            transport.sendMessage(message, addresses);
+        }
+
+        boolean exhausted() {
+            return sent >= pool.getMaxMessagesPerConnection();
+        }
+
+        /**
+         * For SMTP transports {@link Transport#isConnected()} issues a NOOP to the server.
+         */
+        boolean validate() {
+            try {
+                return transport.isConnected();
+            } catch (RuntimeException ex) {
+                return false;
+            }
+        }
+
+        long idleFor() {
+            return System.currentTimeMillis() - lastUsed;
+        }
+
+        void touch() {
+            lastUsed = System.currentTimeMillis();
+        }
+
+        void close() {
+            try {
+                transport.close();
+            } catch (Exception ex) {
+                log.debug("Could not close SMTP connection: {}", ex.getMessage());
+            }
+        }
+    }
+}
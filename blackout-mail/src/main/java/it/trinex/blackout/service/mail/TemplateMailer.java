@@ -0,0 +1,34 @@
+package it.trinex.blackout.service.mail;
+
+import it.trinex.blackout.service.MailOutboxService;
+import it.trinex.blackout.service.MailService;
+import jakarta.mail.MessagingException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.mail.MailPreparationException;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * {@link BlackoutMailer} sending through the outbox when it is enabled, and directly otherwise.
+ */
+@RequiredArgsConstructor
+public class TemplateMailer implements BlackoutMailer {
+
+    private final MailService mailService;
+    private final MailOutboxService mailOutboxService;
+
+    @Override
+    public void send(String to, String purpose, Locale locale, Map<String, ?> variables) {
+        if (mailOutboxService != null) {
+            mailOutboxService.enqueue(to, purpose, locale, variables);
+            return;
+        }
+        try {
+            mailService.sendMail(to, purpose, locale, variables);
+        } catch (MessagingException | UnsupportedEncodingException e) {
+            throw new MailPreparationException("Could not build email for " + purpose, e);
+        }
+    }
+}
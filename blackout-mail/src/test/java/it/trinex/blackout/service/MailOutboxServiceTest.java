@@ -0,0 +1,200 @@
+package it.trinex.blackout.service;
+
+import it.trinex.blackout.model.MailOutboxEntry;
+import it.trinex.blackout.properties.MailProperties;
+import it.trinex.blackout.repository.MailOutboxRepository;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class MailOutboxServiceTest {
+
+    private MailOutboxRepository repository;
+    private MailService mailService;
+    private MailProperties mailProperties;
+    private MailOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(MailOutboxRepository.class);
+        mailService = mock(MailService.class);
+        mailProperties = new MailProperties();
+        mailProperties.getOutbox().setBatchSize(2);
+        outboxService = new MailOutboxService(repository, mailService, mailProperties,
+                new TransactionTemplate(new NoOpTransactionManager()), Duration.ofMinutes(5));
+    }
+
+    @Test
+    void drainSendsClaimedEntriesAndDeletesThem() throws Exception {
+        MailOutboxEntry entry = entry(1L, 0);
+        MimeMessage message = message();
+        when(repository.claimBatch(any(), anyInt(), any(), any())).thenReturn(List.of(entry));
+        when(mailService.createMessage("user1@example.com", "Subject", "<p>1</p>")).thenReturn(message);
+
+        outboxService.drain();
+
+        verify(mailService).sendBatch(argThat(messages -> messages.size() == 1 && messages.contains(message)));
+        verify(repository).delete(entry);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void drainKeepsPollingWhileBatchesAreFull() throws Exception {
+        MailOutboxEntry first = entry(1L, 0);
+        MailOutboxEntry second = entry(2L, 0);
+        MailOutboxEntry third = entry(3L, 0);
+        when(repository.claimBatch(any(), anyInt(), any(), any()))
+                .thenReturn(List.of(first, second), List.of(third));
+        when(mailService.createMessage(anyString(), anyString(), anyString())).thenAnswer(invocation -> message());
+
+        outboxService.drain();
+
+        verify(repository, times(2)).claimBatch(any(), anyInt(), any(), any());
+        verify(repository).delete(first);
+        verify(repository).delete(second);
+        verify(repository).delete(third);
+    }
+
+    @Test
+    void rejectedMessagesAreRescheduledAndTheRestDeleted() throws Exception {
+        MailOutboxEntry accepted = entry(1L, 0);
+        MailOutboxEntry rejected = entry(2L, 0);
+        MimeMessage acceptedMessage = message();
+        MimeMessage rejectedMessage = message();
+        when(repository.claimBatch(any(), anyInt(), any(), any())).thenReturn(List.of(accepted, rejected), List.of());
+        when(mailService.createMessage("user1@example.com", "Subject", "<p>1</p>")).thenReturn(acceptedMessage);
+        when(mailService.createMessage("user2@example.com", "Subject", "<p>2</p>")).thenReturn(rejectedMessage);
+        doThrow(new MailSendException(Map.of(rejectedMessage, new MessagingException("550 mailbox unavailable"))))
+                .when(mailService).sendBatch(any());
+
+        Instant before = Instant.now();
+        outboxService.drain();
+
+        verify(repository).delete(accepted);
+        verify(repository, never()).delete(rejected);
+        verify(repository).save(rejected);
+        assertEquals(1, rejected.getAttempts());
+        assertEquals("550 mailbox unavailable", rejected.getLastError());
+        assertFalse(rejected.getNextAttemptAt().isBefore(before.plusMillis(mailProperties.getOutbox().getRetryBackoff())));
+    }
+
+    @Test
+    void connectionFailureReschedulesTheWholeBatch() throws Exception {
+        MailOutboxEntry first = entry(1L, 0);
+        MailOutboxEntry second = entry(2L, 0);
+        when(repository.claimBatch(any(), anyInt(), any(), any())).thenReturn(List.of(first, second), List.of());
+        when(mailService.createMessage(anyString(), anyString(), anyString())).thenAnswer(invocation -> message());
+        doThrow(new MailSendException("Connection refused")).when(mailService).sendBatch(any());
+
+        outboxService.drain();
+
+        verify(repository, never()).delete(any(MailOutboxEntry.class));
+        verify(repository).save(first);
+        verify(repository).save(second);
+        assertEquals(1, first.getAttempts());
+        assertEquals(1, second.getAttempts());
+    }
+
+    @Test
+    void retryBackoffDoublesWithEachAttempt() throws Exception {
+        MailOutboxEntry entry = entry(1L, 2);
+        when(repository.claimBatch(any(), anyInt(), any(), any())).thenReturn(List.of(entry));
+        when(mailService.createMessage(anyString(), anyString(), anyString()))
+                .thenThrow(new MessagingException("Invalid address"));
+
+        Instant before = Instant.now();
+        outboxService.drain();
+        Instant after = Instant.now();
+
+        long backoff = mailProperties.getOutbox().getRetryBackoff() * 4;
+        assertEquals(3, entry.getAttempts());
+        assertFalse(entry.getNextAttemptAt().isBefore(before.plusMillis(backoff)));
+        assertFalse(entry.getNextAttemptAt().isAfter(after.plusMillis(backoff)));
+        verify(mailService, never()).sendBatch(any());
+    }
+
+    @Test
+    void lastFailedAttemptBlanksTheBody() throws Exception {
+        MailOutboxEntry entry = entry(1L, mailProperties.getOutbox().getMaxAttempts() - 1);
+        when(repository.claimBatch(any(), anyInt(), any(), any())).thenReturn(List.of(entry));
+        when(mailService.createMessage(anyString(), anyString(), anyString()))
+                .thenThrow(new MessagingException("Invalid address"));
+
+        outboxService.drain();
+
+        assertEquals(mailProperties.getOutbox().getMaxAttempts(), entry.getAttempts());
+        assertEquals("", entry.getBody());
+        assertEquals("Invalid address", entry.getLastError());
+        verify(repository).save(entry);
+    }
+
+    @Test
+    void drainSkipsAndDeletesExpiredEntries() {
+        when(repository.claimBatch(any(), anyInt(), any(), any())).thenReturn(List.of());
+
+        Instant before = Instant.now();
+        outboxService.drain();
+        Instant after = Instant.now();
+
+        verify(repository).claimBatch(any(), anyInt(),
+                argThat(expiredBefore -> !expiredBefore.isBefore(before.minus(Duration.ofMinutes(5)))
+                        && !expiredBefore.isAfter(after.minus(Duration.ofMinutes(5)))), any());
+        verify(repository).deleteExpired(argThat(expiredBefore -> !expiredBefore.isBefore(before.minus(Duration.ofMinutes(5)))
+                && !expiredBefore.isAfter(after.minus(Duration.ofMinutes(5)))));
+    }
+
+    private static MailOutboxEntry entry(long id, int attempts) {
+        return MailOutboxEntry.builder()
+                .id(id)
+                .recipient("user" + id + "@example.com")
+                .subject("Subject")
+                .body("<p>" + id + "</p>")
+                .attempts(attempts)
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+
+    private static MimeMessage message() {
+        return new MimeMessage(Session.getInstance(new Properties()));
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package it.trinex.blackout.service.mail;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledMailTemplateTest {
+
+    private static final List<String> SLOTS = List.of("name", "otp");
+    private static final List<String> MARKERS = List.of("@@0@@", "@@1@@");
+
+    @Test
+    void fillsSlotsInDocumentOrder() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile(
+                "<p>Code @@1@@ for @@0@@</p>", SLOTS, MARKERS);
+
+        assertEquals("<p>Code 123456 for Ann</p>", render(template, Map.of("name", "Ann", "otp", "123456")));
+    }
+
+    @Test
+    void repeatsSlotsThatAppearMoreThanOnce() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile(
+                "@@1@@-@@0@@-@@1@@", SLOTS, MARKERS);
+
+        assertEquals("42-Ann-42", render(template, Map.of("name", "Ann", "otp", 42)));
+    }
+
+    @Test
+    void escapesValues() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile("<b>@@0@@</b>", SLOTS, MARKERS);
+
+        assertEquals("<b>&lt;i&gt;Ann &amp; &quot;Bob&quot;&lt;/i&gt;</b>",
+                render(template, Map.of("name", "<i>Ann & \"Bob\"</i>")));
+    }
+
+    @Test
+    void rendersMissingValuesAsEmpty() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile("[@@0@@][@@1@@]", SLOTS, MARKERS);
+
+        assertEquals("[][7]", render(template, Map.of("otp", "7")));
+    }
+
+    @Test
+    void keepsNonAsciiTextIntact() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile("Ciao @@0@@, è pronto ✓", SLOTS, MARKERS);
+
+        assertEquals("Ciao Zoë, è pronto ✓", render(template, Map.of("name", "Zoë")));
+    }
+
+    @Test
+    void templateWithoutSlotsIsCopiedVerbatim() {
+        CompiledMailTemplate template = CompiledMailTemplate.compile("<p>static</p>", SLOTS, MARKERS);
+
+        assertEquals("<p>static</p>", render(template, Map.of()));
+    }
+
+    private static String render(CompiledMailTemplate template, Map<String, ?> variables) {
+        return new String(template.render(variables), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package it.trinex.blackout.service.mail;
+
+import it.trinex.blackout.properties.MailProperties;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailTemplateRegistryTest {
+
+    private static final String TEMPLATE =
+            "<p>Hello <span th:text=\"${name}\">name</span>, your code is <b th:text=\"${otp}\">000000</b>.</p>";
+    private static final String ITALIAN_TEMPLATE =
+            "<p>Ciao <span th:text=\"${name}\">name</span>, il codice è <b th:text=\"${otp}\">000000</b>.</p>";
+    private static final Map<String, Object> VARIABLES = Map.of("name", "<Zoë & \"Bob\">", "otp", 123456);
+
+    @Test
+    void precompiledOutputMatchesThymeleaf() {
+        MailTemplateRegistry precompiled = registry(true);
+        MailTemplateRegistry rendered = registry(false);
+
+        assertEquals(render(rendered, Locale.ENGLISH), render(precompiled, Locale.ENGLISH));
+        assertEquals(render(rendered, Locale.ITALIAN), render(precompiled, Locale.ITALIAN));
+    }
+
+    @Test
+    void picksTheMostSpecificLocale() {
+        MailTemplateRegistry registry = registry(true);
+
+        assertTrue(render(registry, Locale.ITALY).startsWith("<p>Ciao "));
+        assertTrue(render(registry, Locale.GERMAN).startsWith("<p>Hello "));
+        assertTrue(render(registry, null).startsWith("<p>Hello "));
+    }
+
+    @Test
+    void escapesSlotValues() {
+        String html = render(registry(true), Locale.ENGLISH);
+
+        assertTrue(html.contains("&lt;Zo"), html);
+        assertFalse(html.contains("<Zo"), html);
+        assertTrue(html.contains("123456"), html);
+    }
+
+    @Test
+    void unknownPurposeIsRejected() {
+        MailTemplateRegistry registry = registry(true);
+
+        assertThrows(IllegalArgumentException.class, () -> registry.render("unknown", Locale.ENGLISH, Map.of()));
+        assertThrows(IllegalArgumentException.class, () -> registry.getSubject("unknown"));
+    }
+
+    @Test
+    void defaultTemplateIsCompiledPerLocale() {
+        String localized = "<p th:lang=\"${#locale}\"><span th:text=\"${name}\">name</span> <b th:text=\"${otp}\">0</b></p>";
+        MailTemplateRegistry precompiled = registry(localized, Map.of(), true);
+        MailTemplateRegistry rendered = registry(localized, Map.of(), false);
+
+        assertTrue(render(precompiled, Locale.GERMAN).startsWith("<p lang=\"de\">"));
+        assertTrue(render(precompiled, Locale.FRENCH).startsWith("<p lang=\"fr\">"));
+        assertEquals(render(rendered, Locale.GERMAN), render(precompiled, Locale.GERMAN));
+    }
+
+    @Test
+    void slotsMissingFromTheOutputFallBackToThymeleaf() {
+        String conditional = "<p th:if=\"${name == 'admin'}\">Admin</p><b th:text=\"${otp}\">0</b>";
+        MailTemplateRegistry precompiled = registry(conditional, Map.of(), true);
+        MailTemplateRegistry rendered = registry(conditional, Map.of(), false);
+        Map<String, Object> variables = Map.of("name", "admin", "otp", 42);
+
+        String html = new String(precompiled.render(MailProperties.RESET_PASSWORD_TEMPLATE, Locale.ENGLISH, variables), StandardCharsets.UTF_8);
+
+        assertEquals("<p>Admin</p><b>42</b>", html);
+        assertEquals(new String(rendered.render(MailProperties.RESET_PASSWORD_TEMPLATE, Locale.ENGLISH, variables), StandardCharsets.UTF_8), html);
+    }
+
+    private static MailTemplateRegistry registry(boolean precompile) {
+        return registry(TEMPLATE, Map.of("it", ITALIAN_TEMPLATE), precompile);
+    }
+
+    private static MailTemplateRegistry registry(String defaultTemplate, Map<String, String> locales, boolean precompile) {
+        MailProperties.Template template = new MailProperties.Template();
+        template.setTemplate(defaultTemplate);
+        template.setSubject("Your code");
+        template.setLocales(locales);
+        template.setSlots(List.of("name", "otp"));
+        template.setPrecompile(precompile);
+
+        MailProperties properties = new MailProperties();
+        properties.getTemplates().clear();
+        properties.getTemplates().put(MailProperties.RESET_PASSWORD_TEMPLATE, template);
+
+        StringTemplateResolver resolver = new StringTemplateResolver();
+        resolver.setTemplateMode(TemplateMode.HTML);
+        TemplateEngine engine = new TemplateEngine();
+        engine.setTemplateResolver(resolver);
+
+        MailTemplateRegistry registry = new MailTemplateRegistry(engine, properties);
+        registry.init();
+        return registry;
+    }
+
+    private static String render(MailTemplateRegistry registry, Locale locale) {
+        return new String(registry.render(MailProperties.RESET_PASSWORD_TEMPLATE, locale, VARIABLES), StandardCharsets.UTF_8);
+    }
+}
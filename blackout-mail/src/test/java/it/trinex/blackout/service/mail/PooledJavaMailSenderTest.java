@@ -0,0 +1,122 @@
+package it.trinex.blackout.service.mail;
+
+import it.trinex.blackout.properties.MailProperties;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PooledJavaMailSenderTest {
+
+    private MailProperties.Pool pool;
+    private List<Transport> opened;
+    private PooledJavaMailSender sender;
+
+    @BeforeEach
+    void setUp() {
+        pool = new MailProperties.Pool();
+        pool.setMaxSize(2);
+        pool.setMaxMessagesPerConnection(3);
+        opened = new ArrayList<>();
+        sender = new PooledJavaMailSender(pool) {
+            @Override
+            protected Transport connectTransport() {
+                Transport transport = mock(Transport.class);
+                when(transport.isConnected()).thenReturn(true);
+                opened.add(transport);
+                return transport;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.destroy();
+    }
+
+    @Test
+    void reusesTheConnectionAcrossSends() throws Exception {
+        sender.send(message());
+        sender.send(message());
+
+        assertEquals(1, opened.size());
+        verify(opened.get(0), times(2)).sendMessage(any(), any());
+        verify(opened.get(0), never()).close();
+    }
+
+    @Test
+    void retiresTheConnectionAfterMaxMessages() throws Exception {
+        sender.send(message(), message(), message(), message());
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0), times(3)).sendMessage(any(), any());
+        verify(opened.get(0)).close();
+        verify(opened.get(1), times(1)).sendMessage(any(), any());
+    }
+
+    @Test
+    void replacesTheConnectionAfterAFailedMessage() throws Exception {
+        sender.send(message());
+        Transport broken = opened.get(0);
+        doThrow(new MessagingException("421 service not available")).when(broken).sendMessage(any(), any());
+        when(broken.isConnected()).thenReturn(false);
+
+        MailSendException failure = assertThrows(MailSendException.class, () -> sender.send(message()));
+        assertEquals(1, failure.getFailedMessages().size());
+
+        sender.send(message());
+        assertEquals(2, opened.size());
+        verify(broken).close();
+    }
+
+    @Test
+    void validatesIdleConnectionsBeforeReuse() throws Exception {
+        pool.setValidateAfterIdle(0L);
+        sender.send(message());
+        when(opened.get(0).isConnected()).thenReturn(false);
+
+        sender.send(message());
+
+        assertEquals(2, opened.size());
+        verify(opened.get(0)).close();
+        verify(opened.get(1)).sendMessage(any(), any());
+    }
+
+    @Test
+    void connectionFailureFailsEveryMessage() {
+        PooledJavaMailSender unreachable = new PooledJavaMailSender(pool) {
+            @Override
+            protected Transport connectTransport() throws MessagingException {
+                throw new MessagingException("Connection refused");
+            }
+        };
+        try {
+            MailSendException failure = assertThrows(MailSendException.class,
+                    () -> unreachable.send(message(), message()));
+            assertEquals(2, failure.getFailedMessages().size());
+        } finally {
+            unreachable.destroy();
+        }
+    }
+
+    private static MimeMessage message() throws MessagingException {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setRecipients(Message.RecipientType.TO, "user@example.com");
+        message.setSubject("Subject");
+        message.setText("Body");
+        return message;
+    }
+}
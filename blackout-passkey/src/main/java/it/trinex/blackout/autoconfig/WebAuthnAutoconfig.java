@@ -8,11 +8,11 @@ import it.trinex.blackout.service.CurrentUserService;
 import it.trinex.blackout.service.JwtService;
 import it.trinex.blackout.service.PasskeyService;
 import it.trinex.blackout.service.redis.RedisService;
+import it.trinex.blackout.service.throttle.LoginThrottle;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import tools.jackson.databind.ObjectMapper;
@@ -22,13 +22,13 @@ import tools.jackson.databind.ObjectMapper;
 @ConditionalOnProperty(prefix = "blackout.webauthn", name = "enabled", havingValue = "true")
 public class WebAuthnAutoconfig {
     @Bean
-    public PasskeyService passkeyService(PasskeyRepository passkeyRepository, CurrentUserService currentUserService, WebAuthnProperties webAuthnProperties, UserDetailsService userDetailsService, JwtService jwtService, ObjectMapper objectMapper, RedisTemplate<String, String> redisTemplate, CookieService cookieService, PasswordEncoder passwordEncoder) {
+    public PasskeyService passkeyService(PasskeyRepository passkeyRepository, CurrentUserService currentUserService, WebAuthnProperties webAuthnProperties, UserDetailsService userDetailsService, JwtService jwtService, ObjectMapper objectMapper, CookieService cookieService, PasswordEncoder passwordEncoder) {
         return new PasskeyService(passkeyRepository, currentUserService, webAuthnProperties, userDetailsService, jwtService, objectMapper, cookieService, passwordEncoder);
     }
 
     @Bean
     @ConditionalOnProperty(prefix = "blackout.webauthn", name = "enabled", havingValue = "true", matchIfMissing = false)
-    public PasskeyController passkeyController(PasskeyService passkeyService, CookieService cookieService, RedisService redisService) {
-        return new PasskeyController(passkeyService, cookieService, redisService);
+    public PasskeyController passkeyController(PasskeyService passkeyService, CookieService cookieService, RedisService redisService, LoginThrottle loginThrottle) {
+        return new PasskeyController(passkeyService, cookieService, redisService, loginThrottle);
     }
 }
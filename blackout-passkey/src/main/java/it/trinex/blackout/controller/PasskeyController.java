@@ -17,6 +17,8 @@ import it.trinex.blackout.exception.ExceptionResponseDTO;
 import it.trinex.blackout.service.CookieService;
 import it.trinex.blackout.service.PasskeyService;
 import it.trinex.blackout.service.redis.RedisService;
+import it.trinex.blackout.service.throttle.LoginThrottle;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -35,6 +37,7 @@ public class PasskeyController {
     private final PasskeyService passkeyService;
     private final CookieService cookieService;
     private final RedisService redisService;
+    private final LoginThrottle loginThrottle;
 
     @Operation(
         summary = "Start passkey registration",
@@ -107,9 +110,12 @@ public class PasskeyController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Authentication started successfully, returns challenge and options",
             content = @Content(schema = @Schema(implementation = AuthenticationStartResponse.class))),
+        @ApiResponse(responseCode = "429", description = "Too many attempts from this client, see Retry-After",
+            content = @Content(schema = @Schema(implementation = ExceptionResponseDTO.class))),
     })
     @PostMapping("/authenticate/start")
-    public ResponseEntity<AuthenticationStartResponse> startAuthentication() {
+    public ResponseEntity<AuthenticationStartResponse> startAuthentication(HttpServletRequest httpRequest) {
+        loginThrottle.checkClient(httpRequest);
 
         AuthenticationStartResponse response = passkeyService.startAuthentication();
 
@@ -159,7 +165,7 @@ public class PasskeyController {
 
         AuthResponseDTO response = passkeyService.finishAuthentication(request, sessionId);
 
-        ResponseCookie accessCookie = cookieService.generateAccessCookie(response.access_token());
+        ResponseCookie accessCookie = cookieService.generateAccessCookie(response.access_token(), response.access_token_expiration() / 1000);
         ResponseCookie refreshCookie = cookieService.generateRefreshCookie(response.refresh_token());
 
         return ResponseEntity.ok()
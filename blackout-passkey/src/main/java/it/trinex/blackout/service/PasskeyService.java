@@ -33,7 +33,6 @@ import it.trinex.blackout.security.BlackoutUserPrincipal;
 import it.trinex.blackout.service.redis.RedisService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseCookie;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -350,12 +349,12 @@ public class PasskeyService {
             BlackoutUserPrincipal userPrincipal = (BlackoutUserPrincipal) userDetailsService.loadUserByUsername(extractSubject(authAccount));
 
             // Generate tokens
-            String accessToken = jwtService.generateAccessToken(userPrincipal);
+            JwtService.IssuedAccessToken issuedAccessToken = jwtService.issueAccessToken(userPrincipal);
+            String accessToken = issuedAccessToken.token();
             String refreshToken = jwtService.generateRefreshToken(userPrincipal);
 
             // Calculate expiration time for client
-            long accessTokenExpirationMs = jwtService.calculateAccessTokenExpiration().toEpochMilli()
-                    - System.currentTimeMillis();
+            long accessTokenExpirationMs = issuedAccessToken.expiration().getTime() - System.currentTimeMillis();
             long refreshTokenExpirationMs = jwtService.calculateRefreshTokenExpiration().toEpochMilli()
                     - System.currentTimeMillis();
 
@@ -364,7 +363,7 @@ public class PasskeyService {
             // Determine if we should set the refresh token
             long refreshTokenMaxAge = Duration.ofMillis(refreshTokenExpirationMs).toSeconds();
 
-            String userJson = objectMapper.writeValueAsString(jwtService.extractAllClaims(accessToken));
+            String userJson = objectMapper.writeValueAsString(jwtService.extractProfileClaims(accessToken));
 
             challengeStore.remove(sessionId);
 
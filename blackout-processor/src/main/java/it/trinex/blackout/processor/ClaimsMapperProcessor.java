@@ -0,0 +1,282 @@
+package it.trinex.blackout.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code PrincipalClaimsMapper} for every class annotated with
+ * {@code @GenerateClaimsMapper}.
+ *
+ * <p>Shipped in the {@code blackout-processor} artifact, so it stays off the runtime classpath.
+ * It is registered through {@code META-INF/services}; projects that list their processors in
+ * {@code annotationProcessorPaths} must add the artifact there.</p>
+ */
+@SupportedAnnotationTypes(ClaimsMapperProcessor.ANNOTATION)
+public class ClaimsMapperProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "it.trinex.blackout.security.GenerateClaimsMapper";
+    private static final String CLAIM_NAME = "it.trinex.blackout.security.ClaimName";
+    private static final String PRINCIPAL = "it.trinex.blackout.security.BlackoutUserPrincipal";
+    private static final String VALUES = "it.trinex.blackout.security.ClaimValues";
+
+    private record Field(String name, String claim, TypeMirror type) {
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = processingEnv.getElementUtils().getTypeElement(ANNOTATION);
+        TypeElement principal = processingEnv.getElementUtils().getTypeElement(PRINCIPAL);
+        if (annotation == null || principal == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+                error(element, "@GenerateClaimsMapper requires a concrete class");
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            if (!processingEnv.getTypeUtils().isSubtype(type.asType(), principal.asType())
+                    || type.getQualifiedName().contentEquals(PRINCIPAL)) {
+                error(element, "@GenerateClaimsMapper requires a subclass of BlackoutUserPrincipal");
+                continue;
+            }
+            try {
+                generate(type, fields(type));
+            } catch (IOException e) {
+                error(element, "Could not generate claims mapper: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fields declared between the principal and BlackoutUserPrincipal, superclass fields first.
+     */
+    private List<Field> fields(TypeElement type) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals(PRINCIPAL)) {
+            hierarchy.push(current);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (TypeElement declaring : hierarchy) {
+            for (Element member : declaring.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.FIELD
+                        || member.getModifiers().contains(Modifier.STATIC)
+                        || member.getModifiers().contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                String name = member.getSimpleName().toString();
+                fields.add(new Field(name, claimName((VariableElement) member), member.asType()));
+            }
+        }
+        return fields;
+    }
+
+    private void generate(TypeElement type, List<Field> fields) throws IOException {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String principal = type.getQualifiedName().toString();
+        String mapperName = type.getSimpleName() + "ClaimsMapper";
+        String qualifiedName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(mapperName)
+                .append(" implements it.trinex.blackout.security.PrincipalClaimsMapper<").append(principal).append("> {\n\n")
+                .append("    @Override\n")
+                .append("    public Class<").append(principal).append("> principalType() {\n")
+                .append("        return ").append(principal).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public ").append(principal).append(" fromClaims(io.jsonwebtoken.Claims claims,\n")
+                .append("            java.util.Collection<? extends org.springframework.security.core.GrantedAuthority> authorities) {\n")
+                .append("        var builder = ").append(principal).append(".builder();\n")
+                .append("        String subject = claims.getSubject();\n")
+                .append("        builder.authId(").append(VALUES).append(".asLong(claims.get(\"auth_id\")));\n")
+                .append("        builder.userId(").append(VALUES).append(".asLong(claims.get(\"user_id\")));\n")
+                .append("        builder.firstName(").append(VALUES).append(".asString(claims.get(\"first_name\")));\n")
+                .append("        builder.lastName(").append(VALUES).append(".asString(claims.get(\"last_name\")));\n")
+                .append("        builder.passkeyEnabled(").append(VALUES).append(".asBooleanValue(claims.get(\"passkey_enabled\")));\n")
+                .append("        builder.passwordlessEnabled(").append(VALUES).append(".asBooleanValue(claims.get(\"passwordless_enabled\")));\n")
+                .append("        builder.authorities(authorities);\n")
+                .append("        builder.email(subject);\n")
+                .append("        builder.username(subject);\n");
+        for (Field field : fields) {
+            source.append("        builder.").append(field.name()).append('(')
+                    .append(decode(field)).append(");\n");
+        }
+        source.append("        return builder.build();\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public void writeClaims(").append(principal)
+                .append(" principal, java.util.function.BiConsumer<String, Object> claims) {\n");
+        for (Field field : fields) {
+            source.append("        claims.accept(\"").append(escape(field.claim())).append("\", ")
+                    .append(encode(field)).append(");\n");
+        }
+        source.append("    }\n")
+                .append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    private String decode(Field field) {
+        String raw = "claims.get(\"" + escape(field.claim()) + "\")";
+        TypeMirror type = field.type();
+        switch (type.getKind()) {
+            case LONG:
+                return VALUES + ".asLongValue(" + raw + ")";
+            case INT:
+                return VALUES + ".asIntValue(" + raw + ")";
+            case DOUBLE:
+                return VALUES + ".asDoubleValue(" + raw + ")";
+            case BOOLEAN:
+                return VALUES + ".asBooleanValue(" + raw + ")";
+            default:
+                break;
+        }
+        if (type.getKind().isPrimitive()) {
+            // Other primitives go through jjwt's conversion on their wrapper type
+            TypeElement boxed = processingEnv.getTypeUtils().boxedClass((PrimitiveType) type);
+            return "claims.get(\"" + escape(field.claim()) + "\", " + boxed.getQualifiedName() + ".class)";
+        }
+        if (type.getKind() != TypeKind.DECLARED) {
+            return fallback(field);
+        }
+
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        String name = element.getQualifiedName().toString();
+        switch (name) {
+            case "java.lang.String":
+                return VALUES + ".asString(" + raw + ")";
+            case "java.lang.Long":
+                return VALUES + ".asLong(" + raw + ")";
+            case "java.lang.Integer":
+                return VALUES + ".asInteger(" + raw + ")";
+            case "java.lang.Double":
+                return VALUES + ".asDouble(" + raw + ")";
+            case "java.lang.Boolean":
+                return VALUES + ".asBoolean(" + raw + ")";
+            default:
+                break;
+        }
+        if (element.getKind() == ElementKind.ENUM) {
+            return VALUES + ".asEnum(" + raw + ", " + name + ".class)";
+        }
+        return fallback(field);
+    }
+
+    /**
+     * Any other type is converted by jjwt.
+     */
+    private String fallback(Field field) {
+        String erased = processingEnv.getTypeUtils().erasure(field.type()).toString();
+        return "(" + field.type() + ") claims.get(\"" + escape(field.claim()) + "\", " + erased + ".class)";
+    }
+
+    private String encode(Field field) {
+        String value = "principal." + getter(field) + "()";
+        if (field.type().getKind() == TypeKind.DECLARED
+                && ((DeclaredType) field.type()).asElement().getKind() == ElementKind.ENUM) {
+            return VALUES + ".enumName(" + value + ")";
+        }
+        return value;
+    }
+
+    /**
+     * Lombok getter name: {@code isX} for primitive booleans (kept as is when already prefixed), {@code getX} otherwise.
+     */
+    private static String getter(Field field) {
+        String name = field.name();
+        if (field.type().getKind() == TypeKind.BOOLEAN) {
+            if (name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+                return name;
+            }
+            return "is" + capitalize(name);
+        }
+        return "get" + capitalize(name);
+    }
+
+    private String claimName(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(CLAIM_NAME)) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (entry.getKey().getSimpleName().contentEquals("value")) {
+                        return entry.getValue().getValue().toString();
+                    }
+                }
+            }
+        }
+        return snakeCase(field.getSimpleName().toString());
+    }
+
+    private static String snakeCase(String name) {
+        StringBuilder result = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isUpperCase(c)) {
+                if (i > 0) {
+                    result.append('_');
+                }
+                result.append(Character.toLowerCase(c));
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
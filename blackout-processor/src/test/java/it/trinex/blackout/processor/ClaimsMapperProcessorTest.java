@@ -0,0 +1,150 @@
+package it.trinex.blackout.processor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimsMapperProcessorTest {
+
+    @TempDir
+    Path generated;
+
+    @Test
+    void generatesMapperForEveryFieldType() throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = process(source("com.acme.AcmePrincipal", """
+                package com.acme;
+
+                import it.trinex.blackout.security.BlackoutUserPrincipal;
+                import it.trinex.blackout.security.ClaimName;
+                import it.trinex.blackout.security.GenerateClaimsMapper;
+
+                @GenerateClaimsMapper
+                public class AcmePrincipal extends BlackoutUserPrincipal {
+                    public enum Tier { FREE, PRO }
+
+                    static final String IGNORED = "x";
+                    transient String cache;
+
+                    long tenantId;
+                    Integer seats;
+                    boolean isAdmin;
+                    boolean verified;
+                    Tier tier;
+                    @ClaimName("org") String organisation;
+                    java.util.List<String> scopes;
+                }
+                """));
+
+        assertTrue(diagnostics.getDiagnostics().isEmpty(), diagnostics.getDiagnostics().toString());
+        String mapper = Files.readString(generated.resolve("com/acme/AcmePrincipalClaimsMapper.java"));
+
+        assertTrue(mapper.contains("public final class AcmePrincipalClaimsMapper implements "
+                + "it.trinex.blackout.security.PrincipalClaimsMapper<com.acme.AcmePrincipal>"));
+        // Decoding picks the null-keeping conversion for wrappers and the defaulting one for primitives
+        assertTrue(mapper.contains("builder.tenantId(it.trinex.blackout.security.ClaimValues.asLongValue(claims.get(\"tenant_id\")));"));
+        assertTrue(mapper.contains("builder.seats(it.trinex.blackout.security.ClaimValues.asInteger(claims.get(\"seats\")));"));
+        assertTrue(mapper.contains("builder.tier(it.trinex.blackout.security.ClaimValues.asEnum(claims.get(\"tier\"), com.acme.AcmePrincipal.Tier.class));"));
+        assertTrue(mapper.contains("builder.organisation(it.trinex.blackout.security.ClaimValues.asString(claims.get(\"org\")));"));
+        assertTrue(mapper.contains("builder.scopes((java.util.List<java.lang.String>) claims.get(\"scopes\", java.util.List.class));"));
+        // Encoding follows the Lombok getter names
+        assertTrue(mapper.contains("claims.accept(\"is_admin\", principal.isAdmin());"));
+        assertTrue(mapper.contains("claims.accept(\"verified\", principal.isVerified());"));
+        assertTrue(mapper.contains("claims.accept(\"tier\", it.trinex.blackout.security.ClaimValues.enumName(principal.getTier()));"));
+        assertTrue(mapper.contains("claims.accept(\"org\", principal.getOrganisation());"));
+        assertFalse(mapper.contains("IGNORED"));
+        assertFalse(mapper.contains("cache"));
+    }
+
+    @Test
+    void superclassFieldsComeFirst() throws IOException {
+        process(
+                source("com.acme.BasePrincipal", """
+                        package com.acme;
+
+                        public class BasePrincipal extends it.trinex.blackout.security.BlackoutUserPrincipal {
+                            String region;
+                        }
+                        """),
+                source("com.acme.TeamPrincipal", """
+                        package com.acme;
+
+                        @it.trinex.blackout.security.GenerateClaimsMapper
+                        public class TeamPrincipal extends BasePrincipal {
+                            String team;
+                        }
+                        """));
+
+        String mapper = Files.readString(generated.resolve("com/acme/TeamPrincipalClaimsMapper.java"));
+        int region = mapper.indexOf("claims.accept(\"region\"");
+        int team = mapper.indexOf("claims.accept(\"team\"");
+        assertTrue(region >= 0 && team > region, mapper);
+    }
+
+    @Test
+    void rejectsClassesThatAreNotConcretePrincipals() {
+        DiagnosticCollector<JavaFileObject> diagnostics = process(
+                source("com.acme.Plain", """
+                        package com.acme;
+
+                        @it.trinex.blackout.security.GenerateClaimsMapper
+                        public class Plain {
+                        }
+                        """),
+                source("com.acme.Partial", """
+                        package com.acme;
+
+                        @it.trinex.blackout.security.GenerateClaimsMapper
+                        public abstract class Partial extends it.trinex.blackout.security.BlackoutUserPrincipal {
+                        }
+                        """));
+
+        List<String> errors = diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .toList();
+        assertEquals(List.of(
+                "@GenerateClaimsMapper requires a subclass of BlackoutUserPrincipal",
+                "@GenerateClaimsMapper requires a concrete class"), errors);
+        assertFalse(Files.exists(generated.resolve("com/acme/PlainClaimsMapper.java")));
+        assertFalse(Files.exists(generated.resolve("com/acme/PartialClaimsMapper.java")));
+    }
+
+    /**
+     * Runs only the processor; the generated sources are written to the temp directory and not compiled.
+     */
+    private DiagnosticCollector<JavaFileObject> process(JavaFileObject... sources) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        List<String> options = List.of(
+                "-proc:only",
+                "-classpath", System.getProperty("java.class.path"),
+                "-s", generated.toString());
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, List.of(sources));
+        task.setProcessors(List.of(new ClaimsMapperProcessor()));
+        task.call();
+        return diagnostics;
+    }
+
+    private static JavaFileObject source(String className, String code) {
+        URI uri = URI.create("string:///" + className.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
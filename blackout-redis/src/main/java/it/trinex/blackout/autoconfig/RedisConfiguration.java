@@ -1,8 +1,14 @@
 package it.trinex.blackout.autoconfig;
 
 import it.trinex.blackout.properties.RedisProperties;
+import it.trinex.blackout.service.otp.RedisResetOtpStore;
+import it.trinex.blackout.service.otp.ResetOtpStore;
 import it.trinex.blackout.service.redis.RedisService;
 import it.trinex.blackout.service.redis.RealRedisService;
+import it.trinex.blackout.service.refresh.RedisRefreshTokenStore;
+import it.trinex.blackout.service.refresh.RefreshTokenStore;
+import it.trinex.blackout.service.throttle.RedisThrottleStore;
+import it.trinex.blackout.service.throttle.ThrottleStore;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -51,4 +57,19 @@ public class RedisConfiguration {
         return new RealRedisService(redisTemplate);
     }
 
+    @Bean
+    public ResetOtpStore resetOtpStore(RedisTemplate<String, String> redisTemplate) {
+        return new RedisResetOtpStore(redisTemplate);
+    }
+
+    @Bean
+    public RefreshTokenStore refreshTokenStore(RedisTemplate<String, String> redisTemplate) {
+        return new RedisRefreshTokenStore(redisTemplate);
+    }
+
+    @Bean
+    public ThrottleStore throttleStore(RedisTemplate<String, String> redisTemplate) {
+        return new RedisThrottleStore(redisTemplate);
+    }
+
 }
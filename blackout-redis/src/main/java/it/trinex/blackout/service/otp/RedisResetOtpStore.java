@@ -0,0 +1,99 @@
+package it.trinex.blackout.service.otp;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Redis-backed {@link ResetOtpStore}.
+ * Each OTP is a hash holding the code, its issue time and the failed attempts,
+ * and every operation is a single Lua script round trip.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisResetOtpStore implements ResetOtpStore {
+
+    // Versions before the hash layout stored plain strings under "resetotp:"; a separate prefix
+    // keeps their keys (rolling deploys, or until they expire) from failing with WRONGTYPE
+    private static final String PASSWORD_OTP_KEY_PREFIX = "resetotp:v2:";
+
+    /**
+     * KEYS[1] = OTP hash, ARGV = new OTP, TTL seconds, now (epoch seconds), cooldown seconds.
+     * Returns "1:otp" when a new OTP was stored, "0:otp" when the pending one is still in cooldown.
+     * The issue time outlives an invalidated OTP, so the cooldown still applies after it.
+     */
+    private static final RedisScript<String> ISSUE_SCRIPT = new DefaultRedisScript<>("""
+            local issued = redis.call('HGET', KEYS[1], 'issued')
+            if issued and tonumber(ARGV[3]) - tonumber(issued) < tonumber(ARGV[4]) then
+                return '0:' .. (redis.call('HGET', KEYS[1], 'otp') or '')
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'otp', ARGV[1], 'issued', ARGV[3], 'attempts', 0)
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            return '1:' .. ARGV[1]
+            """, String.class);
+
+    /**
+     * KEYS[1] = OTP hash, ARGV = submitted OTP, max attempts.
+     * Returns "1" on match; otherwise counts the attempt and drops the OTP when the limit is reached.
+     */
+    private static final RedisScript<String> VERIFY_SCRIPT = new DefaultRedisScript<>("""
+            local otp = redis.call('HGET', KEYS[1], 'otp')
+            if not otp then
+                return '0'
+            end
+            if otp == ARGV[1] then
+                return '1'
+            end
+            local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+            if attempts >= tonumber(ARGV[2]) then
+                redis.call('HDEL', KEYS[1], 'otp')
+            end
+            return '0'
+            """, String.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Override
+    public IssuedOtp issue(String subject, String otp, long ttlSeconds, long cooldownSeconds) {
+        String result = redisTemplate.execute(
+                ISSUE_SCRIPT,
+                RedisSerializer.string(),
+                RedisSerializer.string(),
+                List.of(PASSWORD_OTP_KEY_PREFIX + subject),
+                otp,
+                String.valueOf(ttlSeconds),
+                String.valueOf(Instant.now().getEpochSecond()),
+                String.valueOf(cooldownSeconds));
+
+        if (result == null) {
+            throw new IllegalStateException("Reset OTP script returned no result");
+        }
+
+        String value = result.substring(2);
+        return new IssuedOtp(value.isEmpty() ? null : value, result.charAt(0) == '1');
+    }
+
+    @Override
+    public boolean verify(String subject, String otp, int maxAttempts) {
+        String result = redisTemplate.execute(
+                VERIFY_SCRIPT,
+                RedisSerializer.string(),
+                RedisSerializer.string(),
+                List.of(PASSWORD_OTP_KEY_PREFIX + subject),
+                otp,
+                String.valueOf(maxAttempts));
+        return "1".equals(result);
+    }
+
+    @Override
+    public void remove(String subject) {
+        redisTemplate.delete(PASSWORD_OTP_KEY_PREFIX + subject);
+    }
+}
@@ -7,8 +7,11 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 @Service
@@ -19,6 +22,8 @@ public class RealRedisService implements RedisService {
     private static final String REVOKED_REFRESH_KEY_PREFIX = "revoked:refresh:";
     private static final String REVOKED_ACCESS_KEY_PREFIX = "revoked:access:";
     private static final String USER_TOKENS_KEY_PREFIX = "user_tokens:";
+    // Resource servers keep a near-cache of access token revocations fed by this channel
+    private static final String REVOCATION_CHANNEL = "blackout:revocations";
 
     private final RedisTemplate<String, String> redisTemplate;
 
@@ -52,6 +57,7 @@ public class RealRedisService implements RedisService {
 
     /**
      * Revokes an access token (for critical scenarios like compromised accounts).
+     * The revocation is also published for the near-caches of resource servers.
      *
      * @param jti token ID from JWT
      * @param expiresAt token expiration date
@@ -63,6 +69,7 @@ public class RealRedisService implements RedisService {
 
             if (ttlSeconds > 0) {
                 redisTemplate.opsForValue().set(key, "revoked", Duration.ofSeconds(ttlSeconds));
+                redisTemplate.convertAndSend(REVOCATION_CHANNEL, jti + ":" + expiresAt.getTime() / 1000);
                 log.debug("Revoked access token: {} (TTL: {}s)", jti, ttlSeconds);
             }
         } catch (Exception e) {
@@ -110,6 +117,41 @@ public class RealRedisService implements RedisService {
         }
     }
 
+    /**
+     * Checks all tokens with a single MGET.
+     */
+    @Override
+    public Set<String> findRevokedTokens(Collection<String> accessJtis, Collection<String> refreshJtis) {
+        List<String> jtis = new ArrayList<>(accessJtis.size() + refreshJtis.size());
+        List<String> keys = new ArrayList<>(accessJtis.size() + refreshJtis.size());
+        accessJtis.forEach(jti -> {
+            jtis.add(jti);
+            keys.add(REVOKED_ACCESS_KEY_PREFIX + jti);
+        });
+        refreshJtis.forEach(jti -> {
+            jtis.add(jti);
+            keys.add(REVOKED_REFRESH_KEY_PREFIX + jti);
+        });
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            Set<String> revoked = new HashSet<>();
+            for (int i = 0; values != null && i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    revoked.add(jtis.get(i));
+                }
+            }
+            return revoked;
+        } catch (Exception e) {
+            log.error("[CRITICAL_ALERT] Redis connection failure in batch token revocation check - REVOKED TOKENS MAY BE ACCEPTED! " +
+                    "tokens={}, error={}, failOpen=true", keys.size(), e.getMessage());
+            return Set.of();
+        }
+    }
+
     /**
      * Tracks a token for a user in Redis Set.
      * This allows bulk revocation of all user tokens (e.g., on password change).
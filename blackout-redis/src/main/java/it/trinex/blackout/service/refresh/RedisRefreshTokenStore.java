@@ -0,0 +1,146 @@
+package it.trinex.blackout.service.refresh;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.List;
+
+/**
+ * Redis-backed {@link RefreshTokenStore}.
+ *
+ * <p>A live handle is a string {@code A|family|authId|subject}; once rotated it is replaced by
+ * the tombstone {@code R|family}. The family key points to the current handle id, so a reused
+ * handle can revoke it. Rotation is one Lua script round trip ({@code GETDEL} and {@code SET},
+ * Redis 6.2 or later).</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String HANDLE_KEY_PREFIX = "refresh:handle:";
+    private static final String FAMILY_KEY_PREFIX = "refresh:family:";
+
+    /**
+     * KEYS[1] = handle, KEYS[2] = family key, ARGV = handle value, handle id, TTL seconds.
+     */
+    private static final RedisScript<String> STORE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[3])
+            redis.call('SET', KEYS[2], ARGV[2], 'EX', ARGV[3])
+            return '1'
+            """, String.class);
+
+    /**
+     * KEYS[1] = presented handle, KEYS[2] = new handle, ARGV = TTL seconds, new handle id.
+     * Returns the live value for a rotation, "R|family" for a reused handle, nil if unknown.
+     */
+    private static final RedisScript<String> ROTATE_SCRIPT = new DefaultRedisScript<>("""
+            local value = redis.call('GETDEL', KEYS[1])
+            if not value then
+                return false
+            end
+            local family = string.match(value, '^[AR]|([^|]+)')
+            local familyKey = '%1$s' .. family
+            if string.sub(value, 1, 1) == 'R' then
+                local current = redis.call('GET', familyKey)
+                if current then
+                    redis.call('DEL', '%2$s' .. current)
+                end
+                redis.call('DEL', familyKey)
+                return value
+            end
+            redis.call('SET', KEYS[1], 'R|' .. family, 'EX', ARGV[1])
+            redis.call('SET', KEYS[2], value, 'EX', ARGV[1])
+            redis.call('SET', familyKey, ARGV[2], 'EX', ARGV[1])
+            return value
+            """.formatted(FAMILY_KEY_PREFIX, HANDLE_KEY_PREFIX), String.class);
+
+    /**
+     * KEYS[1] = handle. Returns "pttl|value" for a live handle, nil otherwise.
+     */
+    private static final RedisScript<String> FIND_SCRIPT = new DefaultRedisScript<>("""
+            local value = redis.call('GET', KEYS[1])
+            if not value or string.sub(value, 1, 1) ~= 'A' then
+                return false
+            end
+            return tostring(redis.call('PTTL', KEYS[1])) .. '|' .. value
+            """, String.class);
+
+    /**
+     * KEYS[1] = family key. Deletes the current handle of the family.
+     */
+    private static final RedisScript<String> REVOKE_SCRIPT = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+                redis.call('DEL', '%s' .. current)
+            end
+            redis.call('DEL', KEYS[1])
+            return '1'
+            """.formatted(HANDLE_KEY_PREFIX), String.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Override
+    public void store(String id, RefreshSession session, long ttlSeconds) {
+        redisTemplate.execute(
+                STORE_SCRIPT,
+                RedisSerializer.string(),
+                RedisSerializer.string(),
+                List.of(HANDLE_KEY_PREFIX + id, FAMILY_KEY_PREFIX + session.family()),
+                "A|" + session.family() + "|" + session.authId() + "|" + session.subject(),
+                id,
+                String.valueOf(ttlSeconds));
+    }
+
+    @Override
+    public Rotation rotate(String id, String newId, long ttlSeconds) {
+        String value = redisTemplate.execute(
+                ROTATE_SCRIPT,
+                RedisSerializer.string(),
+                RedisSerializer.string(),
+                List.of(HANDLE_KEY_PREFIX + id, HANDLE_KEY_PREFIX + newId),
+                String.valueOf(ttlSeconds),
+                newId);
+
+        if (value == null) {
+            return new Rotation(null, false);
+        }
+        String[] parts = value.split("\\|", 4);
+        if (parts[0].equals("R")) {
+            log.warn("Reuse of a rotated refresh token detected, revoked token family {}", parts[1]);
+            return new Rotation(null, true);
+        }
+        return new Rotation(new RefreshSession(parts[1], Long.parseLong(parts[2]), parts[3]), false);
+    }
+
+    @Override
+    public Handle find(String id) {
+        String value = redisTemplate.execute(
+                FIND_SCRIPT,
+                RedisSerializer.string(),
+                RedisSerializer.string(),
+                List.of(HANDLE_KEY_PREFIX + id));
+
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split("\\|", 5);
+        long ttl = Long.parseLong(parts[0]);
+        if (ttl <= 0) {
+            return null;
+        }
+        return new Handle(new RefreshSession(parts[2], Long.parseLong(parts[3]), parts[4]), System.currentTimeMillis() + ttl);
+    }
+
+    @Override
+    public void revokeFamily(String family) {
+        redisTemplate.execute(
+                REVOKE_SCRIPT,
+                RedisSerializer.string(),
+                RedisSerializer.string(),
+                List.of(FAMILY_KEY_PREFIX + family));
+    }
+}
@@ -0,0 +1,109 @@
+package it.trinex.blackout.service.throttle;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis-backed {@link ThrottleStore}, shared by all instances.
+ * All buckets of a check are refilled and consumed by a single Lua script round trip.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RedisThrottleStore implements ThrottleStore {
+
+    private static final String THROTTLE_KEY_PREFIX = "throttle:";
+
+    /**
+     * KEYS = bucket hashes, ARGV[1] = now (epoch millis), then capacity and refill per millisecond
+     * for each key. Returns "0" when a token was taken from every bucket, otherwise the milliseconds
+     * until all buckets have a token again (nothing is consumed in that case).
+     */
+    private static final RedisScript<String> CONSUME_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local tokens = {}
+            local wait = 0
+            for i = 1, #KEYS do
+                local capacity = tonumber(ARGV[i * 2])
+                local rate = tonumber(ARGV[i * 2 + 1])
+                local state = redis.call('HMGET', KEYS[i], 'tokens', 'ts')
+                local t = tonumber(state[1])
+                if t == nil then
+                    t = capacity
+                else
+                    t = math.min(capacity, t + math.max(0, now - tonumber(state[2])) * rate)
+                end
+                tokens[i] = t
+                if t < 1 then
+                    wait = math.max(wait, math.ceil((1 - t) / rate))
+                end
+            end
+            if wait > 0 then
+                return tostring(wait)
+            end
+            for i = 1, #KEYS do
+                local capacity = tonumber(ARGV[i * 2])
+                local rate = tonumber(ARGV[i * 2 + 1])
+                local t = tokens[i] - 1
+                redis.call('HSET', KEYS[i], 'tokens', tostring(t), 'ts', ARGV[1])
+                redis.call('PEXPIRE', KEYS[i], math.ceil((capacity - t) / rate) + 1)
+            end
+            return '0'
+            """, String.class);
+
+    /**
+     * Same arguments as {@link #CONSUME_SCRIPT}. Adds one token to every existing bucket, up to its capacity.
+     */
+    private static final RedisScript<String> REFUND_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            for i = 1, #KEYS do
+                local capacity = tonumber(ARGV[i * 2])
+                local rate = tonumber(ARGV[i * 2 + 1])
+                local state = redis.call('HMGET', KEYS[i], 'tokens', 'ts')
+                local t = tonumber(state[1])
+                if t ~= nil then
+                    t = math.min(capacity, t + math.max(0, now - tonumber(state[2])) * rate + 1)
+                    redis.call('HSET', KEYS[i], 'tokens', tostring(t), 'ts', ARGV[1])
+                    redis.call('PEXPIRE', KEYS[i], math.ceil((capacity - t) / rate) + 1)
+                end
+            end
+            return '0'
+            """, String.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    @Override
+    public long tryConsume(List<ThrottleBucket> buckets) {
+        String result = run(CONSUME_SCRIPT, buckets);
+        return result == null ? 0 : Long.parseLong(result);
+    }
+
+    @Override
+    public void refund(List<ThrottleBucket> buckets) {
+        run(REFUND_SCRIPT, buckets);
+    }
+
+    private String run(RedisScript<String> script, List<ThrottleBucket> buckets) {
+        List<String> keys = new ArrayList<>(buckets.size());
+        List<String> args = new ArrayList<>(buckets.size() * 2 + 1);
+        args.add(String.valueOf(System.currentTimeMillis()));
+        for (ThrottleBucket bucket : buckets) {
+            keys.add(THROTTLE_KEY_PREFIX + bucket.key());
+            args.add(String.valueOf(bucket.capacity()));
+            args.add(String.valueOf(bucket.refillPerSecond() / 1000.0));
+        }
+
+        return redisTemplate.execute(
+                script,
+                RedisSerializer.string(),
+                RedisSerializer.string(),
+                keys,
+                args.toArray());
+    }
+}
@@ -0,0 +1,87 @@
+package it.trinex.blackout.service.otp;
+
+import it.trinex.blackout.RedisContainerSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisResetOtpStoreTest extends RedisContainerSupport {
+
+    private RedisResetOtpStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisResetOtpStore(redisTemplate);
+    }
+
+    @Test
+    void issueStoresAFreshOtp() {
+        IssuedOtp issued = store.issue("ada", "123456", 300, 60);
+
+        assertEquals(new IssuedOtp("123456", true), issued);
+        Long ttl = redisTemplate.getExpire("resetotp:v2:ada");
+        assertTrue(ttl != null && ttl > 0 && ttl <= 300, String.valueOf(ttl));
+    }
+
+    @Test
+    void issueDuringCooldownReturnsThePendingOtp() {
+        store.issue("ada", "123456", 300, 60);
+
+        assertEquals(new IssuedOtp("123456", false), store.issue("ada", "654321", 300, 60));
+        assertTrue(store.verify("ada", "123456", 5));
+    }
+
+    @Test
+    void issueAfterCooldownReplacesTheOtp() {
+        store.issue("ada", "123456", 300, 0);
+
+        assertEquals(new IssuedOtp("654321", true), store.issue("ada", "654321", 300, 0));
+        assertFalse(store.verify("ada", "123456", 5));
+        assertTrue(store.verify("ada", "654321", 5));
+    }
+
+    @Test
+    void verifyDropsTheOtpAfterMaxAttempts() {
+        store.issue("ada", "123456", 300, 60);
+
+        assertFalse(store.verify("ada", "000000", 3));
+        assertFalse(store.verify("ada", "000001", 3));
+        assertTrue(store.verify("ada", "123456", 3));
+        assertFalse(store.verify("ada", "000002", 3));
+
+        assertFalse(store.verify("ada", "123456", 3));
+    }
+
+    @Test
+    void cooldownOutlivesAnInvalidatedOtp() {
+        store.issue("ada", "123456", 300, 60);
+        store.verify("ada", "000000", 1);
+
+        assertEquals(new IssuedOtp(null, false), store.issue("ada", "654321", 300, 60));
+        assertFalse(store.verify("ada", "654321", 1));
+    }
+
+    @Test
+    void removeDropsTheOtp() {
+        store.issue("ada", "123456", 300, 60);
+        store.remove("ada");
+
+        assertFalse(store.verify("ada", "123456", 5));
+        assertTrue(store.issue("ada", "654321", 300, 60).fresh());
+    }
+
+    @Test
+    void legacyStringKeysAreIgnored() {
+        redisTemplate.opsForValue().set("resetotp:ada", "111111");
+
+        assertTrue(store.issue("ada", "123456", 300, 60).fresh());
+        assertTrue(store.verify("ada", "123456", 5));
+        assertFalse(store.verify("ada", "111111", 5));
+    }
+
+    @Test
+    void unknownSubjectDoesNotVerify() {
+        assertFalse(store.verify("nobody", "123456", 5));
+    }
+}
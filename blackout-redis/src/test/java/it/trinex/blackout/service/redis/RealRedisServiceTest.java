@@ -0,0 +1,58 @@
+package it.trinex.blackout.service.redis;
+
+import it.trinex.blackout.RedisContainerSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RealRedisServiceTest extends RedisContainerSupport {
+
+    private RealRedisService redisService;
+
+    @BeforeEach
+    void setUp() {
+        redisService = new RealRedisService(redisTemplate);
+    }
+
+    @Test
+    void findRevokedTokensChecksBothKinds() {
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+        redisService.revokeAccessToken("a1", expiresAt);
+        redisService.revokeRefreshToken("r1", expiresAt);
+
+        Set<String> revoked = redisService.findRevokedTokens(List.of("a1", "a2", "r1"), List.of("r1", "r2", "a1"));
+
+        assertEquals(Set.of("a1", "r1"), revoked);
+    }
+
+    @Test
+    void findRevokedTokensKeepsAccessAndRefreshApart() {
+        redisService.revokeRefreshToken("t1", new Date(System.currentTimeMillis() + 60_000));
+
+        assertEquals(Set.of(), redisService.findRevokedTokens(List.of("t1"), List.of()));
+        assertEquals(Set.of("t1"), redisService.findRevokedTokens(List.of(), List.of("t1")));
+    }
+
+    @Test
+    void findRevokedTokensMatchesSingleChecks() {
+        Date expiresAt = new Date(System.currentTimeMillis() + 60_000);
+        redisService.revokeAccessToken("a1", expiresAt);
+
+        assertTrue(redisService.isAccessTokenRevoked("a1"));
+        assertFalse(redisService.isAccessTokenRevoked("a2"));
+        assertEquals(Set.of("a1"), redisService.findRevokedTokens(List.of("a1", "a2"), List.of()));
+        assertEquals(Set.of(), redisService.findRevokedTokens(List.of(), List.of()));
+    }
+
+    @Test
+    void expiredTokensAreNotStored() {
+        redisService.revokeAccessToken("a1", new Date(System.currentTimeMillis() - 1000));
+
+        assertEquals(Set.of(), redisService.findRevokedTokens(List.of("a1"), List.of()));
+    }
+}
@@ -0,0 +1,87 @@
+package it.trinex.blackout.service.refresh;
+
+import it.trinex.blackout.RedisContainerSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisRefreshTokenStoreTest extends RedisContainerSupport {
+
+    private static final RefreshSession SESSION = new RefreshSession("family-1", 42L, "ada|lovelace");
+
+    private RedisRefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisRefreshTokenStore(redisTemplate);
+    }
+
+    @Test
+    void findReturnsAStoredHandle() {
+        long before = System.currentTimeMillis();
+        store.store("h1", SESSION, 600);
+
+        RefreshTokenStore.Handle handle = store.find("h1");
+
+        assertEquals(SESSION, handle.session());
+        assertTrue(handle.expiresAt() > before && handle.expiresAt() <= System.currentTimeMillis() + 600_000);
+        assertNull(store.find("unknown"));
+    }
+
+    @Test
+    void rotateMovesTheSessionAndLeavesATombstone() {
+        store.store("h1", SESSION, 600);
+
+        RefreshTokenStore.Rotation rotation = store.rotate("h1", "h2", 600);
+
+        assertEquals(new RefreshTokenStore.Rotation(SESSION, false), rotation);
+        assertNull(store.find("h1"));
+        assertEquals(SESSION, store.find("h2").session());
+        assertEquals("R|family-1", redisTemplate.opsForValue().get("refresh:handle:h1"));
+        assertEquals("h2", redisTemplate.opsForValue().get("refresh:family:family-1"));
+    }
+
+    @Test
+    void reusingARotatedHandleRevokesTheFamily() {
+        store.store("h1", SESSION, 600);
+        store.rotate("h1", "h2", 600);
+
+        RefreshTokenStore.Rotation reuse = store.rotate("h1", "h3", 600);
+
+        assertEquals(new RefreshTokenStore.Rotation(null, true), reuse);
+        assertNull(store.find("h2"));
+        assertNull(store.find("h3"));
+        assertEquals(new RefreshTokenStore.Rotation(null, false), store.rotate("h2", "h4", 600));
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey("refresh:family:family-1")));
+    }
+
+    @Test
+    void secondRotationOfOneHandleIsAReuse() {
+        store.store("h1", SESSION, 600);
+
+        RefreshTokenStore.Rotation first = store.rotate("h1", "h2", 600);
+        RefreshTokenStore.Rotation second = store.rotate("h1", "h3", 600);
+
+        assertNotNull(first.session());
+        assertNull(second.session());
+        assertTrue(second.reused());
+    }
+
+    @Test
+    void rotatingAnUnknownHandleFails() {
+        assertEquals(new RefreshTokenStore.Rotation(null, false), store.rotate("unknown", "h2", 600));
+        assertNull(store.find("h2"));
+    }
+
+    @Test
+    void revokeFamilyDropsTheCurrentHandle() {
+        store.store("h1", SESSION, 600);
+        store.rotate("h1", "h2", 600);
+
+        store.revokeFamily("family-1");
+
+        assertNull(store.find("h2"));
+        assertEquals(new RefreshTokenStore.Rotation(null, false), store.rotate("h2", "h3", 600));
+    }
+}
@@ -0,0 +1,88 @@
+package it.trinex.blackout.service.throttle;
+
+import it.trinex.blackout.RedisContainerSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisThrottleStoreTest extends RedisContainerSupport {
+
+    private RedisThrottleStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RedisThrottleStore(redisTemplate);
+    }
+
+    @Test
+    void consumesUpToCapacityThenReportsTheWait() {
+        List<ThrottleBucket> bucket = List.of(new ThrottleBucket("ip:1", 2, 1));
+
+        assertEquals(0, store.tryConsume(bucket));
+        assertEquals(0, store.tryConsume(bucket));
+
+        long wait = store.tryConsume(bucket);
+        assertTrue(wait > 0 && wait <= 1000, String.valueOf(wait));
+    }
+
+    @Test
+    void bucketsRefillOverTime() throws InterruptedException {
+        List<ThrottleBucket> bucket = List.of(new ThrottleBucket("ip:1", 1, 10));
+
+        assertEquals(0, store.tryConsume(bucket));
+        assertTrue(store.tryConsume(bucket) > 0);
+
+        Thread.sleep(120);
+        assertEquals(0, store.tryConsume(bucket));
+    }
+
+    @Test
+    void nothingIsConsumedWhenOneBucketIsEmpty() {
+        ThrottleBucket ip = new ThrottleBucket("ip:1", 1, 0.001);
+        ThrottleBucket account = new ThrottleBucket("account:ada", 3, 0.001);
+
+        assertEquals(0, store.tryConsume(List.of(ip, account)));
+        assertTrue(store.tryConsume(List.of(ip, account)) > 0);
+
+        assertEquals(0, store.tryConsume(List.of(account)));
+        assertEquals(0, store.tryConsume(List.of(account)));
+        assertTrue(store.tryConsume(List.of(account)) > 0);
+    }
+
+    @Test
+    void refundReturnsAToken() {
+        List<ThrottleBucket> bucket = List.of(new ThrottleBucket("ip:1", 1, 0.001));
+
+        assertEquals(0, store.tryConsume(bucket));
+        store.refund(bucket);
+
+        assertEquals(0, store.tryConsume(bucket));
+        assertTrue(store.tryConsume(bucket) > 0);
+    }
+
+    @Test
+    void refundNeverExceedsCapacity() {
+        List<ThrottleBucket> bucket = List.of(new ThrottleBucket("ip:1", 1, 0.001));
+
+        assertEquals(0, store.tryConsume(bucket));
+        store.refund(bucket);
+        store.refund(bucket);
+
+        assertEquals(0, store.tryConsume(bucket));
+        assertTrue(store.tryConsume(bucket) > 0);
+    }
+
+    @Test
+    void bucketsExpireOnceFull() {
+        List<ThrottleBucket> bucket = List.of(new ThrottleBucket("ip:1", 2, 1));
+
+        store.tryConsume(bucket);
+
+        Long ttl = redisTemplate.getExpire("throttle:ip:1", TimeUnit.MILLISECONDS);
+        assertTrue(ttl != null && ttl > 0 && ttl <= 1001, String.valueOf(ttl));
+    }
+}
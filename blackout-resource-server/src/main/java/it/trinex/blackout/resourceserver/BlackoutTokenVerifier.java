@@ -0,0 +1,167 @@
+package it.trinex.blackout.resourceserver;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import it.trinex.blackout.security.AuthorityRegistry;
+import it.trinex.blackout.security.BlackoutPrincipalFactory;
+import it.trinex.blackout.security.ClaimsPrincipalResolver;
+import it.trinex.blackout.service.CwtTokenCodec;
+import it.trinex.blackout.service.HmacJwtVerifier;
+import it.trinex.blackout.service.PasetoTokenCodec;
+import it.trinex.blackout.service.enums.TokenType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Verifies Blackout access tokens without calling the issuer.
+ *
+ * <p>PASETO v4.public tokens are checked with the keys of the {@link KeyRing}. JWT, CWT and PASETO
+ * v4.local tokens need the shared secret, which also lets this service mint tokens, so it is only
+ * accepted with {@code blackout.resource-server.allow-shared-secret} set. Principals are rebuilt from the claims by the
+ * {@link BlackoutPrincipalFactory}; thin access tokens only carry the subject and ids, since there
+ * is no user store to load the rest of the profile from.</p>
+ */
+@Slf4j
+public class BlackoutTokenVerifier implements ClaimsPrincipalResolver {
+
+    private static final String TOKEN_TYPE_CLAIM = "token_type";
+    private static final String CLAIM_ROLE = "roles";
+
+    private final BlackoutPrincipalFactory<? extends UserDetails> principalFactory;
+    private final KeyRing keyRing;
+    private final RevocationNearCache revocationCache;
+    private final SecretKey secretKey;
+    private final HmacJwtVerifier hmacVerifier;
+    private final CwtTokenCodec cwtCodec;
+    private final PasetoTokenCodec localCodec;
+
+    /**
+     * @param revocationCache the revocation near-cache, or null if revocations are not followed
+     * @throws IllegalStateException if a shared secret is configured without the explicit opt-in
+     */
+    public BlackoutTokenVerifier(ResourceServerProperties properties,
+                                 BlackoutPrincipalFactory<? extends UserDetails> principalFactory,
+                                 KeyRing keyRing,
+                                 RevocationNearCache revocationCache) {
+        this.principalFactory = principalFactory;
+        this.keyRing = keyRing;
+        this.revocationCache = revocationCache;
+        if (properties.getSecret() != null && !properties.isAllowSharedSecret()) {
+            throw new IllegalStateException("blackout.resource-server.secret lets this service mint tokens the issuer accepts. "
+                    + "Verify PASETO v4.public tokens with public-keys or jwks-uri instead, "
+                    + "or set blackout.resource-server.allow-shared-secret=true to accept the shared secret");
+        }
+        if (properties.getSecret() != null) {
+            byte[] secret = Decoders.BASE64.decode(properties.getSecret());
+            this.secretKey = Keys.hmacShaKeyFor(secret);
+            this.hmacVerifier = new HmacJwtVerifier(secret);
+            this.cwtCodec = new CwtTokenCodec(secret);
+            this.localCodec = new PasetoTokenCodec(PasetoTokenCodec.deriveLocalKey(secret), null, null);
+        } else {
+            this.secretKey = null;
+            this.hmacVerifier = null;
+            this.cwtCodec = null;
+            this.localCodec = null;
+        }
+    }
+
+    /**
+     * Returns the claims of a valid, unrevoked access token, or null otherwise.
+     */
+    public Claims verifyAccessToken(String token) {
+        try {
+            Claims claims = verify(token);
+            if (!TokenType.ACCESS.name().equals(claims.get(TOKEN_TYPE_CLAIM, String.class))) {
+                return null;
+            }
+            if (revocationCache != null && revocationCache.isRevoked(claims.getId())) {
+                log.debug("Access token {} is revoked", claims.getId());
+                return null;
+            }
+            return claims;
+        } catch (ExpiredJwtException e) {
+            log.debug("Token expired: {}", e.getMessage());
+            return null;
+        } catch (SignatureException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
+            log.warn("Invalid token: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Verifies a token in any of the formats Blackout issues and returns its claims.
+     */
+    public Claims verify(String token) {
+        if (token.startsWith(PasetoTokenCodec.PUBLIC_HEADER)) {
+            return verifyPublic(token);
+        }
+        if (secretKey == null) {
+            throw new UnsupportedJwtException("No secret configured for symmetric Blackout tokens");
+        }
+        if (token.startsWith(CwtTokenCodec.PREFIX)) {
+            return cwtCodec.verify(token);
+        }
+        if (token.startsWith(PasetoTokenCodec.LOCAL_HEADER)) {
+            return localCodec.verify(token);
+        }
+        Claims claims = hmacVerifier.verify(token);
+        if (claims != null) {
+            return claims;
+        }
+        return Jwts.parser()
+                .verifyWith(secretKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Override
+    public UserDetails extractUserPrincipal(Claims claims) {
+        return principalFactory.fromClaims(claims, extractAuthorities(claims));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Collection<? extends GrantedAuthority> extractAuthorities(Claims claims) {
+        List<String> roles = claims.get(CLAIM_ROLE, List.class);
+        return AuthorityRegistry.forRoles(roles == null ? List.of() : roles);
+    }
+
+    /**
+     * Tries every known key, then refreshes the key ring once in case the token was signed by a
+     * key published after the last refresh.
+     */
+    private Claims verifyPublic(String token) {
+        List<PasetoTokenCodec> codecs = keyRing.getCodecs();
+        Claims claims = tryKeys(codecs, token);
+        if (claims == null && keyRing.refreshIfStale() && keyRing.getCodecs() != codecs) {
+            claims = tryKeys(keyRing.getCodecs(), token);
+        }
+        if (claims == null) {
+            throw new SignatureException("PASETO signature does not match any known key.");
+        }
+        return claims;
+    }
+
+    private static Claims tryKeys(List<PasetoTokenCodec> codecs, String token) {
+        for (PasetoTokenCodec codec : codecs) {
+            try {
+                return codec.verify(token);
+            } catch (SignatureException e) {
+                // signed by another key
+            }
+        }
+        return null;
+    }
+}
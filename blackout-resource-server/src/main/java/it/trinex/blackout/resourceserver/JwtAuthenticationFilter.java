@@ -0,0 +1,61 @@
+package it.trinex.blackout.resourceserver;
+
+import io.jsonwebtoken.Claims;
+import it.trinex.blackout.security.JwtClaimsAuthentication;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying a Blackout access token, from the Authorization header or the
+ * access cookie. Tokens are only verified: there is no refresh or re-issue on resource servers.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final BlackoutTokenVerifier tokenVerifier;
+    private final String cookieName;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+
+        String accessToken = null;
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            accessToken = authHeader.substring(7);
+        } else if (cookieName != null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (cookieName.equals(cookie.getName())) {
+                    accessToken = cookie.getValue();
+                }
+            }
+        }
+
+        if (accessToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            Claims claims = tokenVerifier.verifyAccessToken(accessToken);
+            if (claims != null) {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new JwtClaimsAuthentication(claims, tokenVerifier, request));
+                log.debug("User '{}' authenticated successfully for: {}", claims.getSubject(), request.getRequestURI());
+            } else {
+                log.debug("Invalid or expired token for request to: {}", request.getRequestURI());
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
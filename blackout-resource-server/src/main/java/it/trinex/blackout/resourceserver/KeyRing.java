@@ -0,0 +1,156 @@
+package it.trinex.blackout.resourceserver;
+
+import it.trinex.blackout.service.PasetoTokenCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.RestClient;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ed25519 verification keys for PASETO v4.public tokens.
+ *
+ * <p>Keys come from {@code blackout.resource-server.public-keys} and, when a JWKS URI is
+ * configured, from the issuer's key set. The key set is fetched at startup and refreshed on a
+ * background thread, so verification never waits on the network. A token signed by a key that is
+ * not known yet (e.g. right after a rotation) triggers an extra refresh, at most once per
+ * {@code min-key-refresh-interval}.</p>
+ *
+ * <p>Readers see an immutable snapshot; refreshes replace it as a whole. A failed fetch keeps
+ * the previous keys, and a malformed key in the set is skipped.</p>
+ */
+@Slf4j
+public class KeyRing {
+
+    // DER prefix of an X.509 SubjectPublicKeyInfo holding a raw 32-byte Ed25519 key
+    private static final byte[] ED25519_X509_PREFIX = HexFormat.of().parseHex("302a300506032b6570032100");
+
+    private final ResourceServerProperties properties;
+    private final RestClient restClient;
+    private final Map<String, PasetoTokenCodec> configuredCodecs;
+
+    private volatile List<PasetoTokenCodec> codecs;
+    private volatile long lastRefresh;
+    private ScheduledExecutorService scheduler;
+
+    public KeyRing(ResourceServerProperties properties, RestClient restClient) {
+        this.properties = properties;
+        this.restClient = restClient;
+        this.configuredCodecs = new LinkedHashMap<>();
+        for (String key : properties.getPublicKeys()) {
+            configuredCodecs.put(key, codecFor(Base64.getDecoder().decode(key)));
+        }
+        this.codecs = List.copyOf(configuredCodecs.values());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (properties.getJwksUri() == null) {
+            return;
+        }
+        refresh();
+        long interval = properties.getKeyRefreshInterval();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "blackout-key-ring");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("Key ring enabled (jwks: {}, refresh interval: {}ms)", properties.getJwksUri(), interval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Returns one v4.public codec per known key.
+     */
+    public List<PasetoTokenCodec> getCodecs() {
+        return codecs;
+    }
+
+    /**
+     * Refreshes the key set unless it was refreshed within the minimum interval.
+     *
+     * @return true if the key set was fetched
+     */
+    public boolean refreshIfStale() {
+        if (properties.getJwksUri() == null
+                || System.currentTimeMillis() - lastRefresh < properties.getMinKeyRefreshInterval()) {
+            return false;
+        }
+        synchronized (this) {
+            if (System.currentTimeMillis() - lastRefresh < properties.getMinKeyRefreshInterval()) {
+                return false;
+            }
+            refresh();
+            return true;
+        }
+    }
+
+    /**
+     * Fetches the key set and replaces the fetched keys. The configured keys are always kept.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void refresh() {
+        lastRefresh = System.currentTimeMillis();
+        try {
+            Map<String, Object> jwks = restClient.get().uri(properties.getJwksUri()).retrieve().body(Map.class);
+            List<PasetoTokenCodec> refreshed = new ArrayList<>(configuredCodecs.values());
+            if (jwks != null && jwks.get("keys") instanceof List<?> keys) {
+                for (Object key : keys) {
+                    if (key instanceof Map<?, ?> jwk && "OKP".equals(jwk.get("kty")) && "Ed25519".equals(jwk.get("crv"))
+                            && jwk.get("x") instanceof String x) {
+                        // One malformed key must not hide the others
+                        try {
+                            refreshed.add(codecFor(raw(Base64.getUrlDecoder().decode(x))));
+                        } catch (IllegalArgumentException | IllegalStateException e) {
+                            log.warn("Skipping invalid key {} from {}: {}", jwk.get("kid"), properties.getJwksUri(), e.getMessage());
+                        }
+                    }
+                }
+            }
+            codecs = List.copyOf(refreshed);
+            log.debug("Loaded {} verification keys from {}", refreshed.size(), properties.getJwksUri());
+        } catch (Exception e) {
+            log.warn("Failed to refresh key set from {}, keeping {} known keys: {}",
+                    properties.getJwksUri(), codecs.size(), e.getMessage());
+        }
+    }
+
+    private static byte[] raw(byte[] key) {
+        if (key.length != 32) {
+            throw new IllegalArgumentException("Ed25519 keys must be 32 bytes");
+        }
+        byte[] encoded = new byte[ED25519_X509_PREFIX.length + key.length];
+        System.arraycopy(ED25519_X509_PREFIX, 0, encoded, 0, ED25519_X509_PREFIX.length);
+        System.arraycopy(key, 0, encoded, ED25519_X509_PREFIX.length, key.length);
+        return encoded;
+    }
+
+    private static PasetoTokenCodec codecFor(byte[] x509) {
+        try {
+            PublicKey publicKey = KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(x509));
+            return new PasetoTokenCodec(null, null, publicKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid Ed25519 public key", e);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package it.trinex.blackout.resourceserver;
+
+import it.trinex.blackout.security.BlackoutPrincipalFactory;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.annotation.web.configurers.HttpBasicConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Verification-only setup for services that consume Blackout tokens.
+ * Backs off when the full Blackout starter is on the classpath, which issues and verifies tokens itself.
+ */
+@AutoConfiguration
+@EnableWebSecurity
+@EnableConfigurationProperties(ResourceServerProperties.class)
+@ConditionalOnMissingClass("it.trinex.blackout.service.JwtService")
+@ConditionalOnProperty(prefix = "blackout.resource-server", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ResourceServerAutoconfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public KeyRing blackoutKeyRing(ResourceServerProperties properties, ObjectProvider<RestClient.Builder> restClientBuilder) {
+        return new KeyRing(properties, restClientBuilder.getIfAvailable(RestClient::builder).build());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BlackoutTokenVerifier blackoutTokenVerifier(ResourceServerProperties properties,
+                                                       BlackoutPrincipalFactory<? extends UserDetails> principalFactory,
+                                                       KeyRing keyRing,
+                                                       ObjectProvider<RevocationNearCache> revocationCache) {
+        return new BlackoutTokenVerifier(properties, principalFactory, keyRing, revocationCache.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtAuthenticationFilter blackoutResourceServerFilter(BlackoutTokenVerifier tokenVerifier, ResourceServerProperties properties) {
+        return new JwtAuthenticationFilter(tokenVerifier, properties.getCookieName());
+    }
+
+    /**
+     * Stateless chain: the allowed paths are public, every other request needs a valid access token.
+     */
+    @Bean
+    @ConditionalOnMissingBean(SecurityFilterChain.class)
+    public SecurityFilterChain resourceServerFilterChain(HttpSecurity http,
+                                                         JwtAuthenticationFilter jwtAuthenticationFilter,
+                                                         ResourceServerProperties properties) throws Exception {
+        http
+                .csrf(AbstractHttpConfigurer::disable)
+                .httpBasic(HttpBasicConfigurer::disable)
+                .exceptionHandling(ex -> ex
+                        .authenticationEntryPoint((request, response, authException) ->
+                                response.sendError(HttpServletResponse.SC_UNAUTHORIZED)
+                        )
+                )
+                .authorizeHttpRequests(auth -> {
+                    if (!properties.getAllowedPaths().isEmpty()) {
+                        auth.requestMatchers(properties.getAllowedPaths().toArray(String[]::new)).permitAll();
+                    }
+                    auth.anyRequest().authenticated();
+                })
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
+    /**
+     * Revocation near-cache, only when spring-data-redis is present and revocations are enabled.
+     * Uses the application's RedisConnectionFactory, which must point at the issuer's Redis.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(RedisConnectionFactory.class)
+    @ConditionalOnProperty(prefix = "blackout.resource-server", name = "revocation-enabled", havingValue = "true")
+    static class RevocationConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RevocationNearCache revocationNearCache(RedisConnectionFactory connectionFactory) {
+            return new RevocationNearCache(new StringRedisTemplate(connectionFactory));
+        }
+
+        @Bean
+        public RedisMessageListenerContainer blackoutRevocationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                                 RevocationNearCache revocationNearCache,
+                                                                                 ResourceServerProperties properties) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener(revocationNearCache, new ChannelTopic(properties.getRevocationChannel()));
+            return container;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package it.trinex.blackout.resourceserver;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration properties for services that only verify Blackout tokens.
+ */
+@Data
+@ConfigurationProperties(prefix = "blackout.resource-server")
+public class ResourceServerProperties {
+
+    /**
+     * Whether the resource server filter and security chain are configured.
+     * Default: true
+     */
+    private boolean enabled = true;
+
+    /**
+     * Base64 HMAC secret shared with the issuer (blackout.jwt.secret). Required to verify
+     * JWT, CWT and PASETO v4.local tokens; may be left unset when only v4.public tokens are used.
+     * Only accepted together with {@link #allowSharedSecret}.
+     */
+    private String secret;
+
+    /**
+     * Whether the shared {@link #secret} may be configured. Anyone holding it can mint tokens the
+     * issuer and every other service accept, so by default only v4.public tokens, verified with
+     * public keys, are supported.
+     * Default: false
+     */
+    private boolean allowSharedSecret = false;
+
+    /**
+     * Base64 X.509 Ed25519 public keys accepted for PASETO v4.public tokens, in addition to
+     * those fetched from the key set endpoint.
+     */
+    private List<String> publicKeys = new ArrayList<>();
+
+    /**
+     * URL of the issuer's JSON Web Key Set (e.g. https://auth.example.com/auth/keys).
+     * When unset, only the configured public keys are used.
+     */
+    private String jwksUri;
+
+    /**
+     * Interval between background refreshes of the key set in milliseconds.
+     * Default: 3600000 (1 hour)
+     */
+    private long keyRefreshInterval = 3600000;
+
+    /**
+     * Minimum interval between two refreshes triggered by unknown keys in milliseconds,
+     * so that forged tokens cannot be used to flood the issuer.
+     * Default: 30000 (30 seconds)
+     */
+    private long minKeyRefreshInterval = 30000;
+
+    /**
+     * Whether revocations are followed through Redis. Requires spring-data-redis and a
+     * RedisConnectionFactory pointing at the issuer's Redis.
+     * Default: false
+     */
+    private boolean revocationEnabled = false;
+
+    /**
+     * Redis channel the issuer publishes revocations on.
+     * Default: blackout:revocations
+     */
+    private String revocationChannel = "blackout:revocations";
+
+    /**
+     * Name of the cookie read when the request has no Authorization header.
+     * Default: access_token
+     */
+    private String cookieName = "access_token";
+
+    /**
+     * Ant-style paths that do not require authentication when the default security chain is used.
+     */
+    private List<String> allowedPaths = new ArrayList<>();
+}
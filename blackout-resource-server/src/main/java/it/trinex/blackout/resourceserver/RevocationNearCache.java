@@ -0,0 +1,126 @@
+package it.trinex.blackout.resourceserver;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local copy of the issuer's access token revocation list.
+ *
+ * <p>The issuer publishes {@code jti:expiresAtEpochSeconds} on the revocation channel whenever it
+ * revokes an access token. This cache is subscribed to the channel and loads the revocations that
+ * already exist at startup by scanning the {@code revoked:access:*} keys, so checking a token is a
+ * map lookup instead of a Redis round trip. Entries are dropped once the token has expired.</p>
+ *
+ * <p>Revocations published while the subscription is down are missed until the next restart;
+ * the cache narrows the window of a revoked token, it does not replace short access token
+ * lifetimes.</p>
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RevocationNearCache implements MessageListener {
+
+    private static final String REVOKED_ACCESS_KEY_PREFIX = "revoked:access:";
+    private static final long PURGE_INTERVAL_MS = 60000;
+    private static final int PRELOAD_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        preload();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "blackout-revocation-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::purge, PURGE_INTERVAL_MS, PURGE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        log.info("Revocation near-cache enabled ({} revoked tokens loaded)", revoked.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    public boolean isRevoked(String jti) {
+        Long expiresAt = jti == null ? null : revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        try {
+            revoked.put(body.substring(0, separator), Long.parseLong(body.substring(separator + 1)) * 1000);
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed revocation message: {}", body);
+        }
+    }
+
+    private void preload() {
+        ScanOptions options = ScanOptions.scanOptions().match(REVOKED_ACCESS_KEY_PREFIX + "*").count(PRELOAD_BATCH_SIZE).build();
+        try (Cursor<String> keys = redisTemplate.scan(options)) {
+            List<String> batch = new ArrayList<>(PRELOAD_BATCH_SIZE);
+            while (keys.hasNext()) {
+                batch.add(keys.next());
+                if (batch.size() == PRELOAD_BATCH_SIZE) {
+                    load(batch);
+                    batch.clear();
+                }
+            }
+            load(batch);
+        } catch (Exception e) {
+            log.warn("Failed to load existing revocations from Redis: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the remaining lifetime of a batch of revocation keys with pipelined PTTL calls, one
+     * round trip per batch.
+     */
+    private void load(List<String> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<Object> ttls = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : batch) {
+                connection.keyCommands().pTtl(key.getBytes(StandardCharsets.UTF_8));
+            }
+            return null;
+        });
+        for (int i = 0; i < batch.size(); i++) {
+            if (ttls.get(i) instanceof Long ttl && ttl > 0) {
+                revoked.put(batch.get(i).substring(REVOKED_ACCESS_KEY_PREFIX.length()), now + ttl);
+            }
+        }
+    }
+
+    private void purge() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
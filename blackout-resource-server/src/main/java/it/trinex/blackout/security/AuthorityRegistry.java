@@ -0,0 +1,110 @@
+package it.trinex.blackout.security;
+
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global registry of interned authorities.
+ *
+ * <p>Every authority name is mapped once to a shared immutable {@link SimpleGrantedAuthority}
+ * and a small integer id, which is its bit in {@link AuthoritySet}. Role lists read from tokens
+ * are cached as ready-made sets, so rebuilding a principal allocates no authorities.</p>
+ */
+public final class AuthorityRegistry {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+
+    private static final int MAX_CACHED_ROLE_SETS = 4096;
+
+    private static final Map<String, Entry> AUTHORITIES = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> ROLE_IDS = new ConcurrentHashMap<>();
+    private static final Map<List<String>, AuthoritySet> ROLE_SETS = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private record Entry(SimpleGrantedAuthority authority, int id) {
+    }
+
+    private AuthorityRegistry() {
+    }
+
+    /**
+     * Returns the shared instance for {@code authority}.
+     */
+    public static SimpleGrantedAuthority intern(String authority) {
+        return entry(authority).authority();
+    }
+
+    /**
+     * Returns the bit id of {@code authority}, or -1 if it was never interned
+     * (in which case no {@link AuthoritySet} can contain it).
+     */
+    public static int idOf(String authority) {
+        Entry entry = AUTHORITIES.get(authority);
+        return entry == null ? -1 : entry.id();
+    }
+
+    /**
+     * Returns the bit id of the authority for {@code role}, adding the ROLE_ prefix when missing,
+     * or -1 if unknown.
+     */
+    public static int roleIdOf(String role) {
+        Integer cached = ROLE_IDS.get(role);
+        if (cached != null) {
+            return cached;
+        }
+        int id = idOf(role.startsWith(ROLE_PREFIX) ? role : ROLE_PREFIX + role);
+        if (id >= 0) {
+            ROLE_IDS.put(role, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the authorities for the given role names: each role as is and with the ROLE_ prefix.
+     */
+    public static AuthoritySet forRoles(List<String> roles) {
+        AuthoritySet cached = ROLE_SETS.get(roles);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<String> names = new ArrayList<>(roles.size() * 2);
+        for (String role : roles) {
+            names.add(role);
+            names.add(ROLE_PREFIX + role);
+        }
+        AuthoritySet authorities = of(names);
+        if (ROLE_SETS.size() < MAX_CACHED_ROLE_SETS) {
+            ROLE_SETS.putIfAbsent(List.copyOf(roles), authorities);
+        }
+        return authorities;
+    }
+
+    /**
+     * Returns the set of the given authority names.
+     */
+    public static AuthoritySet of(List<String> authorities) {
+        SimpleGrantedAuthority[] interned = new SimpleGrantedAuthority[authorities.size()];
+        int[] ids = new int[authorities.size()];
+        for (int i = 0; i < interned.length; i++) {
+            Entry entry = entry(authorities.get(i));
+            interned[i] = entry.authority();
+            ids[i] = entry.id();
+        }
+        return new AuthoritySet(interned, ids);
+    }
+
+    private static Entry entry(String authority) {
+        Entry entry = AUTHORITIES.get(authority);
+        if (entry != null) {
+            return entry;
+        }
+        return AUTHORITIES.computeIfAbsent(authority,
+                name -> new Entry(new SimpleGrantedAuthority(name), NEXT_ID.getAndIncrement()));
+    }
+}
@@ -0,0 +1,88 @@
+package it.trinex.blackout.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable collection of interned authorities backed by a bitset of their registry ids.
+ * Membership checks are a single bit test.
+ *
+ * @see AuthorityRegistry
+ */
+public final class AuthoritySet extends AbstractCollection<GrantedAuthority> {
+
+    private final SimpleGrantedAuthority[] authorities;
+    private final long[] bits;
+    private final int size;
+
+    AuthoritySet(SimpleGrantedAuthority[] authorities, int[] ids) {
+        int max = 0;
+        for (int id : ids) {
+            max = Math.max(max, id);
+        }
+        long[] bits = new long[(max >>> 6) + 1];
+        // Skip duplicates so iteration matches the set of distinct authorities
+        SimpleGrantedAuthority[] distinct = new SimpleGrantedAuthority[authorities.length];
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long mask = 1L << ids[i];
+            if ((bits[ids[i] >>> 6] & mask) == 0) {
+                bits[ids[i] >>> 6] |= mask;
+                distinct[size++] = authorities[i];
+            }
+        }
+        this.authorities = distinct;
+        this.bits = bits;
+        this.size = size;
+    }
+
+    /**
+     * Whether the set contains the authority with the given registry id.
+     */
+    public boolean containsId(int id) {
+        return id >= 0 && (id >>> 6) < bits.length && (bits[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public boolean containsAuthority(String authority) {
+        return containsId(AuthorityRegistry.idOf(authority));
+    }
+
+    public boolean containsRole(String role) {
+        return containsId(AuthorityRegistry.roleIdOf(role));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GrantedAuthority authority && authority.getAuthority() != null
+                && containsAuthority(authority.getAuthority());
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public GrantedAuthority next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                return authorities[index++];
+            }
+        };
+    }
+}
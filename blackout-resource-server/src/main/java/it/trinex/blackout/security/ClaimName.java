@@ -0,0 +1,18 @@
+package it.trinex.blackout.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the claim name of a principal field mapped by a generated {@link PrincipalClaimsMapper}.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.FIELD)
+public @interface ClaimName {
+
+    String value();
+}
@@ -0,0 +1,67 @@
+package it.trinex.blackout.security;
+
+/**
+ * Conversions of raw claim values used by generated {@link PrincipalClaimsMapper}s.
+ * Numbers may come back from JSON as any {@link Number} subtype, so they are narrowed here.
+ */
+public final class ClaimValues {
+
+    private ClaimValues() {
+    }
+
+    public static String asString(Object value) {
+        return value == null ? null : value instanceof String s ? s : value.toString();
+    }
+
+    public static Long asLong(Object value) {
+        return value == null ? null : asLongValue(value);
+    }
+
+    public static long asLongValue(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value == null ? 0L : Long.parseLong(value.toString());
+    }
+
+    public static Integer asInteger(Object value) {
+        return value == null ? null : asIntValue(value);
+    }
+
+    public static int asIntValue(Object value) {
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        return value == null ? 0 : Integer.parseInt(value.toString());
+    }
+
+    public static Double asDouble(Object value) {
+        return value == null ? null : asDoubleValue(value);
+    }
+
+    public static double asDoubleValue(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return value == null ? 0.0 : Double.parseDouble(value.toString());
+    }
+
+    public static Boolean asBoolean(Object value) {
+        return value == null ? null : asBooleanValue(value);
+    }
+
+    public static boolean asBooleanValue(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        return value != null && Boolean.parseBoolean(value.toString());
+    }
+
+    public static <E extends Enum<E>> E asEnum(Object value, Class<E> type) {
+        return value == null ? null : Enum.valueOf(type, value.toString());
+    }
+
+    public static String enumName(Enum<?> value) {
+        return value == null ? null : value.name();
+    }
+}
@@ -0,0 +1,17 @@
+package it.trinex.blackout.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Builds the principal and authorities of a {@link JwtClaimsAuthentication} from verified claims.
+ */
+public interface ClaimsPrincipalResolver {
+
+    UserDetails extractUserPrincipal(Claims claims);
+
+    Collection<? extends GrantedAuthority> extractAuthorities(Claims claims);
+}
@@ -0,0 +1,24 @@
+package it.trinex.blackout.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a {@link PrincipalClaimsMapper} for a {@link BlackoutUserPrincipal} subclass.
+ *
+ * <p>The generated class is named after the principal with a {@code ClaimsMapper} suffix and is
+ * placed in the same package. It decodes claims into the principal and encodes the custom fields
+ * into claims with plain getter and builder calls. The principal must use {@code @SuperBuilder}
+ * and Lombok getters.</p>
+ *
+ * <p>Every non-static, non-transient field declared below {@link BlackoutUserPrincipal} is mapped
+ * to a claim named after the field in snake_case, unless renamed with {@link ClaimName}.</p>
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateClaimsMapper {
+}
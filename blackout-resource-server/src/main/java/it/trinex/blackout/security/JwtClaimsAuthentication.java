@@ -0,0 +1,99 @@
+package it.trinex.blackout.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import java.util.Collection;
+
+/**
+ * {@link Authentication} built from the verified claims of an access token.
+ *
+ * <p>The principal, authorities and details are materialized on first access, so requests that
+ * only need to know the caller is authenticated never build a {@link BlackoutUserPrincipal}.
+ * Details are built from the current request and are meant to be read while it is processed.</p>
+ *
+ * <p>Materialization is not synchronized: concurrent first accesses may build the same value
+ * twice, which is harmless since it only depends on the claims.</p>
+ */
+public class JwtClaimsAuthentication implements Authentication {
+
+    private final transient Claims claims;
+    private final transient ClaimsPrincipalResolver resolver;
+    private transient HttpServletRequest request;
+
+    private UserDetails principal;
+    private Collection<? extends GrantedAuthority> authorities;
+    private WebAuthenticationDetails details;
+    private boolean authenticated = true;
+
+    public JwtClaimsAuthentication(Claims claims, ClaimsPrincipalResolver resolver, HttpServletRequest request) {
+        this.claims = claims;
+        this.resolver = resolver;
+        this.request = request;
+    }
+
+    /**
+     * Returns the verified claims of the access token.
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        if (authorities == null) {
+            authorities = principal != null ? principal.getAuthorities() : resolver.extractAuthorities(claims);
+        }
+        return authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        if (details == null && request != null) {
+            details = new WebAuthenticationDetailsSource().buildDetails(request);
+            request = null;
+        }
+        return details;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        if (principal == null) {
+            principal = resolver.extractUserPrincipal(claims);
+        }
+        return principal;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) throws IllegalArgumentException {
+        if (authenticated) {
+            throw new IllegalArgumentException("Cannot set this token to trusted, it is trusted from its claims only");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String getName() {
+        return claims.getSubject();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [Name=" + getName() + ", Authenticated=" + authenticated + "]";
+    }
+}
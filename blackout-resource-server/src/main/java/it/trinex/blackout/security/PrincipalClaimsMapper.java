@@ -0,0 +1,21 @@
+package it.trinex.blackout.security;
+
+import java.util.function.BiConsumer;
+
+/**
+ * {@link BlackoutPrincipalFactory} that also writes the custom claims of its principal type.
+ * When the configured factory is a mapper, tokens are built with {@link #writeClaims} instead of
+ * {@link BlackoutUserPrincipal#getExtraClaims()}.
+ *
+ * <p>Implementations are usually generated with {@link GenerateClaimsMapper}.</p>
+ */
+public interface PrincipalClaimsMapper<T extends BlackoutUserPrincipal> extends BlackoutPrincipalFactory<T> {
+
+    Class<T> principalType();
+
+    /**
+     * Writes the claims of the fields declared by the custom principal.
+     * Standard claims are written by {@code JwtService}.
+     */
+    void writeClaims(T principal, BiConsumer<String, Object> claims);
+}
@@ -0,0 +1,431 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact token format: a CBOR Web Token (RFC 8392) in a COSE_Mac0 structure (RFC 9052) with
+ * HMAC 256/256, Base64url-encoded behind the {@value #PREFIX} prefix.
+ *
+ * <p>Registered claims use their integer keys ({@code sub} 2, {@code exp} 4, {@code iat} 6,
+ * {@code cti} 7, the token id stored as 16 raw bytes), Blackout's own claims use integer keys in
+ * the private-use range and any other claim keeps its name as a text key. Verified tokens are
+ * returned as jjwt {@link Claims} with the usual claim names, so callers cannot tell the formats
+ * apart.</p>
+ *
+ * <p>{@link #sign} returns null for claim values it cannot encode (anything but strings,
+ * numbers, booleans and lists of those), in which case the caller issues a JWT instead.</p>
+ */
+public class CwtTokenCodec {
+
+    public static final String PREFIX = "cwt.";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    // Tag 17 (COSE_Mac0), array of 4, protected header bstr {1: 5} (alg: HMAC 256/256), unprotected {}
+    private static final byte[] COSE_PREFIX = {(byte) 0xd1, (byte) 0x84, 0x43, (byte) 0xa1, 0x01, 0x05, (byte) 0xa0};
+    // MAC_structure: ["MAC0", protected, external_aad (empty), payload]
+    private static final byte[] MAC_PREFIX = {(byte) 0x84, 0x64, 'M', 'A', 'C', '0', 0x43, (byte) 0xa1, 0x01, 0x05, 0x40};
+
+    private static final int KEY_SUB = 2;
+    private static final int KEY_EXP = 4;
+    private static final int KEY_NBF = 5;
+    private static final int KEY_IAT = 6;
+    private static final int KEY_CTI = 7;
+
+    private static final Map<String, Integer> KEYS = new HashMap<>();
+    private static final Map<Integer, String> NAMES = new HashMap<>();
+
+    static {
+        register(Claims.SUBJECT, KEY_SUB);
+        register(Claims.EXPIRATION, KEY_EXP);
+        register(Claims.NOT_BEFORE, KEY_NBF);
+        register(Claims.ISSUED_AT, KEY_IAT);
+        register(Claims.ID, KEY_CTI);
+        List<String> privateClaims = List.of("token_type", "auth_id", "user_id", "roles", "first_name", "last_name",
+                "passkey_enabled", "passwordless_enabled", "pv");
+        for (int i = 0; i < privateClaims.size(); i++) {
+            register(privateClaims.get(i), -65537 - i);
+        }
+    }
+
+    private final ThreadLocal<Mac> mac;
+
+    public CwtTokenCodec(byte[] secret) {
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    private static void register(String name, int key) {
+        KEYS.put(name, key);
+        NAMES.put(key, name);
+    }
+
+    /**
+     * Builds a token from alternating claim names and values plus the per-token claims.
+     *
+     * @return the token, or null if a claim value cannot be encoded
+     */
+    public String sign(List<Object> claims, String jti, long issuedAt, long expiration) {
+        CborWriter payload = new CborWriter();
+        payload.header(5, claims.size() / 2 + 3);
+        for (int i = 0; i < claims.size(); i += 2) {
+            writeKey(payload, (String) claims.get(i));
+            if (!payload.value(claims.get(i + 1))) {
+                return null;
+            }
+        }
+        payload.integer(KEY_CTI);
+        payload.bytes(tokenId(jti));
+        payload.integer(KEY_IAT);
+        payload.integer(issuedAt);
+        payload.integer(KEY_EXP);
+        payload.integer(expiration);
+
+        CborWriter payloadItem = new CborWriter();
+        payloadItem.bytes(payload.toByteArray());
+        byte[] payloadBytes = payloadItem.toByteArray();
+
+        ByteArrayOutputStream token = new ByteArrayOutputStream(COSE_PREFIX.length + payloadBytes.length + MAC_LENGTH + 2);
+        token.writeBytes(COSE_PREFIX);
+        token.writeBytes(payloadBytes);
+        token.write(0x58);
+        token.write(MAC_LENGTH);
+        token.writeBytes(mac(payloadBytes, 0, payloadBytes.length));
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(token.toByteArray());
+    }
+
+    /**
+     * Verifies a token carrying the {@value #PREFIX} prefix and returns its claims.
+     *
+     * @throws MalformedJwtException if the token is not a COSE_Mac0 CWT in Blackout's format
+     * @throws SignatureException if the MAC does not match
+     * @throws ExpiredJwtException if the token is expired
+     */
+    public Claims verify(String token) {
+        byte[] data;
+        try {
+            data = Base64.getUrlDecoder().decode(token.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid CWT encoding", e);
+        }
+
+        CborReader reader = new CborReader(data);
+        for (byte expected : COSE_PREFIX) {
+            if (reader.next() != expected) {
+                throw new MalformedJwtException("Unsupported COSE structure");
+            }
+        }
+        int payloadStart = reader.pos;
+        byte[] payload = reader.bytes();
+        int payloadEnd = reader.pos;
+        byte[] tag = reader.bytes();
+        if (reader.pos != data.length || tag.length != MAC_LENGTH) {
+            throw new MalformedJwtException("Unsupported COSE structure");
+        }
+
+        byte[] expected = mac(data, payloadStart, payloadEnd - payloadStart);
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= expected[i] ^ tag[i];
+        }
+        if (diff != 0) {
+            throw new SignatureException("CWT MAC does not match locally computed MAC.");
+        }
+
+        Map<String, Object> values = readClaims(new CborReader(payload));
+        Claims claims = Jwts.claims().add(values).build();
+        long now = System.currentTimeMillis();
+        if (values.get(Claims.EXPIRATION) instanceof Number exp && now > exp.longValue() * 1000) {
+            throw new ExpiredJwtException(null, claims, "CWT expired at " + claims.getExpiration().toInstant() + ".");
+        }
+        if (values.get(Claims.NOT_BEFORE) instanceof Number nbf && now < nbf.longValue() * 1000) {
+            throw new PrematureJwtException(null, claims, "CWT must not be accepted before " + claims.getNotBefore().toInstant() + ".");
+        }
+        return claims;
+    }
+
+    private byte[] mac(byte[] payloadItem, int offset, int length) {
+        Mac instance = mac.get();
+        instance.update(MAC_PREFIX);
+        instance.update(payloadItem, offset, length);
+        return instance.doFinal();
+    }
+
+    private static void writeKey(CborWriter writer, String name) {
+        Integer key = KEYS.get(name);
+        if (key != null) {
+            writer.integer(key);
+        } else {
+            writer.text(name);
+        }
+    }
+
+    private static Map<String, Object> readClaims(CborReader reader) {
+        int size = (int) reader.header(5);
+        Map<String, Object> values = new LinkedHashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            Object key = reader.value();
+            String name = key instanceof String text ? text : NAMES.get(key instanceof Number number ? number.intValue() : null);
+            if (name == null) {
+                throw new MalformedJwtException("Unknown CWT claim key: " + key);
+            }
+            Object value = reader.value();
+            if (name.equals(Claims.ID) && value instanceof byte[] id) {
+                value = tokenId(id);
+            }
+            values.put(name, value);
+        }
+        if (reader.pos != reader.data.length) {
+            throw new MalformedJwtException("Trailing data after CWT claims");
+        }
+        return values;
+    }
+
+    private static byte[] tokenId(String jti) {
+        try {
+            UUID uuid = UUID.fromString(jti);
+            if (uuid.toString().equals(jti)) {
+                return ByteBuffer.allocate(16)
+                        .putLong(uuid.getMostSignificantBits())
+                        .putLong(uuid.getLeastSignificantBits())
+                        .array();
+            }
+        } catch (IllegalArgumentException ignored) {
+            // Not a UUID, stored as its UTF-8 bytes
+        }
+        return jti.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String tokenId(byte[] id) {
+        if (id.length == 16) {
+            ByteBuffer buffer = ByteBuffer.wrap(id);
+            return new UUID(buffer.getLong(), buffer.getLong()).toString();
+        }
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the subset of CBOR used by tokens: integers, strings, booleans, doubles and arrays.
+     */
+    private static final class CborWriter {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+        private boolean value(Object value) {
+            switch (value) {
+                case String text -> text(text);
+                case Integer number -> integer(number);
+                case Long number -> integer(number);
+                case Boolean bool -> out.write(bool ? 0xf5 : 0xf4);
+                case Double number -> {
+                    out.write(0xfb);
+                    long bits = Double.doubleToLongBits(number);
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        out.write((int) (bits >>> shift));
+                    }
+                }
+                case List<?> list -> {
+                    header(4, list.size());
+                    for (Object element : list) {
+                        if (element == null || !value(element)) {
+                            return false;
+                        }
+                    }
+                }
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void integer(long value) {
+            if (value >= 0) {
+                header(0, value);
+            } else {
+                header(1, -1 - value);
+            }
+        }
+
+        private void text(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            header(3, bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        private void bytes(byte[] value) {
+            header(2, value.length);
+            out.writeBytes(value);
+        }
+
+        private void header(int majorType, long argument) {
+            int type = majorType << 5;
+            if (argument < 24) {
+                out.write(type | (int) argument);
+            } else if (argument < 0x100) {
+                out.write(type | 24);
+                out.write((int) argument);
+            } else if (argument < 0x10000) {
+                out.write(type | 25);
+                out.write((int) (argument >>> 8));
+                out.write((int) argument);
+            } else if (argument < 0x100000000L) {
+                out.write(type | 26);
+                for (int shift = 24; shift >= 0; shift -= 8) {
+                    out.write((int) (argument >>> shift));
+                }
+            } else {
+                out.write(type | 27);
+                for (int shift = 56; shift >= 0; shift -= 8) {
+                    out.write((int) (argument >>> shift));
+                }
+            }
+        }
+
+        private byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Reads the subset of CBOR written by {@link CborWriter}. Integers are read as {@link Integer}
+     * or {@link Long}, like the JSON readers do, so claim conversions behave the same.
+     */
+    private static final class CborReader {
+
+        private final byte[] data;
+        private int pos;
+
+        private CborReader(byte[] data) {
+            this.data = data;
+        }
+
+        private byte next() {
+            if (pos >= data.length) {
+                throw new MalformedJwtException("Truncated CWT");
+            }
+            return data[pos++];
+        }
+
+        private Object value() {
+            if (pos >= data.length) {
+                throw new MalformedJwtException("Truncated CWT");
+            }
+            int initial = data[pos] & 0xff;
+            int majorType = initial >>> 5;
+            switch (majorType) {
+                case 0 -> {
+                    return number(header(0));
+                }
+                case 1 -> {
+                    return number(-1 - header(1));
+                }
+                case 2 -> {
+                    return bytes();
+                }
+                case 3 -> {
+                    int length = (int) header(3);
+                    String text = new String(data, pos, checkLength(length), StandardCharsets.UTF_8);
+                    pos += length;
+                    return text;
+                }
+                case 4 -> {
+                    int size = (int) header(4);
+                    List<Object> list = new ArrayList<>(Math.min(size, 64));
+                    for (int i = 0; i < size; i++) {
+                        list.add(value());
+                    }
+                    return list;
+                }
+                case 7 -> {
+                    pos++;
+                    if (initial == 0xf4 || initial == 0xf5) {
+                        return initial == 0xf5;
+                    }
+                    if (initial == 0xfb) {
+                        long bits = 0;
+                        for (int i = 0; i < 8; i++) {
+                            bits = (bits << 8) | (next() & 0xff);
+                        }
+                        return Double.longBitsToDouble(bits);
+                    }
+                    throw new MalformedJwtException("Unsupported CBOR simple value");
+                }
+                default -> throw new MalformedJwtException("Unsupported CBOR major type " + majorType);
+            }
+        }
+
+        private byte[] bytes() {
+            int length = (int) header(2);
+            byte[] bytes = new byte[checkLength(length)];
+            System.arraycopy(data, pos, bytes, 0, length);
+            pos += length;
+            return bytes;
+        }
+
+        private long header(int expectedType) {
+            int initial = next() & 0xff;
+            if (initial >>> 5 != expectedType) {
+                throw new MalformedJwtException("Unexpected CBOR item");
+            }
+            int info = initial & 0x1f;
+            if (info < 24) {
+                return info;
+            }
+            int size = switch (info) {
+                case 24 -> 1;
+                case 25 -> 2;
+                case 26 -> 4;
+                case 27 -> 8;
+                default -> throw new MalformedJwtException("Unsupported CBOR length");
+            };
+            long argument = 0;
+            for (int i = 0; i < size; i++) {
+                argument = (argument << 8) | (next() & 0xff);
+            }
+            if (argument < 0 || (expectedType >= 2 && argument > Integer.MAX_VALUE)) {
+                throw new MalformedJwtException("CBOR value out of range");
+            }
+            return argument;
+        }
+
+        private int checkLength(int length) {
+            if (length > data.length - pos) {
+                throw new MalformedJwtException("Truncated CWT");
+            }
+            return length;
+        }
+
+        private static Object number(long value) {
+            return value == (int) value ? (Object) (int) value : (Object) value;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package it.trinex.blackout.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HS256 signer for Blackout's own tokens that reuses the serialized static claims.
+ *
+ * <p>Tokens issued for the same principal only differ in {@code jti}, {@code iat} and
+ * {@code exp}. The other claims are serialized to JSON once and cached, keyed by their values,
+ * so any change to the principal produces a new template. Each signature then only appends the
+ * dynamic fields, Base64url-encodes the payload and computes the HMAC with a per-thread
+ * {@link Mac}.</p>
+ *
+ * <p>{@link #sign} returns null when a claim value has a type the JSON writer does not handle,
+ * in which case the caller uses jjwt.</p>
+ */
+public class HmacJwtSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_TEMPLATES = 10_000;
+    private static final byte[] UNSUPPORTED = new byte[0];
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final byte[] HEADER = (ENCODER.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + ".")
+            .getBytes(StandardCharsets.US_ASCII);
+
+    private final ThreadLocal<Mac> mac;
+    private final Map<List<Object>, byte[]> templates = new ConcurrentHashMap<>();
+
+    public HmacJwtSigner(byte[] secret) {
+        SecretKeySpec key = new SecretKeySpec(secret, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(key);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+
+    /**
+     * Signs a token.
+     *
+     * @param claims the static claims as alternating names and non-null values, in output order
+     * @param jti the token id
+     * @param issuedAt issue time in epoch seconds
+     * @param expiration expiration time in epoch seconds
+     * @return the compact token, or null if a claim value cannot be serialized here
+     */
+    public String sign(List<Object> claims, String jti, long issuedAt, long expiration) {
+        byte[] template = templates.get(claims);
+        if (template == null) {
+            template = serialize(claims);
+            if (templates.size() >= MAX_TEMPLATES) {
+                templates.clear();
+            }
+            templates.put(List.copyOf(claims), template);
+        }
+        if (template == UNSUPPORTED) {
+            return null;
+        }
+
+        byte[] dynamic = ((template.length > 0 ? "," : "") + "\"jti\":\"" + escape(jti) + "\",\"iat\":" + issuedAt
+                + ",\"exp\":" + expiration + "}").getBytes(StandardCharsets.UTF_8);
+        byte[] payload = new byte[1 + template.length + dynamic.length];
+        payload[0] = '{';
+        System.arraycopy(template, 0, payload, 1, template.length);
+        System.arraycopy(dynamic, 0, payload, 1 + template.length, dynamic.length);
+
+        byte[] encodedPayload = ENCODER.encode(payload);
+        byte[] token = new byte[HEADER.length + encodedPayload.length + 1 + 43];
+        System.arraycopy(HEADER, 0, token, 0, HEADER.length);
+        System.arraycopy(encodedPayload, 0, token, HEADER.length, encodedPayload.length);
+        int signingInputLength = HEADER.length + encodedPayload.length;
+
+        Mac hmac = mac.get();
+        hmac.update(token, 0, signingInputLength);
+        byte[] signature = ENCODER.encode(hmac.doFinal());
+        token[signingInputLength] = '.';
+        System.arraycopy(signature, 0, token, signingInputLength + 1, signature.length);
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Serializes the claims as the inside of a JSON object, without braces.
+     * Returns an empty array if a value cannot be serialized.
+     */
+    static byte[] serialize(List<Object> claims) {
+        StringBuilder json = new StringBuilder(256);
+        for (int i = 0; i < claims.size(); i += 2) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(escape((String) claims.get(i))).append("\":");
+            if (!writeValue(json, claims.get(i + 1))) {
+                return UNSUPPORTED;
+            }
+        }
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean writeValue(StringBuilder json, Object value) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof String string) {
+            json.append('"').append(escape(string)).append('"');
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            json.append(value);
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                return false;
+            }
+            json.append(value);
+        } else if (value instanceof Enum<?> constant) {
+            json.append('"').append(escape(constant.name())).append('"');
+        } else if (value instanceof Collection<?> collection) {
+            json.append('[');
+            boolean first = true;
+            for (Object item : collection) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                if (!writeValue(json, item)) {
+                    return false;
+                }
+            }
+            json.append(']');
+        } else if (value.getClass().isArray()) {
+            json.append('[');
+            for (int i = 0; i < Array.getLength(value); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                if (!writeValue(json, Array.get(value, i))) {
+                    return false;
+                }
+            }
+            json.append(']');
+        } else if (value instanceof Map<?, ?> map) {
+            json.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    return false;
+                }
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append('"').append(escape(key)).append("\":");
+                if (!writeValue(json, entry.getValue())) {
+                    return false;
+                }
+            }
+            json.append('}');
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                case '\b' -> "\\b";
+                case '\f' -> "\\f";
+                default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            };
+            if (replacement != null && escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (escaped != null) {
+                if (replacement != null) {
+                    escaped.append(replacement);
+                } else {
+                    escaped.append(c);
+                }
+            }
+        }
+        return escaped == null ? value : escaped.toString();
+    }
+}
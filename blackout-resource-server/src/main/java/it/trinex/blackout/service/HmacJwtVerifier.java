@@ -0,0 +1,385 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifier for the HS256 tokens Blackout issues itself, used before the generic jjwt parser.
+ *
+ * <p>The header is compared as raw text against the headers Blackout emits, so it is never
+ * parsed. The HMAC is computed over the token characters with a per-thread {@link Mac} and
+ * compared in constant time, and the payload is Base64url-decoded into a per-thread buffer and
+ * read by a small JSON reader that checks the expiration while it reads.</p>
+ *
+ * <p>{@link #verify} returns null for anything it does not recognise (other headers, malformed
+ * input, {@code nbf} claims), in which case the caller falls back to jjwt. A bad signature or an
+ * expired token fail with the same exceptions jjwt throws. A token is expired when the current
+ * time is after {@code exp}, as in jjwt with no allowed clock skew.</p>
+ */
+public class HmacJwtVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final byte[] DECODE = new byte[128];
+    private static final List<String> HEADERS = List.of(
+            encodeHeader("{\"alg\":\"HS256\"}"),
+            encodeHeader("{\"typ\":\"JWT\",\"alg\":\"HS256\"}"),
+            encodeHeader("{\"alg\":\"HS256\",\"typ\":\"JWT\"}"));
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Scratch> scratch;
+
+    private static final class Scratch {
+        private final Mac mac;
+        private final byte[] expected = new byte[MAC_LENGTH];
+        private final byte[] actual = new byte[MAC_LENGTH + 2];
+        private byte[] signingInput = new byte[512];
+        private byte[] payload = new byte[512];
+
+        private Scratch(SecretKeySpec key) {
+            try {
+                this.mac = Mac.getInstance(ALGORITHM);
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        }
+    }
+
+    public HmacJwtVerifier(byte[] secret) {
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(key));
+    }
+
+    /**
+     * Verifies the token and returns its claims, or null when the token must go through jjwt.
+     *
+     * @throws SignatureException if the signature does not match
+     * @throws ExpiredJwtException if the token is expired
+     */
+    public Claims verify(String token) {
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.indexOf('.', secondDot + 1) >= 0 || !isKnownHeader(token, firstDot)) {
+            return null;
+        }
+
+        Scratch buffers = scratch.get();
+
+        // Signature: HMAC over the ASCII signing input, compared in constant time
+        if (token.length() - secondDot - 1 != 43) {
+            return null;
+        }
+        byte[] signingInput = buffers.signingInput.length >= secondDot
+                ? buffers.signingInput : (buffers.signingInput = new byte[secondDot * 2]);
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 127) {
+                return null;
+            }
+            signingInput[i] = (byte) c;
+        }
+        buffers.mac.update(signingInput, 0, secondDot);
+        try {
+            buffers.mac.doFinal(buffers.expected, 0);
+        } catch (GeneralSecurityException e) {
+            buffers.mac.reset();
+            return null;
+        }
+        if (decode(token, secondDot + 1, token.length(), buffers.actual) != MAC_LENGTH) {
+            return null;
+        }
+        int diff = 0;
+        for (int i = 0; i < MAC_LENGTH; i++) {
+            diff |= buffers.expected[i] ^ buffers.actual[i];
+        }
+        if (diff != 0) {
+            throw new SignatureException("JWT signature does not match locally computed signature.");
+        }
+
+        // Payload
+        int maxLength = (secondDot - firstDot - 1) * 3 / 4 + 3;
+        byte[] payload = buffers.payload.length >= maxLength ? buffers.payload : (buffers.payload = new byte[maxLength * 2]);
+        int length = decode(token, firstDot + 1, secondDot, payload);
+        if (length < 0) {
+            return null;
+        }
+
+        Map<String, Object> values;
+        try {
+            values = new JsonReader(payload, length).readClaims();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (values == null || values.containsKey(Claims.NOT_BEFORE)) {
+            return null;
+        }
+
+        // Same rule as jjwt without clock skew: expired once the current time is past exp
+        Claims claims = Jwts.claims().add(values).build();
+        if (values.get(Claims.EXPIRATION) instanceof Number exp && System.currentTimeMillis() > exp.longValue() * 1000) {
+            throw new ExpiredJwtException(null, claims, "JWT expired at " + claims.getExpiration().toInstant() + ".");
+        }
+        return claims;
+    }
+
+    private static boolean isKnownHeader(String token, int firstDot) {
+        for (String header : HEADERS) {
+            if (header.length() == firstDot && token.startsWith(header)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes unpadded Base64url from {@code source[from, to)} into {@code target}.
+     *
+     * @return the number of bytes written, or -1 if the input is invalid or too long
+     */
+    private static int decode(String source, int from, int to, byte[] target) {
+        int length = to - from;
+        if (length % 4 == 1 || length * 3 / 4 > target.length) {
+            return -1;
+        }
+        int out = 0;
+        int bits = 0;
+        int buffered = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            buffered += 6;
+            if (buffered >= 8) {
+                buffered -= 8;
+                target[out++] = (byte) (bits >> buffered);
+            }
+        }
+        return out;
+    }
+
+    private static String encodeHeader(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Minimal streaming JSON reader for a claims object. Numbers are read as {@link Integer},
+     * {@link Long} or {@link Double}, like Jackson does, so claim conversions behave the same.
+     * Also used for PASETO payloads.
+     */
+    static final class JsonReader {
+
+        private final byte[] data;
+        private final int length;
+        private int pos;
+
+        JsonReader(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        Map<String, Object> readClaims() {
+            skipWhitespace();
+            if (peek() != '{') {
+                return null;
+            }
+            Map<String, Object> claims = readObject();
+            skipWhitespace();
+            return pos == length ? claims : null;
+        }
+
+        private Object readValue() {
+            skipWhitespace();
+            byte c = peek();
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    expect("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expect("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expect("null");
+                    return null;
+                default:
+                    return readNumber();
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return object;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw new IllegalArgumentException("Expected member name");
+                }
+                String name = readString();
+                skipWhitespace();
+                if (next() != ':') {
+                    throw new IllegalArgumentException("Expected ':'");
+                }
+                object.put(name, readValue());
+                skipWhitespace();
+                byte c = next();
+                if (c == '}') {
+                    return object;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return array;
+            }
+            while (true) {
+                array.add(readValue());
+                skipWhitespace();
+                byte c = next();
+                if (c == ']') {
+                    return array;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("Expected ',' or ']'");
+                }
+            }
+        }
+
+        private String readString() {
+            pos++;
+            int start = pos;
+            // Fast path: no escapes
+            while (pos < length && data[pos] != '"' && data[pos] != '\\') {
+                pos++;
+            }
+            if (pos < length && data[pos] == '"') {
+                return new String(data, start, pos++ - start, StandardCharsets.UTF_8);
+            }
+
+            StringBuilder value = new StringBuilder(new String(data, start, pos - start, StandardCharsets.UTF_8));
+            while (true) {
+                byte c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    int runStart = pos - 1;
+                    while (pos < length && data[pos] != '"' && data[pos] != '\\') {
+                        pos++;
+                    }
+                    value.append(new String(data, runStart, pos - runStart, StandardCharsets.UTF_8));
+                    continue;
+                }
+                byte escaped = next();
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append((char) escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > length) {
+                            throw new IllegalArgumentException("Truncated escape");
+                        }
+                        value.append((char) Integer.parseInt(new String(data, pos, 4, StandardCharsets.US_ASCII), 16));
+                        pos += 4;
+                    }
+                    default -> throw new IllegalArgumentException("Invalid escape");
+                }
+            }
+        }
+
+        private Number readNumber() {
+            int start = pos;
+            boolean decimal = false;
+            while (pos < length) {
+                byte c = data[pos];
+                if (c == '.' || c == 'e' || c == 'E') {
+                    decimal = true;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                pos++;
+            }
+            if (start == pos) {
+                throw new IllegalArgumentException("Unexpected character");
+            }
+            String text = new String(data, start, pos - start, StandardCharsets.US_ASCII);
+            if (decimal) {
+                return Double.parseDouble(text);
+            }
+            long value = Long.parseLong(text);
+            return value == (int) value ? (Number) (int) value : (Number) value;
+        }
+
+        private void expect(String literal) {
+            for (int i = 0; i < literal.length(); i++) {
+                if (next() != literal.charAt(i)) {
+                    throw new IllegalArgumentException("Unexpected literal");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < length && (data[pos] == ' ' || data[pos] == '\t' || data[pos] == '\n' || data[pos] == '\r')) {
+                pos++;
+            }
+        }
+
+        private byte peek() {
+            if (pos >= length) {
+                throw new IllegalArgumentException("Unexpected end of input");
+            }
+            return data[pos];
+        }
+
+        private byte next() {
+            byte c = peek();
+            pos++;
+            return c;
+        }
+    }
+}
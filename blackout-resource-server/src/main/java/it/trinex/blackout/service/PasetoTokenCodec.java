@@ -0,0 +1,474 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.ChaCha20ParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PASETO version 4 tokens: {@code v4.public} (Ed25519 signatures) and {@code v4.local}
+ * (XChaCha20 encryption with a BLAKE2b MAC).
+ *
+ * <p>Each version and purpose has exactly one algorithm, so there is no header to parse and no
+ * algorithm to negotiate: the prefix selects the verification path. The payload is the same JSON
+ * claim set as Blackout's JWTs, except that {@code iat}, {@code exp} and {@code nbf} are RFC 3339
+ * date-times as PASETO requires; they are converted back to epoch seconds so the returned
+ * {@link Claims} look like those of a JWT. Footers are accepted and authenticated but not
+ * returned; implicit assertions are not used.</p>
+ *
+ * <p>XChaCha20 is built from an HChaCha20 subkey and the JDK's ChaCha20 cipher, and BLAKE2b is
+ * implemented here, so no extra provider is required.</p>
+ */
+public class PasetoTokenCodec {
+
+    public static final String PUBLIC_HEADER = "v4.public.";
+    public static final String LOCAL_HEADER = "v4.local.";
+
+    private static final int SIGNATURE_LENGTH = 64;
+    private static final int NONCE_LENGTH = 32;
+    private static final int TAG_LENGTH = 32;
+    private static final byte[] ENCRYPTION_KEY_INFO = "paseto-encryption-key".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LOCAL_KEY_INFO = "blackout-paseto-v4-local".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AUTH_KEY_INFO = "paseto-auth-key-for-aead".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PUBLIC_HEADER_BYTES = PUBLIC_HEADER.getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LOCAL_HEADER_BYTES = LOCAL_HEADER.getBytes(StandardCharsets.US_ASCII);
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    private final byte[] localKey;
+    private final PrivateKey signingKey;
+    private final PublicKey verificationKey;
+
+    /**
+     * @param localKey the 32-byte {@code v4.local} key, or null if local tokens are not used
+     * @param signingKey the Ed25519 private key, or null if this node only verifies
+     * @param verificationKey the Ed25519 public key, or null if public tokens are not used
+     */
+    public PasetoTokenCodec(byte[] localKey, PrivateKey signingKey, PublicKey verificationKey) {
+        if (localKey != null && localKey.length != 32) {
+            throw new IllegalArgumentException("PASETO v4.local keys must be 32 bytes");
+        }
+        this.localKey = localKey;
+        this.signingKey = signingKey;
+        this.verificationKey = verificationKey;
+    }
+
+    /**
+     * Derives the {@code v4.local} key from the shared HMAC secret, so issuers and resource
+     * servers configured with the same secret agree on it without a second key to distribute.
+     */
+    public static byte[] deriveLocalKey(byte[] secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(LOCAL_KEY_INFO);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive the PASETO v4.local key", e);
+        }
+    }
+
+    public static boolean isPaseto(String token) {
+        return token.startsWith(PUBLIC_HEADER) || token.startsWith(LOCAL_HEADER);
+    }
+
+    /**
+     * Builds a {@code v4.public} token.
+     *
+     * @param claims the claims as alternating names and non-null values, in output order
+     * @return the token, or null if a claim value cannot be serialized
+     */
+    public String signPublic(List<Object> claims, String jti, long issuedAt, long expiration) {
+        if (signingKey == null) {
+            throw new IllegalStateException("No Ed25519 private key configured for PASETO v4.public tokens");
+        }
+        byte[] message = payload(claims, jti, issuedAt, expiration);
+        if (message == null) {
+            return null;
+        }
+        try {
+            Signature signer = Signature.getInstance("Ed25519");
+            signer.initSign(signingKey);
+            signer.update(pae(PUBLIC_HEADER_BYTES, message, new byte[0], new byte[0]));
+            byte[] signature = signer.sign();
+            return PUBLIC_HEADER + ENCODER.encodeToString(concat(message, signature));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign PASETO token", e);
+        }
+    }
+
+    /**
+     * Builds a {@code v4.local} token.
+     *
+     * @param claims the claims as alternating names and non-null values, in output order
+     * @return the token, or null if a claim value cannot be serialized
+     */
+    public String encryptLocal(List<Object> claims, String jti, long issuedAt, long expiration) {
+        if (localKey == null) {
+            throw new IllegalStateException("No key configured for PASETO v4.local tokens");
+        }
+        byte[] message = payload(claims, jti, issuedAt, expiration);
+        if (message == null) {
+            return null;
+        }
+        byte[] nonce = new byte[NONCE_LENGTH];
+        SECURE_RANDOM.nextBytes(nonce);
+
+        byte[][] keys = splitKeys(nonce);
+        byte[] ciphertext = xchacha20(keys[0], keys[1], message);
+        byte[] preAuth = pae(LOCAL_HEADER_BYTES, nonce, ciphertext, new byte[0], new byte[0]);
+        byte[] tag = Blake2b.mac(keys[2], preAuth, TAG_LENGTH);
+        return LOCAL_HEADER + ENCODER.encodeToString(concat(nonce, ciphertext, tag));
+    }
+
+    /**
+     * Verifies or decrypts a {@code v4.public} or {@code v4.local} token and returns its claims.
+     *
+     * @throws MalformedJwtException if the token is not a well-formed v4 token
+     * @throws SignatureException if the signature or MAC does not match
+     * @throws ExpiredJwtException if the token is expired
+     */
+    public Claims verify(String token) {
+        boolean local = token.startsWith(LOCAL_HEADER);
+        int headerLength = local ? LOCAL_HEADER.length() : PUBLIC_HEADER.length();
+        int footerDot = token.indexOf('.', headerLength);
+        byte[] body = decode(token.substring(headerLength, footerDot < 0 ? token.length() : footerDot));
+        byte[] footer = footerDot < 0 ? new byte[0] : decode(token.substring(footerDot + 1));
+
+        byte[] message = local ? decrypt(body, footer) : verifySignature(body, footer);
+
+        Map<String, Object> values;
+        try {
+            values = new HmacJwtVerifier.JsonReader(message, message.length).readClaims();
+            if (values == null) {
+                throw new MalformedJwtException("PASETO payload is not a JSON object");
+            }
+            for (String name : List.of(Claims.ISSUED_AT, Claims.EXPIRATION, Claims.NOT_BEFORE)) {
+                if (values.get(name) instanceof String dateTime) {
+                    values.put(name, OffsetDateTime.parse(dateTime).toEpochSecond());
+                }
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new MalformedJwtException("Invalid PASETO payload", e);
+        }
+
+        Claims claims = Jwts.claims().add(values).build();
+        long now = System.currentTimeMillis();
+        if (values.get(Claims.EXPIRATION) instanceof Number exp && now > exp.longValue() * 1000) {
+            throw new ExpiredJwtException(null, claims, "PASETO token expired at " + claims.getExpiration().toInstant() + ".");
+        }
+        if (values.get(Claims.NOT_BEFORE) instanceof Number nbf && now < nbf.longValue() * 1000) {
+            throw new PrematureJwtException(null, claims, "PASETO token must not be accepted before " + claims.getNotBefore().toInstant() + ".");
+        }
+        return claims;
+    }
+
+    private byte[] verifySignature(byte[] body, byte[] footer) {
+        if (verificationKey == null) {
+            throw new MalformedJwtException("No Ed25519 public key configured for PASETO v4.public tokens");
+        }
+        if (body.length < SIGNATURE_LENGTH) {
+            throw new MalformedJwtException("PASETO token is too short");
+        }
+        byte[] message = Arrays.copyOfRange(body, 0, body.length - SIGNATURE_LENGTH);
+        byte[] signature = Arrays.copyOfRange(body, body.length - SIGNATURE_LENGTH, body.length);
+        boolean valid;
+        try {
+            Signature verifier = Signature.getInstance("Ed25519");
+            verifier.initVerify(verificationKey);
+            verifier.update(pae(PUBLIC_HEADER_BYTES, message, footer, new byte[0]));
+            valid = verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            valid = false;
+        }
+        if (!valid) {
+            throw new SignatureException("PASETO signature does not match.");
+        }
+        return message;
+    }
+
+    private byte[] decrypt(byte[] body, byte[] footer) {
+        if (localKey == null) {
+            throw new MalformedJwtException("No key configured for PASETO v4.local tokens");
+        }
+        if (body.length < NONCE_LENGTH + TAG_LENGTH) {
+            throw new MalformedJwtException("PASETO token is too short");
+        }
+        byte[] nonce = Arrays.copyOfRange(body, 0, NONCE_LENGTH);
+        byte[] ciphertext = Arrays.copyOfRange(body, NONCE_LENGTH, body.length - TAG_LENGTH);
+        byte[] tag = Arrays.copyOfRange(body, body.length - TAG_LENGTH, body.length);
+
+        byte[][] keys = splitKeys(nonce);
+        byte[] expected = Blake2b.mac(keys[2], pae(LOCAL_HEADER_BYTES, nonce, ciphertext, footer, new byte[0]), TAG_LENGTH);
+        if (!MessageDigest.isEqual(expected, tag)) {
+            throw new SignatureException("PASETO authentication tag does not match.");
+        }
+        return xchacha20(keys[0], keys[1], ciphertext);
+    }
+
+    /**
+     * Derives the encryption key, the XChaCha20 nonce and the authentication key for a nonce.
+     */
+    private byte[][] splitKeys(byte[] nonce) {
+        byte[] tmp = Blake2b.mac(localKey, concat(ENCRYPTION_KEY_INFO, nonce), 56);
+        byte[] authKey = Blake2b.mac(localKey, concat(AUTH_KEY_INFO, nonce), 32);
+        return new byte[][]{Arrays.copyOfRange(tmp, 0, 32), Arrays.copyOfRange(tmp, 32, 56), authKey};
+    }
+
+    private static byte[] payload(List<Object> claims, String jti, long issuedAt, long expiration) {
+        List<Object> all = new ArrayList<>(claims.size() + 6);
+        all.addAll(claims);
+        all.add(Claims.ID);
+        all.add(jti);
+        all.add(Claims.ISSUED_AT);
+        all.add(Instant.ofEpochSecond(issuedAt).toString());
+        all.add(Claims.EXPIRATION);
+        all.add(Instant.ofEpochSecond(expiration).toString());
+        byte[] members = HmacJwtSigner.serialize(all);
+        if (members.length == 0) {
+            return null;
+        }
+        byte[] json = new byte[members.length + 2];
+        json[0] = '{';
+        System.arraycopy(members, 0, json, 1, members.length);
+        json[json.length - 1] = '}';
+        return json;
+    }
+
+    private static byte[] decode(String value) {
+        try {
+            return DECODER.decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid PASETO encoding", e);
+        }
+    }
+
+    /**
+     * Pre-Authentication Encoding: the piece count and each piece prefixed with its length,
+     * all as little-endian 64-bit integers.
+     */
+    private static byte[] pae(byte[]... pieces) {
+        int length = 8;
+        for (byte[] piece : pieces) {
+            length += 8 + piece.length;
+        }
+        byte[] out = new byte[length];
+        writeLittleEndian(out, 0, pieces.length);
+        int pos = 8;
+        for (byte[] piece : pieces) {
+            writeLittleEndian(out, pos, piece.length);
+            System.arraycopy(piece, 0, out, pos + 8, piece.length);
+            pos += 8 + piece.length;
+        }
+        return out;
+    }
+
+    private static void writeLittleEndian(byte[] out, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            out[offset + i] = (byte) (value >>> (8 * i));
+        }
+        out[offset + 7] &= 0x7f;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] part : parts) {
+            length += part.length;
+        }
+        byte[] out = new byte[length];
+        int pos = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, out, pos, part.length);
+            pos += part.length;
+        }
+        return out;
+    }
+
+    /**
+     * XChaCha20 stream cipher: an HChaCha20 subkey from the first 16 nonce bytes, then IETF
+     * ChaCha20 with the last 8 nonce bytes and an initial counter of 0.
+     */
+    private static byte[] xchacha20(byte[] key, byte[] nonce, byte[] input) {
+        byte[] subkey = hchacha20(key, nonce);
+        byte[] chachaNonce = new byte[12];
+        System.arraycopy(nonce, 16, chachaNonce, 4, 8);
+        try {
+            Cipher cipher = Cipher.getInstance("ChaCha20");
+            cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(subkey, "ChaCha20"), new ChaCha20ParameterSpec(chachaNonce, 0));
+            return cipher.doFinal(input);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("ChaCha20 is not available", e);
+        }
+    }
+
+    static byte[] hchacha20(byte[] key, byte[] nonce) {
+        int[] state = new int[16];
+        state[0] = 0x61707865;
+        state[1] = 0x3320646e;
+        state[2] = 0x79622d32;
+        state[3] = 0x6b206574;
+        for (int i = 0; i < 8; i++) {
+            state[4 + i] = readIntLittleEndian(key, i * 4);
+        }
+        for (int i = 0; i < 4; i++) {
+            state[12 + i] = readIntLittleEndian(nonce, i * 4);
+        }
+        for (int round = 0; round < 10; round++) {
+            quarterRound(state, 0, 4, 8, 12);
+            quarterRound(state, 1, 5, 9, 13);
+            quarterRound(state, 2, 6, 10, 14);
+            quarterRound(state, 3, 7, 11, 15);
+            quarterRound(state, 0, 5, 10, 15);
+            quarterRound(state, 1, 6, 11, 12);
+            quarterRound(state, 2, 7, 8, 13);
+            quarterRound(state, 3, 4, 9, 14);
+        }
+        byte[] subkey = new byte[32];
+        for (int i = 0; i < 4; i++) {
+            writeIntLittleEndian(subkey, i * 4, state[i]);
+            writeIntLittleEndian(subkey, 16 + i * 4, state[12 + i]);
+        }
+        return subkey;
+    }
+
+    private static void quarterRound(int[] x, int a, int b, int c, int d) {
+        x[a] += x[b];
+        x[d] = Integer.rotateLeft(x[d] ^ x[a], 16);
+        x[c] += x[d];
+        x[b] = Integer.rotateLeft(x[b] ^ x[c], 12);
+        x[a] += x[b];
+        x[d] = Integer.rotateLeft(x[d] ^ x[a], 8);
+        x[c] += x[d];
+        x[b] = Integer.rotateLeft(x[b] ^ x[c], 7);
+    }
+
+    private static int readIntLittleEndian(byte[] data, int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8
+                | (data[offset + 2] & 0xff) << 16 | (data[offset + 3] & 0xff) << 24;
+    }
+
+    private static void writeIntLittleEndian(byte[] out, int offset, int value) {
+        out[offset] = (byte) value;
+        out[offset + 1] = (byte) (value >>> 8);
+        out[offset + 2] = (byte) (value >>> 16);
+        out[offset + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * BLAKE2b (RFC 7693), keyed or not, with a variable output length, as used by {@code v4.local}.
+     */
+    static final class Blake2b {
+
+        private static final long[] IV = {
+                0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL, 0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+                0x510e527fade682d1L, 0x9b05688c2b3e6c1fL, 0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L};
+
+        private static final byte[][] SIGMA = {
+                {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15},
+                {14, 10, 4, 8, 9, 15, 13, 6, 1, 12, 0, 2, 11, 7, 5, 3},
+                {11, 8, 12, 0, 5, 2, 15, 13, 10, 14, 3, 6, 7, 1, 9, 4},
+                {7, 9, 3, 1, 13, 12, 11, 14, 2, 6, 5, 10, 4, 0, 15, 8},
+                {9, 0, 5, 7, 2, 4, 10, 15, 14, 1, 11, 12, 6, 8, 3, 13},
+                {2, 12, 6, 10, 0, 11, 8, 3, 4, 13, 7, 5, 15, 14, 1, 9},
+                {12, 5, 1, 15, 14, 13, 4, 10, 0, 7, 6, 3, 9, 2, 8, 11},
+                {13, 11, 7, 14, 12, 1, 3, 9, 5, 0, 15, 4, 8, 6, 2, 10},
+                {6, 15, 14, 9, 11, 3, 0, 8, 12, 2, 13, 7, 1, 4, 10, 5},
+                {10, 2, 8, 4, 7, 6, 1, 5, 15, 11, 9, 14, 3, 12, 13, 0}};
+
+        static byte[] mac(byte[] key, byte[] message, int outputLength) {
+            long[] h = IV.clone();
+            h[0] ^= 0x01010000L | ((long) key.length << 8) | outputLength;
+
+            // A key is padded to a full block and processed as the first block; without a key this is plain BLAKE2b
+            int keyBlock = key.length > 0 ? 128 : 0;
+            byte[] data = new byte[keyBlock + message.length];
+            System.arraycopy(key, 0, data, 0, key.length);
+            System.arraycopy(message, 0, data, keyBlock, message.length);
+
+            long[] m = new long[16];
+            int blocks = Math.max(1, (data.length + 127) / 128);
+            for (int block = 0; block < blocks; block++) {
+                int offset = block * 128;
+                boolean last = block == blocks - 1;
+                int available = Math.min(128, data.length - offset);
+                byte[] chunk = new byte[128];
+                System.arraycopy(data, offset, chunk, 0, available);
+                for (int i = 0; i < 16; i++) {
+                    m[i] = readLongLittleEndian(chunk, i * 8);
+                }
+                compress(h, m, offset + available, last);
+            }
+
+            byte[] out = new byte[outputLength];
+            for (int i = 0; i < outputLength; i++) {
+                out[i] = (byte) (h[i / 8] >>> (8 * (i % 8)));
+            }
+            return out;
+        }
+
+        private static void compress(long[] h, long[] m, long counter, boolean last) {
+            long[] v = new long[16];
+            System.arraycopy(h, 0, v, 0, 8);
+            System.arraycopy(IV, 0, v, 8, 8);
+            v[12] ^= counter;
+            if (last) {
+                v[14] = ~v[14];
+            }
+            for (int round = 0; round < 12; round++) {
+                byte[] s = SIGMA[round % 10];
+                mix(v, 0, 4, 8, 12, m[s[0]], m[s[1]]);
+                mix(v, 1, 5, 9, 13, m[s[2]], m[s[3]]);
+                mix(v, 2, 6, 10, 14, m[s[4]], m[s[5]]);
+                mix(v, 3, 7, 11, 15, m[s[6]], m[s[7]]);
+                mix(v, 0, 5, 10, 15, m[s[8]], m[s[9]]);
+                mix(v, 1, 6, 11, 12, m[s[10]], m[s[11]]);
+                mix(v, 2, 7, 8, 13, m[s[12]], m[s[13]]);
+                mix(v, 3, 4, 9, 14, m[s[14]], m[s[15]]);
+            }
+            for (int i = 0; i < 8; i++) {
+                h[i] ^= v[i] ^ v[i + 8];
+            }
+        }
+
+        private static void mix(long[] v, int a, int b, int c, int d, long x, long y) {
+            v[a] += v[b] + x;
+            v[d] = Long.rotateRight(v[d] ^ v[a], 32);
+            v[c] += v[d];
+            v[b] = Long.rotateRight(v[b] ^ v[c], 24);
+            v[a] += v[b] + y;
+            v[d] = Long.rotateRight(v[d] ^ v[a], 16);
+            v[c] += v[d];
+            v[b] = Long.rotateRight(v[b] ^ v[c], 63);
+        }
+
+        private static long readLongLittleEndian(byte[] data, int offset) {
+            long value = 0;
+            for (int i = 7; i >= 0; i--) {
+                value = (value << 8) | (data[offset + i] & 0xff);
+            }
+            return value;
+        }
+    }
+}
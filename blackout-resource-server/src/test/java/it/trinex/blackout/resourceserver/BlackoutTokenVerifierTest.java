@@ -0,0 +1,63 @@
+package it.trinex.blackout.resourceserver;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import it.trinex.blackout.security.BlackoutPrincipalFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+
+import java.util.Base64;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BlackoutTokenVerifierTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes();
+
+    private ResourceServerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResourceServerProperties();
+    }
+
+    @Test
+    void sharedSecretRequiresAnExplicitOptIn() {
+        properties.setSecret(Base64.getEncoder().encodeToString(SECRET));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, this::verifier);
+        assertTrue(e.getMessage().contains("allow-shared-secret"), e.getMessage());
+    }
+
+    @Test
+    void optedInSecretVerifiesJwts() {
+        properties.setSecret(Base64.getEncoder().encodeToString(SECRET));
+        properties.setAllowSharedSecret(true);
+
+        assertEquals("ada", verifier().verifyAccessToken(hs256Token()).getSubject());
+    }
+
+    @Test
+    void symmetricTokensAreRejectedWithoutASecret() {
+        assertNull(verifier().verifyAccessToken(hs256Token()));
+    }
+
+    private BlackoutTokenVerifier verifier() {
+        return new BlackoutTokenVerifier(properties, mock(BlackoutPrincipalFactory.class),
+                new KeyRing(properties, RestClient.create()), null);
+    }
+
+    private static String hs256Token() {
+        return Jwts.builder()
+                .subject("ada")
+                .id("jti-1")
+                .claim("token_type", "ACCESS")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET))
+                .compact();
+    }
+}
@@ -0,0 +1,117 @@
+package it.trinex.blackout.resourceserver;
+
+import it.trinex.blackout.service.PasetoTokenCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class KeyRingTest {
+
+    private static final String JWKS_URI = "https://issuer.example/.well-known/jwks.json";
+
+    private ResourceServerProperties properties;
+    private MockRestServiceServer server;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResourceServerProperties();
+        properties.setJwksUri(JWKS_URI);
+        RestClient.Builder builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).build();
+        restClient = builder.build();
+    }
+
+    @Test
+    void refreshLoadsKeysFromJwks() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        expectKeys(jwk("k1", rawKey(keyPair)));
+
+        KeyRing keyRing = new KeyRing(properties, restClient);
+        keyRing.refresh();
+
+        server.verify();
+        assertEquals(1, keyRing.getCodecs().size());
+        assertEquals("alice", keyRing.getCodecs().getFirst().verify(sign(keyPair)).getSubject());
+    }
+
+    @Test
+    void refreshSkipsMalformedKeys() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        String shortKey = Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[16]);
+        expectKeys(jwk("short", shortKey), jwk("garbage", "not*base64"), jwk("valid", rawKey(keyPair)),
+                "{\"kty\":\"EC\",\"crv\":\"P-256\",\"kid\":\"ec\",\"x\":\"AAAA\"}");
+
+        KeyRing keyRing = new KeyRing(properties, restClient);
+        keyRing.refresh();
+
+        assertEquals(1, keyRing.getCodecs().size());
+        assertEquals("alice", keyRing.getCodecs().getFirst().verify(sign(keyPair)).getSubject());
+    }
+
+    @Test
+    void failedRefreshKeepsKnownKeys() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        expectKeys(jwk("k1", rawKey(keyPair)));
+        server.expect(requestTo(JWKS_URI)).andRespond(withServerError());
+
+        KeyRing keyRing = new KeyRing(properties, restClient);
+        keyRing.refresh();
+        List<PasetoTokenCodec> loaded = keyRing.getCodecs();
+        keyRing.refresh();
+
+        server.verify();
+        assertSame(loaded, keyRing.getCodecs());
+    }
+
+    @Test
+    void configuredKeysSurviveRefresh() throws Exception {
+        KeyPair configured = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        KeyPair fetched = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        properties.setPublicKeys(List.of(Base64.getEncoder().encodeToString(raw(configured))));
+        expectKeys(jwk("k1", rawKey(fetched)));
+
+        KeyRing keyRing = new KeyRing(properties, restClient);
+        keyRing.refresh();
+
+        assertEquals(2, keyRing.getCodecs().size());
+        assertEquals("alice", keyRing.getCodecs().getFirst().verify(sign(configured)).getSubject());
+    }
+
+    private void expectKeys(String... jwks) {
+        server.expect(requestTo(JWKS_URI))
+                .andRespond(withSuccess("{\"keys\":[" + String.join(",", jwks) + "]}", MediaType.APPLICATION_JSON));
+    }
+
+    private static String jwk(String kid, String x) {
+        return "{\"kty\":\"OKP\",\"crv\":\"Ed25519\",\"kid\":\"" + kid + "\",\"x\":\"" + x + "\"}";
+    }
+
+    private static String rawKey(KeyPair keyPair) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw(keyPair));
+    }
+
+    private static byte[] raw(KeyPair keyPair) {
+        byte[] encoded = keyPair.getPublic().getEncoded();
+        return Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length);
+    }
+
+    private static String sign(KeyPair keyPair) {
+        long now = System.currentTimeMillis() / 1000;
+        return new PasetoTokenCodec(null, keyPair.getPrivate(), null)
+                .signPublic(List.of("sub", "alice"), "jti-1", now, now + 300);
+    }
+}
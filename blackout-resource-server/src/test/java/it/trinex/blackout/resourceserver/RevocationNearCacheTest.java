@@ -0,0 +1,133 @@
+package it.trinex.blackout.resourceserver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class RevocationNearCacheTest {
+
+    private StringRedisTemplate redisTemplate;
+    private RedisKeyCommands keyCommands;
+    private List<String> pttlKeys;
+    private List<Object> ttls;
+    private RevocationNearCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        keyCommands = mock(RedisKeyCommands.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        pttlKeys = new ArrayList<>();
+        ttls = new ArrayList<>();
+        when(keyCommands.pTtl(any())).thenAnswer(invocation -> {
+            pttlKeys.add(new String(invocation.<byte[]>getArgument(0), StandardCharsets.UTF_8));
+            return null;
+        });
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            int from = pttlKeys.size();
+            invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+            return new ArrayList<>(ttls.subList(from, pttlKeys.size()));
+        });
+        cache = new RevocationNearCache(redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void preloadReadsTtlsInOnePipeline() {
+        scan("revoked:access:a", "revoked:access:b", "revoked:access:c");
+        ttls.addAll(List.of(60000L, -2L, -1L));
+
+        cache.init();
+
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        verify(redisTemplate, never()).getExpire(anyString(), any());
+        assertEquals(List.of("revoked:access:a", "revoked:access:b", "revoked:access:c"), pttlKeys);
+        assertTrue(cache.isRevoked("a"));
+        assertFalse(cache.isRevoked("b"));
+        assertFalse(cache.isRevoked("c"));
+    }
+
+    @Test
+    void preloadPipelinesPerScanBatch() {
+        String[] keys = IntStream.range(0, 1001).mapToObj(i -> "revoked:access:" + i).toArray(String[]::new);
+        scan(keys);
+        IntStream.range(0, keys.length).forEach(i -> ttls.add(60000L));
+
+        cache.init();
+
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+        assertEquals(1001, pttlKeys.size());
+        assertTrue(cache.isRevoked("0"));
+        assertTrue(cache.isRevoked("1000"));
+    }
+
+    @Test
+    void preloadWithoutRevocationsSkipsPipeline() {
+        scan();
+
+        cache.init();
+
+        verify(redisTemplate, never()).executePipelined(any(RedisCallback.class));
+        assertFalse(cache.isRevoked("a"));
+    }
+
+    @Test
+    void preloadFailureLeavesCacheEmpty() {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenThrow(new IllegalStateException("connection refused"));
+
+        assertDoesNotThrow(() -> cache.init());
+        assertFalse(cache.isRevoked("a"));
+    }
+
+    @Test
+    void messagesAddRevocations() {
+        scan();
+        cache.init();
+        long expiresAt = System.currentTimeMillis() / 1000 + 60;
+
+        cache.onMessage(message("jti-1:" + expiresAt), null);
+        cache.onMessage(message("jti-2:" + (expiresAt - 120)), null);
+        cache.onMessage(message("malformed"), null);
+
+        assertTrue(cache.isRevoked("jti-1"));
+        assertFalse(cache.isRevoked("jti-2"));
+        assertFalse(cache.isRevoked(null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scan(String... keys) {
+        Iterator<String> iterator = List.of(keys).iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage("blackout:revocations".getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,72 @@
+package it.trinex.blackout.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthoritySetTest {
+
+    @Test
+    void rolesAreAvailableWithAndWithoutPrefix() {
+        AuthoritySet authorities = AuthorityRegistry.forRoles(List.of("SET_TEST_ADMIN", "SET_TEST_USER"));
+
+        assertEquals(4, authorities.size());
+        assertTrue(authorities.containsRole("SET_TEST_ADMIN"));
+        assertTrue(authorities.containsRole("ROLE_SET_TEST_USER"));
+        assertTrue(authorities.containsAuthority("ROLE_SET_TEST_ADMIN"));
+        assertTrue(authorities.containsAuthority("SET_TEST_USER"));
+        assertFalse(authorities.containsRole("SET_TEST_AUDITOR"));
+        assertFalse(authorities.containsAuthority("never-interned"));
+    }
+
+    @Test
+    void roleSetsAreCachedAndShareInternedAuthorities() {
+        AuthoritySet first = AuthorityRegistry.forRoles(List.of("SET_TEST_CACHED"));
+        AuthoritySet second = AuthorityRegistry.forRoles(new ArrayList<>(List.of("SET_TEST_CACHED")));
+
+        assertSame(first, second);
+        assertSame(AuthorityRegistry.intern("ROLE_SET_TEST_CACHED"), AuthorityRegistry.intern("ROLE_SET_TEST_CACHED"));
+    }
+
+    @Test
+    void duplicatesAreCollapsed() {
+        AuthoritySet authorities = AuthorityRegistry.of(List.of("SET_TEST_A", "SET_TEST_B", "SET_TEST_A"));
+
+        assertEquals(2, authorities.size());
+        List<String> names = new ArrayList<>();
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        assertEquals(List.of("SET_TEST_A", "SET_TEST_B"), names);
+    }
+
+    @Test
+    void containsAcceptsAnyGrantedAuthority() {
+        AuthoritySet authorities = AuthorityRegistry.of(List.of("SET_TEST_READ"));
+
+        assertTrue(authorities.contains(new SimpleGrantedAuthority("SET_TEST_READ")));
+        assertTrue(authorities.contains((GrantedAuthority) () -> "SET_TEST_READ"));
+        assertFalse(authorities.contains("SET_TEST_READ"));
+        assertFalse(authorities.contains((GrantedAuthority) () -> null));
+    }
+
+    @Test
+    void idsBeyondTheFirstWordAreSupported() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            names.add("SET_TEST_MANY_" + i);
+        }
+        AuthoritySet authorities = AuthorityRegistry.of(names);
+
+        assertEquals(130, authorities.size());
+        assertTrue(authorities.containsAuthority("SET_TEST_MANY_129"));
+        assertTrue(authorities.containsId(AuthorityRegistry.idOf("SET_TEST_MANY_64")));
+        assertFalse(authorities.containsId(-1));
+        assertFalse(authorities.containsId(Integer.MAX_VALUE));
+    }
+}
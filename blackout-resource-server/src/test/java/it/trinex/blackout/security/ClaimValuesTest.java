@@ -0,0 +1,56 @@
+package it.trinex.blackout.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimValuesTest {
+
+    enum Tier { FREE, PRO }
+
+    @Test
+    void nullKeepsWrappersNullAndPrimitivesAtDefault() {
+        assertNull(ClaimValues.asString(null));
+        assertNull(ClaimValues.asLong(null));
+        assertNull(ClaimValues.asInteger(null));
+        assertNull(ClaimValues.asDouble(null));
+        assertNull(ClaimValues.asBoolean(null));
+        assertNull(ClaimValues.asEnum(null, Tier.class));
+        assertNull(ClaimValues.enumName(null));
+
+        assertEquals(0L, ClaimValues.asLongValue(null));
+        assertEquals(0, ClaimValues.asIntValue(null));
+        assertEquals(0.0, ClaimValues.asDoubleValue(null));
+        assertFalse(ClaimValues.asBooleanValue(null));
+    }
+
+    @Test
+    void numbersAreNarrowedFromAnyNumberType() {
+        // JSON parsers hand back Integer, Long or BigInteger depending on the magnitude
+        assertEquals(Long.valueOf(42), ClaimValues.asLong(42));
+        assertEquals(Long.valueOf(42), ClaimValues.asLong(BigInteger.valueOf(42)));
+        assertEquals(Integer.valueOf(7), ClaimValues.asInteger(7L));
+        assertEquals(Double.valueOf(1.5), ClaimValues.asDouble(1.5f));
+        assertEquals(3.0, ClaimValues.asDoubleValue(3));
+    }
+
+    @Test
+    void stringsAreParsed() {
+        assertEquals(42L, ClaimValues.asLongValue("42"));
+        assertEquals(7, ClaimValues.asIntValue("7"));
+        assertEquals(2.5, ClaimValues.asDoubleValue("2.5"));
+        assertTrue(ClaimValues.asBooleanValue("true"));
+        assertFalse(ClaimValues.asBooleanValue("yes"));
+        assertEquals("12", ClaimValues.asString(12));
+        assertThrows(NumberFormatException.class, () -> ClaimValues.asLong("x"));
+    }
+
+    @Test
+    void enumsRoundTripByName() {
+        assertEquals("PRO", ClaimValues.enumName(Tier.PRO));
+        assertEquals(Tier.PRO, ClaimValues.asEnum("PRO", Tier.class));
+        assertThrows(IllegalArgumentException.class, () -> ClaimValues.asEnum("GOLD", Tier.class));
+    }
+}
@@ -0,0 +1,100 @@
+package it.trinex.blackout.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JwtClaimsAuthenticationTest {
+
+    private Claims claims;
+    private ClaimsPrincipalResolver resolver;
+    private BlackoutUserPrincipal principal;
+
+    @BeforeEach
+    void setUp() {
+        claims = Jwts.claims().subject("ada").build();
+        resolver = mock(ClaimsPrincipalResolver.class);
+        principal = BlackoutUserPrincipal.builder()
+                .username("ada")
+                .authorities(AuthorityUtils.createAuthorityList("ROLE_USER"))
+                .build();
+        when(resolver.extractUserPrincipal(claims)).thenReturn(principal);
+        doReturn(AuthorityUtils.createAuthorityList("ROLE_USER")).when(resolver).extractAuthorities(claims);
+    }
+
+    @Test
+    void nameAndAuthenticationDoNotBuildThePrincipal() {
+        JwtClaimsAuthentication authentication = new JwtClaimsAuthentication(claims, resolver, new MockHttpServletRequest());
+
+        assertEquals("ada", authentication.getName());
+        assertTrue(authentication.isAuthenticated());
+        assertSame(claims, authentication.getClaims());
+        assertNull(authentication.getCredentials());
+
+        verifyNoInteractions(resolver);
+    }
+
+    @Test
+    void principalIsBuiltOnce() {
+        JwtClaimsAuthentication authentication = new JwtClaimsAuthentication(claims, resolver, null);
+
+        assertSame(principal, authentication.getPrincipal());
+        assertSame(principal, authentication.getPrincipal());
+
+        verify(resolver, times(1)).extractUserPrincipal(claims);
+    }
+
+    @Test
+    void authoritiesAloneDoNotBuildThePrincipal() {
+        JwtClaimsAuthentication authentication = new JwtClaimsAuthentication(claims, resolver, null);
+
+        Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
+
+        assertEquals(List.of("ROLE_USER"), AuthorityUtils.authorityListToSet(authorities).stream().toList());
+        assertSame(authorities, authentication.getAuthorities());
+        verify(resolver, never()).extractUserPrincipal(any());
+    }
+
+    @Test
+    void authoritiesComeFromAnAlreadyBuiltPrincipal() {
+        JwtClaimsAuthentication authentication = new JwtClaimsAuthentication(claims, resolver, null);
+
+        authentication.getPrincipal();
+
+        assertSame(principal.getAuthorities(), authentication.getAuthorities());
+        verify(resolver, never()).extractAuthorities(any());
+    }
+
+    @Test
+    void detailsAreBuiltFromTheRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        JwtClaimsAuthentication authentication = new JwtClaimsAuthentication(claims, resolver, request);
+
+        WebAuthenticationDetails details = (WebAuthenticationDetails) authentication.getDetails();
+
+        assertEquals("10.0.0.1", details.getRemoteAddress());
+        assertSame(details, authentication.getDetails());
+    }
+
+    @Test
+    void canOnlyBeMarkedUntrusted() {
+        JwtClaimsAuthentication authentication = new JwtClaimsAuthentication(claims, resolver, null);
+
+        assertThrows(IllegalArgumentException.class, () -> authentication.setAuthenticated(true));
+        authentication.setAuthenticated(false);
+        assertFalse(authentication.isAuthenticated());
+    }
+}
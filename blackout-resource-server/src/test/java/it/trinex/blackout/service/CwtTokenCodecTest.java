@@ -0,0 +1,169 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CwtTokenCodecTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private CwtTokenCodec codec;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        codec = new CwtTokenCodec(SECRET);
+        now = System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    void claimsRoundTrip() {
+        String jti = UUID.randomUUID().toString();
+        List<Object> claims = List.of(
+                "sub", "ada@example.com",
+                "token_type", "ACCESS",
+                "auth_id", 7L,
+                "user_id", 5_000_000_000L,
+                "roles", List.of("ADMIN", "USER"),
+                "first_name", "Zoë 日本",
+                "passkey_enabled", true,
+                "passwordless_enabled", false,
+                "score", 1.5,
+                "offset", -42);
+
+        String token = codec.sign(claims, jti, now, now + 60);
+        Claims verified = codec.verify(token);
+
+        assertTrue(token.startsWith(CwtTokenCodec.PREFIX));
+        assertEquals("ada@example.com", verified.getSubject());
+        assertEquals(jti, verified.getId());
+        assertEquals(now * 1000, verified.getIssuedAt().getTime());
+        assertEquals((now + 60) * 1000, verified.getExpiration().getTime());
+        assertEquals("ACCESS", verified.get("token_type"));
+        assertEquals(7, verified.get("auth_id"));
+        assertEquals(5_000_000_000L, verified.get("user_id"));
+        assertEquals(List.of("ADMIN", "USER"), verified.get("roles"));
+        assertEquals("Zoë 日本", verified.get("first_name"));
+        assertEquals(Boolean.TRUE, verified.get("passkey_enabled"));
+        assertEquals(Boolean.FALSE, verified.get("passwordless_enabled"));
+        assertEquals(1.5, verified.get("score"));
+        assertEquals(-42, verified.get("offset"));
+    }
+
+    @Test
+    void blackoutClaimsUseIntegerKeys() {
+        String token = codec.sign(List.of("roles", List.of("USER"), "custom_claim", "x"), "id", now, now + 60);
+        String payload = new String(decode(token), StandardCharsets.ISO_8859_1);
+
+        // roles is registered, any other claim keeps its name as a text key
+        assertFalse(payload.contains("roles"));
+        assertTrue(payload.contains("custom_claim"));
+        assertEquals(List.of("USER"), codec.verify(token).get("roles"));
+    }
+
+    @Test
+    void nonUuidTokenIdsRoundTrip() {
+        assertEquals("refresh-1", codec.verify(codec.sign(List.of(), "refresh-1", now, now + 60)).getId());
+    }
+
+    @Test
+    void unsupportedValuesAreLeftToJwt() {
+        assertNull(codec.sign(List.of("address", Map.of("city", "Rome")), "id", now, now + 60));
+        List<Object> withNull = new ArrayList<>();
+        withNull.add(null);
+        assertNull(codec.sign(List.of("list", withNull), "id", now, now + 60));
+    }
+
+    @Test
+    void tamperedTagIsRejected() {
+        byte[] data = decode(codec.sign(List.of("sub", "ada"), "id", now, now + 60));
+        data[data.length - 1] ^= 1;
+
+        assertThrows(SignatureException.class, () -> codec.verify(encode(data)));
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String token = codec.sign(List.of("sub", "ada"), "id", now, now + 60);
+        byte[] data = decode(token);
+        byte[] ada = "ada".getBytes(StandardCharsets.US_ASCII);
+        int at = indexOf(data, ada);
+        data[at] = 'e';
+
+        assertThrows(SignatureException.class, () -> codec.verify(encode(data)));
+    }
+
+    @Test
+    void otherKeyIsRejected() {
+        String token = new CwtTokenCodec("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII))
+                .sign(List.of("sub", "ada"), "id", now, now + 60);
+
+        assertThrows(SignatureException.class, () -> codec.verify(token));
+    }
+
+    @Test
+    void truncatedInputIsMalformed() {
+        byte[] data = decode(codec.sign(List.of("sub", "ada", "roles", List.of("USER")), "id", now, now + 60));
+
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(MalformedJwtException.class, () -> codec.verify(encode(truncated)), "length " + length);
+        }
+        assertThrows(MalformedJwtException.class, () -> codec.verify(CwtTokenCodec.PREFIX + "not base64!"));
+    }
+
+    @Test
+    void trailingBytesAreMalformed() {
+        byte[] data = decode(codec.sign(List.of("sub", "ada"), "id", now, now + 60));
+        byte[] extended = Arrays.copyOf(data, data.length + 1);
+
+        assertThrows(MalformedJwtException.class, () -> codec.verify(encode(extended)));
+    }
+
+    @Test
+    void expiredTokensAreRejected() {
+        String token = codec.sign(List.of("sub", "ada"), "id", now - 120, now - 60);
+
+        ExpiredJwtException e = assertThrows(ExpiredJwtException.class, () -> codec.verify(token));
+        assertEquals("ada", e.getClaims().getSubject());
+    }
+
+    @Test
+    void notBeforeIsEnforced() {
+        String token = codec.sign(List.of("sub", "ada", "nbf", now + 60), "id", now, now + 120);
+
+        assertThrows(PrematureJwtException.class, () -> codec.verify(token));
+    }
+
+    private static byte[] decode(String token) {
+        return Base64.getUrlDecoder().decode(token.substring(CwtTokenCodec.PREFIX.length()));
+    }
+
+    private static String encode(byte[] data) {
+        return CwtTokenCodec.PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(data);
+    }
+
+    private static int indexOf(byte[] data, byte[] part) {
+        for (int i = 0; i <= data.length - part.length; i++) {
+            if (Arrays.equals(data, i, i + part.length, part, 0, part.length)) {
+                return i;
+            }
+        }
+        throw new AssertionError("not found");
+    }
+}
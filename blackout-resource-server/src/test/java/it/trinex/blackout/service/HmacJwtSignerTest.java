@@ -0,0 +1,139 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Signs with the template signer and parses with jjwt, for every value type the signer writes itself.
+ */
+class HmacJwtSignerTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    enum Tier { FREE, PRO }
+
+    private HmacJwtSigner signer;
+    private SecretKey key;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        signer = new HmacJwtSigner(SECRET);
+        key = Keys.hmacShaKeyFor(SECRET);
+        now = System.currentTimeMillis() / 1000;
+    }
+
+    @Test
+    void everyClaimTypeRoundTripsThroughJjwt() {
+        Map<String, Object> address = new LinkedHashMap<>();
+        address.put("city", "Rome");
+        address.put("zip", 100);
+        address.put("tags", List.of("home"));
+
+        List<Object> claims = new ArrayList<>(List.of(
+                "sub", "ada@example.com",
+                "token_type", "ACCESS",
+                "passkey_enabled", true,
+                "int", 42,
+                "long", 5_000_000_000L,
+                "short", (short) 7,
+                "byte", (byte) -3,
+                "double", 1.25,
+                "float", 0.5f,
+                "tier", Tier.PRO,
+                "roles", List.of("ADMIN", "USER"),
+                "scopes", new LinkedHashSet<>(List.of("read", "write")),
+                "names", new String[]{"a", "b"},
+                "codes", new int[]{1, 2, 3},
+                "address", address));
+        claims.add("manager");
+        claims.add(null);
+
+        Claims parsed = parse(signer.sign(claims, "3f1c", now, now + 60));
+
+        assertEquals("ada@example.com", parsed.getSubject());
+        assertEquals("3f1c", parsed.getId());
+        assertEquals(new Date(now * 1000), parsed.getIssuedAt());
+        assertEquals(new Date((now + 60) * 1000), parsed.getExpiration());
+        assertEquals("ACCESS", parsed.get("token_type"));
+        assertEquals(Boolean.TRUE, parsed.get("passkey_enabled"));
+        assertEquals(42, parsed.get("int"));
+        assertEquals(5_000_000_000L, parsed.get("long"));
+        assertEquals(7, parsed.get("short"));
+        assertEquals(-3, parsed.get("byte"));
+        assertEquals(1.25, parsed.get("double"));
+        assertEquals(0.5, parsed.get("float"));
+        assertEquals("PRO", parsed.get("tier"));
+        assertEquals(List.of("ADMIN", "USER"), parsed.get("roles"));
+        assertEquals(List.of("read", "write"), parsed.get("scopes"));
+        assertEquals(List.of("a", "b"), parsed.get("names"));
+        assertEquals(List.of(1, 2, 3), parsed.get("codes"));
+        assertEquals(address, parsed.get("address"));
+        assertNull(parsed.get("manager"));
+    }
+
+    @Test
+    void stringsNeedingEscapesRoundTrip() {
+        String value = "quote \" backslash \\ slash / tab \t newline \n return \r control \u0001 é 日本 🔐";
+        Claims parsed = parse(signer.sign(List.of("sub", value, "note", value), "id \"1\"", now, now + 60));
+
+        assertEquals(value, parsed.getSubject());
+        assertEquals(value, parsed.get("note"));
+        assertEquals("id \"1\"", parsed.getId());
+    }
+
+    @Test
+    void emptyStaticClaimsRoundTrip() {
+        Claims parsed = parse(signer.sign(List.of(), "3f1c", now, now + 60));
+
+        assertEquals("3f1c", parsed.getId());
+        assertNull(parsed.getSubject());
+    }
+
+    @Test
+    void cachedTemplateOnlyChangesDynamicClaims() {
+        List<Object> claims = List.of("sub", "ada@example.com", "roles", List.of("USER"));
+
+        Claims first = parse(signer.sign(claims, "first", now, now + 60));
+        Claims second = parse(signer.sign(new ArrayList<>(claims), "second", now + 1, now + 61));
+
+        assertEquals("first", first.getId());
+        assertEquals("second", second.getId());
+        assertEquals(first.getSubject(), second.getSubject());
+        assertEquals(first.get("roles"), second.get("roles"));
+        assertEquals(new Date((now + 61) * 1000), second.getExpiration());
+    }
+
+    @Test
+    void unsupportedValuesAreLeftToJjwt() {
+        assertNull(signer.sign(List.of("since", new Date()), "3f1c", now, now + 60));
+        assertNull(signer.sign(List.of("ratio", Double.NaN), "3f1c", now, now + 60));
+        assertNull(signer.sign(List.of("map", Map.of(1, "one")), "3f1c", now, now + 60));
+    }
+
+    @Test
+    void fastVerifierAcceptsSignedTokens() {
+        String token = signer.sign(List.of("sub", "ada@example.com"), "3f1c", now, now + 60);
+
+        assertEquals("ada@example.com", new HmacJwtVerifier(SECRET).verify(token).getSubject());
+    }
+
+    private Claims parse(String token) {
+        assertNotNull(token);
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,190 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the fast path accepts and rejects the same tokens as jjwt and returns the same claims.
+ */
+class HmacJwtVerifierTest {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private SecretKey key;
+    private HmacJwtVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        key = Keys.hmacShaKeyFor(SECRET);
+        verifier = new HmacJwtVerifier(SECRET);
+    }
+
+    @Test
+    void validTokenMatchesJjwt() {
+        String token = Jwts.builder()
+                .subject("ada@example.com")
+                .id("3f1c")
+                .claim("token_type", "ACCESS")
+                .claim("auth_id", 42)
+                .claim("user_id", 5_000_000_000L)
+                .claim("score", 1.5)
+                .claim("passkey_enabled", true)
+                .claim("manager", null)
+                .claim("roles", List.of("ADMIN", "USER"))
+                .claim("address", Map.of("city", "Rome"))
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(key)
+                .compact();
+
+        Claims expected = parse(token);
+        Claims actual = verifier.verify(token);
+
+        assertNotNull(actual);
+        assertEquals(expected.getSubject(), actual.getSubject());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getIssuedAt(), actual.getIssuedAt());
+        assertEquals(expected.getExpiration(), actual.getExpiration());
+        for (String name : List.of("token_type", "auth_id", "user_id", "score", "passkey_enabled", "roles", "address")) {
+            assertEquals(expected.get(name), actual.get(name), name);
+            assertEquals(expected.get(name).getClass(), actual.get(name).getClass(), name);
+        }
+        assertFalse(actual.containsKey("manager"));
+    }
+
+    @Test
+    void tamperedPayloadFailsLikeJjwt() {
+        String token = Jwts.builder()
+                .subject("ada@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(key)
+                .compact();
+        String[] parts = token.split("\\.");
+        String payload = encode("{\"sub\":\"eve@example.com\",\"exp\":" + (System.currentTimeMillis() / 1000 + 60) + "}");
+        String tampered = parts[0] + "." + payload + "." + parts[2];
+
+        assertThrows(SignatureException.class, () -> parse(tampered));
+        assertThrows(SignatureException.class, () -> verifier.verify(tampered));
+    }
+
+    @Test
+    void otherKeyFailsLikeJjwt() {
+        String token = Jwts.builder()
+                .subject("ada@example.com")
+                .signWith(Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII)))
+                .compact();
+
+        assertThrows(SignatureException.class, () -> parse(token));
+        assertThrows(SignatureException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void expiredTokenFailsLikeJjwt() {
+        String token = Jwts.builder()
+                .subject("ada@example.com")
+                .expiration(new Date(System.currentTimeMillis() - 2_000))
+                .signWith(key)
+                .compact();
+
+        ExpiredJwtException expected = assertThrows(ExpiredJwtException.class, () -> parse(token));
+        ExpiredJwtException actual = assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+        assertEquals(expected.getClaims().getSubject(), actual.getClaims().getSubject());
+    }
+
+    @Test
+    void notBeforeIsLeftToJjwt() {
+        String token = Jwts.builder()
+                .subject("ada@example.com")
+                .notBefore(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(key)
+                .compact();
+
+        assertNull(verifier.verify(token));
+        assertEquals("ada@example.com", parse(token).getSubject());
+    }
+
+    @Test
+    void escapedStringsMatchJjwt() {
+        String value = "quote \" backslash \\ slash / tab \t newline \n control \u0001 bell \u0007";
+        String token = Jwts.builder()
+                .subject("ada@example.com")
+                .claim("note", value)
+                .signWith(key)
+                .compact();
+
+        assertEquals(value, parse(token).get("note"));
+        assertEquals(value, verifier.verify(token).get("note"));
+    }
+
+    @Test
+    void nonAsciiStringsMatchJjwt() {
+        String value = "Zoë Ñúñez 日本語 🔐";
+        String token = Jwts.builder()
+                .subject("zoë@example.com")
+                .claim("first_name", value)
+                .signWith(key)
+                .compact();
+
+        Claims actual = verifier.verify(token);
+        assertEquals(parse(token).get("first_name"), actual.get("first_name"));
+        assertEquals(value, actual.get("first_name"));
+        assertEquals("zoë@example.com", actual.getSubject());
+    }
+
+    @Test
+    void unicodeEscapesAreDecoded() {
+        // Jackson writes raw UTF-8, so escaped forms only come from other issuers
+        String token = sign("{\"alg\":\"HS256\"}", "{\"sub\":\"\\u00e9\\ud83d\\udd10\"}");
+
+        assertEquals("é🔐", parse(token).getSubject());
+        assertEquals("é🔐", verifier.verify(token).getSubject());
+    }
+
+    @Test
+    void unknownHeadersAndMalformedTokensFallBack() {
+        assertNull(verifier.verify(sign("{\"alg\":\"HS256\",\"kid\":\"1\"}", "{\"sub\":\"ada\"}")));
+        assertNull(verifier.verify(sign("{\"alg\":\"HS256\"}", "[\"ada\"]")));
+        assertNull(verifier.verify(sign("{\"alg\":\"HS256\"}", "{\"sub\":\"ada\"")));
+        assertNull(verifier.verify("not-a-token"));
+        assertNull(verifier.verify(encode("{\"alg\":\"HS256\"}") + ".e30"));
+    }
+
+    private Claims parse(String token) {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Signs a hand-written header and payload, for JSON jjwt's builder would not emit.
+     */
+    private String sign(String header, String payload) {
+        String signingInput = encode(header) + "." + encode(payload);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
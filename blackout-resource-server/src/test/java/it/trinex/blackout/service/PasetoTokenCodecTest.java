@@ -0,0 +1,163 @@
+package it.trinex.blackout.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasetoTokenCodecTest {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    // Official PASETO test vectors (paseto-standard/test-vectors, v4.json)
+    private static final String V4_PUBLIC_KEY = "1eb9dbbbbc047c03fd70604e0071f0987e16b28b757225c11f00415d0e20b1a2";
+    private static final String V4_LOCAL_KEY = "707172737475767778797a7b7c7d7e7f808182838485868788898a8b8c8d8e8f";
+    private static final String VECTOR_4_S_1 = "v4.public.eyJkYXRhIjoidGhpcyBpcyBhIHNpZ25lZCBtZXNzYWdlIiwiZXhwIjoiMjAyMi0wMS0wMVQwMDowMDowMCswMDowMCJ9"
+            + "bg_XBBzds8lTZShVlwwKSgeKpLT3yukTw6JUz3W4h_ExsQV-P0V54zemZDcAxFaSeef1QlXEFtkqxT1ciiQEDA";
+    private static final String VECTOR_4_S_2 = "v4.public.eyJkYXRhIjoidGhpcyBpcyBhIHNpZ25lZCBtZXNzYWdlIiwiZXhwIjoiMjAyMi0wMS0wMVQwMDowMDowMCswMDowMCJ9"
+            + "v3Jt8mx_TdM2ceTGoqwrh4yDFn0XsHvvV_D0DtwQxVrJEBMl0F2caAdgnpKlt4p7xBnx1HcO-SPo8FPp214HDw"
+            + ".eyJraWQiOiJ6VmhNaVBCUDlmUmYyc25FY1Q3Z0ZUaW9lQTlDT2NOeTlEZmdMMVc2MGhhTiJ9";
+    private static final String VECTOR_4_E_1 = "v4.local.AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAQAr68PS4AXe7If_ZgesdkUMvSwscFlAl1pk5HC0e8kApeaqMfGo_7OpBnwJOAbY9V7WU6abu74MmcUE8YWAiaArVI8XJ5hOb_4v9RmDkneN0S92dx0OW4pgy7omxgf3S8c3LlQg";
+
+    @Test
+    void blake2bMatchesRfc7693() {
+        // RFC 7693, Appendix A: BLAKE2b-512("abc")
+        assertEquals("ba80a53f981c4d0d6a2797b69f12f6e94c212f14685ac4b74b12bb6fdbffa2d1"
+                        + "7d87c5392aab792dc252d5de4533cc9518d38aa8dbf1925ab92386edd4009923",
+                HEX.formatHex(PasetoTokenCodec.Blake2b.mac(new byte[0], "abc".getBytes(StandardCharsets.US_ASCII), 64)));
+    }
+
+    @Test
+    void keyedBlake2bMatchesReferenceVector() {
+        // BLAKE2 reference keyed KAT: key 00..3f, empty input
+        byte[] key = new byte[64];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        assertEquals("10ebb67700b1868efb4417987acf4690ae9d972fb7a590c2f02871799aaa4786"
+                        + "b5e996e8f0f4eb981fc214b005f42d2ff4233499391653df7aefcbc13fc51568",
+                HEX.formatHex(PasetoTokenCodec.Blake2b.mac(key, new byte[0], 64)));
+    }
+
+    @Test
+    void hchacha20MatchesXChaChaDraft() {
+        // draft-irtf-cfrg-xchacha, section 2.2.1
+        byte[] key = new byte[32];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (byte) i;
+        }
+        byte[] nonce = HEX.parseHex("000000090000004a0000000031415927");
+
+        assertEquals("82413b4227b27bfed30e42508a877d73a0f9e4d58a74a853c12ec41326d3ecdc",
+                HEX.formatHex(PasetoTokenCodec.hchacha20(key, nonce)));
+    }
+
+    @Test
+    void verifiesOfficialPublicVectors() throws GeneralSecurityException {
+        PasetoTokenCodec codec = new PasetoTokenCodec(null, null, publicKey(HEX.parseHex(V4_PUBLIC_KEY)));
+
+        // The vectors expired in 2022, so the verified claims come with the expiry exception
+        for (String vector : List.of(VECTOR_4_S_1, VECTOR_4_S_2)) {
+            ExpiredJwtException e = assertThrows(ExpiredJwtException.class, () -> codec.verify(vector));
+            assertEquals("this is a signed message", e.getClaims().get("data"));
+            assertEquals(1640995200000L, e.getClaims().getExpiration().getTime());
+        }
+    }
+
+    @Test
+    void decryptsOfficialLocalVector() {
+        PasetoTokenCodec codec = new PasetoTokenCodec(HEX.parseHex(V4_LOCAL_KEY), null, null);
+
+        ExpiredJwtException e = assertThrows(ExpiredJwtException.class, () -> codec.verify(VECTOR_4_E_1));
+        assertEquals("this is a secret message", e.getClaims().get("data"));
+    }
+
+    @Test
+    void tamperedVectorsAreRejected() throws GeneralSecurityException {
+        PasetoTokenCodec publicCodec = new PasetoTokenCodec(null, null, publicKey(HEX.parseHex(V4_PUBLIC_KEY)));
+        PasetoTokenCodec localCodec = new PasetoTokenCodec(HEX.parseHex(V4_LOCAL_KEY), null, null);
+
+        // Dropping the footer changes the pre-authentication encoding
+        assertThrows(SignatureException.class, () -> publicCodec.verify(VECTOR_4_S_2.substring(0, VECTOR_4_S_2.lastIndexOf('.'))));
+        assertThrows(SignatureException.class, () -> localCodec.verify(VECTOR_4_E_1 + ".eyJraWQiOiIxIn0"));
+        assertThrows(SignatureException.class, () -> localCodec.verify(flipLastByte(VECTOR_4_E_1, PasetoTokenCodec.LOCAL_HEADER)));
+        assertThrows(SignatureException.class, () -> publicCodec.verify(flipLastByte(VECTOR_4_S_1, PasetoTokenCodec.PUBLIC_HEADER)));
+    }
+
+    @Test
+    void publicTokensRoundTrip() throws GeneralSecurityException {
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        PasetoTokenCodec codec = new PasetoTokenCodec(null, keys.getPrivate(), keys.getPublic());
+        long now = System.currentTimeMillis() / 1000;
+
+        Claims claims = codec.verify(codec.signPublic(List.of("sub", "ada", "roles", List.of("USER")), "3f1c", now, now + 60));
+
+        assertEquals("ada", claims.getSubject());
+        assertEquals("3f1c", claims.getId());
+        assertEquals(List.of("USER"), claims.get("roles"));
+        assertEquals((now + 60) * 1000, claims.getExpiration().getTime());
+    }
+
+    @Test
+    void localTokensRoundTrip() {
+        PasetoTokenCodec codec = new PasetoTokenCodec(PasetoTokenCodec.deriveLocalKey(new byte[32]), null, null);
+        long now = System.currentTimeMillis() / 1000;
+
+        String token = codec.encryptLocal(List.of("sub", "ada", "first_name", "Zoë"), "3f1c", now, now + 60);
+        Claims claims = codec.verify(token);
+
+        assertFalse(token.contains("ada"));
+        assertEquals("ada", claims.getSubject());
+        assertEquals("Zoë", claims.get("first_name"));
+    }
+
+    @Test
+    void otherKeysAreRejected() throws GeneralSecurityException {
+        long now = System.currentTimeMillis() / 1000;
+        KeyPair keys = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        KeyPair other = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        String publicToken = new PasetoTokenCodec(null, keys.getPrivate(), null).signPublic(List.of("sub", "ada"), "1", now, now + 60);
+        String localToken = new PasetoTokenCodec(new byte[32], null, null).encryptLocal(List.of("sub", "ada"), "1", now, now + 60);
+
+        assertThrows(SignatureException.class, () -> new PasetoTokenCodec(null, null, other.getPublic()).verify(publicToken));
+        assertThrows(SignatureException.class, () -> new PasetoTokenCodec(HEX.parseHex(V4_LOCAL_KEY), null, null).verify(localToken));
+    }
+
+    @Test
+    void missingKeysAreReported() {
+        PasetoTokenCodec codec = new PasetoTokenCodec(null, null, null);
+        long now = System.currentTimeMillis() / 1000;
+
+        assertThrows(IllegalStateException.class, () -> codec.signPublic(List.of(), "1", now, now + 60));
+        assertThrows(IllegalStateException.class, () -> codec.encryptLocal(List.of(), "1", now, now + 60));
+        assertThrows(MalformedJwtException.class, () -> codec.verify(VECTOR_4_S_1));
+        assertThrows(IllegalArgumentException.class, () -> new PasetoTokenCodec(new byte[16], null, null));
+    }
+
+    private static PublicKey publicKey(byte[] raw) throws GeneralSecurityException {
+        byte[] x509 = new byte[12 + raw.length];
+        System.arraycopy(HEX.parseHex("302a300506032b6570032100"), 0, x509, 0, 12);
+        System.arraycopy(raw, 0, x509, 12, raw.length);
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(x509));
+    }
+
+    private static String flipLastByte(String token, String header) {
+        byte[] body = Base64.getUrlDecoder().decode(token.substring(header.length()));
+        body[body.length - 1] ^= 1;
+        return header + Base64.getUrlEncoder().withoutPadding().encodeToString(body);
+    }
+}
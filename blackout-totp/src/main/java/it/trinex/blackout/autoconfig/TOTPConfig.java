@@ -12,10 +12,17 @@ import dev.samstevens.totp.secret.SecretGenerator;
 import dev.samstevens.totp.time.NtpTimeProvider;
 import dev.samstevens.totp.time.SystemTimeProvider;
 import dev.samstevens.totp.time.TimeProvider;
+import it.trinex.blackout.controller.TOTPController;
 import it.trinex.blackout.properties.TOTPProperties;
+import it.trinex.blackout.repository.AuthAccountRepo;
+import it.trinex.blackout.service.CurrentUserService;
+import it.trinex.blackout.service.TOTPService;
+import it.trinex.blackout.service.throttle.LoginThrottle;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.AuthenticationManager;
 
 import java.net.UnknownHostException;
 
@@ -52,4 +59,14 @@ public class TOTPConfig {
         return new DefaultCodeVerifier(codeGenerator, timeProvider);
     }
 
+    @Bean
+    public TOTPService totpService(TOTPProperties tOTPProperties, SecretGenerator secretGenerator, AuthAccountRepo authAccountRepo, QrGenerator qrGenerator, CodeVerifier codeVerifier, CurrentUserService currentUserService, RecoveryCodeGenerator recoveryCodeGenerator, AuthenticationManager authenticationManager) {
+        return new TOTPService(tOTPProperties, secretGenerator, authAccountRepo, qrGenerator, codeVerifier, currentUserService, recoveryCodeGenerator, authenticationManager);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(name = "totpController")
+    public TOTPController totpController(TOTPService totpService, LoginThrottle loginThrottle) {
+        return new TOTPController(totpService, loginThrottle);
+    }
 }
@@ -15,6 +15,8 @@ import it.trinex.blackout.dto.response.TOTPRegistrationResponse;
 import it.trinex.blackout.repository.AuthAccountRepo;
 import it.trinex.blackout.service.CurrentUserService;
 import it.trinex.blackout.service.TOTPService;
+import it.trinex.blackout.service.throttle.LoginThrottle;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
 public class TOTPController {
 
     private final TOTPService totpService;
+    private final LoginThrottle loginThrottle;
 
     @PostMapping
     @Operation(summary = "Enable two-factor authentication", description = """
@@ -116,11 +119,14 @@ public class TOTPController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "2FA disabled successfully"),
         @ApiResponse(responseCode = "400", description = "Invalid credentials or recovery code"),
-        @ApiResponse(responseCode = "401", description = "Authentication failed")
+        @ApiResponse(responseCode = "401", description = "Authentication failed"),
+        @ApiResponse(responseCode = "429", description = "Too many attempts, see Retry-After")
     })
-    public ResponseEntity<Void> disable2FAWithRecovery(@RequestBody @Valid Disable2FAWithRecoveryRequest request) {
+    public ResponseEntity<Void> disable2FAWithRecovery(@RequestBody @Valid Disable2FAWithRecoveryRequest request, HttpServletRequest httpRequest) {
         log.debug("2FA disable with recovery code attempt");
+        loginThrottle.checkSubject(request.getSubject(), httpRequest);
         totpService.disable2FAWithRecoveryCode(request);
+        loginThrottle.recordSuccess(request.getSubject());
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
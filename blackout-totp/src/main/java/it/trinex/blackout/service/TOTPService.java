@@ -32,7 +32,7 @@ import java.util.List;
 
 @Service
 @RequiredArgsConstructor
-public class TOTPService {
+public class TOTPService implements SecondFactorVerifier {
 
     private final TOTPProperties properties;
     private final SecretGenerator secretGenerator;
@@ -122,6 +122,7 @@ public class TOTPService {
         return new TOTPRegistrationResponse(secret, qrURI);
     }
 
+    @Override
     public boolean verifyCode(String code, String secret) {
         return codeVerifier.isValidCode(secret, code);
     }
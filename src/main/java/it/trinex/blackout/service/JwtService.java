@@ -1,296 +0,0 @@
-package it.trinex.blackout.service;
-
-import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.SignatureException;
-import it.trinex.blackout.security.BlackoutPrincipalFactory;
-import it.trinex.blackout.security.BlackoutUserPrincipal;
-import it.trinex.blackout.properties.JwtProperties;
-import it.trinex.blackout.service.enums.TokenType;
-import it.trinex.blackout.service.redis.RedisService;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.stereotype.Service;
-
-import javax.crypto.SecretKey;
-import java.security.Key;
-import java.time.Instant;
-import java.util.Collection;
-import java.util.Date;
-import java.util.List;
-import java.util.UUID;
-import java.util.stream.Stream;
-
-@Slf4j
-@Service
-@RequiredArgsConstructor
-public class JwtService {
-
-    public static final String TOKEN_TYPE_CLAIM = "token_type";
-    private static final String AUTH_ID = "auth_id";
-    private static final String CLAIM_USERID = "user_id";
-    private static final String CLAIM_ROLE = "roles";
-    private static final String CLAIM_FIRSTNAME = "first_name";
-    private static final String CLAIM_LASTNAME = "last_name";
-    private static final String CLAIM_PASSKEY_ENABLED = "passkey_enabled";
-    private static final String CLAIM_PASSWORD_LESS_ENABLED = "passwordless_enabled";
-
-
-    private final JwtProperties jwtProperties;
-    private final BlackoutPrincipalFactory<? extends UserDetails> blackoutPrincipalFactory;
-    private final RedisService redisService;
-
-
-    // ========================================
-    // TOKEN GENERATION
-    // ========================================
-
-    /**
-     * Generates an access token for the given user principal.
-     * Token expiration is determined by the user's role (AuthAccountType).
-     * The token is automatically tracked for the user in Redis for revocation
-     * support.
-     *
-     * @param userPrincipal the authenticated user
-     * @return JWT access token string
-     */
-    public String generateAccessToken(BlackoutUserPrincipal userPrincipal) {
-        long expirationMs = jwtProperties.getAccessTokenExp();
-        String token = buildToken(userPrincipal, expirationMs, TokenType.ACCESS.name());
-        // redis tracking
-        String jti = extractJti(token);
-        Date expiration = extractExpiration(token);
-        redisService.trackUserToken(userPrincipal.getAuthId(), jti, expiration, "access");
-        return token;
-    }
-
-    public String generatePasskeyToken(BlackoutUserPrincipal userPrincipal) {
-        long expirationMs = jwtProperties.getAccessTokenExp();
-        return buildToken(userPrincipal, expirationMs, TokenType.PASSKEY.name());
-    }
-
-    /**
-     * Generates a refresh token for the given user principal.
-     * Refresh tokens have longer expiration times than access tokens.
-     * The token is automatically tracked for the user in Redis for revocation
-     * support.
-     *
-     * @param userPrincipal the authenticated user
-     * @return JWT refresh token string
-     */
-    public String generateRefreshToken(BlackoutUserPrincipal userPrincipal) {
-        long expirationMs = jwtProperties.getRefreshTokenExp();
-        String token = buildToken(userPrincipal, expirationMs, TokenType.REFRESH.name());
-        // redis tracking
-        String jti = extractJti(token);
-        Date expiration = extractExpiration(token);
-        redisService.trackUserToken(userPrincipal.getAuthId(), jti, expiration, "refresh");
-        return token;
-    }
-
-    /**
-     * Builds a JWT token with all user principal information as claims.
-     * Includes a unique JTI (JWT ID) for token revocation support.
-     */
-    private String buildToken(BlackoutUserPrincipal userPrincipal, long expirationMs, String tokenType) {
-        Instant now = Instant.now();
-        Instant expiration = now.plusMillis(expirationMs);
-        var builder = Jwts.builder()
-                .subject(userPrincipal.getUsername())
-                .id(UUID.randomUUID().toString())
-                .claim(TOKEN_TYPE_CLAIM, tokenType)
-                .claim(AUTH_ID, userPrincipal.getAuthId())
-                .claim(CLAIM_USERID, userPrincipal.getUserId())
-                .claim(CLAIM_ROLE, extractRoleFromAuthorities(userPrincipal.getAuthorities()))
-                .claim(CLAIM_FIRSTNAME, userPrincipal.getFirstName())
-                .claim(CLAIM_LASTNAME, userPrincipal.getLastName())
-                .claim(CLAIM_PASSKEY_ENABLED, userPrincipal.isPasskeyEnabled())
-                .claim(CLAIM_PASSWORD_LESS_ENABLED, userPrincipal.isPasswordlessEnabled())
-                .issuedAt(Date.from(now))
-                .expiration(Date.from(expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256);
-
-        userPrincipal.getExtraClaims().forEach(builder::claim);
-
-        return builder.compact();
-    }
-
-    // ========================================
-    // TOKEN VALIDATION
-    // ========================================
-
-    /**
-     * Validates if the token is a valid access token (not expired, valid
-     * signature).
-     *
-     * @param token the JWT token to validate
-     * @return true if token is valid, false otherwise
-     */
-    public boolean isTokenValid(String token, String requiredTokenType) {
-        try {
-            Claims claims = extractAllClaims(token);
-            String tokenType = claims.get(TOKEN_TYPE_CLAIM, String.class);
-            if(redisService.isAccessTokenRevoked(extractJti(token))) {
-                log.debug("Access token {} is revoked", extractJti(token));
-                return false;
-            }
-            return requiredTokenType.equals(tokenType) && !isTokenExpired(claims);
-        } catch (ExpiredJwtException e) {
-            log.debug("Token expired: {}", e.getMessage());
-            return false;
-        } catch (SignatureException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
-            log.warn("Invalid token: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Validates if the token is a valid refresh token (not expired, valid
-     * signature).
-     *
-     * @param token the JWT token to validate
-     * @return true if refresh token is valid, false otherwise
-     */
-    public boolean isRefreshTokenValid(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            String tokenType = claims.get(TOKEN_TYPE_CLAIM, String.class);
-            if(redisService.isRefreshTokenRevoked(extractJti(token))) {
-                log.debug("Refresh token {} is revoked", extractJti(token));
-                return false;
-            }
-            return TokenType.ACCESS.name().equals(tokenType) && !isTokenExpired(claims);
-        } catch (ExpiredJwtException e) {
-            log.debug("Refresh token expired: {}", e.getMessage());
-            return false;
-        } catch (SignatureException | MalformedJwtException | UnsupportedJwtException | IllegalArgumentException e) {
-            log.warn("Invalid refresh token: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Checks if a token is expired based on its claims.
-     */
-    private boolean isTokenExpired(Claims claims) {
-        Date expiration = claims.getExpiration();
-        return expiration.before(new Date());
-    }
-
-    // ========================================
-    // EXTRACT USER PRINCIPAL
-    // ========================================
-
-    /**
-     * Extracts the full JWTUserPrincipal from a JWT token.
-     * This reconstructs the user principal from all claims in the token.
-     * Use this method to get user information from a token on the client side
-     * or when you need to validate a token and get the user information.
-     *
-     * @param token the JWT token
-     * @return JWTUserPrincipal containing all user information
-     * @throws RuntimeException if token is invalid or expired
-     */
-    public UserDetails extractUserPrincipal(String token) {
-        Claims claims = extractAllClaims(token);
-
-        List<String> roles = claims.get(CLAIM_ROLE, List.class);
-
-        List<SimpleGrantedAuthority> authorities = roles.stream().flatMap(s -> Stream.of(
-                new SimpleGrantedAuthority(s),
-                new SimpleGrantedAuthority("ROLE_" + s)
-        )).toList();
-
-       return blackoutPrincipalFactory.fromClaims(claims, authorities);
-
-    }
-
-    /**
-     * Extracts the user's role (AuthAccountType) from a token.
-     */
-    public List<String> extractRole(String token) {
-        return extractAllClaims(token).get(CLAIM_ROLE, List.class);
-    }
-
-    /**
-     * Extracts the expiration date from a token.
-     */
-    public Date extractExpiration(String token) {
-        return extractAllClaims(token).getExpiration();
-    }
-
-    public String extractSubject(String token) {
-        return extractAllClaims(token).getSubject();
-    }
-
-    /**
-     * Extracts the JTI (JWT ID) from a token for revocation purposes.
-     */
-    public String extractJti(String token) {
-        return extractAllClaims(token).getId();
-    }
-
-    // ========================================
-    // HELPER METHODS
-    // ========================================
-
-    /**
-     * Extracts all claims from a JWT token.
-     */
-    public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    /**
-     * Extracts AuthAccountType from Spring Security authorities.
-     * Authorities are expected to contain a ROLE_ prefixed authority (e.g.
-     * "ROLE_ADMIN").
-     */
-    private List<String> extractRoleFromAuthorities(Collection<? extends GrantedAuthority> authorities) {
-        List<String> stringAuthorities = authorities.stream()
-                .map(GrantedAuthority::getAuthority)
-                .filter(auth -> auth.startsWith("ROLE_"))
-                .toList()
-                .stream()
-                .map(s -> s.substring(5))
-                .toList();
-
-        if (stringAuthorities.isEmpty()) {
-            throw new IllegalArgumentException("No valid role found in authorities");
-        }
-
-        return stringAuthorities;
-    }
-
-    /**
-     * Gets the signing key for JWT token signing and verification.
-     */
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtProperties.getSecret());
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    /**
-     * Calculates the expiration instant for an access token based on role.
-     */
-    public Instant calculateAccessTokenExpiration() {
-        long expirationMs = jwtProperties.getAccessTokenExp();
-        return Instant.now().plusMillis(expirationMs);
-    }
-
-    /**
-     * Calculates the expiration instant for a refresh token based on role.
-     */
-    public Instant calculateRefreshTokenExpiration() {
-        long expirationMs = jwtProperties.getRefreshTokenExp();
-        return Instant.now().plusMillis(expirationMs);
-    }
-}